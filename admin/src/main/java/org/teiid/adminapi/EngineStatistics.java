@@ -89,4 +89,23 @@ public interface EngineStatistics extends AdminObject, DomainAware {
 	 */
 	int getMaxWaitPlanWaterMark();
 	
+	/**
+	 * Number of plans included in the planning statistics.  Planning statistics 
+	 * are only collected if the org.teiid.planningStatistics option is enabled.
+	 * @return
+	 */
+	long getPlanningCount();
+	
+	/**
+	 * Total time spent resolving, validating, rewriting and planning user queries
+	 * @return
+	 */
+	long getTotalPlanningTimeInMilli();
+	
+	/**
+	 * Summary of the planning phases and the optimizer rules with the highest total time
+	 * @return
+	 */
+	String getPlanningRuleStatistics();
+	
 }
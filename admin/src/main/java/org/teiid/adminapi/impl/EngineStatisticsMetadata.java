@@ -37,6 +37,9 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
 	private int activePlanCount;
 	private int waitPlanCount;
 	private int maxWaitPlanCount;
+	private long planningCount;
+	private long totalPlanningTimeInMilli;
+	private String planningRuleStatistics;
 	
 	@Override
 	public int getSessionCount() {
@@ -93,6 +96,21 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
 		return maxWaitPlanCount;
 	}
 
+	@Override
+	public long getPlanningCount() {
+		return planningCount;
+	}
+	
+	@Override
+	public long getTotalPlanningTimeInMilli() {
+		return totalPlanningTimeInMilli;
+	}
+	
+	@Override
+	public String getPlanningRuleStatistics() {
+		return planningRuleStatistics;
+	}
+
 	public void setSessionCount(int sessionCount) {
 		this.sessionCount = sessionCount;
 	}
@@ -137,6 +155,18 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
 		this.maxWaitPlanCount = maxWaitPlanCount;
 	}
 
+	public void setPlanningCount(long planningCount) {
+		this.planningCount = planningCount;
+	}
+	
+	public void setTotalPlanningTimeInMilli(long totalPlanningTimeInMilli) {
+		this.totalPlanningTimeInMilli = totalPlanningTimeInMilli;
+	}
+	
+	public void setPlanningRuleStatistics(String planningRuleStatistics) {
+		this.planningRuleStatistics = planningRuleStatistics;
+	}
+
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("EngineStatistics:"); //$NON-NLS-1$
@@ -151,6 +181,8 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
 		sb.append("; activePlanCount ").append(activePlanCount); //$NON-NLS-1$
 		sb.append("; waitPlanCount ").append(waitPlanCount); //$NON-NLS-1$
 		sb.append("; maxWaitPlanCount ").append(maxWaitPlanCount); //$NON-NLS-1$
+		sb.append("; planningCount ").append(planningCount); //$NON-NLS-1$
+		sb.append("; totalPlanningTimeInMilli ").append(totalPlanningTimeInMilli); //$NON-NLS-1$
 		return sb.toString();
 	}
 }
@@ -22,6 +22,12 @@
 
 package org.teiid.metadata;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.teiid.core.types.DataTypeManager;
 
 /**
@@ -70,6 +76,8 @@ public class Column extends BaseColumn implements Comparable<Column> {
     private int charOctetLength;
     private volatile int distinctValues = -1;
     private volatile int nullValues = -1;
+    private volatile List<String> histogram;
+    private volatile Map<String, Float> mostCommonValues;
     private ColumnSet<?> parent;
     
     @Override
@@ -298,6 +306,40 @@ public class Column extends BaseColumn implements Comparable<Column> {
         this.nativeType = DataTypeManager.getCanonicalString(nativeType);
     }
     
+    /**
+     * Get the bounds of an equi-depth histogram over the non-null values.  
+     * Each bucket between consecutive bounds holds roughly the same number of rows.
+     * The bounds use the same string form as the minimum and maximum values.
+     * @return the bounds in ascending order or null if not known
+     */
+    public List<String> getHistogram() {
+		return histogram;
+	}
+    
+    public void setHistogram(List<String> histogram) {
+    	if (histogram == null || histogram.size() < 2) {
+    		this.histogram = null;
+    	} else {
+    		this.histogram = Collections.unmodifiableList(new ArrayList<String>(histogram));
+    	}
+	}
+    
+    /**
+     * Get the most common values and the fraction of the rows that have each value.
+     * @return the values in descending frequency order or null if not known
+     */
+    public Map<String, Float> getMostCommonValues() {
+		return mostCommonValues;
+	}
+    
+    public void setMostCommonValues(Map<String, Float> mostCommonValues) {
+    	if (mostCommonValues == null || mostCommonValues.isEmpty()) {
+    		this.mostCommonValues = null;
+    	} else {
+    		this.mostCommonValues = Collections.unmodifiableMap(new LinkedHashMap<String, Float>(mostCommonValues));
+    	}
+	}
+    
     public void setColumnStats(ColumnStats stats) {
     	if (stats.getDistinctValues() != null) {
 			setDistinctValues(stats.getDistinctValues().longValue());
@@ -311,6 +353,12 @@ public class Column extends BaseColumn implements Comparable<Column> {
 		if (stats.getMinimumValue() != null) {
 			setMinimumValue(stats.getMinimumValue());
 		}
+		if (stats.getHistogram() != null) {
+			setHistogram(stats.getHistogram());
+		}
+		if (stats.getMostCommonValues() != null) {
+			setMostCommonValues(stats.getMostCommonValues());
+		}
     }
 
 }
\ No newline at end of file
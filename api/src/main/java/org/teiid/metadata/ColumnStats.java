@@ -23,6 +23,8 @@
 package org.teiid.metadata;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
 
 public class ColumnStats implements Serializable {
 
@@ -32,6 +34,8 @@ public class ColumnStats implements Serializable {
     private Number nullValues;
     private String minimumValue;
     private String maximumValue;
+    private List<String> histogram;
+    private Map<String, Float> mostCommonValues;
 	
 	public String getMinimumValue() {
 		return minimumValue;
@@ -64,5 +68,27 @@ public class ColumnStats implements Serializable {
 	public void setNullValues(Number numNullValues) {
 		this.nullValues = numNullValues;
 	}
+	
+	/**
+	 * @see Column#getHistogram()
+	 */
+	public List<String> getHistogram() {
+		return histogram;
+	}
+	
+	public void setHistogram(List<String> histogram) {
+		this.histogram = histogram;
+	}
+	
+	/**
+	 * @see Column#getMostCommonValues()
+	 */
+	public Map<String, Float> getMostCommonValues() {
+		return mostCommonValues;
+	}
+	
+	public void setMostCommonValues(Map<String, Float> mostCommonValues) {
+		this.mostCommonValues = mostCommonValues;
+	}
     
 }
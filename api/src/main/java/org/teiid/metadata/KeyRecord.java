@@ -25,6 +25,12 @@ package org.teiid.metadata;
 public class KeyRecord extends ColumnSet<Table> {
 
 	private static final long serialVersionUID = -3526999525526556933L;
+	
+	/**
+	 * Comma separated list of non-key columns to store with an index.
+	 * Currently only used by internal materialized views.
+	 */
+	public static final String INCLUDE = AbstractMetadataRecord.RELATIONAL_URI + "include"; //$NON-NLS-1$
 
 	public enum Type {
 		Primary,
@@ -0,0 +1,279 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.teiid.core.util.NamedThreadFactory;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+
+/**
+ * Merges the values produced by background readers for a single execution.  The values are
+ * returned, in no particular order, as they become available.
+ * <br>
+ * The readers run on a {@link ReaderExecutor}, which is typically shared by all executions of an
+ * {@link ExecutionFactory} and bounds the number of reader threads.  Threads are reserved without
+ * blocking, so an execution that cannot reserve enough threads should read with fewer or serially instead.
+ * <br>
+ * {@link #next()} is called by the processing thread and throws {@link DataNotAvailableException#NO_POLLING}
+ * if the readers are behind.  The {@link ExecutionContext} is notified when a value is available or a reader completes.
+ *
+ * @param <T> the value type
+ */
+public class ConcurrentReads<T> {
+
+	private static final long OFFER_WAIT_MILLIS = 100;
+
+	public interface Reader<T> {
+
+		/**
+		 * Read the values, passing each to {@link ConcurrentReads#add(Object)}.  Should return
+		 * as soon as possible after add returns false.
+		 */
+		void read(ConcurrentReads<T> reads) throws Exception;
+
+	}
+
+	/**
+	 * Runs readers with at most a fixed number of threads
+	 */
+	public static class ReaderExecutor {
+
+		public static final int DEFAULT_MAX_THREADS = 64;
+
+		private ExecutorService executor;
+		private Semaphore threads;
+
+		public ReaderExecutor(String name, int maxThreads) {
+			this.executor = Executors.newCachedThreadPool(new NamedThreadFactory(name));
+			this.threads = new Semaphore(maxThreads);
+		}
+
+		/**
+		 * @return the number of threads that are not in use or reserved
+		 */
+		public int getAvailableThreads() {
+			return threads.availablePermits();
+		}
+
+		public void shutdown() {
+			executor.shutdownNow();
+		}
+
+	}
+
+	private ExecutionContext context;
+	private BlockingQueue<T> values;
+	private ReaderExecutor executor;
+	private int reserved;
+	private List<Future<?>> futures = new ArrayList<Future<?>>();
+	private AtomicInteger remaining = new AtomicInteger();
+	private AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+	private Runnable stopHook;
+	private volatile boolean waiting;
+	private volatile boolean closed;
+
+	/**
+	 * @param context notified when values are available, may be null
+	 * @param capacity the number of values that may be read ahead of the consumer
+	 */
+	public ConcurrentReads(ExecutionContext context, int capacity) {
+		this.context = context;
+		this.values = new ArrayBlockingQueue<T>(capacity);
+	}
+
+	/**
+	 * Set the action to stop the readers, such as cancelling a source request, that is run
+	 * on {@link #stop()}.  The readers otherwise only stop when {@link #add(Object)} returns false.
+	 */
+	public void setStopHook(Runnable stopHook) {
+		this.stopHook = stopHook;
+	}
+
+	/**
+	 * Reserve up to the given number of threads from the executor without blocking.  Threads that
+	 * are not used by {@link #start(Reader)} are released by {@link #close()}.
+	 * @return the number of readers that may be started
+	 */
+	public int reserve(ReaderExecutor readerExecutor, int count) {
+		if (this.executor != null && this.executor != readerExecutor) {
+			throw new IllegalStateException();
+		}
+		this.executor = readerExecutor;
+		int result = 0;
+		while (result < count && readerExecutor.threads.tryAcquire()) {
+			result++;
+		}
+		this.reserved += result;
+		return result;
+	}
+
+	/**
+	 * Start the reader on a reserved thread
+	 */
+	public void start(final Reader<T> reader) {
+		if (this.reserved == 0) {
+			throw new IllegalStateException();
+		}
+		this.reserved--;
+		remaining.incrementAndGet();
+		try {
+			futures.add(executor.executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (!isStopped()) {
+							reader.read(ConcurrentReads.this);
+						}
+					} catch (Throwable e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						executor.threads.release();
+						remaining.decrementAndGet();
+						notifyAvailable(true);
+					}
+				}
+			}));
+		} catch (RejectedExecutionException e) {
+			executor.threads.release();
+			remaining.decrementAndGet();
+			failure.compareAndSet(null, e);
+		}
+	}
+
+	/**
+	 * Add a value, waiting for the consumer if too many values have been read ahead.
+	 * @return false if the readers should stop
+	 */
+	public boolean add(T value) throws InterruptedException {
+		while (!values.offer(value, OFFER_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+			if (isStopped()) {
+				return false;
+			}
+		}
+		notifyAvailable(false);
+		return !isStopped();
+	}
+
+	/**
+	 * @return true if the readers should stop due to a stop, close, or failure
+	 */
+	public boolean isStopped() {
+		return closed || failure.get() != null;
+	}
+
+	private void notifyAvailable(boolean force) {
+		if ((waiting || force) && context != null) {
+			waiting = false;
+			context.dataAvailable();
+		}
+	}
+
+	/**
+	 * @return the next value or null if all readers have completed
+	 * @throws TranslatorException if a reader failed
+	 * @throws DataNotAvailableException if the readers are behind
+	 */
+	public T next() throws TranslatorException, DataNotAvailableException {
+		T value = values.poll();
+		if (value != null) {
+			return value;
+		}
+		checkFailure();
+		if (remaining.get() == 0) {
+			//all readers have completed, but a value may have been added after the poll
+			value = values.poll();
+			if (value == null) {
+				checkFailure();
+			}
+			return value;
+		}
+		waiting = true;
+		value = values.poll();
+		if (value != null) {
+			waiting = false;
+			return value;
+		}
+		throw DataNotAvailableException.NO_POLLING;
+	}
+
+	private void checkFailure() throws TranslatorException {
+		Throwable t = failure.get();
+		if (t != null) {
+			throw convert(t);
+		}
+	}
+
+	/**
+	 * Convert a reader failure to the exception thrown from {@link #next()}
+	 */
+	protected TranslatorException convert(Throwable t) {
+		if (t instanceof TranslatorException) {
+			return (TranslatorException)t;
+		}
+		return new TranslatorException(t);
+	}
+
+	/**
+	 * Stop the readers without waiting for them to complete.  May be called from any thread.
+	 */
+	public void stop() {
+		closed = true;
+		Runnable hook = this.stopHook;
+		if (hook != null) {
+			hook.run();
+		}
+	}
+
+	/**
+	 * Stop the readers and wait for them to complete
+	 */
+	public void close() {
+		stop();
+		values.clear();
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (Exception e) {
+				LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Exception closing"); //$NON-NLS-1$
+			}
+		}
+		values.clear();
+		if (this.reserved > 0) {
+			this.executor.threads.release(this.reserved);
+			this.reserved = 0;
+		}
+	}
+
+}
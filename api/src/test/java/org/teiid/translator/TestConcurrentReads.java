@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
+
+@SuppressWarnings("nls")
+public class TestConcurrentReads {
+
+	private static ExecutionContext notifyingContext(final Semaphore available) {
+		ExecutionContext context = Mockito.mock(ExecutionContext.class);
+		Mockito.doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(InvocationOnMock invocation) throws Throwable {
+				available.release();
+				return null;
+			}
+		}).when(context).dataAvailable();
+		return context;
+	}
+
+	private static <T> List<T> readAll(ConcurrentReads<T> reads, Semaphore available) throws Exception {
+		List<T> result = new ArrayList<T>();
+		while (true) {
+			try {
+				T value = reads.next();
+				if (value == null) {
+					return result;
+				}
+				result.add(value);
+			} catch (DataNotAvailableException e) {
+				assertTrue(available.tryAcquire(10, TimeUnit.SECONDS));
+			}
+		}
+	}
+
+	private static ConcurrentReads.Reader<Integer> reader(final int start, final int count) {
+		return new ConcurrentReads.Reader<Integer>() {
+			@Override
+			public void read(ConcurrentReads<Integer> reads) throws Exception {
+				for (int i = start; i < start + count; i++) {
+					if (!reads.add(i)) {
+						return;
+					}
+				}
+			}
+		};
+	}
+
+	@Test public void testMerge() throws Exception {
+		ReaderExecutor executor = new ReaderExecutor("test", 4);
+		Semaphore available = new Semaphore(0);
+		ConcurrentReads<Integer> reads = new ConcurrentReads<Integer>(notifyingContext(available), 2);
+		assertEquals(2, reads.reserve(executor, 2));
+		reads.start(reader(0, 100));
+		reads.start(reader(100, 100));
+		List<Integer> result = readAll(reads, available);
+		reads.close();
+		Collections.sort(result);
+		assertEquals(200, result.size());
+		for (int i = 0; i < result.size(); i++) {
+			assertEquals(i, result.get(i).intValue());
+		}
+		assertEquals(4, executor.getAvailableThreads());
+		executor.shutdown();
+	}
+
+	@Test public void testReserveBounded() throws Exception {
+		ReaderExecutor executor = new ReaderExecutor("test", 3);
+		ConcurrentReads<Integer> reads = new ConcurrentReads<Integer>(null, 1);
+		assertEquals(2, reads.reserve(executor, 2));
+		ConcurrentReads<Integer> other = new ConcurrentReads<Integer>(null, 1);
+		assertEquals(1, other.reserve(executor, 2));
+		assertEquals(0, other.reserve(executor, 1));
+		//unused reservations are released
+		reads.close();
+		other.close();
+		assertEquals(3, executor.getAvailableThreads());
+		executor.shutdown();
+	}
+
+	@Test(expected=TranslatorException.class) public void testFailure() throws Exception {
+		ReaderExecutor executor = new ReaderExecutor("test", 1);
+		Semaphore available = new Semaphore(0);
+		ConcurrentReads<Integer> reads = new ConcurrentReads<Integer>(notifyingContext(available), 1);
+		reads.reserve(executor, 1);
+		reads.start(new ConcurrentReads.Reader<Integer>() {
+			@Override
+			public void read(ConcurrentReads<Integer> r) throws Exception {
+				throw new TranslatorException("failed");
+			}
+		});
+		try {
+			readAll(reads, available);
+		} finally {
+			reads.close();
+			executor.shutdown();
+		}
+	}
+
+	@Test public void testStop() throws Exception {
+		ReaderExecutor executor = new ReaderExecutor("test", 1);
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch stopped = new CountDownLatch(1);
+		ConcurrentReads<Integer> reads = new ConcurrentReads<Integer>(null, 1);
+		reads.setStopHook(new Runnable() {
+			@Override
+			public void run() {
+				stopped.countDown();
+			}
+		});
+		reads.reserve(executor, 1);
+		reads.start(new ConcurrentReads.Reader<Integer>() {
+			@Override
+			public void read(ConcurrentReads<Integer> r) throws Exception {
+				started.countDown();
+				//stands in for a blocking source call that the hook cancels
+				stopped.await();
+			}
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		//waits for the reader
+		reads.close();
+		assertEquals(0, stopped.getCount());
+		assertEquals(1, executor.getAvailableThreads());
+		assertNull(reads.next());
+		executor.shutdown();
+	}
+
+}
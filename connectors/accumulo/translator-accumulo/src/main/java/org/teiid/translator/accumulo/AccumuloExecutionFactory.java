@@ -35,6 +35,8 @@ import org.teiid.translator.*;
 public class AccumuloExecutionFactory extends ExecutionFactory<ConnectionFactory, AccumuloConnection> {
 	private int queryThreadsCount = 10;
 	private Charset encoding = Charset.defaultCharset();
+	private boolean fetchProjectedColumns;
+	private boolean splitRanges;
 	
 	public AccumuloExecutionFactory() {
 		setTransactionSupport(TransactionSupport.NONE);
@@ -55,6 +57,24 @@ public class AccumuloExecutionFactory extends ExecutionFactory<ConnectionFactory
 		this.queryThreadsCount = queryThreadsCount;
 	}
 	
+	@TranslatorProperty(display="Fetch Projected Columns", description="Only fetch the columns referenced by a query from Accumulo. Rows that have none of the referenced columns will not be returned. Aggregate queries always fetch only the referenced columns, except for count(*)", advanced=true)
+	public boolean isFetchProjectedColumns() {
+		return fetchProjectedColumns;
+	}
+	
+	public void setFetchProjectedColumns(boolean fetchProjectedColumns) {
+		this.fetchProjectedColumns = fetchProjectedColumns;
+	}
+	
+	@TranslatorProperty(display="Split Scan Ranges", description="Split a table scan or a single range scan along the tablet boundaries so that the tablets are read in parallel with the Execution Query Threads. The scan is then not isolated", advanced=true)
+	public boolean isSplitRanges() {
+		return splitRanges;
+	}
+	
+	public void setSplitRanges(boolean splitRanges) {
+		this.splitRanges = splitRanges;
+	}
+	
 	@Override
 	public ResultSetExecution createResultSetExecution(QueryExpression command,
 			ExecutionContext executionContext, RuntimeMetadata metadata,
@@ -85,10 +105,34 @@ public class AccumuloExecutionFactory extends ExecutionFactory<ConnectionFactory
 		this.encoding = Charset.forName(encoding);
 	}	
 	
+	/**
+	 * The aggregates are computed on the tablet servers by the {@link AggregateIterator}, so the
+	 * translator jar and teiid-common-core must be on the tablet server classpath.
+	 */
 	@Override
 	public boolean supportsAggregatesCountStar() {
 		return true;
 	}
+	
+	@Override
+	public boolean supportsAggregatesCount() {
+		return true;
+	}
+	
+	@Override
+	public boolean supportsAggregatesSum() {
+		return true;
+	}
+	
+	@Override
+	public boolean supportsAggregatesMin() {
+		return true;
+	}
+	
+	@Override
+	public boolean supportsAggregatesMax() {
+		return true;
+	}
 
 	@Override
 	public boolean supportsCompareCriteriaEquals() {
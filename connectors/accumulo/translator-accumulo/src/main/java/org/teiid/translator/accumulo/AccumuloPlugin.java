@@ -39,6 +39,7 @@ public class AccumuloPlugin {
     	TEIID19003,
     	TEIID19004,
     	TEIID19005,
-    	TEIID19006
+    	TEIID19006,
+    	TEIID19007
     }
 }
@@ -21,28 +21,41 @@
  */
 package org.teiid.translator.accumulo;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.user.WholeRowIterator;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.io.Text;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.language.AggregateFunction;
 import org.teiid.language.Select;
 import org.teiid.language.visitor.SQLStringVisitor;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
 import org.teiid.metadata.Column;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.metadata.Table;
@@ -52,12 +65,15 @@ import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.TranslatorException;
 
 public class AccumuloQueryExecution implements ResultSetExecution {
+	private static final int WHOLE_ROW_PRIORITY = 100;
+	
 	private AccumuloConnection connection;	
 	private Iterator<Entry<Key,Value>> results;
 	private Class<?>[] expectedColumnTypes;
 	private AccumuloExecutionFactory aef;
 	private AccumuloQueryVisitor visitor;
 	private Entry<Key, Value> prevEntry;
+	private boolean aggregateReturned;
 	
 	public AccumuloQueryExecution(AccumuloExecutionFactory aef, Select command,
 			ExecutionContext executionContext,
@@ -81,7 +97,12 @@ public class AccumuloQueryExecution implements ResultSetExecution {
 			List<Range> ranges = this.visitor.getRanges();
 			Table scanTable = this.visitor.getScanTable();			
 			List<IteratorSetting> scanIterators = visitor.scanIterators();
-			this.results = runQuery(this.aef, connector, this.connection.getAuthorizations(), ranges, scanTable, scanIterators);
+			List<Column> fetchColumns = null;
+			if (this.aef.isFetchProjectedColumns() || !this.visitor.aggregates().isEmpty()) {
+				fetchColumns = this.visitor.fetchColumns();
+			}
+			this.results = runQuery(this.aef, connector, this.connection.getAuthorizations(), ranges, scanTable, 
+					scanIterators, fetchColumns, this.aef.isSplitRanges());
 		} catch (TableNotFoundException e) {
 			// Teiid will not let the query come this far with out validating metadata for given table
 			// so table in user's mind exists, it may be not be in the Accumulo, which should be treated as
@@ -94,26 +115,151 @@ public class AccumuloQueryExecution implements ResultSetExecution {
 			Connector connector, Authorizations auths, List<Range> ranges,
 			Table scanTable, List<IteratorSetting> scanIterators)
 			throws TableNotFoundException {
+		return runQuery(aef, connector, auths, ranges, scanTable, scanIterators, null, false);
+	}
+	
+	/**
+	 * @param fetchColumns the columns to restrict the scan to, or null for all columns
+	 * @param splitRanges true if a table scan or a single range should be split by tablet to be read in parallel
+	 */
+	static Iterator<Entry<Key, Value>> runQuery(AccumuloExecutionFactory aef,
+			Connector connector, Authorizations auths, List<Range> ranges,
+			Table scanTable, List<IteratorSetting> scanIterators, List<Column> fetchColumns, 
+			boolean splitRanges) throws TableNotFoundException {
+		
+		String tableName = SQLStringVisitor.getRecordName(scanTable);
+		if (splitRanges && ranges.size() <= 1) {
+			ranges = splitRanges(connector, tableName, ranges);
+		}
 		
 		if (ranges.size() <= 1) {
-			Scanner scanner = connector.createScanner(SQLStringVisitor.getRecordName(scanTable), auths);
+			Scanner scanner = connector.createScanner(tableName, auths);
 			if (!ranges.isEmpty()) {
 				scanner.setRange(ranges.get(0));
 			}
-			if (scanIterators != null && !scanIterators.isEmpty()) {
-				for (IteratorSetting it:scanIterators) {
-					scanner.addScanIterator(it);
-				}
-			}
+			addIterators(scanner, scanIterators);
+			fetchColumns(scanner, fetchColumns);
 			scanner.enableIsolation();			
 			return scanner.iterator();
 		}
 		
 		
 		// use batch scanner
-		BatchScanner scanner = connector.createBatchScanner(SQLStringVisitor.getRecordName(scanTable), auths, aef.getQueryThreadsCount());
+		BatchScanner scanner = connector.createBatchScanner(tableName, auths, aef.getQueryThreadsCount());
 		scanner.setRanges(ranges);
-		return scanner.iterator();
+		addIterators(scanner, scanIterators);
+		fetchColumns(scanner, fetchColumns);
+		if (isAggregate(scanIterators)) {
+			// a single entry is returned for each range 
+			return scanner.iterator();
+		}
+		// the entries of a row may otherwise be interleaved with those of other ranges
+		scanner.addScanIterator(new IteratorSetting(WHOLE_ROW_PRIORITY, WholeRowIterator.class));
+		return decodeRows(scanner.iterator());
+	}
+	
+	private static void addIterators(ScannerBase scanner, List<IteratorSetting> scanIterators) {
+		if (scanIterators != null && !scanIterators.isEmpty()) {
+			for (IteratorSetting it:scanIterators) {
+				scanner.addScanIterator(it);
+			}
+		}
+	}
+	
+	private static void fetchColumns(ScannerBase scanner, List<Column> fetchColumns) {
+		if (fetchColumns == null) {
+			return;
+		}
+		for (Column column : fetchColumns) {
+			String CF = column.getProperty(AccumuloMetadataProcessor.CF, false);
+			String CQ = column.getProperty(AccumuloMetadataProcessor.CQ, false);
+			String valueIn = column.getProperty(AccumuloMetadataProcessor.VALUE_IN, false);
+			if (CQ == null || ("{"+AccumuloMetadataProcessor.ValueIn.CQ.name()+"}").equals(valueIn)) { //$NON-NLS-1$ //$NON-NLS-2$
+				scanner.fetchColumnFamily(new Text(CF.getBytes()));
+			}
+			else {
+				scanner.fetchColumn(new Text(CF.getBytes()), new Text(CQ.getBytes()));
+			}
+		}
+	}
+	
+	private static boolean isAggregate(List<IteratorSetting> scanIterators) {
+		if (scanIterators != null) {
+			for (IteratorSetting it:scanIterators) {
+				if (it.getIteratorClass().equals(AggregateIterator.class.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Split the range, or the whole table if there is no range, along the tablet boundaries
+	 */
+	static List<Range> splitRanges(Connector connector, String tableName, List<Range> ranges) throws TableNotFoundException {
+		Collection<Text> splits = null;
+		try {
+			splits = connector.tableOperations().listSplits(tableName);
+		} catch (AccumuloSecurityException e) {
+			LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Could not list the splits of", tableName, "scanning without splitting"); //$NON-NLS-1$ //$NON-NLS-2$
+			return ranges;
+		} catch (AccumuloException e) {
+			LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Could not list the splits of", tableName, "scanning without splitting"); //$NON-NLS-1$ //$NON-NLS-2$
+			return ranges;
+		}
+		if (splits.isEmpty()) {
+			return ranges;
+		}
+		Range range = ranges.isEmpty()?new Range():ranges.get(0);
+		ArrayList<Range> result = new ArrayList<Range>();
+		Text prevSplit = null;
+		for (Text split : splits) {
+			// a tablet holds the rows after the previous split up to and including its split
+			addClipped(result, range, new Range(prevSplit, false, split, true));
+			prevSplit = split;
+		}
+		addClipped(result, range, new Range(prevSplit, false, null, true));
+		return result;
+	}
+
+	private static void addClipped(List<Range> result, Range range, Range tablet) {
+		Range clipped = range.clip(tablet, true);
+		if (clipped != null) {
+			result.add(clipped);
+		}
+	}
+	
+	private static Iterator<Entry<Key, Value>> decodeRows(final Iterator<Entry<Key, Value>> rows) {
+		return new Iterator<Entry<Key,Value>>() {
+			private Iterator<Entry<Key, Value>> row = Collections.<Entry<Key, Value>>emptyList().iterator();
+			
+			@Override
+			public boolean hasNext() {
+				while (!this.row.hasNext() && rows.hasNext()) {
+					Entry<Key, Value> entry = rows.next();
+					try {
+						this.row = WholeRowIterator.decodeRow(entry.getKey(), entry.getValue()).entrySet().iterator();
+					} catch (IOException e) {
+						throw new TeiidRuntimeException(e);
+					}
+				}
+				return this.row.hasNext();
+			}
+			
+			@Override
+			public Entry<Key, Value> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.row.next();
+			}
+			
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 	
 	private SortedMap<Key, Value> readNextRow(){
@@ -143,6 +289,9 @@ public class AccumuloQueryExecution implements ResultSetExecution {
 
 	@Override
 	public List<?> next() throws TranslatorException, DataNotAvailableException {
+		if (!this.visitor.aggregates().isEmpty()) {
+			return nextAggregate();
+		}
 		SortedMap<Key, Value> rowItems = readNextRow();
 		boolean rowIdAdded = false;
 		LinkedHashMap<String, byte[]> values = new LinkedHashMap<String, byte[]>();
@@ -171,6 +320,36 @@ public class AccumuloQueryExecution implements ResultSetExecution {
 		return nextRow(values);
 	}	
 	
+	/**
+	 * Combine the partial results returned for each tablet or range into the single aggregate row
+	 */
+	private List<?> nextAggregate() {
+		if (this.aggregateReturned) {
+			return null;
+		}
+		this.aggregateReturned = true;
+		Map<String, AggregateFunction> aggregates = this.visitor.aggregates();
+		HashMap<String, Object> partials = new HashMap<String, Object>();
+		while (this.results != null && this.results.hasNext()) {
+			Entry<Key, Value> entry = this.results.next();
+			String alias = entry.getKey().getColumnFamily().toString();
+			AggregateFunction aggregate = aggregates.get(alias);
+			if (aggregate != null) {
+				Object value = AccumuloDataTypeManager.deserialize(entry.getValue().get(), aggregate.getType());
+				partials.put(alias, AggregateIterator.combine(aggregate.getName(), partials.get(alias), value));
+			}
+		}
+		ArrayList<Object> list = new ArrayList<Object>();
+		for (Map.Entry<String, AggregateFunction> entry : aggregates.entrySet()) {
+			Object value = partials.get(entry.getKey());
+			if (value == null && entry.getValue().getName().equals(AggregateFunction.COUNT)) {
+				value = 0;
+			}
+			list.add(value);
+		}
+		return list;
+	}
+	
 	private Column findMatchingColumn(Text rowCF, Text rowCQ) {
 		String CF = new String(rowCF.getBytes());
 		String CQ = new String(rowCQ.getBytes());
@@ -23,13 +23,17 @@ package org.teiid.translator.accumulo;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.language.*;
 import org.teiid.language.visitor.HierarchyVisitor;
 import org.teiid.language.visitor.SQLStringVisitor;
@@ -50,6 +54,10 @@ public class AccumuloQueryVisitor extends HierarchyVisitor {
 	private HashMap<String, Column> keybasedColumnMap = new HashMap<String, Column>();
 	private ArrayList<Column> selectColumns = new ArrayList<Column>();
 	private ArrayList<IteratorSetting>  scanIterators = new ArrayList<IteratorSetting>();
+	private LinkedHashSet<Column> referencedColumns = new LinkedHashSet<Column>();
+	private LinkedHashMap<String, AggregateFunction> aggregates = new LinkedHashMap<String, AggregateFunction>();
+	private HashMap<String, String> aggregateOptions = new HashMap<String, String>();
+	private boolean fetchAllColumns = false;
 	private String currentAlias;
 	private int aliasIdx = 0;
 	private int iteratorPriority = 2;
@@ -80,6 +88,36 @@ public class AccumuloQueryVisitor extends HierarchyVisitor {
 		return this.scanIterators;
 	}
 	
+	/**
+	 * @return the aggregate functions of the select keyed by alias in select order, empty if
+	 * this is not an aggregate query
+	 */
+	public Map<String, AggregateFunction> aggregates(){
+		return this.aggregates;
+	}
+	
+	/**
+	 * The columns that are needed to answer the query. Rows that have none of these columns
+	 * will not be returned when the scan is restricted to them.
+	 * @return the columns or null if all the columns of the row are needed - for example
+	 * for count(*) or when only the rowid is referenced
+	 */
+	public List<Column> fetchColumns(){
+		if (this.fetchAllColumns) {
+			return null;
+		}
+		ArrayList<Column> columns = new ArrayList<Column>();
+		for (Column column : this.referencedColumns) {
+			if (column.getProperty(AccumuloMetadataProcessor.CF, false) != null) {
+				columns.add(column);
+			}
+		}
+		if (columns.isEmpty()) {
+			return null;
+		}
+		return columns;
+	}
+	
 	@Override
 	public void visit(Select obj) {
     	visitNodes(obj.getFrom());
@@ -90,6 +128,10 @@ public class AccumuloQueryVisitor extends HierarchyVisitor {
         visitNode(obj.getOrderBy());
         visitNode(obj.getLimit());
         
+        if (!this.aggregates.isEmpty()) {
+        	this.scanIterators.add(new IteratorSetting(this.iteratorPriority++, AggregateIterator.class, this.aggregateOptions));
+        }
+        
         if (this.doScanEvaluation) {
         	HashMap<String, String> options = buildEvaluatorOptions(this.scanTable, this.ef.getEncoding());
         	SQLStringVisitor visitor = new SQLStringVisitor() {
@@ -130,11 +172,12 @@ public class AccumuloQueryVisitor extends HierarchyVisitor {
 		if (alias != null) {
 			return alias;
 		}
-		return "_m"+this.aliasIdx; //$NON-NLS-1$
+		return "_m"+this.aliasIdx++; //$NON-NLS-1$
 	}
 
 	@Override
 	public void visit(ColumnReference obj) {
+		this.referencedColumns.add(obj.getMetadataObject());
 		this.onGoingExpression.push(obj.getMetadataObject());
 	}
 	
@@ -253,35 +296,38 @@ public class AccumuloQueryVisitor extends HierarchyVisitor {
 
 	@Override
 	public void visit(AggregateFunction obj) {
+		Column column = null;
     	if (!obj.getParameters().isEmpty()) {
     		visitNodes(obj.getParameters());
+    		column = (Column)this.onGoingExpression.pop();
+    		if (column.getProperty(AccumuloMetadataProcessor.CF, false) == null) {
+    			// the rowid is available from any entry of the row
+    			this.fetchAllColumns = true;
+    		}
+    	}
+    	else {
+    		// count(*) needs every row
+    		this.fetchAllColumns = true;
     	}
 
-		if (obj.getName().equals(AggregateFunction.COUNT)) {
-			HashMap<String, String> options = new HashMap<String, String>();
-			options.put(CountStarIterator.ALIAS, this.currentAlias);
-			options.put(CountStarIterator.ENCODING, this.ef.getEncoding());
-			IteratorSetting it = new IteratorSetting(this.iteratorPriority++, CountStarIterator.class, options);
-			
-			// expression expects a column
-			Column c = new Column();
-			c.setName(this.currentAlias);
-			c.setDatatype(SystemMetadata.getInstance().getSystemStore().getDatatypes().get("integer"));//$NON-NLS-1$
-			c.setProperty(AccumuloMetadataProcessor.CF, this.currentAlias);
-			
-			this.scanIterators.add(it);
-			this.onGoingExpression.push(c) ;
-		}
-		else if (obj.getName().equals(AggregateFunction.AVG)) {
-		}
-		else if (obj.getName().equals(AggregateFunction.SUM)) {
-		}
-		else if (obj.getName().equals(AggregateFunction.MIN)) {
-		}
-		else if (obj.getName().equals(AggregateFunction.MAX)) {
+		if (obj.getName().equals(AggregateFunction.COUNT)
+				|| obj.getName().equals(AggregateFunction.SUM)
+				|| obj.getName().equals(AggregateFunction.MIN)
+				|| obj.getName().equals(AggregateFunction.MAX)) {
+			AggregateIterator.addAggregate(this.aggregateOptions, this.currentAlias, obj.getName(), column, obj.getType());
+			this.aggregates.put(this.currentAlias, obj);
 		}
 		else {
+			this.exceptions.add(new TranslatorException(AccumuloPlugin.Util.gs(AccumuloPlugin.Event.TEIID19007, obj.getName())));
 		}
+		
+		// expression expects a column
+		Column c = new Column();
+		c.setName(this.currentAlias);
+		c.setDatatype(SystemMetadata.getInstance().getSystemStore().getDatatypes().get(DataTypeManager.getDataTypeName(obj.getType())));
+		c.setProperty(AccumuloMetadataProcessor.CF, this.currentAlias);
+		
+		this.onGoingExpression.push(c) ;
     }
 	
     @Override
@@ -0,0 +1,343 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator.accumulo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import org.apache.hadoop.io.Text;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
+import org.teiid.language.AggregateFunction;
+import org.teiid.metadata.Column;
+
+/**
+ * Implements the aggregate functions COUNT(*), COUNT, SUM, MIN and MAX over Accumulo. All the
+ * aggregates of a query are computed in a single pass over the rows of the seek range.
+ *
+ * A partial result is returned for each aggregate keyed by the first row of the seek range and the alias
+ * as the column family and qualifier. As each tablet and range is seeked separately the partial results
+ * need to be combined, see {@link #combine(String, Object, Object)}.
+ * A null partial result is returned as an empty value.
+ *
+ * If the scan is interrupted, Accumulo seeks again starting after the last returned key.  The partial results
+ * are then recomputed from the start of that row and only the remaining results are returned.  This assumes that
+ * the seek ranges start at a row boundary, as the ranges of the translator do.
+ *
+ * The iterator runs on the tablet servers, so the translator jar and teiid-common-core must be on the
+ * classpath of each tablet server, for example in the Accumulo lib/ext directory.
+ */
+public class AggregateIterator extends WrappingIterator {
+	public static final String COUNT = "COUNT"; //$NON-NLS-1$
+	public static final String ALIAS = "ALIAS"; //$NON-NLS-1$
+	public static final String FUNCTION = "FUNCTION"; //$NON-NLS-1$
+	public static final String CF = "CF"; //$NON-NLS-1$
+	public static final String CQ = "CQ"; //$NON-NLS-1$
+	public static final String VALUE_IN = "VALUE_IN"; //$NON-NLS-1$
+	public static final String COLUMN_TYPE = "COLUMN_TYPE"; //$NON-NLS-1$
+	public static final String RESULT_TYPE = "RESULT_TYPE"; //$NON-NLS-1$
+
+	private static class Aggregate {
+		String alias;
+		String function;
+		ByteSequence cf;
+		ByteSequence cq;
+		boolean valueInCQ;
+		Class<?> columnType;
+		Class<?> resultType;
+		Object result;
+		boolean seenInRow;
+	}
+
+	private Aggregate[] aggregates;
+	private Text row;
+	private Key topKey;
+	private Value topValue;
+	private int index;
+
+	/**
+	 * Add the options for an aggregate to the iterator options
+	 * @param column the aggregated column or null for COUNT(*)
+	 */
+	static void addAggregate(Map<String, String> options, String alias, String function, Column column, Class<?> resultType) {
+		int i = 0;
+		if (options.containsKey(COUNT)) {
+			i = Integer.parseInt(options.get(COUNT));
+		}
+		options.put(COUNT, String.valueOf(i + 1));
+		options.put(ALIAS + i, alias);
+		options.put(FUNCTION + i, function);
+		options.put(RESULT_TYPE + i, resultType.getName());
+		if (column != null) {
+			String cf = column.getProperty(AccumuloMetadataProcessor.CF, false);
+			String cq = column.getProperty(AccumuloMetadataProcessor.CQ, false);
+			String valueIn = column.getProperty(AccumuloMetadataProcessor.VALUE_IN, false);
+			if (cf != null) {
+				options.put(CF + i, cf);
+			}
+			if (cq != null) {
+				options.put(CQ + i, cq);
+			}
+			if (valueIn != null) {
+				options.put(VALUE_IN + i, valueIn.substring(1, valueIn.length()-1));
+			}
+			options.put(COLUMN_TYPE + i, column.getJavaType().getName());
+		}
+	}
+
+	@Override
+	public void init(SortedKeyValueIterator<Key, Value> source,
+			Map<String, String> options, IteratorEnvironment env)
+			throws IOException {
+		super.init(source, options, env);
+		try {
+			this.aggregates = new Aggregate[Integer.parseInt(options.get(COUNT))];
+			for (int i = 0; i < this.aggregates.length; i++) {
+				Aggregate aggregate = new Aggregate();
+				aggregate.alias = options.get(ALIAS + i);
+				aggregate.function = options.get(FUNCTION + i);
+				aggregate.resultType = Class.forName(options.get(RESULT_TYPE + i));
+				if (options.containsKey(COLUMN_TYPE + i)) {
+					aggregate.columnType = Class.forName(options.get(COLUMN_TYPE + i));
+				}
+				if (options.containsKey(CF + i)) {
+					aggregate.cf = new ArrayByteSequence(options.get(CF + i).getBytes());
+				}
+				if (options.containsKey(CQ + i)) {
+					aggregate.cq = new ArrayByteSequence(options.get(CQ + i).getBytes());
+				}
+				aggregate.valueInCQ = AccumuloMetadataProcessor.ValueIn.CQ.name().equals(options.get(VALUE_IN + i));
+				this.aggregates[i] = aggregate;
+			}
+			// the results must be returned in key order
+			Arrays.sort(this.aggregates, new Comparator<Aggregate>() {
+				@Override
+				public int compare(Aggregate o1, Aggregate o2) {
+					return o1.alias.compareTo(o2.alias);
+				}
+			});
+		} catch (ClassNotFoundException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public SortedKeyValueIterator<Key, Value> deepCopy(IteratorEnvironment env) {
+		AggregateIterator newInstance;
+		try {
+			newInstance = this.getClass().newInstance();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		newInstance.setSource(getSource().deepCopy(env));
+		newInstance.aggregates = new Aggregate[this.aggregates.length];
+		for (int i = 0; i < this.aggregates.length; i++) {
+			Aggregate aggregate = new Aggregate();
+			aggregate.alias = this.aggregates[i].alias;
+			aggregate.function = this.aggregates[i].function;
+			aggregate.cf = this.aggregates[i].cf;
+			aggregate.cq = this.aggregates[i].cq;
+			aggregate.valueInCQ = this.aggregates[i].valueInCQ;
+			aggregate.columnType = this.aggregates[i].columnType;
+			aggregate.resultType = this.aggregates[i].resultType;
+			newInstance.aggregates[i] = aggregate;
+		}
+		return newInstance;
+	}
+
+	@Override
+	public void seek(Range range, Collection<ByteSequence> columnFamilies,
+			boolean inclusive) throws IOException {
+		Key resumeKey = null;
+		boolean resumeInclusive = false;
+		Key startKey = range.getStartKey();
+		if (startKey != null && startKey.getColumnFamilyData().length() > 0) {
+			// seeking again after a returned result, recompute from the start of the row
+			resumeKey = startKey;
+			resumeInclusive = range.isStartKeyInclusive();
+			range = new Range(new Key(startKey.getRow()), true, range.getEndKey(), range.isEndKeyInclusive());
+		}
+		super.seek(range, columnFamilies, inclusive);
+		this.topKey = null;
+		this.topValue = null;
+		this.row = null;
+		this.index = 0;
+
+		if (!getSource().hasTop()) {
+			return;
+		}
+
+		for (Aggregate aggregate : this.aggregates) {
+			aggregate.result = null;
+		}
+		ByteSequence prevRowId = null;
+		this.row = new Text(getSource().getTopKey().getRow());
+		while (getSource().hasTop()) {
+			Key key = getSource().getTopKey();
+			ByteSequence rowId = key.getRowData();
+			if (prevRowId == null || !prevRowId.equals(rowId)) {
+				prevRowId = new ArrayByteSequence(rowId.toArray());
+				startRow(key);
+			}
+			for (Aggregate aggregate : this.aggregates) {
+				if (aggregate.seenInRow || aggregate.cf == null
+						|| aggregate.cf.compareTo(key.getColumnFamilyData()) != 0
+						|| (aggregate.cq != null && aggregate.cq.compareTo(key.getColumnQualifierData()) != 0)) {
+					continue;
+				}
+				// the first entry is the most recent value
+				aggregate.seenInRow = true;
+				byte[] value = aggregate.valueInCQ?key.getColumnQualifierData().toArray():getSource().getTopValue().get();
+				accumulate(aggregate, value);
+			}
+			getSource().next();
+		}
+		prepTop();
+		if (resumeKey != null) {
+			// skip the results that were already returned
+			while (this.topKey != null) {
+				int compare = this.topKey.compareTo(resumeKey, PartialKey.ROW_COLFAM_COLQUAL);
+				if (compare > 0 || (compare == 0 && resumeInclusive)) {
+					break;
+				}
+				next();
+			}
+		}
+	}
+
+	private void startRow(Key key) throws IOException {
+		for (Aggregate aggregate : this.aggregates) {
+			aggregate.seenInRow = false;
+			if (aggregate.columnType == null) {
+				// count(*)
+				aggregate.result = combine(aggregate.function, aggregate.result, 1);
+			}
+			else if (aggregate.cf == null) {
+				// the rowid
+				aggregate.seenInRow = true;
+				accumulate(aggregate, key.getRowData().toArray());
+			}
+		}
+	}
+
+	private void accumulate(Aggregate aggregate, byte[] bytes) throws IOException {
+		Object value = AccumuloDataTypeManager.deserialize(bytes, aggregate.columnType);
+		if (value == null) {
+			return;
+		}
+		if (aggregate.function.equals(AggregateFunction.COUNT)) {
+			value = 1;
+		}
+		else if (aggregate.function.equals(AggregateFunction.SUM)) {
+			try {
+				value = DataTypeManager.transformValue(value, aggregate.resultType);
+			} catch (TransformationException e) {
+				throw new IOException(e);
+			}
+		}
+		aggregate.result = combine(aggregate.function, aggregate.result, value);
+	}
+
+	/**
+	 * Combine the value with the current result of the aggregate function.
+	 * Null values are ignored.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Object combine(String function, Object current, Object value) {
+		if (value == null) {
+			return current;
+		}
+		if (current == null) {
+			return value;
+		}
+		if (function.equals(AggregateFunction.COUNT) || function.equals(AggregateFunction.SUM)) {
+			if (current instanceof Integer) {
+				return (Integer)current + (Integer)value;
+			}
+			if (current instanceof Long) {
+				return (Long)current + (Long)value;
+			}
+			if (current instanceof Double) {
+				return (Double)current + (Double)value;
+			}
+			if (current instanceof BigInteger) {
+				return ((BigInteger)current).add((BigInteger)value);
+			}
+			if (current instanceof BigDecimal) {
+				return ((BigDecimal)current).add((BigDecimal)value);
+			}
+			throw new IllegalArgumentException(current.getClass().getName());
+		}
+		int compare = ((Comparable)current).compareTo(value);
+		if (function.equals(AggregateFunction.MIN)) {
+			return compare <= 0?current:value;
+		}
+		return compare >= 0?current:value;
+	}
+
+	private void prepTop() {
+		if (this.index < this.aggregates.length) {
+			Aggregate aggregate = this.aggregates[this.index];
+			this.topKey = new Key(this.row, new Text(aggregate.alias), new Text(aggregate.alias));
+			this.topValue = new Value(AccumuloDataTypeManager.serialize(aggregate.result));
+		}
+		else {
+			this.topKey = null;
+			this.topValue = null;
+		}
+	}
+
+	@Override
+	public Value getTopValue() {
+		return this.topValue;
+	}
+
+	@Override
+	public Key getTopKey() {
+		return this.topKey;
+	}
+
+	@Override
+	public boolean hasTop() {
+		return this.topKey != null;
+	}
+
+	@Override
+	public void next() throws IOException {
+		this.index++;
+		prepTop();
+	}
+}
@@ -28,12 +28,25 @@ import java.math.BigInteger;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.admin.TimeType;
 import org.apache.accumulo.core.client.mock.MockInstance;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
 import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -41,6 +54,7 @@ import org.teiid.cdk.api.TranslationUtility;
 import org.teiid.core.types.GeometryType;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.UnitTestUtil;
+import org.teiid.language.AggregateFunction;
 import org.teiid.language.Command;
 import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.unittest.RealMetadataFactory;
@@ -69,11 +83,17 @@ public class TestAccumuloQueryExecution {
     	Mockito.stub(connection.getAuthorizations()).toReturn(new Authorizations("public"));
     	connector.tableOperations().create("customer", true, TimeType.LOGICAL);
     	connector.tableOperations().create("rental", true, TimeType.LOGICAL);
+    	connector.tableOperations().create("payment", true, TimeType.LOGICAL);
+    	connector.tableOperations().addSplits("payment", new TreeSet<Text>(Arrays.asList(new Text("2"))));
     }
     
 	private Execution executeCmd(String sql) throws TranslatorException {
+		return executeCmd(translator, sql);
+	}
+	
+	private Execution executeCmd(AccumuloExecutionFactory ef, String sql) throws TranslatorException {
 		Command cmd = TestAccumuloQueryExecution.utility.parseCommand(sql);
-    	Execution exec =  translator.createExecution(cmd, Mockito.mock(ExecutionContext.class), 
+    	Execution exec =  ef.createExecution(cmd, Mockito.mock(ExecutionContext.class), 
     	        utility.createRuntimeMetadata(), TestAccumuloQueryExecution.connection);
     	exec.execute();
     	return exec;
@@ -140,6 +160,105 @@ public class TestAccumuloQueryExecution {
     	assertNull(exec.next());   
     }
     
+    @Test
+    public void testAggregates() throws Exception {
+    	executeCmd("delete from rental");
+    	executeCmd("insert into rental (rental_id, amount, customer_id) values (1, 3.99, 5)");
+    	executeCmd("insert into rental (rental_id, amount, customer_id) values (2, 5.99, 2)");
+    	executeCmd("insert into rental (rental_id, amount, customer_id) values (3, 11.99, 1)");
+    	executeCmd("insert into rental (rental_id, amount, customer_id) values (4, 12.99, 1)");
+
+    	AccumuloQueryExecution exec = (AccumuloQueryExecution)executeCmd("select count(*), count(customer_id), "
+    			+ "sum(amount), min(customer_id), max(amount), max(rental_id) from rental");
+    	assertEquals(Arrays.asList(4, 4, new BigDecimal("34.96"), 1, new BigDecimal("12.99"), 4), exec.next());
+    	assertNull(exec.next());
+    	
+    	exec = (AccumuloQueryExecution)executeCmd("select sum(amount) from rental where customer_id = 1");
+    	assertEquals(Arrays.asList(new BigDecimal("24.98")), exec.next());
+    	assertNull(exec.next());
+    	
+    	// partial results from each range are combined
+    	exec = (AccumuloQueryExecution)executeCmd("select count(*), min(amount) from rental where rental_id <> 2");
+    	assertEquals(Arrays.asList(3, new BigDecimal("3.99")), exec.next());
+    	assertNull(exec.next());
+    	
+    	exec = (AccumuloQueryExecution)executeCmd("select count(*), sum(amount) from rental where rental_id = 100");
+    	assertEquals(Arrays.asList(0, null), exec.next());
+    	assertNull(exec.next());
+    }
+    
+    @Test
+    public void testAggregateIteratorSeekAfterResult() throws Exception {
+    	TreeMap<Key, Value> data = new TreeMap<Key, Value>();
+    	data.put(new Key(new Text("1"), new Text("a"), new Text("b")), new Value(new byte[0]));
+    	data.put(new Key(new Text("2"), new Text("a"), new Text("b")), new Value(new byte[0]));
+    	Map<String, String> options = new HashMap<String, String>();
+    	AggregateIterator.addAggregate(options, "0", AggregateFunction.COUNT, null, Integer.class);
+    	AggregateIterator.addAggregate(options, "1", AggregateFunction.COUNT, null, Integer.class);
+    	AggregateIterator iter = new AggregateIterator();
+    	iter.init(new SortedMapIterator(data), options, null);
+    	
+    	iter.seek(new Range(), Collections.<ByteSequence>emptyList(), false);
+    	Key first = iter.getTopKey();
+    	assertEquals(new Text("0"), first.getColumnFamily());
+    	assertEquals(2, AccumuloDataTypeManager.deserialize(iter.getTopValue().get(), Integer.class));
+    	
+    	// an interrupted scan continues after the last returned key
+    	iter.seek(new Range(first, false, null, true), Collections.<ByteSequence>emptyList(), false);
+    	assertEquals(new Text("1"), iter.getTopKey().getColumnFamily());
+    	assertEquals(2, AccumuloDataTypeManager.deserialize(iter.getTopValue().get(), Integer.class));
+    	iter.next();
+    	assertFalse(iter.hasTop());
+    }
+    
+    @Test
+    public void testFetchProjectedColumns() throws Exception {
+    	AccumuloExecutionFactory ef = new AccumuloExecutionFactory();
+    	ef.setFetchProjectedColumns(true);
+    	ef.start();
+    	
+    	executeCmd("delete from customer");
+    	executeCmd("insert into customer (customer_id, firstname, lastname) values (2, 'Joe', 'A')");
+    	executeCmd("insert into customer (customer_id, lastname) values (1, 'B')");
+    	
+    	AccumuloQueryExecution exec = (AccumuloQueryExecution)executeCmd(ef, "select customer_id, firstname from customer");
+    	assertEquals(Arrays.asList(2, "Joe"), exec.next());
+    	assertNull(exec.next());
+    	
+    	exec = (AccumuloQueryExecution)executeCmd(ef, "select customer_id from customer");
+    	assertEquals(Arrays.asList(1), exec.next());
+    	assertEquals(Arrays.asList(2), exec.next());
+    	assertNull(exec.next());
+    }
+    
+    @Test
+    public void testSplitRanges() throws Exception {
+    	AccumuloExecutionFactory ef = new AccumuloExecutionFactory();
+    	ef.setSplitRanges(true);
+    	ef.start();
+    	
+    	executeCmd("delete from payment");
+    	executeCmd("insert into payment (payment_id, rental_id, amount) values (1, 1, 3.99)");
+    	executeCmd("insert into payment (payment_id, rental_id, amount) values (2, 2, 5.99)");
+    	executeCmd("insert into payment (payment_id, rental_id, amount) values (3, 3, 11.99)");
+    	
+    	AccumuloQueryExecution exec = (AccumuloQueryExecution)executeCmd(ef, "select payment_id, rental_id, amount from payment");
+    	HashSet<List<?>> rows = new HashSet<List<?>>();
+    	List<?> row = null;
+    	while ((row = exec.next()) != null) {
+    		rows.add(row);
+    	}
+    	assertEquals(new HashSet<List<?>>(Arrays.asList(Arrays.asList(1, 1, new BigDecimal("3.99")), 
+    			Arrays.asList(2, 2, new BigDecimal("5.99")), Arrays.asList(3, 3, new BigDecimal("11.99")))), rows);
+    	
+    	exec = (AccumuloQueryExecution)executeCmd(ef, "select count(*), sum(amount) from payment");
+    	assertEquals(Arrays.asList(3, new BigDecimal("21.97")), exec.next());
+    	assertNull(exec.next());
+    	
+    	List<Range> ranges = AccumuloQueryExecution.splitRanges(connection.getInstance(), "payment", new ArrayList<Range>());
+    	assertEquals(Arrays.asList(new Range(null, false, new Text("2"), true), new Range(new Text("2"), false, null, true)), ranges);
+    }
+    
     @Test
     public void testIsNULL() throws Exception {
     	executeCmd("delete from customer");
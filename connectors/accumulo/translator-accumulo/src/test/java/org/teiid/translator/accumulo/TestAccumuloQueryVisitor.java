@@ -23,8 +23,10 @@ package org.teiid.translator.accumulo;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -109,6 +111,27 @@ public class TestAccumuloQueryVisitor {
 		return visitor;
 	}	
 	
+	@Test
+	public void testAggregates() throws Exception {
+		Command cmd = this.utility.parseCommand("select count(*), sum(amount) as total, max(customer_id) from rental");
+		AccumuloQueryVisitor visitor = buildVisitor(cmd);
+		
+		assertEquals(Arrays.asList("_m0", "total", "_m1"), new ArrayList<String>(visitor.aggregates().keySet()));
+		assertEquals(1, visitor.scanIterators().size());
+		assertEquals(AggregateIterator.class.getName(), visitor.scanIterators().get(0).getIteratorClass());
+		assertEquals("3", visitor.scanIterators().get(0).getOptions().get(AggregateIterator.COUNT));
+		// count(*) needs every row
+		assertNull(visitor.fetchColumns());
+		
+		cmd = this.utility.parseCommand("select sum(amount) from rental where customer_id = 1");
+		visitor = buildVisitor(cmd);
+		assertEquals(2, visitor.scanIterators().size());
+		List<Column> columns = visitor.fetchColumns();
+		assertEquals(2, columns.size());
+		assertEquals("amount", columns.get(0).getName());
+		assertEquals("customer_id", columns.get(1).getName());
+	}
+	
 	@Test
 	public void testSelectEquality()  throws Exception {
 		Command cmd = this.utility.parseCommand("select firstname from Customer where customer_id = 1");
@@ -44,6 +44,7 @@ import javax.resource.ResourceException;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -82,11 +83,20 @@ public class ExcelExecution implements ResultSetExecution {
 	private FormulaEvaluator evaluator;
 	private FileInputStream xlsFileStream;
 	private Class<?>[] expectedColumnTypes;
+	private boolean useStreamingReader;
+	private XlsxStreamingReader streamingReader;
 
 	public ExcelExecution(Select query, ExecutionContext executionContext,
 			RuntimeMetadata metadata, FileConnection connection)
 			throws TranslatorException {
+		this(query, executionContext, metadata, connection, false);
+	}
+	
+	public ExcelExecution(Select query, ExecutionContext executionContext,
+			RuntimeMetadata metadata, FileConnection connection, boolean useStreamingReader)
+			throws TranslatorException {
 
+		this.useStreamingReader = useStreamingReader;
 		this.executionContext = executionContext;
         this.metadata = metadata;
         this.connection = connection;
@@ -103,12 +113,20 @@ public class ExcelExecution implements ResultSetExecution {
     public void execute() throws TranslatorException {
     	try {
 			this.xlsFiles = FileConnection.Util.getFiles(this.visitor.getXlsPath(), this.connection, true);
-			this.rowIterator = readXLSFile(xlsFiles[fileCount.getAndIncrement()]);
+			openFile(xlsFiles[fileCount.getAndIncrement()]);
 		} catch (ResourceException e) {
 			throw new TranslatorException(e);
 		}    
     }
 
+    private void openFile(File xlsFile) throws TranslatorException {
+    	if (this.useStreamingReader && ExcelMetadataProcessor.getFileExtension(xlsFile).equalsIgnoreCase("xlsx")) { //$NON-NLS-1$
+    		this.streamingReader = new XlsxStreamingReader(xlsFile, this.visitor);
+    	} else {
+    		this.rowIterator = readXLSFile(xlsFile);
+    	}
+    }
+
 	private Iterator<Row> readXLSFile(File xlsFile) throws TranslatorException {
 		try {
 			this.xlsFileStream = new FileInputStream(xlsFile);
@@ -148,49 +166,54 @@ public class ExcelExecution implements ResultSetExecution {
 
     @Override
     public List<?> next() throws TranslatorException, DataNotAvailableException {
-        while (hasNext()) {
-        	Row row = nextRow();
-        	// when the first cell number is -1, then it is empty row, skip it
-        	if (row.getFirstCellNum() == -1) {
-        		continue;
-        	}
-        	
-        	if (!this.visitor.allows(row.getRowNum())) {
-        		continue;
-        	}
-        	return projectRow(row);
-        }
-        return null;
+    	while (true) {
+    		if (this.streamingReader != null) {
+    			XlsxStreamingReader.SheetRow row = this.streamingReader.nextRow();
+    			if (row != null) {
+    				return projectRow(row);
+    			}
+    			this.streamingReader.close();
+    			this.streamingReader = null;
+    		} else {
+		        while (hasNext()) {
+		        	Row row = nextRow();
+		        	// when the first cell number is -1, then it is empty row, skip it
+		        	if (row.getFirstCellNum() == -1) {
+		        		continue;
+		        	}
+		        	
+		        	if (!this.visitor.allows(row.getRowNum())) {
+		        		continue;
+		        	}
+		        	return projectRow(row);
+		        }
+		        this.rowIterator = null;
+    		}
+    		File nextXlsFile = getNextXLSFile();
+    		if (nextXlsFile == null) {
+    			return null;
+    		}
+    		openFile(nextXlsFile);
+    	}
     }
     
-    private boolean hasNext() throws TranslatorException {
+    private boolean hasNext() {
     	if (this.currentRow != null) {
     		return true;
     	}
-    	
-    	boolean hasNext = false;
-    	if (this.rowIterator != null) {
-    		hasNext = this.rowIterator.hasNext();
-    	}
-    	
-    	if (!hasNext) {
-    		this.rowIterator = null;
-    		File nextXlsFile = getNextXLSFile();
-    		if (nextXlsFile != null) {
-    			this.rowIterator = readXLSFile(nextXlsFile);
-    			hasNext = this.rowIterator.hasNext();
-    		}
-    	}
-    	return hasNext;
+    	return this.rowIterator != null && this.rowIterator.hasNext();
     }
     
     private File getNextXLSFile() {
     	if (this.xlsFiles.length > this.fileCount.get()) {
-    		try {
-				this.xlsFileStream.close();
-			} catch (IOException e) {
-				// ignore
-			}
+    		if (this.xlsFileStream != null) {
+	    		try {
+					this.xlsFileStream.close();
+				} catch (IOException e) {
+					// ignore
+				}
+	    		this.xlsFileStream = null;
+    		}
     		return this.xlsFiles[this.fileCount.getAndIncrement()];
     	}
     	return null;
@@ -256,26 +279,65 @@ public class ExcelExecution implements ResultSetExecution {
         
         return output;    
     }
+    
+    /**
+     * Project a row read by the {@link XlsxStreamingReader}
+     */
+    List<Object> projectRow(XlsxStreamingReader.SheetRow row) throws TranslatorException {
+    	List<Integer> projected = this.visitor.getProjectedColumns();
+    	ArrayList<Object> output = new ArrayList<Object>(projected.size());
+    	for (int i = 0; i < projected.size(); i++) {
+    		Object value = row.getValue(i);
+    		if (projected.get(i) == -1) {
+    			output.add(value);
+    		} else if (value instanceof Double) {
+    			Double d = (Double)value;
+    			Date date = null;
+    			if (Date.class.isAssignableFrom(this.expectedColumnTypes[i])) {
+    				date = DateUtil.getJavaDate(d, this.streamingReader.isDate1904());
+    			}
+    			output.add(convertFromExcelType(d, date, this.expectedColumnTypes[i]));
+    		} else if (value instanceof String) {
+    			output.add(convertFromExcelType((String)value, this.expectedColumnTypes[i]));
+    		} else if (value instanceof Boolean) {
+    			output.add(convertFromExcelType((Boolean)value, this.expectedColumnTypes[i]));
+    		} else {
+    			output.add(null);
+    		}
+    	}
+    	return output;
+    }
 
     
     static Object convertFromExcelType(final Double value, Cell cell, final Class<?> expectedType) throws TranslatorException {
 		if (value == null) {
 			return null;
 		}
+		Date date = null;
+		if (Date.class.isAssignableFrom(expectedType)) {
+			date = cell.getDateCellValue();
+		}
+		return convertFromExcelType(value, date, expectedType);
+    }
+    
+    /**
+     * @param date the value as a date, only needed if the expected type is a date type
+     */
+    static Object convertFromExcelType(final Double value, Date date, final Class<?> expectedType) throws TranslatorException {
+		if (value == null) {
+			return null;
+		}
 
 		if (expectedType.isAssignableFrom(Double.class)) {
 			return value;
 		}
 		else if (expectedType.isAssignableFrom(Timestamp.class)) {
-			Date date = cell.getDateCellValue();
 			return new Timestamp(date.getTime());
 		}
 		else if (expectedType.isAssignableFrom(java.sql.Date.class)) {
-			Date date = cell.getDateCellValue();
 			return new java.sql.Date(date.getTime());
 		}
 		else if (expectedType.isAssignableFrom(java.sql.Time.class)) {
-			Date date = cell.getDateCellValue();
 			Calendar calendar = Calendar.getInstance();
 			calendar.setTime(date);
 			StringBuilder sb = new StringBuilder();
@@ -349,6 +411,10 @@ public class ExcelExecution implements ResultSetExecution {
 			} catch (IOException e) {
 			}
     	}
+    	if (this.streamingReader != null) {
+    		this.streamingReader.close();
+    		this.streamingReader = null;
+    	}
     }
 
     @Override
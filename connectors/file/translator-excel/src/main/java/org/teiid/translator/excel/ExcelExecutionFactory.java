@@ -34,10 +34,13 @@ import org.teiid.translator.MetadataProcessor;
 import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
+import org.teiid.translator.TranslatorProperty;
 
 @Translator(name="excel", description="Excel file translator")
 public class ExcelExecutionFactory extends ExecutionFactory<ConnectionFactory, FileConnection> {
 
+	private boolean useStreamingReader;
+	
 	public ExcelExecutionFactory() {
 		setSourceRequiredForMetadata(true);
 		setTransactionSupport(TransactionSupport.NONE);
@@ -51,8 +54,17 @@ public class ExcelExecutionFactory extends ExecutionFactory<ConnectionFactory, F
     @Override
     public ResultSetExecution createResultSetExecution(QueryExpression command, ExecutionContext executionContext, RuntimeMetadata metadata, FileConnection connection)
     		throws TranslatorException {
-    	return new ExcelExecution((Select)command, executionContext, metadata, connection);
+    	return new ExcelExecution((Select)command, executionContext, metadata, connection, this.useStreamingReader);
     }    
+    
+	@TranslatorProperty(display="Use Streaming Reader", description="Read xlsx files with a streaming parser rather than loading the whole workbook.  Formula cells will use the value cached in the file.", advanced=true) //$NON-NLS-1$ //$NON-NLS-2$
+	public boolean isUseStreamingReader() {
+		return useStreamingReader;
+	}
+	
+	public void setUseStreamingReader(boolean useStreamingReader) {
+		this.useStreamingReader = useStreamingReader;
+	}
     	
     @Override
     public MetadataProcessor<FileConnection> getMetadataProcessor(){
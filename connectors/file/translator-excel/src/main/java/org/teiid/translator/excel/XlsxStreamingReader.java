@@ -0,0 +1,317 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator.excel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.teiid.translator.TranslatorException;
+import org.xml.sax.SAXException;
+
+/**
+ * Reads the rows of an xlsx sheet directly from the sheet xml, without building the workbook model.
+ * <br>
+ * Only the projected cells of rows allowed by the {@link ExcelQueryVisitor} are decoded.  Formula cells
+ * use the result cached in the file.
+ */
+class XlsxStreamingReader {
+	
+	private static final String ROW = "row"; //$NON-NLS-1$
+	private static final String CELL = "c"; //$NON-NLS-1$
+	private static final String VALUE = "v"; //$NON-NLS-1$
+	private static final String TEXT = "t"; //$NON-NLS-1$
+	private static final String REF = "r"; //$NON-NLS-1$
+	private static final String TYPE = "t"; //$NON-NLS-1$
+	private static final String SHEET_DATA = "sheetData"; //$NON-NLS-1$
+	
+	private static XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+	
+	static {
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+	}
+	
+	/**
+	 * The values of a sheet row for each projected column.  Values are
+	 * {@link Double}, {@link String}, {@link Boolean} or null.
+	 */
+	static class SheetRow {
+		private int rowNum;
+		private Object[] values;
+		
+		SheetRow(int rowNum, Object[] values) {
+			this.rowNum = rowNum;
+			this.values = values;
+		}
+		
+		/**
+		 * @return the 0 based row number
+		 */
+		int getRowNum() {
+			return rowNum;
+		}
+		
+		Object getValue(int projectedIndex) {
+			return values[projectedIndex];
+		}
+	}
+	
+	private ExcelQueryVisitor visitor;
+	private int[] projectedCells;
+	private OPCPackage pkg;
+	private ReadOnlySharedStringsTable strings;
+	private InputStream sheetStream;
+	private XMLStreamReader reader;
+	private boolean date1904;
+	private int lastRowNum = -1;
+	
+	XlsxStreamingReader(File xlsxFile, ExcelQueryVisitor visitor) throws TranslatorException {
+		this.visitor = visitor;
+		List<Integer> projected = visitor.getProjectedColumns();
+		this.projectedCells = new int[projected.size()];
+		for (int i = 0; i < this.projectedCells.length; i++) {
+			// cell numbers are 1 based, ROW_ID is -1
+			int cell = projected.get(i);
+			this.projectedCells[i] = cell == -1?-1:cell - 1;
+		}
+		try {
+			this.pkg = OPCPackage.open(xlsxFile.getAbsolutePath(), PackageAccess.READ);
+			XSSFReader xssfReader = new XSSFReader(this.pkg);
+			this.strings = new ReadOnlySharedStringsTable(this.pkg);
+			InputStream workbook = xssfReader.getWorkbookData();
+			try {
+				this.date1904 = isDate1904(workbook);
+			} finally {
+				workbook.close();
+			}
+			XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator)xssfReader.getSheetsData();
+			while (iter.hasNext()) {
+				InputStream sheet = iter.next();
+				if (iter.getSheetName().equals(visitor.getSheetName())) {
+					this.sheetStream = sheet;
+					break;
+				}
+				sheet.close();
+			}
+			if (this.sheetStream != null) {
+				this.reader = inputFactory.createXMLStreamReader(this.sheetStream);
+			}
+		} catch (OpenXML4JException e) {
+			close();
+			throw new TranslatorException(e);
+		} catch (SAXException e) {
+			close();
+			throw new TranslatorException(e);
+		} catch (IOException e) {
+			close();
+			throw new TranslatorException(e);
+		} catch (XMLStreamException e) {
+			close();
+			throw new TranslatorException(e);
+		}
+	}
+	
+	static boolean isDate1904(InputStream workbook) throws XMLStreamException {
+		XMLStreamReader workbookReader = inputFactory.createXMLStreamReader(workbook);
+		try {
+			while (workbookReader.hasNext()) {
+				if (workbookReader.next() != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String name = workbookReader.getLocalName();
+				if (name.equals("workbookPr")) { //$NON-NLS-1$
+					String value = workbookReader.getAttributeValue(null, "date1904"); //$NON-NLS-1$
+					return "1".equals(value) || "true".equalsIgnoreCase(value); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				if (name.equals("sheets")) { //$NON-NLS-1$
+					break;
+				}
+			}
+			return false;
+		} finally {
+			workbookReader.close();
+		}
+	}
+	
+	boolean isDate1904() {
+		return date1904;
+	}
+	
+	/**
+	 * Read the next non-empty row at or after the first data row that is allowed by the visitor.
+	 * @return the row or null if there are no more rows
+	 */
+	SheetRow nextRow() throws TranslatorException {
+		if (this.reader == null) {
+			return null;
+		}
+		try {
+			Object[] values = null;
+			boolean include = false;
+			boolean hasCells = false;
+			int rowNum = -1;
+			int cellNum = -1;
+			int projectedIndex = -1;
+			String type = null;
+			StringBuilder text = null;
+			while (this.reader.hasNext()) {
+				int event = this.reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					String name = this.reader.getLocalName();
+					if (name.equals(ROW)) {
+						String ref = this.reader.getAttributeValue(null, REF);
+						rowNum = ref != null?Integer.parseInt(ref) - 1:this.lastRowNum + 1;
+						this.lastRowNum = rowNum;
+						include = rowNum >= this.visitor.getFirstDataRowNumber() && this.visitor.allows(rowNum);
+						hasCells = false;
+						cellNum = -1;
+						values = include?new Object[this.projectedCells.length]:null;
+					} else if (name.equals(CELL)) {
+						hasCells = true;
+						String ref = this.reader.getAttributeValue(null, REF);
+						cellNum = ref != null?getCellNum(ref):cellNum + 1;
+						projectedIndex = include?getProjectedIndex(cellNum, 0):-1;
+						type = this.reader.getAttributeValue(null, TYPE);
+						text = null;
+					} else if (projectedIndex >= 0 && (name.equals(VALUE) || name.equals(TEXT))) {
+						if (text == null) {
+							text = new StringBuilder();
+						}
+						text.append(this.reader.getElementText());
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					String name = this.reader.getLocalName();
+					if (name.equals(CELL)) {
+						if (projectedIndex >= 0) {
+							Object value = getValue(type, text);
+							// the same cell may be projected more than once
+							while (projectedIndex >= 0) {
+								values[projectedIndex] = value;
+								projectedIndex = getProjectedIndex(cellNum, projectedIndex + 1);
+							}
+						}
+					} else if (name.equals(ROW)) {
+						// skip rows without cells, the same as an empty row in the workbook model
+						if (include && hasCells) {
+							for (int i = 0; i < this.projectedCells.length; i++) {
+								if (this.projectedCells[i] == -1) {
+									values[i] = rowNum + 1;
+								}
+							}
+							return new SheetRow(rowNum, values);
+						}
+					} else if (name.equals(SHEET_DATA)) {
+						break;
+					}
+				}
+			}
+			close();
+			return null;
+		} catch (XMLStreamException e) {
+			throw new TranslatorException(e);
+		}
+	}
+	
+	private int getProjectedIndex(int cellNum, int start) {
+		for (int i = start; i < this.projectedCells.length; i++) {
+			if (this.projectedCells[i] == cellNum) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Get the 0 based column number from a cell reference such as AB12
+	 */
+	static int getCellNum(String ref) {
+		int result = 0;
+		for (int i = 0; i < ref.length(); i++) {
+			char c = ref.charAt(i);
+			if (c < 'A' || c > 'Z') {
+				break;
+			}
+			result = result * 26 + (c - 'A' + 1);
+		}
+		return result - 1;
+	}
+	
+	private Object getValue(String type, StringBuilder text) {
+		if (text == null) {
+			return null;
+		}
+		String value = text.toString();
+		if (type == null || type.equals("n")) { //$NON-NLS-1$
+			if (value.isEmpty()) {
+				return null;
+			}
+			return Double.valueOf(value);
+		}
+		if (type.equals("s")) { //$NON-NLS-1$
+			return this.strings.getEntryAt(Integer.parseInt(value));
+		}
+		if (type.equals("b")) { //$NON-NLS-1$
+			return Boolean.valueOf(value.equals("1") || value.equalsIgnoreCase("true")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (type.equals("e")) { //$NON-NLS-1$
+			// errors are returned as null, the same as an error from the formula evaluator
+			return null;
+		}
+		// str, inlineStr
+		return value;
+	}
+	
+	void close() {
+		if (this.reader != null) {
+			try {
+				this.reader.close();
+			} catch (XMLStreamException e) {
+				// ignore
+			}
+			this.reader = null;
+		}
+		if (this.sheetStream != null) {
+			try {
+				this.sheetStream.close();
+			} catch (IOException e) {
+				// ignore
+			}
+			this.sheetStream = null;
+		}
+		if (this.pkg != null) {
+			this.pkg.revert();
+			this.pkg = null;
+		}
+	}
+}
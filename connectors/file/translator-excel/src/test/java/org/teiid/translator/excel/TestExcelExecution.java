@@ -44,7 +44,12 @@ import org.teiid.translator.TranslatorException;
 public class TestExcelExecution {
 
 	private ArrayList helpExecute(String ddl, FileConnection connection, String query) throws Exception {
+		return helpExecute(ddl, connection, query, false);
+	}
+	
+	private ArrayList helpExecute(String ddl, FileConnection connection, String query, boolean streaming) throws Exception {
 		ExcelExecutionFactory translator = new ExcelExecutionFactory();
+		translator.setUseStreamingReader(streaming);
     	translator.start();
     	
     	TransformationMetadata metadata = RealMetadataFactory.fromDDL(ddl, "vdb", "excel");
@@ -311,6 +316,42 @@ public class TestExcelExecution {
     	assertEquals("[[10:12:14]]", results.toString());
 	}	
 	
+	@Test
+	public void testStreamingXLSX() throws Exception {
+		String ddl = "CREATE FOREIGN TABLE Sheet1 (\n" + 
+				"	ROW_ID integer OPTIONS (SEARCHABLE 'All_Except_Like', \"teiid_excel:CELL_NUMBER\" 'ROW_ID'),\n" + 
+				"	column1 string OPTIONS (SEARCHABLE 'Unsearchable', \"teiid_excel:CELL_NUMBER\" '1'),\n" + 
+				"	column2 string OPTIONS (SEARCHABLE 'Unsearchable', \"teiid_excel:CELL_NUMBER\" '2'),\n" + 
+				"	column3 string OPTIONS (SEARCHABLE 'Unsearchable', \"teiid_excel:CELL_NUMBER\" '3'),\n" + 
+				"	CONSTRAINT PK0 PRIMARY KEY(ROW_ID)\n" + 
+				") OPTIONS (\"teiid_excel:FILE\" 'names.xlsx');";
+
+    	FileConnection connection = Mockito.mock(FileConnection.class);
+    	Mockito.stub(connection.getFile("names.xlsx")).toReturn(UnitTestUtil.getTestDataFile("names.xlsx"));
+
+    	ArrayList results = helpExecute(ddl, connection, "select * from Sheet1", true);
+    	assertEquals("[[1, FirstName, LastName, Age], [2, John, Doe, null], [3, Jane, Smith, 40.0], [4, Matt, Liek, 13.0], [5, Sarah, Byne, 10.0], [6, Rocky, Dog, 3.0]]", results.toString());
+    	
+    	results = helpExecute(ddl, connection, "select column1 from Sheet1 WHERE ROW_ID > 2 and ROW_ID < 5", true);
+    	assertEquals("[[Jane], [Matt]]", results.toString());
+	}
+	
+	@Test
+	public void testStreamingXLSXTime() throws Exception {
+		String ddl = "CREATE FOREIGN TABLE Sheet1 (\n" + 
+				"	ROW_ID integer OPTIONS (SEARCHABLE 'All_Except_Like', \"teiid_excel:CELL_NUMBER\" 'ROW_ID'),\n" + 
+				"	Age double OPTIONS (SEARCHABLE 'Unsearchable', \"teiid_excel:CELL_NUMBER\" '3'),\n" + 
+				"	\"time\" time OPTIONS (SEARCHABLE 'Unsearchable', \"teiid_excel:CELL_NUMBER\" '4'),\n" +
+				"	CONSTRAINT PK0 PRIMARY KEY(ROW_ID)\n" + 
+				") OPTIONS (\"teiid_excel:FILE\" 'names.xlsx', \"teiid_excel:FIRST_DATA_ROW_NUMBER\" '5');";
+		
+    	FileConnection connection = Mockito.mock(FileConnection.class);
+    	Mockito.stub(connection.getFile("names.xlsx")).toReturn(UnitTestUtil.getTestDataFile("names.xlsx"));
+
+    	ArrayList results = helpExecute(ddl, connection, "select * from Sheet1", true);
+    	assertEquals("[[5, 10.0, 10:12:18], [6, 3.0, 10:12:14]]", results.toString());
+	}
+	
 	@Test(expected=TranslatorException.class)
 	public void testExecutionNoFile() throws Exception {
     	FileConnection connection = Mockito.mock(FileConnection.class);
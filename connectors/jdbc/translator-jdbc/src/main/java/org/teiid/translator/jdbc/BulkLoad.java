@@ -0,0 +1,309 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.jdbc;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.teiid.language.ColumnReference;
+import org.teiid.language.Expression;
+import org.teiid.language.ExpressionValueSource;
+import org.teiid.language.Insert;
+import org.teiid.language.LanguageObject;
+import org.teiid.language.Literal;
+import org.teiid.language.NamedTable;
+import org.teiid.language.Parameter;
+import org.teiid.translator.TranslatorException;
+
+/**
+ * Supports source specific bulk loading of the values of an {@link Insert}.
+ * <br>
+ * The values are streamed as UTF-8 text with tab separated fields and newline terminated rows.
+ * Null is written as \N and backslash, tab, newline and carriage return are escaped with a backslash,
+ * which is the default text format of both PostgreSQL COPY and MySQL LOAD DATA.
+ */
+public class BulkLoad {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+	private static final int BUFFER_SIZE = 1 << 13;
+	private static final String[] UNWRAP_METHODS = {"getUnderlyingConnection", "getUnderlyingStatement"}; //$NON-NLS-1$ //$NON-NLS-2$
+	private static final Set<Class<?>> TEMPORAL_TYPES = new HashSet<Class<?>>(Arrays.asList(new Class<?>[] {
+			java.sql.Date.class, java.sql.Time.class, java.sql.Timestamp.class}));
+	private static final Set<Class<?>> SUPPORTED_TYPES = new HashSet<Class<?>>(Arrays.asList(new Class<?>[] {
+			String.class, Character.class, Boolean.class, Byte.class, Short.class, Integer.class, Long.class, BigInteger.class,
+			Float.class, Double.class, BigDecimal.class}));
+
+	static {
+		SUPPORTED_TYPES.addAll(TEMPORAL_TYPES);
+	}
+
+	private String tableName;
+	private String columnNames;
+	private Iterator<? extends List<?>> values;
+	private List<Expression> expressions;
+	private long rowCount;
+
+	private BulkLoad(String tableName, String columnNames, List<Expression> expressions, Iterator<? extends List<?>> values) {
+		this.tableName = tableName;
+		this.columnNames = columnNames;
+		this.expressions = expressions;
+		this.values = values;
+	}
+
+	/**
+	 * Create a bulk load for the insert.  No values are consumed.
+	 * @return the bulk load or null if the insert cannot be bulk loaded - for example
+	 * due to a value expression or a type that cannot be written as text
+	 */
+	public static BulkLoad create(JDBCExecutionFactory ef, Insert insert, Iterator<? extends List<?>> values) {
+		if (values == null || !(insert.getValueSource() instanceof ExpressionValueSource)) {
+			return null;
+		}
+		List<Expression> expressions = ((ExpressionValueSource)insert.getValueSource()).getValues();
+		for (Expression ex : expressions) {
+			if (!(ex instanceof Parameter || ex instanceof Literal) || !SUPPORTED_TYPES.contains(ex.getType())) {
+				return null;
+			}
+			if (ef.getDatabaseTimeZone() != null && TEMPORAL_TYPES.contains(ex.getType())) {
+				//the driver would otherwise perform the conversion
+				return null;
+			}
+		}
+		NamedTable table = insert.getTable();
+		String tableName = getSQL(ef, new NamedTable(table.getName(), null, table.getMetadataObject()));
+		StringBuilder columnNames = new StringBuilder();
+		for (ColumnReference col : insert.getColumns()) {
+			if (columnNames.length() > 0) {
+				columnNames.append(", "); //$NON-NLS-1$
+			}
+			columnNames.append(getSQL(ef, new ColumnReference(null, col.getName(), col.getMetadataObject(), col.getType())));
+		}
+		return new BulkLoad(tableName, columnNames.toString(), expressions, values);
+	}
+
+	private static String getSQL(JDBCExecutionFactory ef, LanguageObject obj) {
+		SQLConversionVisitor visitor = ef.getSQLConversionVisitor();
+		visitor.append(obj);
+		return visitor.toString();
+	}
+
+	/**
+	 * @return the source name of the target table
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * @return the comma separated source names of the target columns
+	 */
+	public String getColumnNames() {
+		return columnNames;
+	}
+
+	/**
+	 * @return the number of rows written to the stream so far
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Get a stream of the values as text.  The values are only read from the insert as the stream is consumed.
+	 */
+	public InputStream getInputStream() {
+		return new InputStream() {
+			private StringBuilder text = new StringBuilder(BUFFER_SIZE + 256);
+			private byte[] bytes = new byte[0];
+			private int pos;
+
+			@Override
+			public int read() {
+				if (pos >= bytes.length && !fill()) {
+					return -1;
+				}
+				return bytes[pos++] & 0xff;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				if (len == 0) {
+					return 0;
+				}
+				if (pos >= bytes.length && !fill()) {
+					return -1;
+				}
+				int count = Math.min(len, bytes.length - pos);
+				System.arraycopy(bytes, pos, b, off, count);
+				pos += count;
+				return count;
+			}
+
+			private boolean fill() {
+				text.setLength(0);
+				while (text.length() < BUFFER_SIZE && values.hasNext()) {
+					appendRow(text, values.next());
+					rowCount++;
+				}
+				bytes = text.toString().getBytes(UTF_8);
+				pos = 0;
+				return bytes.length > 0;
+			}
+		};
+	}
+
+	private void appendRow(StringBuilder text, List<?> row) {
+		for (int i = 0; i < expressions.size(); i++) {
+			if (i > 0) {
+				text.append('\t');
+			}
+			Expression ex = expressions.get(i);
+			Object value = null;
+			if (ex instanceof Parameter) {
+				value = row.get(((Parameter)ex).getValueIndex());
+			} else {
+				value = ((Literal)ex).getValue();
+			}
+			appendValue(text, value);
+		}
+		text.append('\n');
+	}
+
+	private static void appendValue(StringBuilder text, Object value) {
+		if (value == null) {
+			text.append("\\N"); //$NON-NLS-1$
+			return;
+		}
+		if (value instanceof Boolean) {
+			text.append(((Boolean)value).booleanValue()?'1':'0');
+			return;
+		}
+		if (value instanceof BigDecimal) {
+			text.append(((BigDecimal)value).toPlainString());
+			return;
+		}
+		if (value instanceof Number || value instanceof java.util.Date) {
+			text.append(value);
+			return;
+		}
+		String string = value.toString();
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			switch (c) {
+			case '\\':
+				text.append("\\\\"); //$NON-NLS-1$
+				break;
+			case '\t':
+				text.append("\\t"); //$NON-NLS-1$
+				break;
+			case '\n':
+				text.append("\\n"); //$NON-NLS-1$
+				break;
+			case '\r':
+				text.append("\\r"); //$NON-NLS-1$
+				break;
+			default:
+				text.append(c);
+			}
+		}
+	}
+
+	/**
+	 * Find the driver object that has the given public method.  Pooled connections and statements
+	 * are unwrapped with their getUnderlyingConnection or getUnderlyingStatement method.
+	 * @return the object or null if there is no such method
+	 */
+	public static Object getDriverObject(Object obj, String methodName) throws TranslatorException {
+		while (obj != null) {
+			if (getMethod(obj, methodName) != null) {
+				return obj;
+			}
+			Method unwrap = null;
+			for (String name : UNWRAP_METHODS) {
+				unwrap = getMethod(obj, name);
+				if (unwrap != null) {
+					break;
+				}
+			}
+			if (unwrap == null) {
+				return null;
+			}
+			try {
+				obj = unwrap.invoke(obj);
+			} catch (Exception e) {
+				throw new TranslatorException(e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Invoke the public method with the given parameter types on the driver object
+	 */
+	public static Object invoke(Object obj, String methodName, Class<?>[] types, Object... args) throws SQLException, TranslatorException {
+		Method method = getMethod(obj, methodName, types);
+		if (method == null) {
+			throw new TranslatorException(methodName);
+		}
+		try {
+			return method.invoke(obj, args);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException)e.getCause();
+			}
+			throw new TranslatorException(e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new TranslatorException(e);
+		}
+	}
+
+	private static Method getMethod(Object obj, String methodName) {
+		return getMethod(obj, methodName, null);
+	}
+
+	private static Method getMethod(Object obj, String methodName, Class<?>[] types) {
+		for (Method method : obj.getClass().getMethods()) {
+			if (method.getName().equals(methodName) && (types == null || Arrays.equals(types, method.getParameterTypes()))) {
+				try {
+					//the implementation class may not be public
+					method.setAccessible(true);
+				} catch (SecurityException e) {
+					//attempt the invocation anyway
+				}
+				return method;
+			}
+		}
+		return null;
+	}
+
+}
@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sql.DataSource;
@@ -57,9 +58,11 @@ import org.teiid.language.Argument.Direction;
 import org.teiid.language.SetQuery.Operation;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.metadata.AbstractMetadataRecord;
 import org.teiid.metadata.MetadataFactory;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.translator.*;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
 import org.teiid.util.Version;
 
 
@@ -71,6 +74,12 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 
 	public static final int DEFAULT_MAX_IN_CRITERIA = 1000;
 	public static final int DEFAULT_MAX_DEPENDENT_PREDICATES = 50;
+	public static final int DEFAULT_PARTITIONED_READ_MINIMUM_CARDINALITY = 100000;
+	
+	/**
+	 * Table extension property naming an integral column to use for partitioned reads
+	 */
+	public static final String PARTITION_COLUMN = AbstractMetadataRecord.RELATIONAL_URI + "partition-column"; //$NON-NLS-1$
 	
     public enum StructRetrieval {
     	OBJECT,
@@ -121,6 +130,14 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 	
 	private AtomicBoolean initialConnection = new AtomicBoolean(true);
 	
+	private boolean useBulkLoad;
+	private int partitionedReadCount = 1;
+	private int partitionedReadMinimumCardinality = DEFAULT_PARTITIONED_READ_MINIMUM_CARDINALITY;
+	private int partitionedReadMaxThreads = ReaderExecutor.DEFAULT_MAX_THREADS;
+	private Map<Connection, DataSource> connectionSources = Collections.synchronizedMap(new WeakHashMap<Connection, DataSource>());
+	private ReaderExecutor partitionExecutor;
+	private Boolean typedResultSetReader;
+	
 	public JDBCExecutionFactory() {
 		setSupportsFullOuterJoins(true);
 		setSupportsOrderBy(true);
@@ -250,7 +267,11 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
     @Override
     public ResultSetExecution createResultSetExecution(QueryExpression command, ExecutionContext executionContext, RuntimeMetadata metadata, Connection conn)
     		throws TranslatorException {
-    	return new JDBCQueryExecution(command, conn, executionContext, this);
+    	JDBCQueryExecution execution = new JDBCQueryExecution(command, conn, executionContext, this);
+    	if (this.partitionedReadCount > 1 && command instanceof Select && !executionContext.isTransactional()) {
+    		execution.setPartitioning(this.partitionedReadCount, this.connectionSources.get(conn));
+    	}
+    	return execution;
     }
     
     @Override
@@ -277,6 +298,9 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 		try {
 	    	Connection c = ds.getConnection();
 	    	obtainedConnection(c);
+	    	if (this.partitionedReadCount > 1) {
+	    		this.connectionSources.put(c, ds);
+	    	}
 	    	return c;
 		} catch (SQLException e) {
 			 throw new TranslatorException(JDBCPlugin.Event.TEIID11009, e);
@@ -288,6 +312,7 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
     	if (connection == null) {
     		return;
     	}
+    	this.connectionSources.remove(connection);
     	try {
 			connection.close();
 		} catch (SQLException e) {
@@ -1129,6 +1154,25 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 		return result;
     }
 
+    /**
+     * Create a reader for result set rows with the given expected column types.
+     * <br>
+     * If {@link #retrieveValue(ResultSet, int, Class)} is overridden, the reader will retrieve
+     * every value through that method.
+     * @param columnTypes
+     * @return the reader
+     */
+    public ResultSetReader createResultSetReader(Class<?>[] columnTypes) {
+    	if (typedResultSetReader == null) {
+    		try {
+				typedResultSetReader = getClass().getMethod("retrieveValue", ResultSet.class, int.class, Class.class).getDeclaringClass() == JDBCExecutionFactory.class; //$NON-NLS-1$
+			} catch (NoSuchMethodException e) {
+				typedResultSetReader = false;
+			}
+    	}
+    	return new ResultSetReader(this, columnTypes, typedResultSetReader);
+    }
+
     /**
      * Retrieve the value for the given parameter index
      * @param results
@@ -1609,6 +1653,70 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
 		return false;
 	}
 
+	@TranslatorProperty(display="Use Bulk Load", description="Use a source specific bulk load mechanism, if one is available, for multi-row inserts such as INSERT INTO ... SELECT.  Bulk loads may not perform the same type conversions as prepared statements.  Some sources, such as Oracle, only use a bulk load outside of a transaction.", advanced=true)
+	public boolean useBulkLoad() {
+		return useBulkLoad;
+	}
+	
+	public void setUseBulkLoad(boolean useBulkLoad) {
+		this.useBulkLoad = useBulkLoad;
+	}
+	
+	/**
+	 * Load the values of a multi-row insert using a source specific mechanism rather than prepared statement batches.
+	 * Only called if {@link #useBulkLoad()} is true and generated keys are not needed.
+	 * <br>
+	 * Implementations must return null without consuming any values if a bulk load is not possible.
+	 * @param insert
+	 * @param values the row values for the insert parameters
+	 * @param context
+	 * @param connection
+	 * @return the number of rows loaded or null if prepared statement batches should be used
+	 * @throws SQLException
+	 * @throws TranslatorException
+	 */
+	public Long bulkLoad(Insert insert, Iterator<? extends List<?>> values, ExecutionContext context, Connection connection) throws SQLException, TranslatorException {
+		return null;
+	}
+	
+	@TranslatorProperty(display="Partitioned Read Count", description="The number of concurrent range partitioned queries to use for a scan of a table that declares a partition-column extension property.  Each partition uses a separate connection, so the partitions are not read from a consistent snapshot of the table.  Partitioned reads are not used in a transaction.  The default of 1 disables partitioned reads.", advanced=true)
+	public int getPartitionedReadCount() {
+		return partitionedReadCount;
+	}
+	
+	public void setPartitionedReadCount(int partitionedReadCount) {
+		this.partitionedReadCount = partitionedReadCount;
+	}
+	
+	@TranslatorProperty(display="Partitioned Read Minimum Cardinality", description="Tables with a known cardinality less than this value will not use partitioned reads.  Default 100000.", advanced=true)
+	public int getPartitionedReadMinimumCardinality() {
+		return partitionedReadMinimumCardinality;
+	}
+	
+	public void setPartitionedReadMinimumCardinality(
+			int partitionedReadMinimumCardinality) {
+		this.partitionedReadMinimumCardinality = partitionedReadMinimumCardinality;
+	}
+	
+	@TranslatorProperty(display="Partitioned Read Max Threads", description="The maximum number of threads used by all partitioned reads.  A read that cannot obtain at least two threads is not partitioned.  Default 64.", advanced=true)
+	public int getPartitionedReadMaxThreads() {
+		return partitionedReadMaxThreads;
+	}
+	
+	public void setPartitionedReadMaxThreads(int partitionedReadMaxThreads) {
+		this.partitionedReadMaxThreads = partitionedReadMaxThreads;
+	}
+	
+	/**
+	 * @return the executor used to read each partition of a partitioned read
+	 */
+	synchronized ReaderExecutor getPartitionExecutor() {
+		if (partitionExecutor == null) {
+			partitionExecutor = new ReaderExecutor("JDBC Partitioned Read", partitionedReadMaxThreads); //$NON-NLS-1$
+		}
+		return partitionExecutor;
+	}
+
 	public String getLateralKeyword() {
 		return SQLConstants.Reserved.LATERAL;
 	}
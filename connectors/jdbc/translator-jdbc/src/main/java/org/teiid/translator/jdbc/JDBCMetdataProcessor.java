@@ -199,7 +199,9 @@ public class JDBCMetdataProcessor implements MetadataProcessor<Connection>{
 	}
 
 	/**
-	 * 
+	 * Set the statistics for a table that does not have a known cardinality.
+	 * Implementations may also set the {@link Column} statistics, such as the 
+	 * null and distinct value counts, histogram, and most common values.
 	 * @param conn
 	 * @param catalog
 	 * @param schema
@@ -962,7 +964,7 @@ public class JDBCMetdataProcessor implements MetadataProcessor<Connection>{
         return useAnyIndexCardinality;
     }
 
-    @TranslatorProperty(display="Import Statistics", category=PropertyType.IMPORT, description="true will use database dependent logic to determine the cardinality if none is determined. Not yet supported by all database types - currently only supported by Oracle and MySQL.")
+    @TranslatorProperty(display="Import Statistics", category=PropertyType.IMPORT, description="true will use database dependent logic to determine the cardinality if none is determined. Not yet supported by all database types - currently only supported by Oracle, MySQL, and PostgreSQL. PostgreSQL also imports the column statistics, including the histogram and most common values.")
     public boolean isImportStatistics() {
         return importStatistics;
     }
@@ -60,5 +60,6 @@ public class JDBCPlugin {
 		TEIID11023,
 		TEIID11024,
 		TEIID11025,
+		TEIID11026,
 	}
 }
@@ -36,11 +36,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import javax.sql.DataSource;
+
 import org.teiid.language.*;
 import org.teiid.language.Comparison.Operator;
 import org.teiid.language.visitor.HierarchyVisitor;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.metadata.Column;
+import org.teiid.metadata.Table;
 import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ResultSetExecution;
@@ -83,11 +87,25 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
 	protected ResultSet results;
     protected Class<?>[] columnDataTypes;
     protected List<NamedTable> tempTables;
+    private int partitionCount = 1;
+    private DataSource dataSource;
+    private PartitionedRead partitionedRead;
+    private ResultSetReader reader;
 
     public JDBCQueryExecution(Command command, Connection connection, ExecutionContext context, JDBCExecutionFactory env) {
         super(command, connection, context, env);
     }
     
+    /**
+     * Allow a scan to be read as the given number of range partitions.  
+     * Partitions beyond the first use connections obtained from the {@link DataSource}.
+     * @param dataSource if null partitioning is not used
+     */
+    void setPartitioning(int partitionCount, DataSource dataSource) {
+		this.partitionCount = partitionCount;
+		this.dataSource = dataSource;
+	}
+    
     @Override
     public void execute() throws TranslatorException {
         // get column types
@@ -104,6 +122,9 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
 	        	Select select = (Select)command;
 	        	if (select.getDependentValues() != null) {
 	        		usingTxn = createTempTables(select);
+	        	} else if (executePartitioned(select)) {
+	        		success = true;
+	        		return;
 	        	}
 	        }
 	        if (qe.getWith() != null) {
@@ -147,6 +168,39 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
         }
     }
 
+    private boolean executePartitioned(Select select) throws TranslatorException, SQLException {
+    	//the other partitions would not be read in the same transaction
+    	if (this.partitionCount <= 1 || this.dataSource == null || !getConnection().getAutoCommit()) {
+    		return false;
+    	}
+    	Column column = PartitionedRead.getPartitionColumn(select);
+    	if (column == null) {
+    		return false;
+    	}
+    	float cardinality = ((Table)column.getParent()).getCardinalityAsFloat();
+    	if (cardinality >= 0 && cardinality < this.executionFactory.getPartitionedReadMinimumCardinality()) {
+    		return false;
+    	}
+    	PartitionedRead read = new PartitionedRead(this, getReader());
+    	//read serially if reader threads are not available
+    	int threads = read.reserve(this.executionFactory.getPartitionExecutor(), this.partitionCount);
+    	boolean success = false;
+    	try {
+	    	if (threads < 2 || !read.translate(select, column, threads)) {
+	    		return false;
+	    	}
+	    	success = true;
+    	} finally {
+    		if (!success) {
+    			read.close();
+    		}
+    	}
+    	LogManager.logDetail(LogConstants.CTX_CONNECTOR, "Reading", select.getFrom().get(0), "with", read.getPartitionCount(), "partitions on", column.getName()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    	this.partitionedRead = read;
+    	read.execute(this.dataSource);
+    	return true;
+    }
+
     /**
      * 
      * @param qe
@@ -334,18 +388,13 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
 
     @Override
     public List<?> next() throws TranslatorException, DataNotAvailableException {
+    	if (partitionedRead != null) {
+    		return partitionedRead.next();
+    	}
         try {
             if (results.next()) {
                 // New row for result set
-                List<Object> vals = new ArrayList<Object>(columnDataTypes.length);
-
-                for (int i = 0; i < columnDataTypes.length; i++) {
-                    // Convert from 0-based to 1-based
-                    Object value = this.executionFactory.retrieveValue(results, i+1, columnDataTypes[i]);
-                    vals.add(value); 
-                }
-
-                return vals;
+                return getReader().readRow(results);
             } 
         } catch (SQLException e) {
             throw new TranslatorException(e,
@@ -355,6 +404,13 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
         return null;
     }
     
+    private ResultSetReader getReader() {
+    	if (reader == null) {
+    		reader = this.executionFactory.createResultSetReader(columnDataTypes);
+    	}
+		return reader;
+	}
+    
     /**
      * @see org.teiid.translator.jdbc.JDBCBaseExecution#close()
      */
@@ -362,6 +418,10 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
         // first we would need to close the result set here then we can close
         // the statement, using the base class.
     	try {
+    		if (partitionedRead != null) {
+    			partitionedRead.close();
+    			partitionedRead = null;
+    		}
 	        if (results != null) {
 	            try {
 	                results.close();
@@ -397,5 +457,14 @@ public class JDBCQueryExecution extends JDBCBaseExecution implements ResultSetEx
     		super.close();
     	}
     }
+    
+    @Override
+    public void cancel() throws TranslatorException {
+    	PartitionedRead read = partitionedRead;
+    	if (read != null) {
+    		read.cancel();
+    	}
+    	super.cancel();
+    }
 
 }
@@ -79,7 +79,7 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
     public void execute() throws TranslatorException {
         if (command instanceof BatchedUpdates) {
         	execute(((BatchedUpdates)command));
-        } else {
+        } else if (!bulkLoad()) {
             // translate command
             TranslatedCommand translatedComm = translateCommand(command);
 
@@ -87,6 +87,37 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
         }
     }
 
+    /**
+     * Use the source specific bulk load for a multi-row insert if possible
+     * @return true if the values were loaded
+     */
+    private boolean bulkLoad() throws TranslatorException {
+    	if (!(command instanceof Insert) || !this.executionFactory.useBulkLoad()) {
+    		return false;
+    	}
+    	Insert insert = (Insert)command;
+    	if (insert.getParameterValues() == null || context.getCommandContext().isReturnAutoGeneratedKeys()) {
+    		return false;
+    	}
+    	Long count = null;
+    	try {
+    		count = this.executionFactory.bulkLoad(insert, insert.getParameterValues(), context, connection);
+    	} catch (SQLException e) {
+    		throw new JDBCExecutionException(JDBCPlugin.Event.TEIID11013, e, command.toString());
+    	}
+    	if (count == null) {
+    		return false;
+    	}
+    	LogManager.logDetail(LogConstants.CTX_CONNECTOR, "Bulk loaded", count, "rows into", insert.getTable()); //$NON-NLS-1$ //$NON-NLS-2$
+    	if (this.executionFactory.returnsSingleUpdateCount()) {
+    		result = new int[] {(int)Math.min(count, Integer.MAX_VALUE)};
+    	} else {
+    		result = new int[(int)Math.min(count, Integer.MAX_VALUE)];
+    		Arrays.fill(result, 1);
+    	}
+    	return true;
+    }
+
     public int[] execute(BatchedUpdates batchedCommand) throws TranslatorException {
         boolean succeeded = false;
 
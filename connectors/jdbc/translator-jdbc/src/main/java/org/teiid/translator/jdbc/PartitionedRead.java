@@ -0,0 +1,347 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.jdbc;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.sql.DataSource;
+
+import org.teiid.language.*;
+import org.teiid.language.Comparison.Operator;
+import org.teiid.language.visitor.CollectorVisitor;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.metadata.Column;
+import org.teiid.metadata.Table;
+import org.teiid.translator.ConcurrentReads;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
+import org.teiid.translator.DataNotAvailableException;
+import org.teiid.translator.TranslatorException;
+
+/**
+ * Reads a single table scan as several range partitioned queries over an integral partition column.
+ * The partitions are read by up to the partition count of readers, each with its own thread and connection, 
+ * and the rows are merged, in no particular order, as they become available.  As the connections are not
+ * in the same transaction the partitions are not read from a consistent snapshot of the table.
+ * <br>
+ * The first partition also covers null values and values below the lower bound, and the last partition
+ * has no upper bound, so that the partitions always cover the whole table.
+ */
+class PartitionedRead {
+
+	private JDBCQueryExecution execution;
+	private ResultSetReader reader;
+	private List<TranslatedCommand> partitions = new ArrayList<TranslatedCommand>();
+	private ConcurrentReads<List<?>> reads;
+	private int reserved;
+	private List<Statement> statements = new ArrayList<Statement>();
+
+	PartitionedRead(JDBCQueryExecution execution, ResultSetReader reader) {
+		this.execution = execution;
+		this.reader = reader;
+		this.reads = new ConcurrentReads<List<?>>(execution.context, Math.max(1024, execution.fetchSize * 2));
+		this.reads.setStopHook(new Runnable() {
+			@Override
+			public void run() {
+				cancelStatements();
+			}
+		});
+	}
+
+	/**
+	 * Reserve up to the given number of reader threads without blocking
+	 * @return the number of threads reserved
+	 */
+	int reserve(ReaderExecutor executor, int count) {
+		this.reserved = this.reads.reserve(executor, count);
+		return this.reserved;
+	}
+
+	/**
+	 * Get the partition column for a simple scan of a table that declares one
+	 * @return the partition column or null if the select should not be partitioned
+	 */
+	static Column getPartitionColumn(Select select) {
+		if (select.getFrom() == null || select.getFrom().size() != 1 || !(select.getFrom().get(0) instanceof NamedTable)
+				|| select.getGroupBy() != null || select.getHaving() != null || select.getOrderBy() != null || select.getLimit() != null
+				|| select.isDistinct() || select.getDependentValues() != null || select.getWith() != null
+				|| !CollectorVisitor.collectObjects(AggregateFunction.class, select).isEmpty()
+				|| !CollectorVisitor.collectObjects(SubqueryContainer.class, select).isEmpty()) {
+			return null;
+		}
+		Table table = ((NamedTable)select.getFrom().get(0)).getMetadataObject();
+		if (table == null) {
+			return null;
+		}
+		String name = table.getProperty(JDBCExecutionFactory.PARTITION_COLUMN, false);
+		if (name == null) {
+			return null;
+		}
+		Column column = table.getColumnByName(name);
+		if (column == null || !isIntegral(column.getJavaType())) {
+			return null;
+		}
+		return column;
+	}
+
+	private static boolean isIntegral(Class<?> type) {
+		return type == Integer.class || type == Long.class || type == Short.class || type == Byte.class || type == BigInteger.class;
+	}
+
+	/**
+	 * Translate a query for each partition.
+	 * @return false if the bounds do not allow for more than one partition
+	 */
+	boolean translate(Select select, Column column, int count) throws TranslatorException, SQLException {
+		NamedTable table = (NamedTable)select.getFrom().get(0);
+		ColumnReference ref = new ColumnReference(table, column.getName(), column, column.getJavaType());
+		long[] bounds = getBounds(select, ref);
+		if (bounds == null) {
+			return false;
+		}
+		BigInteger range = BigInteger.valueOf(bounds[1]).subtract(BigInteger.valueOf(bounds[0])).add(BigInteger.ONE);
+		if (range.compareTo(BigInteger.valueOf(count)) < 0) {
+			count = range.intValue();
+		}
+		if (count <= 1) {
+			return false;
+		}
+		BigInteger step = range.divide(BigInteger.valueOf(count));
+		Condition where = select.getWhere();
+		try {
+			for (int i = 0; i < count; i++) {
+				Condition partition = null;
+				if (i > 0) {
+					partition = new Comparison(ref, getBound(bounds[0], step, i, ref.getType()), Operator.GE);
+				}
+				if (i < count - 1) {
+					Condition upper = new Comparison(ref, getBound(bounds[0], step, i + 1, ref.getType()), Operator.LT);
+					if (i == 0) {
+						upper = new AndOr(upper, new IsNull(ref, false), AndOr.Operator.OR);
+					}
+					partition = LanguageUtil.combineCriteria(Arrays.asList(partition, upper));
+				}
+				select.setWhere(LanguageUtil.combineCriteria(Arrays.asList(where, partition)));
+				this.partitions.add(execution.translateCommand(select));
+			}
+		} finally {
+			select.setWhere(where);
+		}
+		return true;
+	}
+
+	private static Literal getBound(long min, BigInteger step, int i, Class<?> type) {
+		BigInteger value = step.multiply(BigInteger.valueOf(i)).add(BigInteger.valueOf(min));
+		if (type == Integer.class) {
+			return new Literal(value.intValue(), type);
+		}
+		if (type == Short.class) {
+			return new Literal(value.shortValue(), type);
+		}
+		if (type == Byte.class) {
+			return new Literal(value.byteValue(), type);
+		}
+		if (type == BigInteger.class) {
+			return new Literal(value, type);
+		}
+		return new Literal(value.longValue(), type);
+	}
+
+	/**
+	 * Get the bounds from the column statistics or from the source
+	 * @return the min and max or null if there are no values or the values are out of range
+	 */
+	private long[] getBounds(Select select, ColumnReference ref) throws TranslatorException, SQLException {
+		Column column = ref.getMetadataObject();
+		if (column.getMinimumValue() != null && column.getMaximumValue() != null && select.getWhere() == null) {
+			try {
+				return new long[] {Long.parseLong(column.getMinimumValue()), Long.parseLong(column.getMaximumValue())};
+			} catch (NumberFormatException e) {
+				//query the source instead
+			}
+		}
+		List<DerivedColumn> cols = new ArrayList<DerivedColumn>(2);
+		cols.add(new DerivedColumn(null, new AggregateFunction(AggregateFunction.MIN, false, Arrays.asList(ref), ref.getType())));
+		cols.add(new DerivedColumn(null, new AggregateFunction(AggregateFunction.MAX, false, Arrays.asList(ref), ref.getType())));
+		Select bounds = new Select(cols, false, select.getFrom(), select.getWhere(), null, null, null);
+		TranslatedCommand tc = execution.translateCommand(bounds);
+		Statement s = null;
+		ResultSet rs = null;
+		try {
+			if (tc.isPrepared()) {
+				PreparedStatement ps = execution.getConnection().prepareStatement(tc.getSql());
+				s = ps;
+				execution.bind(ps, tc.getPreparedValues(), null);
+				rs = ps.executeQuery();
+			} else {
+				s = execution.getConnection().createStatement();
+				rs = s.executeQuery(tc.getSql());
+			}
+			if (!rs.next()) {
+				return null;
+			}
+			Number min = (Number)rs.getObject(1);
+			Number max = (Number)rs.getObject(2);
+			if (min == null || max == null) {
+				return null;
+			}
+			BigInteger minValue = new BigInteger(min.toString());
+			BigInteger maxValue = new BigInteger(max.toString());
+			if (minValue.bitLength() > 63 || maxValue.bitLength() > 63) {
+				return null;
+			}
+			return new long[] {minValue.longValue(), maxValue.longValue()};
+		} finally {
+			if (rs != null) {
+				rs.close();
+			}
+			if (s != null) {
+				s.close();
+			}
+		}
+	}
+
+	/**
+	 * Start reading the partitions with up to the reserved number of readers.  
+	 * The first reader uses the execution connection.  A reader that cannot obtain a connection
+	 * exits and leaves its partitions to the other readers.
+	 */
+	void execute(final DataSource ds) {
+		final Queue<TranslatedCommand> queue = new ConcurrentLinkedQueue<TranslatedCommand>(partitions);
+		int readers = Math.min(reserved, partitions.size());
+		for (int i = 0; i < readers; i++) {
+			final boolean own = i > 0;
+			reads.start(new ConcurrentReads.Reader<List<?>>() {
+				@Override
+				public void read(ConcurrentReads<List<?>> r) throws Exception {
+					Connection conn = null;
+					try {
+						if (own) {
+							try {
+								conn = execution.executionFactory.getConnection(ds);
+							} catch (TranslatorException e) {
+								LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Could not obtain a connection for a partitioned read, the partitions will be read with fewer connections"); //$NON-NLS-1$
+								return;
+							}
+						}
+						TranslatedCommand tc = null;
+						while (!r.isStopped() && (tc = queue.poll()) != null) {
+							PartitionedRead.this.read(tc, own?conn:execution.getConnection());
+						}
+					} finally {
+						if (conn != null) {
+							execution.executionFactory.closeConnection(conn, ds);
+						}
+					}
+				}
+			});
+		}
+	}
+
+	private void read(TranslatedCommand tc, Connection conn) throws Exception {
+		Statement s = null;
+		ResultSet rs = null;
+		try {
+			if (tc.isPrepared()) {
+				PreparedStatement ps = conn.prepareStatement(tc.getSql());
+				s = ps;
+				addStatement(s);
+				execution.setSizeContraints(s);
+				execution.bind(ps, tc.getPreparedValues(), null);
+				rs = ps.executeQuery();
+			} else {
+				s = conn.createStatement();
+				addStatement(s);
+				execution.setSizeContraints(s);
+				rs = s.executeQuery(tc.getSql());
+			}
+			while (rs.next()) {
+				if (!reads.add(reader.readRow(rs))) {
+					return;
+				}
+			}
+		} finally {
+			if (rs != null) {
+				try {
+					rs.close();
+				} catch (SQLException e) {
+					LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Exception closing"); //$NON-NLS-1$
+				}
+			}
+			if (s != null) {
+				synchronized (statements) {
+					statements.remove(s);
+				}
+				s.close();
+			}
+		}
+	}
+
+	private void addStatement(Statement s) {
+		synchronized (statements) {
+			statements.add(s);
+		}
+	}
+
+	private void cancelStatements() {
+		synchronized (statements) {
+			for (Statement s : statements) {
+				try {
+					s.cancel();
+				} catch (SQLException e) {
+					//not all drivers support cancel
+				}
+			}
+		}
+	}
+
+	List<?> next() throws TranslatorException, DataNotAvailableException {
+		return reads.next();
+	}
+
+	void cancel() {
+		reads.stop();
+	}
+
+	/**
+	 * Stop and wait for the readers and release any reserved threads
+	 */
+	void close() {
+		reads.close();
+	}
+
+	int getPartitionCount() {
+		return partitions.size();
+	}
+
+}
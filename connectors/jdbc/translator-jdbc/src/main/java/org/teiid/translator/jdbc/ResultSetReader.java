@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.teiid.core.types.DataTypeManager;
+
+/**
+ * Reads {@link ResultSet} rows with a value reader chosen once for each column, rather than
+ * dispatching on the expected type of each value.
+ * <br>
+ * The readers perform the same retrieval as {@link JDBCExecutionFactory#retrieveValue(ResultSet, int, Class)}.
+ * If that method is overridden, or for less common types, the values are retrieved through the factory.
+ * <br>
+ * Instances are stateless and may be shared by threads reading separate result sets.
+ */
+public class ResultSetReader {
+
+	private static abstract class ValueReader {
+		abstract Object read(ResultSet rs, int index) throws SQLException;
+	}
+
+	private static final ValueReader INTEGER = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			int value = rs.getInt(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Integer.valueOf(value);
+		}
+	};
+
+	private static final ValueReader LONG = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			long value = rs.getLong(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Long.valueOf(value);
+		}
+	};
+
+	private static final ValueReader DOUBLE = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			double value = rs.getDouble(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Double.valueOf(value);
+		}
+	};
+
+	private static final ValueReader FLOAT = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			float value = rs.getFloat(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Float.valueOf(value);
+		}
+	};
+
+	private static final ValueReader SHORT = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			short value = rs.getShort(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Short.valueOf(value);
+		}
+	};
+
+	private static final ValueReader BOOLEAN = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			boolean value = rs.getBoolean(index);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return Boolean.valueOf(value);
+		}
+	};
+
+	private static final ValueReader BIGDECIMAL = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			return rs.getBigDecimal(index);
+		}
+	};
+
+	private static final ValueReader OBJECT = new ValueReader() {
+		@Override
+		Object read(ResultSet rs, int index) throws SQLException {
+			return rs.getObject(index);
+		}
+	};
+
+	private ValueReader[] readers;
+
+	/**
+	 * @param ef
+	 * @param columnTypes the expected column types
+	 * @param typed true if the typed readers may be used, false if all values should be retrieved through the factory
+	 */
+	ResultSetReader(final JDBCExecutionFactory ef, Class<?>[] columnTypes, boolean typed) {
+		this.readers = new ValueReader[columnTypes.length];
+		for (int i = 0; i < columnTypes.length; i++) {
+			final Class<?> type = columnTypes[i];
+			ValueReader reader = null;
+			if (typed) {
+				reader = getTypedReader(ef, type);
+			}
+			if (reader == null) {
+				reader = new ValueReader() {
+					@Override
+					Object read(ResultSet rs, int index) throws SQLException {
+						return ef.retrieveValue(rs, index, type);
+					}
+				};
+			}
+			this.readers[i] = reader;
+		}
+	}
+
+	private static ValueReader getTypedReader(final JDBCExecutionFactory ef, Class<?> type) {
+		switch (DataTypeManager.getTypeCode(type)) {
+		case DataTypeManager.DefaultTypeCodes.INTEGER:
+			return INTEGER;
+		case DataTypeManager.DefaultTypeCodes.LONG:
+			return LONG;
+		case DataTypeManager.DefaultTypeCodes.DOUBLE:
+			return DOUBLE;
+		case DataTypeManager.DefaultTypeCodes.FLOAT:
+			return FLOAT;
+		case DataTypeManager.DefaultTypeCodes.SHORT:
+			return SHORT;
+		case DataTypeManager.DefaultTypeCodes.BOOLEAN:
+			return BOOLEAN;
+		case DataTypeManager.DefaultTypeCodes.BIGDECIMAL:
+			return BIGDECIMAL;
+		case DataTypeManager.DefaultTypeCodes.TIME:
+			return new ValueReader() {
+				@Override
+				Object read(ResultSet rs, int index) throws SQLException {
+					return rs.getTime(index, ef.getDatabaseCalendar());
+				}
+			};
+		case DataTypeManager.DefaultTypeCodes.DATE:
+			return new ValueReader() {
+				@Override
+				Object read(ResultSet rs, int index) throws SQLException {
+					return rs.getDate(index, ef.getDatabaseCalendar());
+				}
+			};
+		case DataTypeManager.DefaultTypeCodes.TIMESTAMP:
+			return new ValueReader() {
+				@Override
+				Object read(ResultSet rs, int index) throws SQLException {
+					return rs.getTimestamp(index, ef.getDatabaseCalendar());
+				}
+			};
+		case DataTypeManager.DefaultTypeCodes.BLOB:
+		case DataTypeManager.DefaultTypeCodes.CLOB:
+		case DataTypeManager.DefaultTypeCodes.VARBINARY:
+		case DataTypeManager.DefaultTypeCodes.GEOMETRY:
+		case DataTypeManager.DefaultTypeCodes.OBJECT:
+			//retrieved through the factory
+			return null;
+		default:
+			return OBJECT;
+		}
+	}
+
+	/**
+	 * Read the values of the current row
+	 * @return a modifiable list of the values
+	 */
+	public List<?> readRow(ResultSet rs) throws SQLException {
+		Object[] values = new Object[readers.length];
+		for (int i = 0; i < readers.length; i++) {
+			values[i] = readers[i].read(rs, i + 1);
+		}
+		return Arrays.asList(values);
+	}
+
+}
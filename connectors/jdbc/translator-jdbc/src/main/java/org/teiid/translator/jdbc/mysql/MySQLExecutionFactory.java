@@ -31,10 +31,12 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.teiid.core.types.BlobImpl;
@@ -51,10 +53,12 @@ import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoad;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
 import org.teiid.translator.jdbc.JDBCMetdataProcessor;
+import org.teiid.translator.jdbc.JDBCPlugin;
 import org.teiid.translator.jdbc.LocateFunctionModifier;
 
 
@@ -66,6 +70,8 @@ public class MySQLExecutionFactory extends JDBCExecutionFactory {
 	
 	private static final String TINYINT = "tinyint(1)"; //$NON-NLS-1$
 
+	private static final String SET_LOCAL_INFILE_INPUT_STREAM = "setLocalInfileInputStream"; //$NON-NLS-1$
+	
     public MySQLExecutionFactory() {
 		setSupportsFullOuterJoins(false);
 	}
@@ -622,6 +628,75 @@ public class MySQLExecutionFactory extends JDBCExecutionFactory {
 		return super.translateCommand(command, context);
 	}
 
+	/**
+	 * Uses LOAD DATA LOCAL INFILE with the statement local infile stream.  
+	 * The server and connection must allow local infile loads.
+	 * <br>
+	 * With LOCAL, data errors such as duplicate keys or invalid values are only reported as warnings 
+	 * and the affected rows are skipped or adjusted.  So the load fails if there are any warnings 
+	 * or if the affected row count does not match the rows sent.  Outside of a transaction the load 
+	 * is performed in a local transaction so that the rows are rolled back if the load fails, which 
+	 * requires a transactional storage engine such as InnoDB.
+	 */
+	@Override
+	public Long bulkLoad(Insert insert, Iterator<? extends List<?>> values,
+			ExecutionContext context, Connection connection)
+			throws SQLException, TranslatorException {
+		BulkLoad load = BulkLoad.create(this, insert, values);
+		if (load == null) {
+			return null;
+		}
+		Statement s = connection.createStatement();
+		boolean autoCommit = false;
+		boolean succeeded = false;
+		try {
+			Object statement = BulkLoad.getDriverObject(s, SET_LOCAL_INFILE_INPUT_STREAM);
+			if (statement == null) {
+				return null;
+			}
+			autoCommit = connection.getAutoCommit();
+			if (autoCommit) {
+				connection.setAutoCommit(false);
+			}
+			BulkLoad.invoke(statement, SET_LOCAL_INFILE_INPUT_STREAM, new Class<?>[] {InputStream.class}, load.getInputStream());
+			long count = s.executeUpdate("LOAD DATA LOCAL INFILE 'teiid_bulk_load' INTO TABLE " + load.getTableName() //$NON-NLS-1$
+					+ " CHARACTER SET utf8 (" + load.getColumnNames() + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+			StringBuilder warnings = new StringBuilder();
+			ResultSet rs = s.executeQuery("SHOW WARNINGS"); //$NON-NLS-1$
+			try {
+				while (rs.next()) {
+					if (warnings.length() > 0) {
+						warnings.append("; "); //$NON-NLS-1$
+					}
+					warnings.append(rs.getString(3));
+				}
+			} finally {
+				rs.close();
+			}
+			if (count != load.getRowCount() || warnings.length() > 0) {
+				throw new TranslatorException(JDBCPlugin.Event.TEIID11026, JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID11026, load.getTableName(), count, load.getRowCount(), warnings));
+			}
+			succeeded = true;
+			return count;
+		} finally {
+			try {
+				s.close();
+			} finally {
+				if (autoCommit) {
+					try {
+						if (succeeded) {
+							connection.commit();
+						} else {
+							connection.rollback();
+						}
+					} finally {
+						connection.setAutoCommit(true);
+					}
+				}
+			}
+		}
+	}
+
 	private void gatherSelects(QueryExpression qe, List<Select> allQueries) {
 		if (qe instanceof Select) {
 			allQueries.add((Select)qe);
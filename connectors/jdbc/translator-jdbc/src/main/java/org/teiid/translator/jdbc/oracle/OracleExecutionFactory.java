@@ -35,7 +35,9 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -71,6 +73,7 @@ public class OracleExecutionFactory extends JDBCExecutionFactory {
 	
 	public static final Version NINE_0 = Version.getVersion("9.0"); //$NON-NLS-1$
 	public static final Version NINE_2 = Version.getVersion("9.2"); //$NON-NLS-1$
+	public static final Version ELEVEN_2 = Version.getVersion("11.2"); //$NON-NLS-1$
 	public static final Version ELEVEN_2_0_4 = Version.getVersion("11.2.0.4"); //$NON-NLS-1$
 	public static final Version TWELVE = Version.getVersion("12"); //$NON-NLS-1$
 	
@@ -81,6 +84,7 @@ public class OracleExecutionFactory extends JDBCExecutionFactory {
 
     public final static String HINT_PREFIX = "/*+"; //$NON-NLS-1$
     public static final String HINT_SUFFIX = "*/";  //$NON-NLS-1$
+    private static final String APPEND_VALUES = "APPEND_VALUES"; //$NON-NLS-1$
     public final static String DUAL = "DUAL"; //$NON-NLS-1$
     public final static String ROWNUM = "ROWNUM"; //$NON-NLS-1$
     public final static String SEQUENCE = ":SEQUENCE="; //$NON-NLS-1$
@@ -491,13 +495,24 @@ public class OracleExecutionFactory extends JDBCExecutionFactory {
 		    }
     	}
     	
-    	if (!usingPayloadComment && context != null) {
-    		String hint = context.getSourceHint();
-    		if (context.getGeneralHint() != null) {
+    	if (!usingPayloadComment) {
+    		String hint = null;
+    		if (context != null) {
+	    		hint = context.getSourceHint();
+	    		if (context.getGeneralHint() != null) {
+	    			if (hint != null) {
+	    				hint += (" " + context.getGeneralHint()); //$NON-NLS-1$
+	    			} else {
+	    				hint = context.getGeneralHint();
+	    			}
+	    		}
+    		}
+    		if (isDirectPathInsert(command, context)) {
+    			//oracle only uses the first hint comment, so add to any existing hint
     			if (hint != null) {
-    				hint += (" " + context.getGeneralHint()); //$NON-NLS-1$
+    				hint += (" " + APPEND_VALUES); //$NON-NLS-1$
     			} else {
-    				hint = context.getGeneralHint();
+    				hint = APPEND_VALUES;
     			}
     		}
     		if (hint != null) {
@@ -530,6 +545,63 @@ public class OracleExecutionFactory extends JDBCExecutionFactory {
     	return comment;
     }
     
+    /**
+     * With bulk loading enabled multi-row inserts use a direct path load, which 
+     * is supported with bind variables as of 11.2
+     * <br>
+     * A direct path load locks the table and the table cannot be read or modified 
+     * again in the same transaction until commit (ORA-12838), so it is not used in a transaction.
+     * The execution also performs a multi-batch insert in a single local transaction, so it is
+     * only used if all of the values fit in a single batch.
+     */
+    private boolean isDirectPathInsert(Command command, ExecutionContext context) {
+    	return useBulkLoad() && command instanceof Insert && ((Insert)command).getParameterValues() != null
+    			&& getVersion().compareTo(ELEVEN_2) >= 0 && (context == null || !context.isTransactional())
+    			&& isSingleBatch((Insert)command);
+    }
+
+    /**
+     * Reads ahead up to the max batch size of the parameter values to determine
+     * if there is only a single batch.  The insert is updated to return the read values first.
+     */
+    private boolean isSingleBatch(Insert insert) {
+    	final Iterator<? extends List<?>> values = insert.getParameterValues();
+    	final List<List<?>> batch = new ArrayList<List<?>>();
+    	while (batch.size() < getMaxPreparedInsertBatchSize() && values.hasNext()) {
+    		batch.add(values.next());
+    	}
+    	if (!values.hasNext()) {
+    		insert.setParameterValues(batch.iterator());
+    		return true;
+    	}
+    	insert.setParameterValues(new Iterator<List<?>>() {
+    		Iterator<? extends List<?>> current = batch.iterator();
+
+    		@Override
+    		public boolean hasNext() {
+    			if (current.hasNext()) {
+    				return true;
+    			}
+    			current = values;
+    			return current.hasNext();
+    		}
+
+    		@Override
+    		public List<?> next() {
+    			if (!hasNext()) {
+    				throw new NoSuchElementException();
+    			}
+    			return current.next();
+    		}
+
+    		@Override
+    		public void remove() {
+    			throw new UnsupportedOperationException();
+    		}
+    	});
+    	return false;
+    }
+    
     /**
      * Don't fully qualify elements if table = DUAL or element = ROWNUM or special stuff is packed into name in source value.
      *  
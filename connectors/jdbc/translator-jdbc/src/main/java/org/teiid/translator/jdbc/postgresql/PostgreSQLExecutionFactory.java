@@ -24,6 +24,7 @@ package org.teiid.translator.jdbc.postgresql;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
@@ -34,10 +35,18 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.teiid.GeometryInputSource;
 import org.teiid.core.types.BinaryType;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
 import org.teiid.language.*;
 import org.teiid.language.Like.MatchMode;
 import org.teiid.language.SQLConstants.NonReserved;
@@ -45,6 +54,7 @@ import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.metadata.Column;
 import org.teiid.metadata.MetadataFactory;
+import org.teiid.metadata.Table;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.MetadataProcessor;
 import org.teiid.translator.SourceSystemFunctions;
@@ -53,6 +63,7 @@ import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TranslatorProperty;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoad;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.EscapeSyntaxModifier;
 import org.teiid.translator.jdbc.ExtractFunctionModifier;
@@ -75,6 +86,8 @@ import org.teiid.util.Version;
 @Translator(name="postgresql", description="A translator for postgreSQL Database")
 public class PostgreSQLExecutionFactory extends JDBCExecutionFactory {
 	
+	private static final String GET_COPY_API = "getCopyAPI"; //$NON-NLS-1$
+	
 	private static final String INTEGER_TYPE = "integer"; //$NON-NLS-1$
 
 	private static final class NonIntegralNumberToBoolean extends
@@ -954,9 +967,161 @@ public class PostgreSQLExecutionFactory extends JDBCExecutionFactory {
             		}
             	}
             }
+            
+            @Override
+            protected void getTableStatistics(Connection conn, String catalog,
+            		String schema, String name, Table table) throws SQLException {
+            	importStatistics(conn, schema, name, table);
+            }
     	};
     }
     
+    /**
+     * Set the table cardinality from pg_class and the column statistics, including
+     * the most common values and histogram, from the pg_stats view of the last ANALYZE.
+     */
+    static void importStatistics(Connection conn, String schema, String name, Table table) throws SQLException {
+    	PreparedStatement ps = null;
+    	ResultSet rs = null;
+    	try {
+    		ps = conn.prepareStatement("SELECT c.reltuples FROM pg_catalog.pg_class c JOIN pg_catalog.pg_namespace n ON c.relnamespace = n.oid WHERE n.nspname = ? AND c.relname = ?"); //$NON-NLS-1$
+    		ps.setString(1, schema);
+    		ps.setString(2, name);
+    		rs = ps.executeQuery();
+    		if (!rs.next()) {
+    			return;
+    		}
+    		double rows = rs.getDouble(1);
+    		if (rs.wasNull() || rows < 0) {
+    			//never analyzed
+    			return;
+    		}
+    		table.setCardinality((long)rows);
+    		rs.close();
+    		rs = null;
+    		ps.close();
+    		ps = null;
+    		ps = conn.prepareStatement("SELECT attname, null_frac, n_distinct, most_common_vals::text::text[], most_common_freqs, histogram_bounds::text::text[] FROM pg_catalog.pg_stats WHERE schemaname = ? AND tablename = ? ORDER BY inherited"); //$NON-NLS-1$
+    		ps.setString(1, schema);
+    		ps.setString(2, name);
+    		rs = ps.executeQuery();
+    		Set<String> seen = new HashSet<String>();
+    		while (rs.next()) {
+    			String attname = rs.getString(1);
+    			Column c = table.getColumnByName(attname);
+    			if (c == null || !seen.add(attname)) {
+    				continue;
+    			}
+    			setColumnStatistics(c, rows, rs.getFloat(2), rs.getFloat(3), getArray(rs, 4), getArray(rs, 5), getArray(rs, 6));
+    		}
+    	} finally {
+    		if (rs != null) {
+    			rs.close();
+    		}
+    		if (ps != null) {
+    			ps.close();
+    		}
+    	}
+    }
+    
+    private static Object[] getArray(ResultSet rs, int index) throws SQLException {
+    	Array array = rs.getArray(index);
+    	if (array == null) {
+    		return null;
+    	}
+    	return (Object[])array.getArray();
+    }
+    
+    /**
+     * Convert the pg_stats values for a column.  pg histogram bounds exclude the most common values, 
+     * while the Teiid histogram covers all non-null values, so the most common values are merged
+     * back into bounds of the same number of equi-depth buckets.
+     */
+    static void setColumnStatistics(Column c, double rows, float nullFrac, float nDistinct, Object[] mcvs, Object[] freqs, Object[] bounds) {
+    	c.setNullValues(Math.round(nullFrac * rows));
+    	if (nDistinct > 0) {
+    		c.setDistinctValues((long)nDistinct);
+    	} else if (nDistinct < 0) {
+    		//a negative value is the negated fraction of the rows
+    		c.setDistinctValues(Math.round(-nDistinct * rows));
+    	}
+    	if (mcvs != null && (freqs == null || freqs.length != mcvs.length)) {
+    		mcvs = null;
+    	}
+    	float mcvTotal = 0;
+    	if (mcvs != null) {
+    		Map<String, Float> mostCommonValues = new LinkedHashMap<String, Float>();
+    		for (int i = 0; i < mcvs.length; i++) {
+    			float freq = ((Number)freqs[i]).floatValue();
+    			mostCommonValues.put((String)mcvs[i], freq);
+    			mcvTotal += freq;
+    		}
+    		c.setMostCommonValues(mostCommonValues);
+    	}
+    	if (bounds == null || bounds.length < 2) {
+    		return;
+    	}
+    	if (mcvs == null) {
+    		c.setHistogram(Arrays.asList(Arrays.copyOf(bounds, bounds.length, String[].class)));
+    		return;
+    	}
+    	//order the bounds and the most common values by the typed value
+    	TreeMap<Comparable<Object>, Object[]> candidates = new TreeMap<Comparable<Object>, Object[]>();
+    	for (int i = 0; i < bounds.length; i++) {
+    		Comparable<Object> value = toTypedValue(bounds[i], c.getJavaType());
+    		if (value == null) {
+    			return;
+    		}
+    		candidates.put(value, new Object[] {bounds[i], i, 0f});
+    	}
+    	for (int i = 0; i < mcvs.length; i++) {
+    		Comparable<Object> value = toTypedValue(mcvs[i], c.getJavaType());
+    		if (value == null) {
+    			return;
+    		}
+    		Object[] candidate = candidates.get(value);
+    		if (candidate == null) {
+    			candidate = new Object[] {mcvs[i], null, 0f};
+    			candidates.put(value, candidate);
+    		}
+    		candidate[2] = ((Number)freqs[i]).floatValue();
+    	}
+    	int buckets = bounds.length - 1;
+    	float nonNull = 1 - nullFrac;
+    	float bucketFrac = Math.max(0, nonNull - mcvTotal) / buckets;
+    	List<Object[]> ordered = new ArrayList<Object[]>(candidates.values());
+    	List<String> histogram = new ArrayList<String>(buckets + 1);
+    	histogram.add((String)ordered.get(0)[0]);
+    	//the fraction of the rows in the most common values at or below the candidate
+    	float mcvMass = (Float)ordered.get(0)[2];
+    	int completeBuckets = 0;
+    	for (int i = 1; i < ordered.size() - 1 && histogram.size() < buckets; i++) {
+    		Object[] candidate = ordered.get(i);
+    		if (candidate[1] != null) {
+    			completeBuckets = (Integer)candidate[1];
+    		}
+    		mcvMass += (Float)candidate[2];
+    		if (mcvMass + completeBuckets * bucketFrac >= histogram.size() * nonNull / buckets) {
+    			histogram.add((String)candidate[0]);
+    		}
+    	}
+    	histogram.add((String)ordered.get(ordered.size() - 1)[0]);
+    	c.setHistogram(histogram);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> toTypedValue(Object value, Class<?> type) {
+    	try {
+    		Object typed = DataTypeManager.transformValue(value, type);
+    		if (typed instanceof Comparable) {
+    			return (Comparable<Object>)typed;
+    		}
+    	} catch (TransformationException e) {
+    		//the text form is not usable for this type
+    	}
+    	return null;
+    }
+    
     @Override
     public Expression translateGeometrySelect(Expression expr) {
         return new Function("ST_ASEWKB", Arrays.asList(expr), TypeFacility.RUNTIME_TYPES.VARBINARY); //$NON-NLS-1$
@@ -1001,4 +1166,25 @@ public class PostgreSQLExecutionFactory extends JDBCExecutionFactory {
         super.bindValue(stmt, param, paramType, i);
     }
     
+    /**
+     * Uses COPY FROM STDIN through the driver CopyManager
+     */
+    @Override
+    public Long bulkLoad(Insert insert, Iterator<? extends List<?>> values,
+    		ExecutionContext context, Connection connection)
+    		throws SQLException, TranslatorException {
+    	BulkLoad load = BulkLoad.create(this, insert, values);
+    	if (load == null) {
+    		return null;
+    	}
+    	Object pgConnection = BulkLoad.getDriverObject(connection, GET_COPY_API);
+    	if (pgConnection == null) {
+    		return null;
+    	}
+    	Object copyManager = BulkLoad.invoke(pgConnection, GET_COPY_API, new Class<?>[0]);
+    	String sql = "COPY " + load.getTableName() + " (" + load.getColumnNames() + ") FROM STDIN"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    	Number count = (Number)BulkLoad.invoke(copyManager, "copyIn", new Class<?>[] {String.class, InputStream.class}, sql, load.getInputStream()); //$NON-NLS-1$
+    	return count.longValue();
+    }
+    
 }
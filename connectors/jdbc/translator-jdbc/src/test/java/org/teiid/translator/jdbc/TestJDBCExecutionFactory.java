@@ -29,7 +29,9 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Struct;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.junit.Test;
@@ -119,4 +121,32 @@ public class TestJDBCExecutionFactory {
 		//should still succeed even if an exception is thrown from supportsGetGeneratedKeys
 		jef.initCapabilities(connection);
 	}
+	
+	@Test public void testResultSetReader() throws SQLException {
+		JDBCExecutionFactory jef = new JDBCExecutionFactory();
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		Mockito.stub(rs.getInt(1)).toReturn(0);
+		Mockito.stub(rs.wasNull()).toReturn(true);
+		Mockito.stub(rs.getObject(2)).toReturn("a");
+		Struct s = Mockito.mock(Struct.class);
+		Mockito.stub(rs.getObject(3)).toReturn(s);
+		ResultSetReader reader = jef.createResultSetReader(new Class<?>[] {TypeFacility.RUNTIME_TYPES.INTEGER, TypeFacility.RUNTIME_TYPES.STRING, TypeFacility.RUNTIME_TYPES.OBJECT});
+		List<?> row = reader.readRow(rs);
+		assertNull(row.get(0));
+		assertEquals("a", row.get(1));
+		assertSame(s, row.get(2));
+	}
+	
+	@Test public void testResultSetReaderOverriddenRetrieval() throws SQLException {
+		JDBCExecutionFactory jef = new JDBCExecutionFactory() {
+			@Override
+			public Object retrieveValue(ResultSet results, int columnIndex, Class<?> expectedType) throws SQLException {
+				return columnIndex;
+			}
+		};
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		ResultSetReader reader = jef.createResultSetReader(new Class<?>[] {TypeFacility.RUNTIME_TYPES.INTEGER, TypeFacility.RUNTIME_TYPES.STRING});
+		assertEquals(Arrays.asList(1, 2), reader.readRow(rs));
+		Mockito.verifyZeroInteractions(rs);
+	}
 }
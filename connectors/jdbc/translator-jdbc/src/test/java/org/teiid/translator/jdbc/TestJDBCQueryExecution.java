@@ -0,0 +1,236 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.jdbc;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.DeprecatedOngoingStubbing;
+import org.teiid.dqp.internal.datamgr.FakeExecutionContextImpl;
+import org.teiid.language.Command;
+import org.teiid.language.QueryExpression;
+import org.teiid.translator.ConcurrentReads;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
+import org.teiid.translator.DataNotAvailableException;
+import org.teiid.translator.ResultSetExecution;
+
+@SuppressWarnings("nls")
+public class TestJDBCQueryExecution {
+
+	private static final String DDL = "create foreign table t (id integer options (MIN_VALUE '1', MAX_VALUE '100'), name string) options (\"teiid_rel:partition-column\" 'id')";
+
+	private Statement mockStatement(Connection connection, int rows) throws Exception {
+		Statement s = Mockito.mock(Statement.class);
+		ResultSet rs = mockResultSet(rows);
+		Mockito.stub(s.executeQuery(Mockito.anyString())).toReturn(rs);
+		Mockito.stub(connection.createStatement()).toReturn(s);
+		return s;
+	}
+
+	private ResultSet mockResultSet(int rows) throws Exception {
+		ResultSet rs = Mockito.mock(ResultSet.class);
+		DeprecatedOngoingStubbing<Boolean> next = Mockito.stub(rs.next());
+		for (int i = 0; i < rows; i++) {
+			next = next.toReturn(true);
+		}
+		next.toReturn(false);
+		return rs;
+	}
+
+	/**
+	 * Signals when the readers have data available
+	 */
+	static class NotifyingContext extends FakeExecutionContextImpl {
+		Semaphore available = new Semaphore(0);
+		
+		@Override
+		public void dataAvailable() {
+			available.release();
+		}
+	}
+
+	private List<List<?>> readAll(ResultSetExecution execution, NotifyingContext context) throws Exception {
+		List<List<?>> result = new ArrayList<List<?>>();
+		while (true) {
+			try {
+				List<?> row = execution.next();
+				if (row == null) {
+					return result;
+				}
+				result.add(row);
+			} catch (DataNotAvailableException e) {
+				//the readers must signal when there is more
+				assertTrue(context.available.tryAcquire(10, TimeUnit.SECONDS));
+			}
+		}
+	}
+
+	@Test public void testPartitionedRead() throws Exception {
+		Command command = TranslationHelper.helpTranslate(DDL, "select id, name from t");
+		DataSource ds = Mockito.mock(DataSource.class);
+		Connection main = Mockito.mock(Connection.class, Mockito.RETURNS_MOCKS);
+		Mockito.stub(main.getAutoCommit()).toReturn(true);
+		Connection other = Mockito.mock(Connection.class);
+		Mockito.stub(ds.getConnection()).toReturn(main).toReturn(other);
+		//either reader may read either partition
+		ResultSet first = mockResultSet(2);
+		ResultSet second = mockResultSet(3);
+		for (Connection c : Arrays.asList(main, other)) {
+			Statement s = mockStatement(c, 0);
+			Mockito.stub(s.executeQuery("SELECT t.id, t.name FROM t WHERE t.id < 51 OR t.id IS NULL")).toReturn(first);
+			Mockito.stub(s.executeQuery("SELECT t.id, t.name FROM t WHERE t.id >= 51")).toReturn(second);
+		}
+
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadCount(2);
+		ef.setUseBindVariables(false);
+		ef.start();
+		Connection conn = ef.getConnection(ds);
+		NotifyingContext context = new NotifyingContext();
+		ResultSetExecution execution = ef.createResultSetExecution((QueryExpression)command, context, null, conn);
+		execution.execute();
+		assertEquals(5, readAll(execution, context).size());
+		execution.close();
+
+		Mockito.verify(other).close();
+		Mockito.verify(main, Mockito.never()).close();
+	}
+
+	@Test public void testPartitionedReadNotUsed() throws Exception {
+		Command command = TranslationHelper.helpTranslate(DDL, "select id, name from t order by id");
+		DataSource ds = Mockito.mock(DataSource.class);
+		Connection main = Mockito.mock(Connection.class, Mockito.RETURNS_MOCKS);
+		Mockito.stub(main.getAutoCommit()).toReturn(true);
+		Mockito.stub(ds.getConnection()).toReturn(main);
+		Statement s = mockStatement(main, 2);
+
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadCount(2);
+		ef.setUseBindVariables(false);
+		ef.start();
+		Connection conn = ef.getConnection(ds);
+		NotifyingContext context = new NotifyingContext();
+		ResultSetExecution execution = ef.createResultSetExecution((QueryExpression)command, context, null, conn);
+		execution.execute();
+		assertEquals(2, readAll(execution, context).size());
+		execution.close();
+
+		Mockito.verify(s).executeQuery("SELECT t.id, t.name FROM t ORDER BY t.id");
+		Mockito.verify(ds, Mockito.times(1)).getConnection();
+	}
+
+	@Test public void testPartitionedReadNoThreads() throws Exception {
+		Command command = TranslationHelper.helpTranslate(DDL, "select id, name from t");
+		DataSource ds = Mockito.mock(DataSource.class);
+		Connection main = Mockito.mock(Connection.class, Mockito.RETURNS_MOCKS);
+		Mockito.stub(main.getAutoCommit()).toReturn(true);
+		Mockito.stub(ds.getConnection()).toReturn(main);
+		Statement s = mockStatement(main, 2);
+
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadCount(2);
+		ef.setUseBindVariables(false);
+		ef.start();
+		//use all of the reader threads
+		ConcurrentReads<Object> other = new ConcurrentReads<Object>(null, 1);
+		other.reserve(ef.getPartitionExecutor(), Integer.MAX_VALUE);
+		
+		Connection conn = ef.getConnection(ds);
+		NotifyingContext context = new NotifyingContext();
+		ResultSetExecution execution = ef.createResultSetExecution((QueryExpression)command, context, null, conn);
+		execution.execute();
+		assertEquals(2, readAll(execution, context).size());
+		execution.close();
+		other.close();
+
+		Mockito.verify(s).executeQuery("SELECT t.id, t.name FROM t");
+		assertEquals(ReaderExecutor.DEFAULT_MAX_THREADS, ef.getPartitionExecutor().getAvailableThreads());
+	}
+
+	@Test public void testPartitionedReadConnectionNotAvailable() throws Exception {
+		Command command = TranslationHelper.helpTranslate(DDL, "select id, name from t");
+		DataSource ds = Mockito.mock(DataSource.class);
+		Connection main = Mockito.mock(Connection.class, Mockito.RETURNS_MOCKS);
+		Mockito.stub(main.getAutoCommit()).toReturn(true);
+		Mockito.stub(ds.getConnection()).toReturn(main).toThrow(new SQLException());
+		Statement s = mockStatement(main, 2);
+
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadCount(2);
+		ef.setUseBindVariables(false);
+		ef.start();
+		Connection conn = ef.getConnection(ds);
+		NotifyingContext context = new NotifyingContext();
+		ResultSetExecution execution = ef.createResultSetExecution((QueryExpression)command, context, null, conn);
+		execution.execute();
+		assertEquals(2, readAll(execution, context).size());
+		execution.close();
+
+		//both partitions are read with the execution connection
+		Mockito.verify(s).executeQuery("SELECT t.id, t.name FROM t WHERE t.id < 51 OR t.id IS NULL");
+		Mockito.verify(s).executeQuery("SELECT t.id, t.name FROM t WHERE t.id >= 51");
+	}
+
+	@Test public void testPartitionedReadNotAutoCommit() throws Exception {
+		Command command = TranslationHelper.helpTranslate(DDL, "select id, name from t");
+		DataSource ds = Mockito.mock(DataSource.class);
+		Connection main = Mockito.mock(Connection.class, Mockito.RETURNS_MOCKS);
+		Mockito.stub(main.getAutoCommit()).toReturn(false);
+		Mockito.stub(ds.getConnection()).toReturn(main);
+		Statement s = mockStatement(main, 2);
+
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadCount(2);
+		ef.setUseBindVariables(false);
+		ef.start();
+		Connection conn = ef.getConnection(ds);
+		NotifyingContext context = new NotifyingContext();
+		ResultSetExecution execution = ef.createResultSetExecution((QueryExpression)command, context, null, conn);
+		execution.execute();
+		assertEquals(2, readAll(execution, context).size());
+		execution.close();
+
+		Mockito.verify(s).executeQuery("SELECT t.id, t.name FROM t");
+		Mockito.verify(ds, Mockito.times(1)).getConnection();
+	}
+
+	@Test public void testPartitionedReadMaxThreads() throws Exception {
+		JDBCExecutionFactory ef = new JDBCExecutionFactory();
+		ef.setPartitionedReadMaxThreads(3);
+		assertEquals(3, ef.getPartitionExecutor().getAvailableThreads());
+	}
+
+}
@@ -24,11 +24,27 @@ package org.teiid.translator.jdbc.mysql;
 
 import static org.junit.Assert.*;
 
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.teiid.core.types.BlobType;
 import org.teiid.core.types.GeometryType;
+import org.teiid.core.util.ObjectConverterUtil;
+import org.teiid.dqp.internal.datamgr.FakeExecutionContextImpl;
+import org.teiid.language.Expression;
+import org.teiid.language.ExpressionValueSource;
+import org.teiid.language.Insert;
+import org.teiid.language.Parameter;
 import org.teiid.query.function.GeometryUtils;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.jdbc.TranslationHelper;
@@ -423,4 +439,79 @@ public class TestMySQLTranslator {
             output, TRANSLATOR);
     }
     
+    /**
+     * Stands in for the driver statement
+     */
+    public static abstract class LocalInfileStatement implements Statement {
+    	InputStream stream;
+    	
+    	public void setLocalInfileInputStream(InputStream stream) {
+    		this.stream = stream;
+    	}
+    }
+    
+    private Long helpTestBulkLoad(final int updateCount, boolean warning, Connection connection) throws Exception {
+		Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, StringKey) values (1, 'a')"); //$NON-NLS-1$
+		List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+		for (int i = 0; i < 2; i++) {
+			Parameter param = new Parameter();
+			param.setType(values.get(i).getType());
+			param.setValueIndex(i);
+			values.set(i, param);
+		}
+		
+		final LocalInfileStatement statement = Mockito.mock(LocalInfileStatement.class, Mockito.CALLS_REAL_METHODS);
+		Mockito.doAnswer(new Answer<Integer>() {
+			@Override
+			public Integer answer(InvocationOnMock invocation) throws Throwable {
+				assertEquals("LOAD DATA LOCAL INFILE 'teiid_bulk_load' INTO TABLE SmallA CHARACTER SET utf8 (IntKey, StringKey)", invocation.getArguments()[0]); //$NON-NLS-1$
+				assertEquals("1\ta\n2\t\\N\n", ObjectConverterUtil.convertToString(statement.stream)); //$NON-NLS-1$
+				return updateCount;
+			}
+		}).when(statement).executeUpdate(Mockito.anyString());
+		ResultSet warnings = Mockito.mock(ResultSet.class);
+		Mockito.stub(warnings.next()).toReturn(warning).toReturn(false);
+		Mockito.stub(warnings.getString(3)).toReturn("Duplicate entry '1' for key 'PRIMARY'"); //$NON-NLS-1$
+		Mockito.doReturn(warnings).when(statement).executeQuery("SHOW WARNINGS"); //$NON-NLS-1$
+		Mockito.doNothing().when(statement).close();
+		Mockito.stub(connection.getAutoCommit()).toReturn(true);
+		Mockito.stub(connection.createStatement()).toReturn(statement);
+		
+		return TRANSLATOR.bulkLoad(command, Arrays.asList(Arrays.asList(1, "a"), Arrays.asList(2, null)).iterator(), new FakeExecutionContextImpl(), connection); //$NON-NLS-1$
+    }
+    
+    @Test public void testBulkLoad() throws Exception {
+    	Connection connection = Mockito.mock(Connection.class);
+    	assertEquals(Long.valueOf(2), helpTestBulkLoad(2, false, connection));
+    	Mockito.verify(connection).setAutoCommit(false);
+    	Mockito.verify(connection).commit();
+    	Mockito.verify(connection, Mockito.never()).rollback();
+    	Mockito.verify(connection).setAutoCommit(true);
+    }
+    
+    @Test public void testBulkLoadSkippedRows() throws Exception {
+    	Connection connection = Mockito.mock(Connection.class);
+    	try {
+    		helpTestBulkLoad(1, false, connection);
+    		fail();
+    	} catch (TranslatorException e) {
+    		//expected
+    	}
+    	Mockito.verify(connection).rollback();
+    	Mockito.verify(connection, Mockito.never()).commit();
+    	Mockito.verify(connection).setAutoCommit(true);
+    }
+    
+    @Test public void testBulkLoadWarnings() throws Exception {
+    	Connection connection = Mockito.mock(Connection.class);
+    	try {
+    		helpTestBulkLoad(2, true, connection);
+    		fail();
+    	} catch (TranslatorException e) {
+    		//expected
+    	}
+    	Mockito.verify(connection).rollback();
+    	Mockito.verify(connection).setAutoCommit(true);
+    }
+    
 }
@@ -47,6 +47,9 @@ import org.teiid.dqp.internal.datamgr.FakeExecutionContextImpl;
 import org.teiid.language.Array;
 import org.teiid.language.Command;
 import org.teiid.language.Comparison;
+import org.teiid.language.Expression;
+import org.teiid.language.ExpressionValueSource;
+import org.teiid.language.Insert;
 import org.teiid.language.Literal;
 import org.teiid.language.Parameter;
 import org.teiid.language.Select;
@@ -68,6 +71,7 @@ import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.JDBCProcedureExecution;
 import org.teiid.translator.jdbc.JDBCQueryExecution;
+import org.teiid.translator.jdbc.JDBCUpdateExecution;
 import org.teiid.translator.jdbc.SQLConversionVisitor;
 import org.teiid.translator.jdbc.TranslatedCommand;
 import org.teiid.translator.jdbc.TranslationHelper;
@@ -125,6 +129,62 @@ public class TestOracleTranslator {
 		helpTestVisitor("insert into smalla (doublenum, id) values (1, 1)", "INSERT INTO SmallishA (DoubleNum, ID) VALUES (1.0, 1)"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 	
+	@Test public void testDirectPathInsert() throws Exception {
+		Insert insert = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into bqt1.smalla (intkey) values (1)"); //$NON-NLS-1$
+		insert.setParameterValues(Arrays.asList(Arrays.asList(1)).iterator());
+		TRANSLATOR.setDatabaseVersion("11.2"); //$NON-NLS-1$
+		TRANSLATOR.setUseBulkLoad(true);
+		TranslationHelper.helpTestVisitor("INSERT /*+ APPEND_VALUES */ INTO SmallA (IntKey) VALUES (1)", TRANSLATOR, insert); //$NON-NLS-1$
+		
+		//not in a transaction
+		ExecutionContext context = Mockito.mock(ExecutionContext.class);
+		Mockito.stub(context.isTransactional()).toReturn(true);
+		TranslatedCommand tc = new TranslatedCommand(context, TRANSLATOR);
+		tc.translateCommand(insert);
+		assertEquals("INSERT INTO SmallA (IntKey) VALUES (1)", tc.getSql()); //$NON-NLS-1$
+		
+		TRANSLATOR.setDatabaseVersion("11.1"); //$NON-NLS-1$
+		TranslationHelper.helpTestVisitor("INSERT INTO SmallA (IntKey) VALUES (1)", TRANSLATOR, insert); //$NON-NLS-1$
+	}
+
+	@Test public void testDirectPathInsertMultipleBatches() throws Exception {
+		Insert insert = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into bqt1.smalla (intkey) values (1)"); //$NON-NLS-1$
+		Parameter param = new Parameter();
+		param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+		param.setValueIndex(0);
+		insert.setValueSource(new ExpressionValueSource(Arrays.asList((Expression)param)));
+		insert.setParameterValues(Arrays.asList(Arrays.asList(1), Arrays.asList(2), Arrays.asList(3)).iterator());
+		TRANSLATOR.setDatabaseVersion("11.2"); //$NON-NLS-1$
+		TRANSLATOR.setUseBulkLoad(true);
+		TRANSLATOR.setMaxPreparedInsertBatchSize(2);
+
+		//more than one batch in the same local transaction, so no direct path
+		Connection connection = Mockito.mock(Connection.class);
+		Mockito.stub(connection.getAutoCommit()).toReturn(true);
+		PreparedStatement p = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(p.executeBatch()).toReturn(new int[] {1, 1}).toReturn(new int[] {1});
+		Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey) VALUES (?)")).toReturn(p); //$NON-NLS-1$
+		JDBCUpdateExecution execution = new JDBCUpdateExecution(insert, connection, new FakeExecutionContextImpl(), TRANSLATOR);
+		execution.execute();
+		assertArrayEquals(new int[] {1, 1, 1}, execution.getUpdateCounts());
+		Mockito.verify(p, Mockito.times(3)).addBatch();
+		Mockito.verify(p, Mockito.times(2)).executeBatch();
+		Mockito.verify(connection).commit();
+
+		//a single batch
+		insert.setParameterValues(Arrays.asList(Arrays.asList(1), Arrays.asList(2)).iterator());
+		connection = Mockito.mock(Connection.class);
+		Mockito.stub(connection.getAutoCommit()).toReturn(true);
+		p = Mockito.mock(PreparedStatement.class);
+		Mockito.stub(p.executeBatch()).toReturn(new int[] {1, 1});
+		Mockito.stub(connection.prepareStatement("INSERT /*+ APPEND_VALUES */ INTO SmallA (IntKey) VALUES (?)")).toReturn(p); //$NON-NLS-1$
+		execution = new JDBCUpdateExecution(insert, connection, new FakeExecutionContextImpl(), TRANSLATOR);
+		execution.execute();
+		assertArrayEquals(new int[] {1, 1}, execution.getUpdateCounts());
+		Mockito.verify(p, Mockito.times(2)).addBatch();
+		Mockito.verify(p, Mockito.times(1)).executeBatch();
+	}
+
 	@Test public void testJoins() throws Exception {
         String input = "select smalla.intkey from bqt1.smalla inner join bqt1.smallb on smalla.stringkey=smallb.stringkey cross join bqt1.mediuma"; //$NON-NLS-1$
         String output = "SELECT SmallA.IntKey FROM SmallA INNER JOIN SmallB ON SmallA.StringKey = SmallB.StringKey CROSS JOIN MediumA"; //$NON-NLS-1$
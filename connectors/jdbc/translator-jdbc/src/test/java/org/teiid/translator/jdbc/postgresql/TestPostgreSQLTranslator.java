@@ -24,13 +24,35 @@ package org.teiid.translator.jdbc.postgresql;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.SimpleMock;
+import org.teiid.dqp.internal.datamgr.FakeExecutionContextImpl;
+import org.teiid.language.Expression;
+import org.teiid.language.ExpressionValueSource;
+import org.teiid.language.Insert;
+import org.teiid.language.Parameter;
+import org.teiid.metadata.Column;
+import org.teiid.metadata.MetadataFactory;
+import org.teiid.metadata.Table;
+import org.teiid.query.metadata.SystemMetadata;
 import org.teiid.translator.SourceSystemFunctions;
 import org.teiid.translator.TranslatorException;
+import org.teiid.translator.jdbc.JDBCUpdateExecution;
 import org.teiid.translator.jdbc.TranslationHelper;
 import org.teiid.util.Version;
 
@@ -626,4 +648,123 @@ public class TestPostgreSQLTranslator {
                 "SELECT cast(E'\\\\xABCD1234' AS bytea)"); //$NON-NLS-1$
     }
     
+    /**
+     * Stands in for the driver connection
+     */
+    public static abstract class CopyConnection implements Connection {
+    	public abstract CopyManager getCopyAPI();
+    }
+    
+    /**
+     * Stands in for the driver CopyManager
+     */
+    public static class CopyManager {
+    	String sql;
+    	String data;
+    	
+    	public long copyIn(String sql, InputStream data) throws IOException {
+    		this.sql = sql;
+    		this.data = ObjectConverterUtil.convertToString(data);
+    		return this.data.split("\n").length;
+    	}
+    }
+    
+    @Test public void testBulkLoad() throws Exception {
+		Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, StringKey) values (1, 'a')");
+		List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+		for (int i = 0; i < 2; i++) {
+			Parameter param = new Parameter();
+			param.setType(values.get(i).getType());
+			param.setValueIndex(i);
+			values.set(i, param);
+		}
+		command.setParameterValues(Arrays.asList(Arrays.asList(1, "a"), Arrays.asList(2, null), Arrays.asList(null, "x\ty\\z")).iterator());
+		
+		CopyManager copyManager = new CopyManager();
+		CopyConnection connection = Mockito.mock(CopyConnection.class);
+		Mockito.stub(connection.getCopyAPI()).toReturn(copyManager);
+		
+		PostgreSQLExecutionFactory ef = new PostgreSQLExecutionFactory();
+		ef.setDatabaseVersion(Version.DEFAULT_VERSION);
+		ef.setUseBulkLoad(true);
+		ef.start();
+		JDBCUpdateExecution execution = ef.createUpdateExecution(command, new FakeExecutionContextImpl(), null, connection);
+		execution.execute();
+		assertArrayEquals(new int[] {1, 1, 1}, execution.getUpdateCounts());
+		assertEquals("COPY SmallA (IntKey, StringKey) FROM STDIN", copyManager.sql);
+		assertEquals("1\ta\n2\t\\N\n\\N\tx\\ty\\\\z\n", copyManager.data);
+		Mockito.verify(connection, Mockito.never()).prepareStatement(Mockito.anyString());
+    }
+    
+    @Test public void testImportStatistics() throws Exception {
+		MetadataFactory mf = new MetadataFactory("vdb", 1, "x", SystemMetadata.getInstance().getRuntimeTypeMap(), new Properties(), null);
+		Table table = mf.addTable("t");
+		Column e1 = mf.addColumn("e1", "integer", table);
+		Column e2 = mf.addColumn("e2", "string", table);
+		
+		Connection conn = Mockito.mock(Connection.class);
+		PreparedStatement classPs = Mockito.mock(PreparedStatement.class);
+		ResultSet classRs = Mockito.mock(ResultSet.class);
+		Mockito.stub(conn.prepareStatement(Mockito.startsWith("SELECT c.reltuples"))).toReturn(classPs);
+		Mockito.stub(classPs.executeQuery()).toReturn(classRs);
+		Mockito.stub(classRs.next()).toReturn(true);
+		Mockito.stub(classRs.getDouble(1)).toReturn(1000d);
+		
+		PreparedStatement statsPs = Mockito.mock(PreparedStatement.class);
+		ResultSet statsRs = Mockito.mock(ResultSet.class);
+		Mockito.stub(conn.prepareStatement(Mockito.startsWith("SELECT attname"))).toReturn(statsPs);
+		Mockito.stub(statsPs.executeQuery()).toReturn(statsRs);
+		//e1, e2, an unknown column, then the inherited e1 that should be ignored
+		Mockito.when(statsRs.next()).thenReturn(true, true, true, true, false);
+		Mockito.when(statsRs.getString(1)).thenReturn("e1", "e2", "x", "e1");
+		Mockito.when(statsRs.getFloat(2)).thenReturn(.1f, 0f, 0f, 0f);
+		Mockito.when(statsRs.getFloat(3)).thenReturn(-.5f, 3f, 1f, 1f);
+		Array mcvs = mockArray(new String[] {"20"});
+		Mockito.when(statsRs.getArray(4)).thenReturn(mcvs, null, null, null);
+		Array freqs = mockArray(new Float[] {.45f});
+		Mockito.when(statsRs.getArray(5)).thenReturn(freqs, null, null, null);
+		Array e1Bounds = mockArray(new String[] {"1", "10", "30", "40"});
+		Array e2Bounds = mockArray(new String[] {"a", "m", "z"});
+		Mockito.when(statsRs.getArray(6)).thenReturn(e1Bounds, e2Bounds, null, null);
+		
+		PostgreSQLExecutionFactory.importStatistics(conn, "public", "t", table);
+		
+		Mockito.verify(statsPs).setString(1, "public");
+		Mockito.verify(statsPs).setString(2, "t");
+		Mockito.verify(statsPs).close();
+		assertEquals(1000, table.getCardinality());
+		assertEquals(100, e1.getNullValues());
+		assertEquals(500, e1.getDistinctValues());
+		assertEquals(Collections.singletonMap("20", .45f), e1.getMostCommonValues());
+		//the pg bounds exclude the most common value, which shifts the equi-depth bounds
+		assertEquals(Arrays.asList("1", "20", "30", "40"), e1.getHistogram());
+		assertEquals(0, e2.getNullValues());
+		assertEquals(3, e2.getDistinctValues());
+		assertNull(e2.getMostCommonValues());
+		assertEquals(Arrays.asList("a", "m", "z"), e2.getHistogram());
+    }
+    
+    @Test public void testImportStatisticsNotAnalyzed() throws Exception {
+		Table table = new Table();
+		Connection conn = Mockito.mock(Connection.class);
+		PreparedStatement classPs = Mockito.mock(PreparedStatement.class);
+		ResultSet classRs = Mockito.mock(ResultSet.class);
+		Mockito.stub(conn.prepareStatement(Mockito.anyString())).toReturn(classPs);
+		Mockito.stub(classPs.executeQuery()).toReturn(classRs);
+		Mockito.stub(classRs.next()).toReturn(true);
+		Mockito.stub(classRs.getDouble(1)).toReturn(-1d);
+		
+		PostgreSQLExecutionFactory.importStatistics(conn, "public", "t", table);
+		
+		assertEquals(Table.UNKNOWN_CARDINALITY, table.getCardinality());
+		Mockito.verify(conn, Mockito.times(1)).prepareStatement(Mockito.anyString());
+		Mockito.verify(classPs).close();
+    }
+    
+    private static Array mockArray(Object[] values) throws SQLException {
+    	Array array = Mockito.mock(Array.class);
+    	Mockito.stub(array.getArray()).toReturn(values);
+    	return array;
+    }
+    
 }
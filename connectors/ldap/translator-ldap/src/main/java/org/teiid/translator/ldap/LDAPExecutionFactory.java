@@ -34,6 +34,7 @@ import org.teiid.language.Select;
 import org.teiid.language.visitor.SQLStringVisitor;
 import org.teiid.metadata.MetadataFactory;
 import org.teiid.metadata.RuntimeMetadata;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ExecutionFactory;
 import org.teiid.translator.ProcedureExecution;
@@ -66,6 +67,8 @@ public class LDAPExecutionFactory extends ExecutionFactory<ConnectionFactory, Ld
 	private SearchDefaultScope searchDefaultScope = SearchDefaultScope.ONELEVEL_SCOPE;
 	private boolean usePagination;
 	private boolean exceptionOnSizeLimitExceeded;
+	private int parallelSearchCount = 1;
+	private ReaderExecutor parallelSearchExecutor;
 	
 	public LDAPExecutionFactory() {
 		this.setMaxInCriteriaSize(1000);
@@ -202,6 +205,22 @@ public class LDAPExecutionFactory extends ExecutionFactory<ConnectionFactory, Ld
 		this.exceptionOnSizeLimitExceeded = exceptionOnSizeLimitExceeded;
 	}
 	
+	@TranslatorProperty(display="Parallel Search Count", description="The number of threads used to read the results of a query.  When greater than 1 a query with OR'd criteria is split into separate searches by criteria, with the names of the entries retained to remove duplicates, otherwise a subtree search is split into separate searches by child entry.  Searches with sorting are not split.", advanced=true)
+	public int getParallelSearchCount() {
+		return parallelSearchCount;
+	}
+	
+	public void setParallelSearchCount(int parallelSearchCount) {
+		this.parallelSearchCount = parallelSearchCount;
+	}
+	
+	synchronized ReaderExecutor getParallelSearchExecutor() {
+		if (this.parallelSearchExecutor == null) {
+			this.parallelSearchExecutor = new ReaderExecutor("LDAP Parallel Search", ReaderExecutor.DEFAULT_MAX_THREADS); //$NON-NLS-1$
+		}
+		return this.parallelSearchExecutor;
+	}
+	
 	@Override
 	public boolean supportsOnlyLiteralComparison() {
 		return true;
@@ -103,6 +103,7 @@ import org.teiid.core.types.ArrayImpl;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.metadata.Column;
+import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.TranslatorException;
@@ -128,6 +129,7 @@ public class LDAPQueryExecution implements ResultSetExecution {
 	private int resultCount;
 	private Iterator<List<Object>> unwrapIterator;
 	private int unwrapPos = -1;
+	private ParallelSearch parallelSearch;
 
 	/** 
 	 * Constructor
@@ -170,6 +172,15 @@ public class LDAPQueryExecution implements ResultSetExecution {
 			}
 		}
 		
+		if (this.executionFactory.getParallelSearchCount() > 1 && searchDetails.getSortKeys() == null) {
+			ParallelSearch search = new ParallelSearch(this.ldapCtx, this.ctrls, 
+					this.executionFactory.usePagination()?this.executionContext.getBatchSize():0, this.executionContext);
+			if (search.execute(this.executionFactory, filter)) {
+				this.parallelSearch = search;
+				return;
+			}
+		}
+		
 		setRequestControls(null);
 		// Execute the search.
 		executeSearch();
@@ -236,6 +247,9 @@ public class LDAPQueryExecution implements ResultSetExecution {
 	// on contexts multiple times
 	@Override
 	public void close() {
+		if (parallelSearch != null) {
+			parallelSearch.close();
+		}
 		if (searchEnumeration != null) {
 			try {
 				searchEnumeration.close();
@@ -261,7 +275,7 @@ public class LDAPQueryExecution implements ResultSetExecution {
 	// it from being used again.
 	// GHH 20080326 - also added return of explanation for generic
 	// NamingException
-	public List<?> next() throws TranslatorException {
+	public List<?> next() throws TranslatorException, DataNotAvailableException {
 		try {
 			if (unwrapIterator != null) {
 				if (unwrapIterator.hasNext()) {
@@ -269,6 +283,9 @@ public class LDAPQueryExecution implements ResultSetExecution {
 				}
 				unwrapIterator = null;
 			}
+			if (parallelSearch != null) {
+				return nextParallel();
+			}
 			// The search has been executed, so process up to one batch of
 			// results.
 			List<?> result = null;
@@ -308,20 +325,49 @@ public class LDAPQueryExecution implements ResultSetExecution {
 			}
 			return result;
 		} catch (SizeLimitExceededException e) {
-			if (resultCount != searchDetails.getCountLimit()) {
-				String msg = LDAPPlugin.Util.gs(LDAPPlugin.Event.TEIID12008);
-				TranslatorException te = new TranslatorException(e, msg);
-				if (executionFactory.isExceptionOnSizeLimitExceeded()) {
-					throw te;
-				}
-				this.executionContext.addWarning(te);
-				LogManager.logWarning(LogConstants.CTX_CONNECTOR, e, msg); 
-			}
+			sizeLimitExceeded(e);
 			return null; // GHH 20080326 - if size limit exceeded don't try to read more results
 		} catch (NamingException ne) {
 			throw new TranslatorException(ne, LDAPPlugin.Util.gs("ldap_error")); //$NON-NLS-1$
 		}
 	}
+	
+	private void sizeLimitExceeded(SizeLimitExceededException e) throws TranslatorException {
+		if (resultCount != searchDetails.getCountLimit()) {
+			String msg = LDAPPlugin.Util.gs(LDAPPlugin.Event.TEIID12008);
+			TranslatorException te = new TranslatorException(e, msg);
+			if (executionFactory.isExceptionOnSizeLimitExceeded()) {
+				throw te;
+			}
+			this.executionContext.addWarning(te);
+			LogManager.logWarning(LogConstants.CTX_CONNECTOR, e, msg); 
+		}
+	}
+	
+	/**
+	 * Get the next row from the parallel search.  Each search is limited separately,
+	 * so the count limit is enforced here.
+	 */
+	private List<?> nextParallel() throws TranslatorException, DataNotAvailableException {
+		long limit = searchDetails.getCountLimit();
+		while (limit < 0 || resultCount < limit) {
+			SearchResult searchResult = parallelSearch.next();
+			if (searchResult == null) {
+				if (parallelSearch.getSizeLimitExceeded() != null) {
+					sizeLimitExceeded(parallelSearch.getSizeLimitExceeded());
+				}
+				return null;
+			}
+			try {
+				List<?> result = getRow(searchResult);
+				resultCount++;
+				return result;
+			} catch (InvalidNameException e) {
+				
+			}
+		}
+		return null;
+	}
 
 	/**
 	 * Create a row using the searchResult and add it to the supplied batch.
@@ -0,0 +1,363 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.translator.ldap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.SizeLimitExceededException;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+import javax.naming.ldap.Control;
+import javax.naming.ldap.LdapContext;
+import javax.naming.ldap.PagedResultsControl;
+import javax.naming.ldap.PagedResultsResponseControl;
+
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.translator.ConcurrentReads;
+import org.teiid.translator.DataNotAvailableException;
+import org.teiid.translator.ExecutionContext;
+import org.teiid.translator.TranslatorException;
+
+/**
+ * Performs a search as several disjoint searches, each read on its own thread and
+ * with its own context.  The results are merged, in no particular order, as they become available.
+ * <br>
+ * A filter with top level OR branches is split into groups of branches.  An entry may match more than one
+ * group, so the entries are de-duplicated by name.  The earlier groups are not excluded with a NOT filter
+ * as a branch that evaluates to undefined, rather than false, would then exclude matching entries.
+ * Otherwise a subtree search is split into a search of the base entry and a subtree search of each of its children.
+ * <br>
+ * The readers fetch results, and the next page when paging, ahead of the consumer.
+ */
+class ParallelSearch {
+	
+	/**
+	 * The most children of the base entry that will be searched as separate subtrees 
+	 */
+	static final int MAX_SUBTREES = 256;
+	
+	static class Search {
+		String name;
+		int scope;
+		String filter;
+		
+		Search(String name, int scope, String filter) {
+			this.name = name;
+			this.scope = scope;
+			this.filter = filter;
+		}
+	}
+	
+	private LdapContext ldapCtx;
+	private SearchControls ctrls;
+	private int pageSize;
+	private ExecutionContext executionContext;
+	private Queue<Search> searches = new ConcurrentLinkedQueue<Search>();
+	private int searchCount;
+	private ConcurrentReads<SearchResult> reads;
+	private Set<String> names;
+	private volatile SizeLimitExceededException sizeLimitExceeded;
+	
+	/**
+	 * @param ldapCtx the context of the search base
+	 * @param pageSize the page size or 0 if paging should not be used
+	 */
+	ParallelSearch(LdapContext ldapCtx, SearchControls ctrls, int pageSize, ExecutionContext executionContext) {
+		this.ldapCtx = ldapCtx;
+		this.ctrls = ctrls;
+		this.pageSize = pageSize;
+		this.executionContext = executionContext;
+		this.reads = new ConcurrentReads<SearchResult>(executionContext, Math.max(1024, executionContext.getBatchSize() * 2)) {
+			@Override
+			protected TranslatorException convert(Throwable t) {
+				if (t instanceof NamingException) {
+					return new TranslatorException(t, LDAPPlugin.Util.gs("ldap_error")); //$NON-NLS-1$
+				}
+				return super.convert(t);
+			}
+		};
+	}
+	
+	/**
+	 * Split the search and start the readers
+	 * @return false if the reader threads are not available and a single search should be used instead
+	 */
+	boolean execute(LDAPExecutionFactory executionFactory, String filter) throws TranslatorException {
+		int threads = this.reads.reserve(executionFactory.getParallelSearchExecutor(), executionFactory.getParallelSearchCount());
+		if (threads < 2) {
+			close();
+			return false;
+		}
+		List<String> branches = getBranches(filter);
+		if (branches.size() > 1) {
+			addFilterSearches(branches, threads);
+		} else if (this.ctrls.getSearchScope() == SearchControls.SUBTREE_SCOPE) {
+			addSubtreeSearches(filter);
+		} else {
+			this.searches.add(new Search("", this.ctrls.getSearchScope(), filter)); //$NON-NLS-1$
+		}
+		this.searchCount = this.searches.size();
+		threads = Math.min(threads, this.searchCount);
+		LogManager.logDetail(LogConstants.CTX_CONNECTOR, "Executing", this.searchCount, "LDAP searches with", threads, "threads"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		for (int i = 0; i < threads; i++) {
+			this.reads.start(new ConcurrentReads.Reader<SearchResult>() {
+				@Override
+				public void read(ConcurrentReads<SearchResult> r) throws Exception {
+					//contexts may not be used concurrently, so each reader has its own
+					LdapContext ctx = (LdapContext)ldapCtx.lookup(""); //$NON-NLS-1$
+					try {
+						Search search = null;
+						while (!r.isStopped() && (search = searches.poll()) != null) {
+							ParallelSearch.this.read(ctx, search);
+						}
+					} finally {
+						close(ctx);
+					}
+				}
+			});
+		}
+		return true;
+	}
+	
+	private void addFilterSearches(List<String> branches, int threads) {
+		int groups = Math.min(threads, branches.size());
+		this.names = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+		for (int i = 0; i < groups; i++) {
+			List<String> group = branches.subList(i * branches.size() / groups, (i + 1) * branches.size() / groups);
+			StringBuilder filter = new StringBuilder();
+			filter.append("(|"); //$NON-NLS-1$
+			for (String branch : group) {
+				filter.append(branch);
+			}
+			filter.append(')');
+			this.searches.add(new Search("", this.ctrls.getSearchScope(), filter.toString())); //$NON-NLS-1$
+		}
+	}
+	
+	private void addSubtreeSearches(String filter) {
+		List<String> children = new ArrayList<String>();
+		LdapContext ctx = null;
+		try {
+			ctx = (LdapContext)this.ldapCtx.lookup(""); //$NON-NLS-1$
+			ctx.setRequestControls(null);
+			SearchControls listCtrls = new SearchControls(SearchControls.ONELEVEL_SCOPE, MAX_SUBTREES, this.ctrls.getTimeLimit(), new String[] {"1.1"}, false, false); //$NON-NLS-1$
+			NamingEnumeration<SearchResult> childResults = ctx.search("", "(objectClass=*)", listCtrls); //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				while (childResults.hasMore()) {
+					SearchResult child = childResults.next();
+					if (!child.isRelative()) {
+						children = null;
+						break;
+					}
+					children.add(child.getName());
+				}
+			} finally {
+				childResults.close();
+			}
+		} catch (SizeLimitExceededException e) {
+			//too many to split by
+			children = null;
+		} catch (NamingException e) {
+			LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Could not list the children of the search base, a single search will be used"); //$NON-NLS-1$
+			children = null;
+		} finally {
+			close(ctx);
+		}
+		if (children == null || children.isEmpty()) {
+			this.searches.add(new Search("", SearchControls.SUBTREE_SCOPE, filter)); //$NON-NLS-1$
+			return;
+		}
+		this.searches.add(new Search("", SearchControls.OBJECT_SCOPE, filter)); //$NON-NLS-1$
+		for (String child : children) {
+			this.searches.add(new Search(child, SearchControls.SUBTREE_SCOPE, filter));
+		}
+	}
+	
+	/**
+	 * Get the top level OR branches of the filter, including any nested ORs or an OR
+	 * that is a term of a top level AND.
+	 * @return the branches or just the filter if it cannot be split
+	 */
+	static List<String> getBranches(String filter) {
+		List<String> result = new ArrayList<String>();
+		List<String> terms = getTerms(filter);
+		if (terms == null) {
+			result.add(filter);
+			return result;
+		}
+		if (filter.startsWith("(|")) { //$NON-NLS-1$
+			for (String term : terms) {
+				result.addAll(getBranches(term));
+			}
+			return result;
+		}
+		if (filter.startsWith("(&")) { //$NON-NLS-1$
+			//distribute the first splittable term
+			for (int i = 0; i < terms.size(); i++) {
+				List<String> branches = getBranches(terms.get(i));
+				if (branches.size() < 2) {
+					continue;
+				}
+				StringBuilder others = new StringBuilder();
+				for (int j = 0; j < terms.size(); j++) {
+					if (j != i) {
+						others.append(terms.get(j));
+					}
+				}
+				for (String branch : branches) {
+					result.add("(&" + branch + others + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				return result;
+			}
+		}
+		result.add(filter);
+		return result;
+	}
+	
+	/**
+	 * Get the terms of an AND or OR filter.  Literal parens are always escaped 
+	 * in a filter string, so only the nesting needs to be tracked.
+	 * @return the terms or null if the filter is not an AND or OR
+	 */
+	private static List<String> getTerms(String filter) {
+		if (filter.length() < 4 || filter.charAt(0) != '(' || (filter.charAt(1) != '|' && filter.charAt(1) != '&') || filter.charAt(filter.length() - 1) != ')') {
+			return null;
+		}
+		List<String> terms = new ArrayList<String>();
+		int depth = 0;
+		int start = -1;
+		for (int i = 2; i < filter.length() - 1; i++) {
+			char c = filter.charAt(i);
+			if (c == '(') {
+				if (depth++ == 0) {
+					start = i;
+				}
+			} else if (c == ')') {
+				if (--depth == 0) {
+					terms.add(filter.substring(start, i + 1));
+				} else if (depth < 0) {
+					return null;
+				}
+			} else if (depth == 0) {
+				return null;
+			}
+		}
+		if (depth != 0) {
+			return null;
+		}
+		return terms;
+	}
+	
+	private void read(LdapContext ctx, Search search) throws NamingException, IOException, InterruptedException {
+		SearchControls searchCtrls = new SearchControls(search.scope, this.ctrls.getCountLimit(), this.ctrls.getTimeLimit(), 
+				this.ctrls.getReturningAttributes(), this.ctrls.getReturningObjFlag(), this.ctrls.getDerefLinkFlag());
+		try {
+			byte[] cookie = null;
+			do {
+				if (this.pageSize > 0) {
+					ctx.setRequestControls(new Control[] {new PagedResultsControl(this.pageSize, cookie, Control.CRITICAL)});
+				} else {
+					ctx.setRequestControls(null);
+				}
+				NamingEnumeration<SearchResult> searchResults = ctx.search(search.name, search.filter, searchCtrls);
+				try {
+					while (searchResults.hasMore()) {
+						SearchResult result = searchResults.next();
+						//the filter searches are all relative to the base, so the names are comparable
+						if (this.names != null && !this.names.add(result.getName())) {
+							continue;
+						}
+						if (!reads.add(result)) {
+							return;
+						}
+					}
+				} finally {
+					searchResults.close();
+				}
+				cookie = null;
+				if (this.pageSize > 0 && !reads.isStopped()) {
+					cookie = getCookie(ctx.getResponseControls());
+				}
+			} while (cookie != null);
+		} catch (SizeLimitExceededException e) {
+			this.sizeLimitExceeded = e;
+		}
+	}
+	
+	static byte[] getCookie(Control[] controls) {
+		if (controls != null) {
+			for (int i = 0; i < controls.length; i++) {
+				if (controls[i] instanceof PagedResultsResponseControl) {
+					return ((PagedResultsResponseControl)controls[i]).getCookie();
+				}
+			}
+		}
+		return null;
+	}
+	
+	private static void close(LdapContext ctx) {
+		if (ctx != null) {
+			try {
+				ctx.close();
+			} catch (NamingException e) {
+				LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Exception closing"); //$NON-NLS-1$
+			}
+		}
+	}
+	
+	/**
+	 * @return the next result or null if all searches have completed
+	 */
+	SearchResult next() throws TranslatorException, DataNotAvailableException {
+		return reads.next();
+	}
+	
+	/**
+	 * @return the exception if any search exceeded the size limit
+	 */
+	SizeLimitExceededException getSizeLimitExceeded() {
+		return sizeLimitExceeded;
+	}
+	
+	int getSearchCount() {
+		return searchCount;
+	}
+	
+	/**
+	 * Stop and wait for the readers
+	 */
+	void close() {
+		reads.close();
+	}
+
+}
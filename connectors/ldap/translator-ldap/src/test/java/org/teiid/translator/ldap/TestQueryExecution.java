@@ -29,6 +29,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
@@ -41,13 +44,17 @@ import javax.naming.directory.SearchResult;
 import javax.naming.ldap.LdapContext;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.teiid.cdk.api.TranslationUtility;
 import org.teiid.language.Command;
 import org.teiid.language.Literal;
 import org.teiid.metadata.Column;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 
 @SuppressWarnings("nls")
@@ -179,6 +186,132 @@ public class TestQueryExecution {
         assertNull(execution.next());
 	}
 	
+	@Test public void testParallelSearch() throws Exception {
+        TranslationUtility util = new TranslationUtility(RealMetadataFactory.fromDDL("CREATE FOREIGN TABLE People (cn string, mail string) OPTIONS(nameinsource 'ou=people,o=DEMOCORP,c=AU');", "x", "y"));
+        Command command = util.parseCommand("select cn, mail from people where cn in ('a', 'b', 'c') limit 2");
+        ExecutionContext ec = Mockito.mock(ExecutionContext.class);
+        final Semaphore available = new Semaphore(0);
+        Mockito.doAnswer(new Answer<Void>() {
+        	@Override
+        	public Void answer(InvocationOnMock invocation) throws Throwable {
+        		available.release();
+        		return null;
+        	}
+        }).when(ec).dataAvailable();
+        RuntimeMetadata rm = Mockito.mock(RuntimeMetadata.class);
+        LdapContext connection = Mockito.mock(LdapContext.class);
+        LdapContext ctx = Mockito.mock(LdapContext.class);
+        Mockito.stub(connection.lookup("ou=people,o=DEMOCORP,c=AU")).toReturn(ctx);
+        //each reader gets a new context instance, but the searches may be read by either
+        final LdapContext readerCtx = Mockito.mock(LdapContext.class);
+        final AtomicInteger lookups = new AtomicInteger();
+        Mockito.stub(ctx.lookup("")).toAnswer(new Answer<LdapContext>() {
+        	@Override
+        	public LdapContext answer(InvocationOnMock invocation) throws Throwable {
+        		lookups.incrementAndGet();
+        		return readerCtx;
+        	}
+        });
+        
+        BasicAttributes attributes = new BasicAttributes(true);
+        attributes.put(new BasicAttribute("cn", "a"));
+        NamingEnumeration<SearchResult> enumeration = new SimpleNamingEnumeration(Arrays.asList(new SearchResult("cn=a", null, attributes)).iterator());
+        Mockito.stub(readerCtx.search(Mockito.eq(""), Mockito.eq("(|(cn=a))"), (SearchControls)Mockito.any())).toReturn(enumeration);
+        attributes = new BasicAttributes(true);
+        attributes.put(new BasicAttribute("cn", "b"));
+        BasicAttributes attributes1 = new BasicAttributes(true);
+        attributes1.put(new BasicAttribute("cn", "c"));
+        enumeration = new SimpleNamingEnumeration(Arrays.asList(new SearchResult("cn=b", null, attributes), new SearchResult("cn=c", null, attributes1)).iterator());
+        Mockito.stub(readerCtx.search(Mockito.eq(""), Mockito.eq("(|(cn=b)(cn=c))"), (SearchControls)Mockito.any())).toReturn(enumeration);
+        
+        LDAPExecutionFactory lef = new LDAPExecutionFactory();
+        lef.setParallelSearchCount(2);
+        lef.start();
+        
+        LDAPSyncQueryExecution execution = (LDAPSyncQueryExecution)lef.createExecution(command, ec, rm, connection);
+        execution.execute();
+        List<List<?>> results = new ArrayList<List<?>>();
+        while (true) {
+        	try {
+        		List<?> result = execution.next();
+        		if (result == null) {
+        			break;
+        		}
+        		results.add(result);
+        	} catch (DataNotAvailableException e) {
+        		//the readers must signal when there is more
+        		assertTrue(available.tryAcquire(10, TimeUnit.SECONDS));
+        	}
+        }
+        execution.close();
+        //limited to 2 of the 3 entries
+        assertEquals(2, results.size());
+        
+        ArgumentCaptor<SearchControls> ctrls = ArgumentCaptor.forClass(SearchControls.class);
+        Mockito.verify(readerCtx, Mockito.times(2)).search(Mockito.eq(""), Mockito.anyString(), ctrls.capture());
+        assertArrayEquals(new String[] {"cn", "mail"}, ctrls.getValue().getReturningAttributes());
+        assertEquals(2, ctrls.getValue().getCountLimit());
+        //a reader that starts after the execution is closed does not get a context
+        Mockito.verify(readerCtx, Mockito.times(lookups.get())).close();
+	}
+	
+	@Test public void testParallelSearchDuplicates() throws Exception {
+        TranslationUtility util = new TranslationUtility(RealMetadataFactory.fromDDL("CREATE FOREIGN TABLE People (cn string, mail string) OPTIONS(nameinsource 'ou=people,o=DEMOCORP,c=AU');", "x", "y"));
+        Command command = util.parseCommand("select cn from people where cn = 'a' or mail = 'a@x'");
+        ExecutionContext ec = Mockito.mock(ExecutionContext.class);
+        final Semaphore available = new Semaphore(0);
+        Mockito.doAnswer(new Answer<Void>() {
+        	@Override
+        	public Void answer(InvocationOnMock invocation) throws Throwable {
+        		available.release();
+        		return null;
+        	}
+        }).when(ec).dataAvailable();
+        LdapContext connection = Mockito.mock(LdapContext.class);
+        LdapContext ctx = Mockito.mock(LdapContext.class);
+        Mockito.stub(connection.lookup("ou=people,o=DEMOCORP,c=AU")).toReturn(ctx);
+        LdapContext readerCtx = Mockito.mock(LdapContext.class);
+        Mockito.stub(ctx.lookup("")).toReturn(readerCtx);
+        
+        //the entry matches both branches
+        BasicAttributes attributes = new BasicAttributes(true);
+        attributes.put(new BasicAttribute("cn", "a"));
+        Mockito.stub(readerCtx.search(Mockito.eq(""), Mockito.eq("(|(cn=a))"), (SearchControls)Mockito.any())).toReturn(
+        		new SimpleNamingEnumeration(Arrays.asList(new SearchResult("cn=a", null, attributes)).iterator()));
+        Mockito.stub(readerCtx.search(Mockito.eq(""), Mockito.eq("(|(mail=a@x))"), (SearchControls)Mockito.any())).toReturn(
+        		new SimpleNamingEnumeration(Arrays.asList(new SearchResult("cn=a", null, attributes)).iterator()));
+        
+        LDAPExecutionFactory lef = new LDAPExecutionFactory();
+        lef.setParallelSearchCount(2);
+        lef.start();
+        
+        LDAPSyncQueryExecution execution = (LDAPSyncQueryExecution)lef.createExecution(command, ec, Mockito.mock(RuntimeMetadata.class), connection);
+        execution.execute();
+        List<List<?>> results = new ArrayList<List<?>>();
+        while (true) {
+        	try {
+        		List<?> result = execution.next();
+        		if (result == null) {
+        			break;
+        		}
+        		results.add(result);
+        	} catch (DataNotAvailableException e) {
+        		assertTrue(available.tryAcquire(10, TimeUnit.SECONDS));
+        	}
+        }
+        execution.close();
+        assertEquals(Arrays.asList(Arrays.asList("a")), results);
+        Mockito.verify(readerCtx, Mockito.times(2)).search(Mockito.eq(""), Mockito.anyString(), (SearchControls)Mockito.any());
+	}
+	
+	@Test public void testSearchBranches() {
+		assertEquals(Arrays.asList("(cn=a)", "(cn=b)", "(cn=c)"), ParallelSearch.getBranches("(|(cn=a)(|(cn=b)(cn=c)))"));
+		assertEquals(Arrays.asList("(&(cn=a)(objectClass=person))", "(&(cn=b)(objectClass=person))"), ParallelSearch.getBranches("(&(|(cn=a)(cn=b))(objectClass=person))"));
+		assertEquals(Arrays.asList("(&(cn=a)(cn=b))"), ParallelSearch.getBranches("(&(cn=a)(cn=b))"));
+		assertEquals(Arrays.asList("(!(|(cn=a)(cn=b)))"), ParallelSearch.getBranches("(!(|(cn=a)(cn=b)))"));
+		assertEquals(Arrays.asList("(cn=\\28a)", "(cn=b)"), ParallelSearch.getBranches("(|(cn=\\28a)(cn=b))"));
+	}
+	
 	@Test public void testMultiAttribute() throws NamingException {
 		Column c = new Column();
 		c.setDefaultValue(LDAPQueryExecution.MULTIVALUED_CONCAT);
@@ -61,6 +61,7 @@ import org.teiid.metadata.FunctionMethod;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.mongodb.MongoDBConnection;
 import org.teiid.translator.*;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
 import org.teiid.translator.jdbc.AliasModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.util.Version;
@@ -70,6 +71,7 @@ import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DB;
 import com.mongodb.DBRef;
+import com.mongodb.ParallelScanOptions;
 import com.mongodb.gridfs.GridFS;
 import com.mongodb.gridfs.GridFSDBFile;
 import com.mongodb.gridfs.GridFSInputFile;
@@ -94,6 +96,8 @@ public class MongoDBExecutionFactory extends ExecutionFactory<ConnectionFactory,
 	protected Map<String, FunctionModifier> functionModifiers = new TreeMap<String, FunctionModifier>(String.CASE_INSENSITIVE_ORDER);
 	private Version version = TWO_6;
 	private boolean useDisk = true;
+	private int parallelScanCount = 1;
+	private ReaderExecutor parallelScanExecutor;
 	private boolean supportsAggregatesCount = true;
 	
 	public MongoDBExecutionFactory() {
@@ -289,6 +293,22 @@ public class MongoDBExecutionFactory extends ExecutionFactory<ConnectionFactory,
         this.useDisk = useDisk;
     }
     
+    @TranslatorProperty(display="Parallel Scan Count", description="The number of cursors to use for a parallel collection scan of a query that only projects top level fields.  Defaults to 1, which does not use parallel scans.  Parallel collection scans are not supported through mongos and return whole documents, so they are best suited to collections whose documents are mostly projected.", advanced=true)
+    public int getParallelScanCount() {
+        return this.parallelScanCount;
+    }
+
+    public void setParallelScanCount(int parallelScanCount) {
+        this.parallelScanCount = parallelScanCount;
+    }
+
+    synchronized ReaderExecutor getParallelScanExecutor() {
+        if (this.parallelScanExecutor == null) {
+            this.parallelScanExecutor = new ReaderExecutor("MongoDB Parallel Scan", ReaderExecutor.DEFAULT_MAX_THREADS); //$NON-NLS-1$
+        }
+        return this.parallelScanExecutor;
+    }
+    
     /**
      * Sets the database version.  See also {@link #getVersion()}
      * @param version
@@ -677,6 +697,10 @@ public class MongoDBExecutionFactory extends ExecutionFactory<ConnectionFactory,
 		}
 	}
 	
+	public ParallelScanOptions getParallelScanOptions(int numCursors, int batchSize) {
+	    return ParallelScanOptions.builder().numCursors(numCursors).batchSize(batchSize).build();
+	}
+	
 	public AggregationOptions getOptions(int batchSize) {
 	    if (this.version.compareTo(TWO_4) < 0) {
 	        return AggregationOptions.builder().batchSize(batchSize).outputMode(AggregationOptions.OutputMode.INLINE).build();
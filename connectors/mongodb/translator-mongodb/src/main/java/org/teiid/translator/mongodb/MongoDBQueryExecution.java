@@ -43,6 +43,8 @@ public class MongoDBQueryExecution extends MongoDBBaseExecution implements Resul
 	private Cursor results;
 	private MongoDBSelectVisitor visitor;
 	private Class<?>[] expectedTypes;
+	private String[] projectedFields;
+	private ParallelScan parallelScan;
 
 	public MongoDBQueryExecution(
 			MongoDBExecutionFactory executionFactory,
@@ -98,6 +100,10 @@ public class MongoDBQueryExecution extends MongoDBBaseExecution implements Resul
 			buildAggregate(ops, "$skip", this.visitor.skip); //$NON-NLS-1$
 			buildAggregate(ops, "$limit", this.visitor.limit); //$NON-NLS-1$
 
+			if (executeParallelScan(collection)) {
+				return;
+			}
+			
 			try {
                 this.results = collection.aggregate(ops, this.executionFactory.getOptions(this.executionContext.getBatchSize()));
 			} catch (MongoException e) {
@@ -106,6 +112,52 @@ public class MongoDBQueryExecution extends MongoDBBaseExecution implements Resul
 		}
 	}
 
+	/**
+	 * Use a parallel collection scan if the query is only a projection of top level fields.
+	 * The parallelCollectionScan command does not accept a projection, so whole documents are
+	 * returned and the projection is then performed as the documents are read.
+	 */
+	private boolean executeParallelScan(DBCollection collection) throws TranslatorException {
+		if (this.executionFactory.getParallelScanCount() < 2 
+				|| this.executionFactory.getVersion().compareTo(MongoDBExecutionFactory.TWO_6) < 0
+				|| !this.visitor.mergePlanner.getNodes().isEmpty() 
+				|| this.visitor.match != null || this.visitor.group != null || this.visitor.having != null
+				|| this.visitor.sort != null || this.visitor.skip != null || this.visitor.limit != null) {
+			return false;
+		}
+		String[] fields = new String[this.visitor.selectColumns.size()];
+		for (int i = 0; i < fields.length; i++) {
+			Object expr = this.visitor.project.get(this.visitor.selectColumns.get(i));
+			if (!(expr instanceof String) || !((String)expr).startsWith("$") || ((String)expr).indexOf('.') >= 0) { //$NON-NLS-1$
+				return false;
+			}
+			fields[i] = ((String)expr).substring(1);
+		}
+		ParallelScan scan = new ParallelScan(this, this.executionContext.getBatchSize());
+		//use a single cursor if reader threads are not available
+		int threads = scan.reserve(this.executionFactory.getParallelScanExecutor(), this.executionFactory.getParallelScanCount());
+		List<Cursor> cursors = null;
+		try {
+			if (threads >= 2) {
+				cursors = collection.parallelScan(this.executionFactory.getParallelScanOptions(threads, this.executionContext.getBatchSize()));
+			}
+		} catch (MongoException e) {
+			throw new TranslatorException(e);
+		} finally {
+			if (cursors == null) {
+				scan.close();
+			}
+		}
+		if (cursors == null) {
+			return false;
+		}
+		LogManager.logDetail(LogConstants.CTX_CONNECTOR, "Using a parallel scan with", cursors.size(), "cursors"); //$NON-NLS-1$ //$NON-NLS-2$
+		this.projectedFields = fields;
+		this.parallelScan = scan;
+		this.parallelScan.execute(cursors);
+		return true;
+	}
+
 	private void buildAggregate(List<DBObject> query, String type, Object object) {
 		if (object != null) {
 			LogManager.logDetail(LogConstants.CTX_CONNECTOR, "{\""+type+"\": {"+object.toString()+"}}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ 
@@ -121,21 +173,38 @@ public class MongoDBQueryExecution extends MongoDBBaseExecution implements Resul
 
 	@Override
 	public List<?> next() throws TranslatorException, DataNotAvailableException {
+		if (this.parallelScan != null) {
+			return this.parallelScan.next();
+		}
 		if (this.results != null && this.results.hasNext()) {
 			DBObject result = this.results.next();
 			if (result != null) {
-				ArrayList row = new ArrayList();
-				for (int i = 0; i < this.visitor.selectColumns.size();i++) {
-					row.add(this.executionFactory.retrieveValue(result.get(this.visitor.selectColumns.get(i)), this.expectedTypes[i], this.mongoDB, this.visitor.selectColumns.get(i), this.visitor.selectColumnReferences.get(i)));
-				}
-				return row;
+				return buildRow(result);
 			}
 		}
 		return null;
 	}
 
+	List<?> buildRow(DBObject result) throws TranslatorException {
+		ArrayList row = new ArrayList();
+		for (int i = 0; i < this.visitor.selectColumns.size();i++) {
+			Object value = null;
+			if (this.projectedFields != null) {
+				value = result.get(this.projectedFields[i]);
+			} else {
+				value = result.get(this.visitor.selectColumns.get(i));
+			}
+			row.add(this.executionFactory.retrieveValue(value, this.expectedTypes[i], this.mongoDB, this.visitor.selectColumns.get(i), this.visitor.selectColumnReferences.get(i)));
+		}
+		return row;
+	}
+
 	@Override
 	public void close() {
+	    if (this.parallelScan != null) {
+	        this.parallelScan.close();
+	        this.parallelScan = null;
+	    }
 	    if (this.results != null) {
     		this.results.close();
     		this.results = null;
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator.mongodb;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.teiid.translator.ConcurrentReads;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
+import org.teiid.translator.DataNotAvailableException;
+import org.teiid.translator.TranslatorException;
+
+import com.mongodb.Cursor;
+import com.mongodb.DBObject;
+
+/**
+ * Reads a collection with the cursors returned by a parallel collection scan.
+ * The cursors are read by up to the reserved number of threads and the rows are merged, 
+ * in no particular order, as they become available.
+ * <br>
+ * The server returns whole documents for these cursors, only the projected fields are
+ * converted to row values.
+ */
+class ParallelScan {
+
+	private MongoDBQueryExecution execution;
+	private Queue<Cursor> cursors = new ConcurrentLinkedQueue<Cursor>();
+	private int cursorCount;
+	private ConcurrentReads<List<?>> reads;
+	private int reserved;
+
+	ParallelScan(MongoDBQueryExecution execution, int batchSize) {
+		this.execution = execution;
+		this.reads = new ConcurrentReads<List<?>>(execution.executionContext, Math.max(1024, batchSize * 2));
+	}
+
+	/**
+	 * Reserve up to the given number of reader threads without blocking
+	 * @return the number of threads reserved
+	 */
+	int reserve(ReaderExecutor executor, int count) {
+		this.reserved = this.reads.reserve(executor, count);
+		return this.reserved;
+	}
+
+	/**
+	 * Start reading the cursors
+	 */
+	void execute(List<Cursor> scanCursors) {
+		this.cursors.addAll(scanCursors);
+		this.cursorCount = scanCursors.size();
+		int readers = Math.min(this.reserved, this.cursorCount);
+		for (int i = 0; i < readers; i++) {
+			reads.start(new ConcurrentReads.Reader<List<?>>() {
+				@Override
+				public void read(ConcurrentReads<List<?>> r) throws Exception {
+					Cursor cursor = null;
+					while (!r.isStopped() && (cursor = cursors.poll()) != null) {
+						try {
+							ParallelScan.this.read(cursor);
+						} finally {
+							cursor.close();
+						}
+					}
+				}
+			});
+		}
+	}
+
+	private void read(Cursor cursor) throws Exception {
+		while (cursor.hasNext()) {
+			DBObject result = cursor.next();
+			if (result == null) {
+				continue;
+			}
+			if (!reads.add(execution.buildRow(result))) {
+				return;
+			}
+		}
+	}
+
+	List<?> next() throws TranslatorException, DataNotAvailableException {
+		return reads.next();
+	}
+
+	/**
+	 * Stop and wait for the readers and close any unread cursors
+	 */
+	void close() {
+		reads.close();
+		Cursor cursor = null;
+		while ((cursor = cursors.poll()) != null) {
+			cursor.close();
+		}
+	}
+
+	int getCursorCount() {
+		return cursorCount;
+	}
+
+}
@@ -24,6 +24,8 @@ package org.teiid.translator.mongodb;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -62,6 +64,7 @@ import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.parser.TestDDLParser;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.validator.ValidatorReport;
+import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.TranslatorException;
@@ -75,6 +78,7 @@ import com.mongodb.Cursor;
 import com.mongodb.DB;
 import com.mongodb.DBCollection;
 import com.mongodb.DBObject;
+import com.mongodb.ParallelScanOptions;
 import com.mongodb.QueryBuilder;
 
 @SuppressWarnings("nls")
@@ -1588,4 +1592,64 @@ public class TestMongoDBQueryExecution {
                         new BasicDBObject("$project", result));
         Mockito.verify(dbCollection).aggregate(Mockito.eq(pipeline), Mockito.any(AggregationOptions.class));
     }
+
+    @Test
+    public void testParallelScan() throws Exception {
+        this.translator.setParallelScanCount(2);
+        Command cmd = this.utility.parseCommand("SELECT CompanyName, ContactTitle FROM Customers");
+        ExecutionContext context = Mockito.mock(ExecutionContext.class);
+        Mockito.stub(context.getBatchSize()).toReturn(256);
+        final Semaphore available = new Semaphore(0);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                available.release();
+                return null;
+            }
+        }).when(context).dataAvailable();
+        MongoDBConnection connection = Mockito.mock(MongoDBConnection.class);
+        DB db = Mockito.mock(DB.class);
+        DBCollection dbCollection = Mockito.mock(DBCollection.class);
+        Mockito.stub(db.getCollection("Customers")).toReturn(dbCollection);
+        Mockito.stub(connection.getDatabase()).toReturn(db);
+
+        Cursor c1 = Mockito.mock(Cursor.class);
+        Mockito.stub(c1.hasNext()).toReturn(true).toReturn(false);
+        Mockito.stub(c1.next()).toReturn(new BasicDBObject("CompanyName", "a").append("ContactTitle", "b").append("City", "c"));
+        Cursor c2 = Mockito.mock(Cursor.class);
+        Mockito.stub(c2.hasNext()).toReturn(false);
+        Mockito.stub(dbCollection.parallelScan(Mockito.any(ParallelScanOptions.class))).toReturn(Arrays.asList(c1, c2));
+
+        ResultSetExecution execution = this.translator.createResultSetExecution((QueryExpression)cmd, context,
+                this.utility.createRuntimeMetadata(), connection);
+        execution.execute();
+        List<List<?>> results = new ArrayList<List<?>>();
+        while (true) {
+            try {
+                List<?> row = execution.next();
+                if (row == null) {
+                    break;
+                }
+                results.add(row);
+            } catch (DataNotAvailableException e) {
+                //the readers must signal when there is more
+                Assert.assertTrue(available.tryAcquire(10, TimeUnit.SECONDS));
+            }
+        }
+        execution.close();
+        Assert.assertEquals(Arrays.asList(Arrays.asList("a", "b")), results);
+        Mockito.verify(dbCollection, Mockito.never()).aggregate(Mockito.anyListOf(DBObject.class), Mockito.any(AggregationOptions.class));
+        Mockito.verify(c1).close();
+        Mockito.verify(c2).close();
+    }
+
+    @Test
+    public void testParallelScanNotUsed() throws Exception {
+        this.translator.setParallelScanCount(2);
+        String query = "SELECT CompanyName, ContactTitle FROM Customers WHERE Country='USA'";
+
+        DBCollection dbCollection = helpExecute(query, new String[]{"Customers"}, 2);
+
+        Mockito.verify(dbCollection, Mockito.never()).parallelScan(Mockito.any(ParallelScanOptions.class));
+    }
 }
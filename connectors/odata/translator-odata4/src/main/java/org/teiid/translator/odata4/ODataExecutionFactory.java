@@ -46,6 +46,7 @@ import org.teiid.language.visitor.SQLStringVisitor;
 import org.teiid.metadata.MetadataFactory;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.translator.*;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
 import org.teiid.translator.jdbc.AliasModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.ws.BinaryWSProcedureExecution;
@@ -68,6 +69,8 @@ public class ODataExecutionFactory extends ExecutionFactory<ConnectionFactory, W
     private boolean supportsOdataSkip;
     private boolean supportsOdataTop;
     private boolean supportsUpdates = true;
+    private boolean prefetchPages;
+    private ReaderExecutor prefetchExecutor;
     private XMLMetadata serviceMatadata;
 
     public ODataExecutionFactory() {
@@ -287,6 +290,24 @@ public class ODataExecutionFactory extends ExecutionFactory<ConnectionFactory, W
         this.supportsUpdates = supports;
     }     
     
+    @TranslatorProperty(display="Prefetch Pages", 
+            description="True, if the next page of a query result should be fetched and parsed while the current page is read", 
+            advanced=true)
+    public boolean isPrefetchPages() {
+        return prefetchPages;
+    }
+    
+    public void setPrefetchPages(boolean prefetchPages) {
+        this.prefetchPages = prefetchPages;
+    }
+    
+    synchronized ReaderExecutor getPrefetchExecutor() {
+        if (this.prefetchExecutor == null) {
+            this.prefetchExecutor = new ReaderExecutor("OData Page Prefetch", ReaderExecutor.DEFAULT_MAX_THREADS); //$NON-NLS-1$
+        }
+        return this.prefetchExecutor;
+    }
+    
     @Override
     public boolean supportsCompareCriteriaEquals() {
         return this.supportsOdataFilter;
@@ -93,7 +93,9 @@ public class ODataQueryExecution extends BaseQueryExecution implements ResultSet
                             HttpStatusCode.NOT_FOUND                            
                     }); 
             this.response = new ODataResponse(payload,
-                    ODataType.ENTITY_COLLECTION, this.visitor.getODataQuery().getRootDocument()) {
+                    ODataType.ENTITY_COLLECTION, this.visitor.getODataQuery().getRootDocument(),
+                    this.translator.isPrefetchPages()?this.translator.getPrefetchExecutor():null, 
+                    this.executionContext) {
                 @Override
                 public InputStream nextBatch(java.net.URI uri) throws TranslatorException {
                     return executeSkipToken(uri, URI.toString(), 
@@ -129,6 +131,9 @@ public class ODataQueryExecution extends BaseQueryExecution implements ResultSet
     
     @Override
     public void close() {
+        if (this.response != null) {
+            this.response.close();
+        }
     }
 
     @Override
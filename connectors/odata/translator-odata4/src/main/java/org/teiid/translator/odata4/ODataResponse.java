@@ -35,39 +35,68 @@ import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
 import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
+import org.teiid.translator.ConcurrentReads;
+import org.teiid.translator.ConcurrentReads.ReaderExecutor;
+import org.teiid.translator.DataNotAvailableException;
+import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.document.DocumentNode;
 import org.teiid.translator.odata4.ODataMetadataProcessor.ODataType;
 
 
 public abstract class ODataResponse {
+    
+    private static class Page {
+        Iterator<ODataDocument> documents;
+        URI nextUri;
+        
+        Page(Iterator<ODataDocument> documents, URI nextUri) {
+            this.documents = documents;
+            this.nextUri = nextUri;
+        }
+    }
+    
     private URI nextUri;
     private Iterator<ODataDocument> results;
     private ODataType resultsType;
     private List<Map<String, Object>> currentDocumentRows;
     private DocumentNode rootNode;
+    private ReaderExecutor prefetchExecutor;
+    private ExecutionContext executionContext;
+    private ConcurrentReads<Page> prefetch;
     
     public ODataResponse(InputStream payload, ODataType type, DocumentNode rootNode) throws TranslatorException {
+        this(payload, type, rootNode, null, null);
+    }
+    
+    /**
+     * @param prefetchExecutor if not null the next page is fetched and parsed with the executor
+     * while the current page is being read.  If a thread is not available the page is fetched when needed.
+     * @param executionContext notified when a prefetched page is available
+     */
+    public ODataResponse(InputStream payload, ODataType type, DocumentNode rootNode, 
+            ReaderExecutor prefetchExecutor, ExecutionContext executionContext) throws TranslatorException {
         this.resultsType = type;
         this.rootNode = rootNode;
-        this.results = parsePayload(payload);        
+        this.prefetchExecutor = prefetchExecutor;
+        this.executionContext = executionContext;
+        setPage(parsePayload(payload));        
     }
 
-    private Iterator<ODataDocument> parsePayload(InputStream payload) throws TranslatorException {
+    private Page parsePayload(InputStream payload) throws TranslatorException {
         try {
             JsonDeserializer parser = new JsonDeserializer(false);
             if (this.resultsType == ODataType.ENTITY) {
                 Entity entity = parser.toEntity(payload).getPayload();
                 ODataDocument document = ODataDocument.createDocument(entity);
-                return Arrays.asList(document).iterator();
+                return new Page(Arrays.asList(document).iterator(), null);
             } else if (this.resultsType == ODataType.ENTITY_COLLECTION) {
                 EntityCollection entityCollection = parser.toEntitySet(payload).getPayload();
-                this.nextUri = entityCollection.getNext();
                 ArrayList<ODataDocument> documents = new ArrayList<ODataDocument>();
                 for (Entity entity : entityCollection.getEntities()) {
                     documents.add(ODataDocument.createDocument(entity));
                 }
-                return documents.iterator();            
+                return new Page(documents.iterator(), entityCollection.getNext());            
             } else {
                 // complex
                 Property property = parser.toProperty(payload).getPayload();
@@ -77,10 +106,10 @@ public abstract class ODataResponse {
                         ComplexValue complexValue = (ComplexValue)obj;
                         documents.add(ODataDocument.createDocument(complexValue));
                     }
-                    return documents.iterator();
+                    return new Page(documents.iterator(), null);
                 } else {
                     ODataDocument document = ODataDocument.createDocument(property.asComplex());
-                    return Arrays.asList(document).iterator();                
+                    return new Page(Arrays.asList(document).iterator(), null);                
                 }
             }
         } catch (ODataDeserializerException e) {
@@ -88,7 +117,37 @@ public abstract class ODataResponse {
         }
     }
     
-    public Map<String, Object> getNext() throws TranslatorException {
+    /**
+     * Set the current page and start the prefetch of the next.
+     * <br>
+     * The prefetch uses the connection and execution context from another thread.  That is safe as
+     * only one page request is made at a time - the prefetch is started after the previous request
+     * has completed and the processing thread makes no request until it has taken the prefetched page.
+     * Each request also creates its own Dispatch, and only the batch size and dataAvailable are
+     * used from the execution context. {@link #close()} waits for the prefetch so that the
+     * connection is not used after the execution is closed.
+     */
+    private void setPage(Page page) {
+        this.results = page.documents;
+        this.nextUri = page.nextUri;
+        if (this.prefetchExecutor != null && this.nextUri != null) {
+            ConcurrentReads<Page> reads = new ConcurrentReads<Page>(this.executionContext, 1);
+            if (reads.reserve(this.prefetchExecutor, 1) == 0) {
+                return;
+            }
+            final URI uri = this.nextUri;
+            this.nextUri = null;
+            reads.start(new ConcurrentReads.Reader<Page>() {
+                @Override
+                public void read(ConcurrentReads<Page> r) throws Exception {
+                    r.add(fetchSkipToken(uri));
+                }
+            });
+            this.prefetch = reads;
+        }
+    }
+    
+    public Map<String, Object> getNext() throws TranslatorException, DataNotAvailableException {
         
         if (this.currentDocumentRows != null && !this.currentDocumentRows.isEmpty()) {
             return this.currentDocumentRows.remove(0);
@@ -98,18 +157,36 @@ public abstract class ODataResponse {
             this.currentDocumentRows = this.rootNode.tuples(this.results.next());
             return getNext();
         } else {
+            if (this.prefetch != null) {
+                Page page = this.prefetch.next();
+                this.prefetch.close();
+                this.prefetch = null;
+                if (page != null) {
+                    setPage(page);
+                    return getNext();
+                }
+            }
             if (this.nextUri != null) {
-                this.results = fetchSkipToken(this.nextUri);
+                setPage(fetchSkipToken(this.nextUri));
                 return getNext();
             }            
         }
         return null;
     }
-
-    private Iterator<ODataDocument> fetchSkipToken(URI uri) throws TranslatorException {
+    
+    private Page fetchSkipToken(URI uri) throws TranslatorException {
         return parsePayload(nextBatch(uri));
     }
     
+    /**
+     * Stop and wait for any prefetch of the next page
+     */
+    public void close() {
+        if (this.prefetch != null) {
+            this.prefetch.close();
+            this.prefetch = null;
+        }
+    }
+    
     public abstract InputStream nextBatch(URI uri) throws TranslatorException;
 }
-
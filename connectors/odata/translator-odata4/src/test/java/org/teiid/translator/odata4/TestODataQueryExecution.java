@@ -33,6 +33,10 @@ import java.net.URLDecoder;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.activation.DataSource;
 import javax.xml.ws.Dispatch;
@@ -47,6 +51,8 @@ import org.apache.olingo.commons.core.edm.primitivetype.EdmGeometryPoint;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.teiid.GeometryInputSource;
 import org.teiid.cdk.api.TranslationUtility;
 import org.teiid.core.util.ObjectConverterUtil;
@@ -55,6 +61,7 @@ import org.teiid.language.Call;
 import org.teiid.language.Command;
 import org.teiid.language.QueryExpression;
 import org.teiid.metadata.MetadataFactory;
+import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ProcedureExecution;
 import org.teiid.translator.ResultSetExecution;
@@ -196,6 +203,134 @@ public class TestODataQueryExecution {
         return execution;
     }    
     
+    private DataSource jsonSource(final String json) {
+        return new DataSource() {
+            @Override
+            public OutputStream getOutputStream() throws IOException {
+                return new ByteArrayOutputStream();
+            }
+            @Override
+            public String getName() {
+                return "result";
+            }
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return new ByteArrayInputStream(json.getBytes());
+            }
+            @Override
+            public String getContentType() {
+                return "application/json";
+            }
+        };
+    }
+    
+    @Test
+    public void testPagePrefetch() throws Exception {
+        ODataExecutionFactory translator = new ODataExecutionFactory();
+        translator.setPrefetchPages(true);
+        translator.start();
+        
+        TranslationUtility utility = new TranslationUtility(
+                TestODataMetadataProcessor.getTransformationMetadata(TestODataMetadataProcessor.tripPinMetadata(),translator));
+        
+        Command cmd = utility.parseCommand("SELECT UserName FROM People");
+        ExecutionContext context = Mockito.mock(ExecutionContext.class);
+        final Semaphore available = new Semaphore(0);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                available.release();
+                return null;
+            }
+        }).when(context).dataAvailable();
+        WSConnection connection = Mockito.mock(WSConnection.class);
+        
+        Map<String, Object> headers = new HashMap<String, Object>();
+        headers.put(MessageContext.HTTP_REQUEST_HEADERS, new HashMap<String, List<String>>());
+        headers.put(WSConnection.STATUS_CODE, new Integer(200));
+        
+        Dispatch<DataSource> dispatch = Mockito.mock(Dispatch.class);
+        Mockito.stub(dispatch.getRequestContext()).toReturn(headers);
+        Mockito.stub(dispatch.getResponseContext()).toReturn(headers);
+        Mockito.stub(connection.createDispatch(Mockito.eq(HTTPBinding.HTTP_BINDING), Mockito.anyString(), 
+                Mockito.eq(DataSource.class), Mockito.eq(Mode.MESSAGE))).toReturn(dispatch);
+        Mockito.stub(dispatch.invoke(Mockito.any(DataSource.class)))
+                .toReturn(jsonSource("{\"value\":[{\"UserName\":\"russellwhyte\"},{\"UserName\":\"scottketchum\"}],"
+                        + "\"@odata.nextLink\":\"http://localhost/People?$skiptoken=2\"}"))
+                .toReturn(jsonSource("{\"value\":[{\"UserName\":\"ronaldmundy\"}]}"));
+        
+        ResultSetExecution execution = translator.createResultSetExecution((QueryExpression) cmd, context,
+                utility.createRuntimeMetadata(), connection);
+        execution.execute();
+        
+        StringBuilder names = new StringBuilder();
+        while (true) {
+            try {
+                List<?> row = execution.next();
+                if (row == null) {
+                    break;
+                }
+                names.append(row.get(0)).append(" ");
+            } catch (DataNotAvailableException e) {
+                assertTrue(available.tryAcquire(10, TimeUnit.SECONDS));
+            }
+        }
+        execution.close();
+        assertEquals("russellwhyte scottketchum ronaldmundy ", names.toString());
+        
+        ArgumentCaptor<String> endpoint = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(connection, Mockito.times(2)).createDispatch(Mockito.eq(HTTPBinding.HTTP_BINDING),
+                endpoint.capture(), Mockito.eq(DataSource.class), Mockito.eq(Mode.MESSAGE));
+        assertEquals("http://localhost/People?$skiptoken=2", URLDecoder.decode(endpoint.getAllValues().get(1), "utf-8"));
+    }
+    
+    @Test
+    public void testPagePrefetchCloseWaits() throws Exception {
+        ODataExecutionFactory translator = new ODataExecutionFactory();
+        translator.setPrefetchPages(true);
+        translator.start();
+        
+        TranslationUtility utility = new TranslationUtility(
+                TestODataMetadataProcessor.getTransformationMetadata(TestODataMetadataProcessor.tripPinMetadata(),translator));
+        
+        Command cmd = utility.parseCommand("SELECT UserName FROM People");
+        ExecutionContext context = Mockito.mock(ExecutionContext.class);
+        WSConnection connection = Mockito.mock(WSConnection.class);
+        
+        Map<String, Object> headers = new HashMap<String, Object>();
+        headers.put(MessageContext.HTTP_REQUEST_HEADERS, new HashMap<String, List<String>>());
+        headers.put(WSConnection.STATUS_CODE, new Integer(200));
+        
+        Dispatch<DataSource> dispatch = Mockito.mock(Dispatch.class);
+        Mockito.stub(dispatch.getRequestContext()).toReturn(headers);
+        Mockito.stub(dispatch.getResponseContext()).toReturn(headers);
+        Mockito.stub(connection.createDispatch(Mockito.eq(HTTPBinding.HTTP_BINDING), Mockito.anyString(), 
+                Mockito.eq(DataSource.class), Mockito.eq(Mode.MESSAGE))).toReturn(dispatch);
+        final CountDownLatch prefetchStarted = new CountDownLatch(1);
+        final AtomicBoolean prefetchDone = new AtomicBoolean();
+        Mockito.when(dispatch.invoke(Mockito.any(DataSource.class)))
+                .thenReturn(jsonSource("{\"value\":[{\"UserName\":\"russellwhyte\"}],"
+                        + "\"@odata.nextLink\":\"http://localhost/People?$skiptoken=1\"}"))
+                .thenAnswer(new Answer<DataSource>() {
+                    @Override
+                    public DataSource answer(InvocationOnMock invocation) throws Throwable {
+                        prefetchStarted.countDown();
+                        Thread.sleep(100);
+                        prefetchDone.set(true);
+                        return jsonSource("{\"value\":[{\"UserName\":\"ronaldmundy\"}]}");
+                    }
+                });
+        
+        ResultSetExecution execution = translator.createResultSetExecution((QueryExpression) cmd, context,
+                utility.createRuntimeMetadata(), connection);
+        execution.execute();
+        assertEquals("russellwhyte", execution.next().get(0));
+        assertTrue(prefetchStarted.await(10, TimeUnit.SECONDS));
+        execution.close();
+        //the connection must not be in use after close
+        assertTrue(prefetchDone.get());
+    }
+    
 	@Test
 	public void testSimpleSelectNoAssosiations() throws Exception {
 		String query = "SELECT UserName,FirstName,LastName FROM People";
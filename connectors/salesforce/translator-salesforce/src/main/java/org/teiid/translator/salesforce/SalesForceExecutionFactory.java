@@ -66,6 +66,7 @@ public class SalesForceExecutionFactory extends ExecutionFactory<ConnectionFacto
 	private boolean auditModelFields = false;
 	private int maxInsertBatchSize = 2048;
 	private boolean supportsGroupBy = true;
+	private long bulkQueryMinimumCardinality = -1;
 	
 	public SalesForceExecutionFactory() {
 	    // http://jira.jboss.org/jira/browse/JBEDSP-306
@@ -266,6 +267,15 @@ public class SalesForceExecutionFactory extends ExecutionFactory<ConnectionFacto
 		this.maxInsertBatchSize = maxInsertBatchSize;
 	}
     
+    @TranslatorProperty(display="Bulk Query Minimum Cardinality", description="The table cardinality at or above which an unfiltered query will use the bulk api, as if it had the bulk source hint.  Defaults to -1, which only uses the bulk api when hinted.", advanced=true)
+    public long getBulkQueryMinimumCardinality() {
+		return bulkQueryMinimumCardinality;
+	}
+    
+    public void setBulkQueryMinimumCardinality(long bulkQueryMinimumCardinality) {
+		this.bulkQueryMinimumCardinality = bulkQueryMinimumCardinality;
+	}
+    
     public void setSupportsGroupBy(boolean supportsGroupBy) {
 		this.supportsGroupBy = supportsGroupBy;
 	}
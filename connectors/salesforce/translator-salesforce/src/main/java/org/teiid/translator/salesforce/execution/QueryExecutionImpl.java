@@ -244,17 +244,21 @@ public class QueryExecutionImpl implements ResultSetExecution {
 				LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Executing Query:", finalQuery); //$NON-NLS-1$
 				context.logCommand(finalQuery);
 				
-				if (!join && !visitor.getQueryAll() 
-						&& (context.getSourceHints() != null && context.getSourceHints().contains("bulk"))) { //$NON-NLS-1$
-					BulkValidator bulkValidator = new BulkValidator();
-					query.acceptVisitor(bulkValidator);
-					if (bulkValidator.isBulkEligible()) {
-					    LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Using bulk logic", bulkValidator.usePkChunking()?"with":"without", "pk chunking"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
-					    this.activeJob = connection.createBulkJob(visitor.getTableName(), OperationEnum.query, bulkValidator.usePkChunking());
-						batchInfo = connection.addBatch(finalQuery, this.activeJob);
-						return;
+				if (!join && !visitor.getQueryAll()) {
+					boolean hinted = context.getSourceHints() != null && context.getSourceHints().contains("bulk"); //$NON-NLS-1$
+					if (hinted || isLargeResult()) {
+						BulkValidator bulkValidator = new BulkValidator();
+						query.acceptVisitor(bulkValidator);
+						if (bulkValidator.isBulkEligible()) {
+						    LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Using bulk logic", bulkValidator.usePkChunking()?"with":"without", "pk chunking"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+						    this.activeJob = connection.createBulkJob(visitor.getTableName(), OperationEnum.query, bulkValidator.usePkChunking());
+							batchInfo = connection.addBatch(finalQuery, this.activeJob);
+							return;
+						}
+						if (hinted) {
+							LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Ingoring bulk hint as the query is not bulk eligible"); //$NON-NLS-1$
+						}
 					}
-                    LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Ingoring bulk hint as the query is not bulk eligible"); //$NON-NLS-1$
 				}
 				
 				results = connection.query(finalQuery, this.context.getBatchSize(), visitor.getQueryAll());
@@ -264,6 +268,34 @@ public class QueryExecutionImpl implements ResultSetExecution {
 		}
 	}
 	
+	/**
+	 * Determine if the query is expected to return enough rows to use the bulk api without a hint.
+	 * The estimate is the cardinality of the table, so only queries without criteria are considered.
+	 */
+	private boolean isLargeResult() {
+		long minimum = this.executionFactory.getBulkQueryMinimumCardinality();
+		if (minimum < 0 || !(query instanceof Select)) {
+			return false;
+		}
+		Select select = (Select)query;
+		if (select.getWhere() != null || !(select.getFrom().get(0) instanceof NamedTable)) {
+			return false;
+		}
+		if (select.getLimit() != null && select.getLimit().getRowLimit() < minimum) {
+			return false;
+		}
+		Table table = ((NamedTable)select.getFrom().get(0)).getMetadataObject();
+		if (table == null) {
+			return false;
+		}
+		float cardinality = table.getCardinalityAsFloat();
+		if (cardinality < minimum) {
+			return false;
+		}
+		LogManager.logDetail(LogConstants.CTX_CONNECTOR,  getLogPreamble(), "Considering bulk logic as the cardinality", cardinality, "is at least", minimum); //$NON-NLS-1$ //$NON-NLS-2$
+		return true;
+	}
+	
 	@Override
 	public List<?> next() throws TranslatorException, DataNotAvailableException {
 		if (activeJob != null) {
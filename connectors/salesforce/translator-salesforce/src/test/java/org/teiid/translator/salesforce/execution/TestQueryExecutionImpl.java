@@ -40,8 +40,10 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.teiid.cdk.api.TranslationUtility;
+import org.teiid.language.NamedTable;
 import org.teiid.language.Select;
 import org.teiid.metadata.RuntimeMetadata;
+import org.teiid.metadata.Table;
 import org.teiid.query.unittest.TimestampUtil;
 import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
@@ -206,4 +208,36 @@ public class TestQueryExecutionImpl {
 		assertNull(execution.next());
 	}
 	
+	@Test
+	public void testBulkByCardinality() throws Exception {
+		Select command = (Select)translationUtility.parseCommand("select Name from Account"); //$NON-NLS-1$
+		Table table = ((NamedTable)command.getFrom().get(0)).getMetadataObject();
+		int cardinality = table.getCardinality();
+		table.setCardinality(1000);
+		try {
+			SalesforceConnection connection = Mockito.mock(SalesforceConnection.class);
+			JobInfo jobInfo = Mockito.mock(JobInfo.class);
+			Mockito.when(connection.createBulkJob(Mockito.anyString(), Mockito.eq(OperationEnum.query), Mockito.eq(true))).thenReturn(jobInfo);
+			SalesForceExecutionFactory ef = new SalesForceExecutionFactory();
+			ef.setBulkQueryMinimumCardinality(1000);
+			
+			QueryExecutionImpl execution = new QueryExecutionImpl(command, connection, Mockito.mock(RuntimeMetadata.class), Mockito.mock(ExecutionContext.class), ef);
+			execution.execute();
+			Mockito.verify(connection).addBatch("SELECT Account.Name FROM Account", jobInfo);
+			
+			//filtered or below the minimum should not use bulk
+			command = (Select)translationUtility.parseCommand("select Name from Account where Name = 'x'"); //$NON-NLS-1$
+			execution = new QueryExecutionImpl(command, connection, Mockito.mock(RuntimeMetadata.class), Mockito.mock(ExecutionContext.class), ef);
+			execution.execute();
+			ef.setBulkQueryMinimumCardinality(1001);
+			command = (Select)translationUtility.parseCommand("select Name from Account"); //$NON-NLS-1$
+			execution = new QueryExecutionImpl(command, connection, Mockito.mock(RuntimeMetadata.class), Mockito.mock(ExecutionContext.class), ef);
+			execution.execute();
+			Mockito.verify(connection, Mockito.times(1)).createBulkJob(Mockito.anyString(), Mockito.eq(OperationEnum.query), Mockito.anyBoolean());
+			Mockito.verify(connection, Mockito.times(2)).query(Mockito.anyString(), Mockito.anyInt(), Mockito.anyBoolean());
+		} finally {
+			table.setCardinality(cardinality);
+		}
+	}
+	
 }
@@ -43,6 +43,7 @@ import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.SourceSystemFunctions;
 import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
+import org.teiid.translator.TranslatorProperty;
 import org.teiid.translator.UpdateExecution;
 import org.teiid.translator.jdbc.AliasModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
@@ -50,6 +51,7 @@ import org.teiid.translator.jdbc.FunctionModifier;
 @Translator(name = "solr", description = "A translator for Solr search platform")
 public class SolrExecutionFactory extends ExecutionFactory<ConnectionFactory, SolrConnection> {
 	protected Map<String, FunctionModifier> functionModifiers = new TreeMap<String, FunctionModifier>(String.CASE_INSENSITIVE_ORDER);
+	private boolean useCursorMark;
 	
 	public SolrExecutionFactory() {
 		super();
@@ -69,6 +71,15 @@ public class SolrExecutionFactory extends ExecutionFactory<ConnectionFactory, So
 		super.start();
 	}
 		
+	@TranslatorProperty(display="Use Cursor Mark", description="Use cursorMark paging rather than start offsets to read results beyond the first batch.  Requires Solr 4.7 or later and a single column primary key.", advanced=true)
+	public boolean isUseCursorMark() {
+		return useCursorMark;
+	}
+	
+	public void setUseCursorMark(boolean useCursorMark) {
+		this.useCursorMark = useCursorMark;
+	}
+		
 	@Override
     public MetadataProcessor<SolrConnection> getMetadataProcessor() {
 	    return new SolrMetadataProcessor();
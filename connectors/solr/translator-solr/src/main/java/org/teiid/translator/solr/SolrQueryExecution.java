@@ -39,6 +39,10 @@ import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.TranslatorException;
 
 public class SolrQueryExecution implements ResultSetExecution {
+	private static final String CURSOR_MARK = "cursorMark"; //$NON-NLS-1$
+	private static final String NEXT_CURSOR_MARK = "nextCursorMark"; //$NON-NLS-1$
+	private static final String CURSOR_MARK_START = "*"; //$NON-NLS-1$
+	
 	private ExecutionContext executionContext;
 	private SolrConnection connection;
 	private SolrSQLHierarchyVistor visitor;
@@ -47,6 +51,8 @@ public class SolrQueryExecution implements ResultSetExecution {
 	private SolrExecutionFactory executionFactory;
 	private int offset = 0;
 	private Long resultSize;
+	private String cursorMark;
+	private boolean lastBatch;
 
 	public SolrQueryExecution(SolrExecutionFactory ef, Command command,
 			ExecutionContext executionContext, RuntimeMetadata metadata,
@@ -64,13 +70,25 @@ public class SolrQueryExecution implements ResultSetExecution {
 
 	@Override
 	public void execute() throws TranslatorException {
+		if (this.executionFactory.isUseCursorMark() && !this.visitor.isLimitInUse() && !this.visitor.isCountStarInUse()
+				&& this.visitor.getUniqueKeyField() != null) {
+			// cursor paging requires a sort that ends with the unique key
+			if (!this.visitor.isSortedBy(this.visitor.getUniqueKeyField())) {
+				this.visitor.getSolrQuery().addSort(this.visitor.getUniqueKeyField(), SolrQuery.ORDER.asc);
+			}
+			this.cursorMark = CURSOR_MARK_START;
+		}
 		LogManager.logDetail("Solr Source Query:", this.visitor.getSolrQuery()); //$NON-NLS-1$
 		nextBatch();
 	}
 	
 	public void nextBatch() throws TranslatorException {
 		SolrQuery query = this.visitor.getSolrQuery();
-		if (!this.visitor.isLimitInUse()) {
+		if (this.cursorMark != null) {
+			query.setRows(this.executionContext.getBatchSize());
+			query.set(CURSOR_MARK, this.cursorMark);
+		}
+		else if (!this.visitor.isLimitInUse()) {
 			query.setStart(this.offset);
 			query.setRows(this.executionContext.getBatchSize());
 		}
@@ -79,6 +97,17 @@ public class SolrQueryExecution implements ResultSetExecution {
 		SolrDocumentList docList = queryResponse.getResults();
 		this.resultSize = docList.getNumFound();
 		this.resultsItr = docList.iterator();
+		if (this.cursorMark != null) {
+			String nextCursorMark = null;
+			if (queryResponse.getResponse() != null) {
+				nextCursorMark = (String)queryResponse.getResponse().get(NEXT_CURSOR_MARK);
+			}
+			// the same mark is returned once all of the results have been read
+			if (nextCursorMark == null || nextCursorMark.equals(this.cursorMark) || docList.size() < this.executionContext.getBatchSize()) {
+				this.lastBatch = true;
+			}
+			this.cursorMark = nextCursorMark;
+		}
 	}
 
 	/*
@@ -109,7 +138,7 @@ public class SolrQueryExecution implements ResultSetExecution {
 			this.offset++;
 			
 			// if we are at the end of the current cursor set, then get next ones.
-			if (!this.resultsItr.hasNext() && !this.visitor.isLimitInUse()) {
+			if (!this.resultsItr.hasNext() && !this.visitor.isLimitInUse() && !this.lastBatch) {
 				nextBatch();
 			}
 			return row;
@@ -128,7 +157,7 @@ public class SolrQueryExecution implements ResultSetExecution {
 			this.offset++;
 			
 			// if we are at the end of the current cursor set, then get next ones.
-			if (!this.resultsItr.hasNext()) {
+			if (!this.resultsItr.hasNext() && !this.lastBatch) {
 				nextBatch();
 			}
 		}		
@@ -40,6 +40,7 @@ import org.teiid.language.SQLConstants.Tokens;
 import org.teiid.language.visitor.HierarchyVisitor;
 import org.teiid.metadata.AbstractMetadataRecord;
 import org.teiid.metadata.RuntimeMetadata;
+import org.teiid.metadata.Table;
 import org.teiid.translator.jdbc.FunctionModifier;
 
 public class SolrSQLHierarchyVistor extends HierarchyVisitor {
@@ -59,6 +60,8 @@ public class SolrSQLHierarchyVistor extends HierarchyVisitor {
 	private SolrExecutionFactory ef;
 	private HashMap<String, String> columnAliasMap = new HashMap<String, String>();
 	private boolean countStarInUse;
+	private String uniqueKeyField;
+	private List<String> sortFields = new ArrayList<String>();
 
 	public SolrSQLHierarchyVistor(RuntimeMetadata metadata, SolrExecutionFactory ef) {
 		this.metadata = metadata;
@@ -78,6 +81,14 @@ public class SolrSQLHierarchyVistor extends HierarchyVisitor {
 		fieldNameList.add(expr);
 	}
 
+	@Override
+	public void visit(NamedTable obj) {
+		Table table = obj.getMetadataObject();
+		if (table != null && table.getPrimaryKey() != null && table.getPrimaryKey().getColumns().size() == 1) {
+			this.uniqueKeyField = getRecordName(table.getPrimaryKey().getColumns().get(0));
+		}
+	}
+
 	public static String getColumnName(ColumnReference obj) {
 		String elemShortName = null;
 		AbstractMetadataRecord elementID = obj.getMetadataObject();
@@ -285,6 +296,7 @@ public class SolrSQLHierarchyVistor extends HierarchyVisitor {
 		visitNode(obj.getExpression());
 		String expr = this.onGoingExpression.pop();
 		this.query.addSort(expr, obj.getOrdering() == SortSpecification.Ordering.ASC?SolrQuery.ORDER.asc:SolrQuery.ORDER.desc);
+		this.sortFields.add(expr);
 	}
 	
 	@Override
@@ -350,4 +362,15 @@ public class SolrSQLHierarchyVistor extends HierarchyVisitor {
 		return countStarInUse;
 	}
 	
+	/**
+	 * @return the unique key field of the collection or null if not known
+	 */
+	public String getUniqueKeyField() {
+		return uniqueKeyField;
+	}
+	
+	public boolean isSortedBy(String field) {
+		return this.sortFields.contains(field);
+	}
+	
 }
@@ -0,0 +1,109 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+package org.teiid.translator.solr;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.teiid.cdk.api.TranslationUtility;
+import org.teiid.core.util.ObjectConverterUtil;
+import org.teiid.core.util.UnitTestUtil;
+import org.teiid.language.Command;
+import org.teiid.language.QueryExpression;
+import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.translator.ExecutionContext;
+import org.teiid.translator.ResultSetExecution;
+
+@SuppressWarnings("nls")
+public class TestSolrQueryExecution {
+    private SolrExecutionFactory translator;
+    private TranslationUtility utility;
+
+    @Before
+    public void setUp() throws Exception {
+    	this.translator = new SolrExecutionFactory();
+    	this.translator.start();
+
+    	TransformationMetadata metadata = RealMetadataFactory.fromDDL(ObjectConverterUtil.convertFileToString(UnitTestUtil.getTestDataFile("exampleTBL.ddl")), "example", "solr");
+    	this.utility = new TranslationUtility(metadata);
+    }
+    
+    private QueryResponse buildResponse(String nextCursorMark, String... names) {
+    	SolrDocumentList list = new SolrDocumentList();
+    	for (String name : names) {
+    		SolrDocument doc = new SolrDocument();
+    		doc.addField("name", name);
+    		list.add(doc);
+    	}
+    	QueryResponse response = Mockito.mock(QueryResponse.class);
+    	Mockito.stub(response.getResults()).toReturn(list);
+    	NamedList<Object> nl = new NamedList<Object>();
+    	nl.add("nextCursorMark", nextCursorMark);
+    	Mockito.stub(response.getResponse()).toReturn(nl);
+    	return response;
+    }
+
+	@Test
+	public void testCursorMark() throws Exception {
+		this.translator.setUseCursorMark(true);
+		Command cmd = this.utility.parseCommand("select name from example");
+		ExecutionContext context = Mockito.mock(ExecutionContext.class);
+		Mockito.stub(context.getBatchSize()).toReturn(2);
+		
+		final List<QueryResponse> responses = new ArrayList<QueryResponse>(Arrays.asList(buildResponse("a", "x", "y"), buildResponse("b", "z")));
+		final List<String> queries = new ArrayList<String>();
+		SolrConnection connection = Mockito.mock(SolrConnection.class);
+		Mockito.stub(connection.query(Mockito.any(SolrQuery.class))).toAnswer(new Answer<QueryResponse>() {
+			@Override
+			public QueryResponse answer(InvocationOnMock invocation) throws Throwable {
+				SolrQuery query = (SolrQuery)invocation.getArguments()[0];
+				queries.add(query.get("cursorMark") + " " + query.getSortField() + " " + query.getStart());
+				return responses.remove(0);
+			}
+		});
+		
+		ResultSetExecution execution = this.translator.createResultSetExecution((QueryExpression)cmd, context, this.utility.createRuntimeMetadata(), connection);
+		execution.execute();
+		assertEquals(Arrays.asList("x"), execution.next());
+		assertEquals(Arrays.asList("y"), execution.next());
+		assertEquals(Arrays.asList("z"), execution.next());
+		assertNull(execution.next());
+		
+		//the short batch ends the read without another request
+		assertEquals(Arrays.asList("* name asc null", "a name asc null"), queries);
+	}
+	
+}
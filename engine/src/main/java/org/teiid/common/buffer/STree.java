@@ -41,6 +41,7 @@ import org.teiid.common.buffer.SPage.SearchResult;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.types.Streamable;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.processor.relational.ListNestedSortComparator;
 
@@ -73,6 +74,7 @@ public class STree implements Cloneable {
 	protected boolean batchInsert;
 	protected SPage incompleteInsert;
 	protected LobManager lobManager;
+	protected boolean shareValues;
     
     protected ReentrantLock updateLock = new ReentrantLock();
     
@@ -180,15 +182,167 @@ public class STree implements Cloneable {
 	
 	public void readValuesFrom(ObjectInputStream ois) throws IOException, ClassNotFoundException, TeiidComponentException {
 		long size = ois.readLong();
-		int sizeHint = this.getExpectedHeight(size);
-		batchInsert = true;
+		BulkLoader loader = createBulkLoader();
 		while (this.getRowCount() < size) {
 			List<List<Object>> batch = BatchSerializer.readBatch(ois, leafManager.getTypes());
 			for (List list : batch) {
-				this.insert(list, InsertMode.ORDERED, sizeHint);
+				if (!loader.append(list)) {
+					throw new TeiidComponentException(QueryPlugin.Event.TEIID31262, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31262));
+				}
+			}
+		}
+		loader.finish();
+	}
+	
+	/**
+	 * Builds the tree bottom up from tuples that are sorted by the key.
+	 * Each page is filled before the next is started, so no searches or splits are needed, 
+	 * and keys are only promoted to the parent level when a page is started - which is the 
+	 * same structure produced by {@link InsertMode#ORDERED}.
+	 * <br>
+	 * {@link #finish()} must be called before the tree is otherwise used.
+	 */
+	public class BulkLoader {
+		private List<SPage> current = new ArrayList<SPage>();
+		private List<List<List<?>>> currentValues = new ArrayList<List<List<?>>>();
+		private List<?> last;
+		
+		private BulkLoader() throws TeiidComponentException {
+			if (rowCount.get() != 0) {
+				throw new AssertionError("Bulk load requires an empty tree"); //$NON-NLS-1$
+			}
+			current.add(header[0]);
+			currentValues.add(header[0].getValues());
+		}
+		
+		/**
+		 * Append a tuple, which should be greater than the previous tuple.
+		 * @return false if the tuple was not added since it is out of order or a duplicate, 
+		 * in which case the load may be finished and the remaining tuples inserted normally
+		 */
+		public boolean append(List tuple) throws TeiidComponentException {
+			if (tuple.size() != leafManager.getTypes().length) {
+				throw new AssertionError("Invalid tuple."); //$NON-NLS-1$
+			}
+			if (last != null && comparator.compare(last, tuple) >= 0) {
+				return false;
+			}
+			last = tuple;
+			if (lobManager != null) {
+				lobManager.updateReferences(tuple, ReferenceMode.CREATE);
 			}
+			rowCount.addAndGet(1);
+			add(0, tuple, null);
+			return true;
 		}
-		batchInsert = false;
+		
+		private void add(int level, List value, SPage child) throws TeiidComponentException {
+			boolean leaf = level == 0;
+			List<List<?>> values = currentValues.get(level);
+			if (values.size() == getPageSize(leaf)) {
+				SPage page = current.get(level);
+				setPageValues(page, values);
+				SPage next = new SPage(STree.this, leaf);
+				page.next = next;
+				next.prev = page;
+				values = next.getValues();
+				current.set(level, next);
+				currentValues.set(level, values);
+				if (level + 1 == current.size()) {
+					SPage parent = new SPage(STree.this, false);
+					current.add(parent);
+					currentValues.add(parent.getValues());
+					SPage[] newHeader = Arrays.copyOf(header, level + 2);
+					newHeader[level + 1] = parent;
+					header = newHeader;
+				}
+				add(level + 1, leaf?extractKey(value):value, next);
+			}
+			values.add(value);
+			if (child != null) {
+				current.get(level).children.add(child);
+			}
+		}
+		
+		public void finish() throws TeiidComponentException {
+			for (int i = 0; i < current.size(); i++) {
+				setPageValues(current.get(i), currentValues.get(i));
+			}
+			current.clear();
+			currentValues.clear();
+		}
+	}
+	
+	public BulkLoader createBulkLoader() throws TeiidComponentException {
+		return new BulkLoader();
+	}
+	
+	void setPageValues(SPage page, List<List<?>> values) throws TeiidComponentException {
+		if (shareValues && page.children == null) {
+			shareEqualValues(values);
+		}
+		page.setValues(values);
+	}
+	
+	/**
+	 * Have equal values in a column of the leaf values share the same instance, 
+	 * which for sorted data includes the common key prefixes of adjacent tuples.
+	 * This only reduces the heap used by pages held in memory, it does not change 
+	 * the serialized page or the size estimated for the buffer manager.
+	 */
+	static void shareEqualValues(List<List<?>> values) {
+		if (values.size() < 2) {
+			return;
+		}
+		int cols = values.get(0).size();
+		List<Map<Object, Object>> dictionaries = new ArrayList<Map<Object, Object>>(cols);
+		for (int col = 0; col < cols; col++) {
+			dictionaries.add(new HashMap<Object, Object>());
+		}
+		List<?> previous = null;
+		for (int row = 0; row < values.size(); row++) {
+			List<?> tuple = values.get(row);
+			List<Object> compressed = null;
+			for (int col = 0; col < cols; col++) {
+				Object value = tuple.get(col);
+				if (value == null || value instanceof Streamable<?>) {
+					continue;
+				}
+				Object shared = null;
+				if (previous != null && value.equals(previous.get(col))) {
+					shared = previous.get(col);
+				} else {
+					Map<Object, Object> dictionary = dictionaries.get(col);
+					shared = dictionary.get(value);
+					if (shared == null) {
+						dictionary.put(value, value);
+						continue;
+					}
+				}
+				if (shared != value) {
+					if (compressed == null) {
+						compressed = new ArrayList<Object>(tuple);
+					}
+					compressed.set(col, shared);
+				}
+			}
+			if (compressed != null) {
+				values.set(row, compressed);
+				tuple = compressed;
+			}
+			previous = tuple;
+		}
+	}
+	
+	/**
+	 * Set to true to share equal values in the leaf pages created by the {@link BulkLoader} 
+	 */
+	public void setShareValues(boolean shareValues) {
+		this.shareValues = shareValues;
+	}
+	
+	public boolean isShareValues() {
+		return shareValues;
 	}
 	
 	protected SPage findChildTail(SPage page) {
@@ -27,9 +27,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -39,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 import javax.transaction.xa.Xid;
 
 import org.teiid.adminapi.AdminException;
+import org.teiid.adminapi.DataPolicy;
 import org.teiid.adminapi.Request.ProcessingState;
 import org.teiid.adminapi.Request.ThreadState;
 import org.teiid.adminapi.VDB.Status;
@@ -66,6 +69,7 @@ import org.teiid.core.types.Streamable;
 import org.teiid.core.util.ApplicationInfo;
 import org.teiid.core.util.ExecutorUtils;
 import org.teiid.core.util.PropertiesUtils;
+import org.teiid.core.util.StringUtil;
 import org.teiid.dqp.message.AtomicRequestMessage;
 import org.teiid.dqp.message.RequestID;
 import org.teiid.dqp.service.TransactionContext;
@@ -80,6 +84,9 @@ import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.logging.MessageLevel;
 import org.teiid.query.QueryPlugin;
+import org.teiid.query.analysis.PlanningStatistics;
+import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.tempdata.GlobalTableStoreImpl;
 import org.teiid.query.tempdata.TempTableDataManager;
@@ -93,6 +100,15 @@ import org.teiid.query.util.Options;
  */
 public class DQPCore implements DQP {
 	
+	/**
+	 * The prefix of vdb properties that specify queries to plan when the vdb is deployed, e.g. warmup-query.1
+	 */
+	public static final String WARMUP_QUERY_PREFIX = "warmup-query"; //$NON-NLS-1$
+	/**
+	 * The vdb property with the comma separated list of data roles to plan the warmup queries with
+	 */
+	public static final String WARMUP_DATA_ROLES = "warmup-data-roles"; //$NON-NLS-1$
+	
 	public interface CompletionListener<T> {
 		void onCompletion(FutureWork<T> future);
 	}
@@ -123,6 +139,8 @@ public class DQPCore implements DQP {
 	
 	private EnhancedTimer cancellationTimer;
 	private Options options;
+	private StatisticsFeedback statisticsFeedback;
+	private PlanningStatistics planningStatistics;
 
 	private ExecutorService timeoutExecutor;
 	
@@ -267,6 +285,8 @@ public class DQPCore implements DQP {
 				dataTierMgr, transactionService, state.sessionTables,
 				workContext, this.prepPlanCache);
 	    request.setOptions(options);
+	    request.setStatisticsFeedback(statisticsFeedback);
+	    request.setPlanningStatistics(planningStatistics);
 	    request.setExecutor(this.processWorkerPool);
 		request.setResultSetCacheEnabled(this.rsCache != null);
 		request.setAuthorizationValidator(this.authorizationValidator);
@@ -672,6 +692,13 @@ public class DQPCore implements DQP {
         options.setAssumeMatchingCollation(false);
         options.setProperties(config.getProperties());
         PropertiesUtils.setBeanProperties(options, options.getProperties(), "org.teiid", true); //$NON-NLS-1$
+        if (options.getStatisticsFeedbackFactor() > 0) {
+        	statisticsFeedback = new StatisticsFeedback();
+        	statisticsFeedback.setInvalidationFactor(options.getStatisticsFeedbackFactor());
+        }
+        if (options.isPlanningStatistics()) {
+        	planningStatistics = PlanningStatistics.createAggregate();
+        }
         LogManager.logDetail(LogConstants.CTX_DQP, "DQPCore started maxThreads", this.config.getMaxThreads(), "maxActivePlans", this.maxActivePlans, "source concurrency", this.userRequestSourceConcurrency); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
         this.bufferManager.setOptions(options);
 	}
@@ -865,6 +892,17 @@ public class DQPCore implements DQP {
 		this.rsCache = cache;
 	}
 	
+	public StatisticsFeedback getStatisticsFeedback() {
+		return statisticsFeedback;
+	}
+	
+	/**
+	 * @return the aggregate planning statistics or null if not enabled
+	 */
+	public PlanningStatistics getPlanningStatistics() {
+		return planningStatistics;
+	}
+	
 	public void setPreparedPlanCache(SessionAwareCache<PreparedPlan> cache) {
 		this.prepPlanCache = cache;
 	}	
@@ -1006,6 +1044,120 @@ public class DQPCore implements DQP {
         return resultFuture;
 	}
     
+    /**
+     * Plan the warmup queries of the vdb, specified by the {@link #WARMUP_QUERY_PREFIX} properties,
+     * so that the prepared plans are already cached when first used.  The queries are planned one at a time
+     * on the worker pool, without blocking the calling thread, under the data roles specified by the {@link #WARMUP_DATA_ROLES} property.
+     * @param vdb
+     * @return a future that completes once all of the queries have been planned, or null if there are no queries 
+     */
+    public ResultsFuture<Void> warmPlanCache(final VDBMetaData vdb) {
+    	final List<String> queries = new ArrayList<String>();
+    	for (Map.Entry<String, String> entry : new TreeMap<String, String>(vdb.getPropertiesMap()).entrySet()) {
+    		if (entry.getKey().startsWith(WARMUP_QUERY_PREFIX) && entry.getValue() != null) {
+    			queries.add(entry.getValue());
+    		}
+    	}
+    	if (queries.isEmpty()) {
+    		return null;
+    	}
+    	final HashMap<String, DataPolicy> policies = new HashMap<String, DataPolicy>();
+    	String roles = vdb.getPropertyValue(WARMUP_DATA_ROLES);
+    	if (roles != null) {
+    		Map<String, ? extends DataPolicy> allPolicies = vdb.getDataPolicyMap();
+	    	TransformationMetadata metadata = vdb.getAttachment(TransformationMetadata.class);
+	    	if (metadata != null) {
+	    		allPolicies = metadata.getPolicies();
+	    	}
+    		for (String role : StringUtil.split(roles, ",")) { //$NON-NLS-1$
+    			role = role.trim();
+    			DataPolicy policy = allPolicies.get(role);
+    			if (policy == null) {
+    				LogManager.logWarning(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31259, role, vdb.getName(), vdb.getVersion()));
+    				continue;
+    			}
+    			policies.put(role, policy);
+    		}
+    	}
+    	final SessionMetadata session = TempTableDataManager.createTemporarySession("warmup", "plan-warmup", vdb); //$NON-NLS-1$ //$NON-NLS-2$
+    	final DQPWorkContext workContext = new DQPWorkContext();
+    	if (this.localProfile != null) {
+    		workContext.setConnectionProfile(this.localProfile);
+    	}
+    	workContext.setUseCallingThread(true);
+    	workContext.setSession(session);
+    	workContext.setPolicies(policies);
+    	final ResultsFuture<Void> result = new ResultsFuture<Void>();
+    	result.addCompletionListener(new ResultsFuture.CompletionListener<Void>() {
+    		@Override
+    		public void onCompletion(ResultsFuture<Void> future) {
+    			terminateSession(session.getSessionId());
+    		}
+    	});
+    	warmPlanCache(vdb, queries, 0, workContext, result);
+    	return result;
+    }
+    
+    /**
+     * Submit the planning of the next warmup query.  The work is chained through 
+     * completion listeners so that no thread waits on the planning.
+     */
+	private void warmPlanCache(final VDBMetaData vdb, final List<String> queries, final int index, 
+			final DQPWorkContext workContext, final ResultsFuture<Void> result) {
+		if (index >= queries.size()) {
+			result.getResultsReceiver().receiveResults(null);
+			return;
+		}
+		final String query = queries.get(index);
+		final long requestID = index;
+		try {
+			workContext.runInContext(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					RequestMessage request = new RequestMessage(query);
+					request.setStatementType(StatementType.PREPARED);
+					request.setNoExec(true);
+					request.setExecutionId(requestID);
+					ResultsFuture<ResultsMessage> message = executeRequest(requestID, request);
+					message.addCompletionListener(new ResultsFuture.CompletionListener<ResultsMessage>() {
+						@Override
+						public void onCompletion(ResultsFuture<ResultsMessage> future) {
+							try {
+								ResultsMessage rm = future.get();
+								if (rm.getException() != null) {
+									LogManager.logWarning(LogConstants.CTX_DQP, rm.getException(), QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31258, query, vdb.getName(), vdb.getVersion()));
+								}
+							} catch (Exception e) {
+								LogManager.logWarning(LogConstants.CTX_DQP, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31258, query, vdb.getName(), vdb.getVersion()));
+							}
+							closeAndContinue(vdb, queries, index, workContext, result);
+						}
+					});
+					return null;
+				}
+			});
+		} catch (Throwable e) {
+			LogManager.logWarning(LogConstants.CTX_DQP, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31258, query, vdb.getName(), vdb.getVersion()));
+			closeAndContinue(vdb, queries, index, workContext, result);
+		}
+	}
+	
+	private void closeAndContinue(final VDBMetaData vdb, final List<String> queries, final int index,
+			final DQPWorkContext workContext, final ResultsFuture<Void> result) {
+		try {
+			workContext.runInContext(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					closeRequest(index);
+					return null;
+				}
+			});
+		} catch (Throwable e) {
+			LogManager.logDetail(LogConstants.CTX_DQP, e, "Could not close the warmup request", index); //$NON-NLS-1$
+		}
+		warmPlanCache(vdb, queries, index + 1, workContext, result);
+	}
+    
     /**
      * The localprofile to use if this is an embedded DQP
      * @param localProfile
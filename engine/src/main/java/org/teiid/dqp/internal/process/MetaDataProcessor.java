@@ -225,6 +225,7 @@ public class MetaDataProcessor {
         // Defect 19747 - the parser needs the following connection property to decide whether to treat double-quoted strings as variable names
         info.ansiQuotedIdentifiers = isDoubleQuotedVariablesAllowed;
         CacheID id = new CacheID(workContext, info, sql);
+        id.setDataRoles(workContext.getAllowedDataPolicies().keySet());
         PreparedPlan plan = planCache.get(id);
         if(plan != null) {
             command = plan.getCommand();
@@ -42,6 +42,7 @@ public class PreparedPlan implements Cachable {
 	private AnalysisRecord analysisRecord;
 	
 	private AccessInfo accessInfo = new AccessInfo();
+	private boolean dataRoleDependent;
 	
 	/**
 	 * Return the ProcessorPlan.
@@ -78,6 +79,7 @@ public class PreparedPlan implements Cachable {
 	public void setPlan(ProcessorPlan planValue, CommandContext context){
 		plan = planValue;
 		this.accessInfo.populate(context, false);
+		this.dataRoleDependent = context.isDataRoleDependent();
 		//TODO: expand this logic
 		if (planValue instanceof RelationalPlan) {
 			RelationalPlan rp = (RelationalPlan)planValue;
@@ -108,6 +110,14 @@ public class PreparedPlan implements Cachable {
 		refs = refsValue;
 	}
 	
+	/**
+	 * @return true if the plan contains data role conditions or masks.  
+	 * Results produced with the plan must be scoped to the user.
+	 */
+	public boolean isDataRoleDependent() {
+		return dataRoleDependent;
+	}
+	
 	@Override
 	public AccessInfo getAccessInfo() {
 		return accessInfo;
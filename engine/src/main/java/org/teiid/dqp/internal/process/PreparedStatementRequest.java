@@ -23,6 +23,7 @@
 package org.teiid.dqp.internal.process;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -95,8 +96,14 @@ public class PreparedStatementRequest extends Request {
     		sqlQuery = this.preParser.preParse(sqlQuery, this.context);
     	}
     	CacheID id = new CacheID(this.workContext, Request.createParseInfo(this.requestMsg, this.workContext.getSession()), sqlQuery);
+    	id.setDataRoles(this.workContext.getAllowedDataPolicies().keySet());
         prepPlan = prepPlanCache.get(id);
         
+        if (prepPlan != null && !this.context.isPlanCurrent(prepPlan)) {
+        	LogManager.logDetail(LogConstants.CTX_DQP, requestId, "Statistics feedback indicates that the prepared plan for command will not be used"); //$NON-NLS-1$
+        	prepPlan = null;
+        }
+        
         if (prepPlan != null) {
         	//already in cache. obtain the values from cache
             analysisRecord = prepPlan.getAnalysisRecord();
@@ -109,6 +116,10 @@ public class PreparedStatementRequest extends Request {
             } else {
 	        	LogManager.logTrace(LogConstants.CTX_DQP, new Object[] { "Query exist in cache: ", sqlQuery }); //$NON-NLS-1$
 	            processPlan = cachedPlan.clone();
+	            if (prepPlan.isDataRoleDependent()) {
+	            	//the plan may be shared by users with the same data roles, so results must still be scoped to the user
+	            	this.context.setDataRoleDeterministic();
+	            }
             }
         }
         
@@ -131,7 +142,10 @@ public class PreparedStatementRequest extends Request {
 				if (userCommand.getCacheHint() != null && userCommand.getCacheHint().getDeterminism() != null) {
 					LogManager.logTrace(LogConstants.CTX_DQP, new Object[] { "Cache hint modified the query determinism from ",this.context.getDeterminismLevel(), " to ", determinismLevel }); //$NON-NLS-1$ //$NON-NLS-2$
 					determinismLevel = userCommand.getCacheHint().getDeterminism();
-				}		        
+				} else if (determinismLevel == Determinism.USER_DETERMINISTIC && this.context.isDataRoleDeterministic()) {
+					//the data roles are already part of the key, so the plan may be shared by users with the same roles
+					determinismLevel = Determinism.VDB_DETERMINISTIC;
+				}
 		        
 		        this.prepPlanCache.put(id, determinismLevel, prepPlan, userCommand.getCacheHint() != null?userCommand.getCacheHint().getTtl():null);
 	        }
@@ -142,6 +156,10 @@ public class PreparedStatementRequest extends Request {
         } else {
 	        List<Reference> params = prepPlan.getReferences();
 	        List<?> values = requestMsg.getParameterValues();
+	        if (requestMsg.isNoExec() && values.isEmpty()) {
+	        	//planning only, such as for warming the cache
+	        	values = Collections.nCopies(params.size(), null);
+	        }
 	
 	    	PreparedStatementRequest.resolveParameterValues(params, values, this.context, this.metadata);
         }
@@ -37,6 +37,8 @@ import org.teiid.api.exception.query.QueryValidatorException;
 import org.teiid.client.RequestMessage;
 import org.teiid.client.RequestMessage.ResultsMode;
 import org.teiid.client.RequestMessage.ShowPlan;
+import org.teiid.client.plan.Annotation;
+import org.teiid.client.plan.Annotation.Priority;
 import org.teiid.client.xa.XATransactionException;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.core.TeiidComponentException;
@@ -57,11 +59,13 @@ import org.teiid.logging.MessageLevel;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.analysis.PlanningStatistics;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempCapabilitiesFinder;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.optimizer.QueryOptimizer;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.parser.ParseInfo;
 import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.ProcessorDataManager;
@@ -136,6 +140,8 @@ public class Request {
 	private AuthorizationValidator authorizationValidator;
 	private Executor executor;
 	protected Options options;
+	private StatisticsFeedback statisticsFeedback;
+	private PlanningStatistics planningStatistics;
 	protected PreParser preParser;
 
     void initialize(RequestMessage requestMsg,
@@ -163,6 +169,18 @@ public class Request {
 		this.options = options;
 	}
     
+    public void setStatisticsFeedback(StatisticsFeedback statisticsFeedback) {
+		this.statisticsFeedback = statisticsFeedback;
+	}
+    
+    /**
+     * Set the aggregate planning statistics.  If set the planning statistics
+     * will be collected for each request and merged into the aggregate.
+     */
+    public void setPlanningStatistics(PlanningStatistics planningStatistics) {
+		this.planningStatistics = planningStatistics;
+	}
+    
 	void setMetadata(CapabilitiesFinder capabilitiesFinder, QueryMetadataInterface metadata) {
 		this.capabilitiesFinder = capabilitiesFinder;
 		this.metadata = metadata;
@@ -252,6 +270,7 @@ public class Request {
         context.setMetadata(this.metadata);
         context.setBufferManager(this.bufferManager);
         context.setPreparedPlanCache(planCache);
+        context.setStatisticsFeedback(statisticsFeedback);
         context.setResultSetCacheEnabled(this.resultSetCacheEnabled);
         context.setUserRequestSourceConcurrency(this.userRequestConcurrency);
         context.setSubject(workContext.getSubject());
@@ -409,8 +428,19 @@ public class Request {
         List<Reference> references = ReferenceCollectorVisitor.getReferences(command);
         
         getAnalysisRecord();
+        
+        PlanningStatistics stats = null;
+        if (analysisRecord.recordAnnotations() || planningStatistics != null) {
+        	stats = new PlanningStatistics();
+        	analysisRecord.setPlanningStatistics(stats);
+        	stats.startPhase();
+        }
                 
         resolveCommand(command);
+        
+        if (stats != null) {
+        	stats.endPhase(PlanningStatistics.RESOLVE);
+        }
 
         checkReferences(references);
         
@@ -428,8 +458,16 @@ public class Request {
 
         validateQuery(command);
         
+        if (stats != null) {
+        	stats.endPhase(PlanningStatistics.VALIDATE);
+        }
+        
         command = QueryRewriter.rewrite(command, metadata, context);
         
+        if (stats != null) {
+        	stats.endPhase(PlanningStatistics.REWRITE);
+        }
+        
         /*
          * Adds a row limit to a query if Statement.setMaxRows has been called and the command
          * doesn't already have a limit clause.
@@ -457,6 +495,16 @@ public class Request {
             if(debugLog != null && debugLog.length() > 0) {
                 LogManager.log(requestMsg.getShowPlan()==ShowPlan.DEBUG?MessageLevel.INFO:MessageLevel.TRACE, LogConstants.CTX_QUERY_PLANNER, debugLog);               
             }
+            if (stats != null) {
+            	stats.endPhase(PlanningStatistics.PLAN);
+            	if (analysisRecord.recordAnnotations()) {
+            		analysisRecord.addAnnotation(Annotation.RELATIONAL_PLANNER, "Planning statistics " + stats, null, Priority.LOW); //$NON-NLS-1$
+            	}
+            	if (planningStatistics != null) {
+            		planningStatistics.merge(stats);
+            	}
+            	LogManager.logDetail(LogConstants.CTX_QUERY_PLANNER, requestId, "Planning statistics", stats); //$NON-NLS-1$
+            }
             if (analysisRecord.recordAnnotations() && analysisRecord.getAnnotations() != null && !analysisRecord.getAnnotations().isEmpty()) {
             	LogManager.logDetail(LogConstants.CTX_QUERY_PLANNER, analysisRecord.getAnnotations());
             }
@@ -76,6 +76,7 @@ import org.teiid.logging.MessageLevel;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.analysis.PlanningStatistics;
 import org.teiid.query.parser.ParseInfo;
 import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.BatchCollector;
@@ -1079,6 +1080,9 @@ public class RequestWorkItem extends AbstractWorkItem implements PrioritizedRunn
         			if (planningEnd != 0) {
         				node.addProperty(AnalysisRecord.PROP_PLANNING_TIME, String.valueOf(planningEnd - planningStart));
         			}
+        			if (analysisRecord.getPlanningStatistics() != null) {
+        				node.addProperty(AnalysisRecord.PROP_PLANNING_STATISTICS, analysisRecord.getPlanningStatistics().getSummary(PlanningStatistics.DEFAULT_SUMMARY_RULES));
+        			}
             		response.setPlanDescription(node);
         		}
         		if (analysisRecord.getAnnotations() != null && !analysisRecord.getAnnotations().isEmpty()) {
@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.teiid.adminapi.Admin;
@@ -315,6 +316,7 @@ public class SessionAwareCache<T> {
 		private List<Serializable> parameters;
 		private String userName;
 		private String originalUserName;
+		private TreeSet<String> dataRoles;
 		
 		public CacheID(DQPWorkContext context, ParseInfo pi, String sql){
 			this(pi, sql, context.getVdbName(), context.getVdbVersion(), context.getSessionId(), context.getUserName());
@@ -368,6 +370,23 @@ public class SessionAwareCache<T> {
 			this.userName = name;
 		}
 		
+		/**
+		 * Scope the entry to users with the given data roles.  Entries that 
+		 * depend only upon the data roles may then be shared between users.
+		 * @param roles
+		 */
+		public void setDataRoles(Collection<String> roles) {
+			if (roles == null) {
+				this.dataRoles = null;
+			} else {
+				this.dataRoles = new TreeSet<String>(roles);
+			}
+		}
+		
+		public Set<String> getDataRoles() {
+			return dataRoles;
+		}
+		
 		public VDBKey getVDBKey() {
 			return vdbInfo;
 		}
@@ -383,16 +402,17 @@ public class SessionAwareCache<T> {
             return ansiIdentifiers == that.ansiIdentifiers && this.vdbInfo.equals(that.vdbInfo) && this.sql.equals(that.sql) 
             	&& EquivalenceUtil.areEqual(this.userName, that.userName)            	
             	&& EquivalenceUtil.areEqual(this.sessionId, that.sessionId)
-            	&& EquivalenceUtil.areEqual(this.parameters, that.parameters);
+            	&& EquivalenceUtil.areEqual(this.parameters, that.parameters)
+            	&& EquivalenceUtil.areEqual(this.dataRoles, that.dataRoles);
 		}
 		
 	    public int hashCode() {
-	        return HashCodeUtil.hashCode(0, vdbInfo, sql, this.userName, sessionId, parameters);
+	        return HashCodeUtil.hashCode(0, vdbInfo, sql, this.userName, sessionId, parameters, dataRoles);
 	    }
 	    
 	    @Override
 	    public String toString() {
-	    	return "Cache Entry<" + originalSessionId + "="+ originalUserName + "> params:" + parameters + " sql:" + sql; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	    	return "Cache Entry<" + originalSessionId + "="+ originalUserName + "> roles:" + dataRoles + " params:" + parameters + " sql:" + sql; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
 	    }
 	    
 	}
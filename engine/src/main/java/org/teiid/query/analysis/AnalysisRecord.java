@@ -119,6 +119,7 @@ public class AnalysisRecord {
     public static final String PROP_ELSE = "Else"; //$NON-NLS-1$
 
 	public static final String PROP_PLANNING_TIME = "Planning Time"; //$NON-NLS-1$
+	public static final String PROP_PLANNING_STATISTICS = "Planning Statistics"; //$NON-NLS-1$
 
     // Flags regarding what should be recorded
     private boolean recordQueryPlan;
@@ -131,6 +132,8 @@ public class AnalysisRecord {
     private StringWriter stringWriter;  // inner
     private PrintWriter debugWriter;    // public
     
+    private PlanningStatistics planningStatistics;
+    
     public AnalysisRecord(boolean recordQueryPlan, boolean recordDebug) {
     	this.recordQueryPlan = recordQueryPlan || LogManager.isMessageToBeRecorded(LogConstants.CTX_QUERY_PLANNER, MessageLevel.DETAIL);
         this.recordDebug = recordDebug || LogManager.isMessageToBeRecorded(LogConstants.CTX_QUERY_PLANNER, MessageLevel.TRACE);
@@ -221,6 +224,18 @@ public class AnalysisRecord {
         return null;
     }
     
+    /**
+     * Get the planning statistics.
+     * @return the statistics or null if they are not being collected
+     */
+    public PlanningStatistics getPlanningStatistics() {
+		return planningStatistics;
+	}
+    
+    public void setPlanningStatistics(PlanningStatistics planningStatistics) {
+		this.planningStatistics = planningStatistics;
+	}
+    
     public void stopDebugLog() {
     	this.stringWriter = null;
     	this.recordDebug = false;
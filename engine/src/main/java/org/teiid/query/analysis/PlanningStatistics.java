@@ -0,0 +1,272 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.analysis;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the time spent in the planning phases (resolving, validation, rewrite and optimization)
+ * and in each optimizer rule.  Rule entries also track the bytes allocated by the planning thread,
+ * when supported by the vm, and the number of plan nodes after the rule has executed.
+ * <br>
+ * Rule times are inclusive of any nested planning, such as for subqueries, performed by the rule.
+ * <br>
+ * Instances are not thread-safe for recording, but may be safely merged into a shared aggregate.
+ */
+public class PlanningStatistics {
+
+	public static final String RESOLVE = "Resolve"; //$NON-NLS-1$
+	public static final String VALIDATE = "Validate"; //$NON-NLS-1$
+	public static final String REWRITE = "Rewrite"; //$NON-NLS-1$
+	public static final String PLAN = "Plan"; //$NON-NLS-1$
+
+	public static final int DEFAULT_SUMMARY_RULES = 10;
+
+	/**
+	 * Isolates the reference to com.sun.management, which may not be available
+	 */
+	private static class AllocationCounter {
+		static com.sun.management.ThreadMXBean BEAN;
+
+		static {
+			java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			if (bean instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean)bean;
+				if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+					BEAN = sunBean;
+				}
+			}
+		}
+
+		static long getAllocatedBytes() {
+			return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+
+	private static boolean ALLOCATION_SUPPORTED;
+
+	static {
+		try {
+			ALLOCATION_SUPPORTED = AllocationCounter.BEAN != null;
+		} catch (Throwable e) {
+			//not a sun vm or the class is not visible
+		}
+	}
+
+	/**
+	 * @return the bytes allocated by the current thread or -1 if not supported
+	 */
+	public static long getAllocatedBytes() {
+		if (!ALLOCATION_SUPPORTED) {
+			return -1;
+		}
+		return AllocationCounter.getAllocatedBytes();
+	}
+
+	public static class Entry {
+		private String name;
+		private long count;
+		private long nanos;
+		private long allocatedBytes;
+		private long nodeCount;
+
+		Entry(String name) {
+			this.name = name;
+		}
+
+		void add(long c, long n, long bytes, long nodes) {
+			this.count += c;
+			this.nanos += n;
+			if (bytes > 0) {
+				this.allocatedBytes += bytes;
+			}
+			this.nodeCount += nodes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getNanos() {
+			return nanos;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * @return the sum of the plan node counts after each execution
+		 */
+		public long getNodeCount() {
+			return nodeCount;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(name).append(' ').append(nanos/1000000d).append(" ms, count ").append(count); //$NON-NLS-1$
+			if (allocatedBytes > 0) {
+				sb.append(", allocated ").append(allocatedBytes/1024).append(" KB"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (nodeCount > 0) {
+				sb.append(", nodes ").append(nodeCount); //$NON-NLS-1$
+			}
+			return sb.toString();
+		}
+	}
+
+	private long planCount = 1;
+	private Map<String, Entry> phases = new LinkedHashMap<String, Entry>();
+	private Map<String, Entry> rules = new HashMap<String, Entry>();
+	private long phaseStart;
+	private long phaseAllocated;
+
+	/**
+	 * Create an empty aggregate
+	 */
+	public static PlanningStatistics createAggregate() {
+		PlanningStatistics result = new PlanningStatistics();
+		result.planCount = 0;
+		return result;
+	}
+
+	/**
+	 * Mark the start of the first phase.
+	 */
+	public void startPhase() {
+		this.phaseStart = System.nanoTime();
+		this.phaseAllocated = getAllocatedBytes();
+	}
+	
+	/**
+	 * Record the given phase as ending now and mark the start of the next phase.
+	 */
+	public void endPhase(String phase) {
+		long now = System.nanoTime();
+		long allocated = getAllocatedBytes();
+		recordPhase(phase, now - phaseStart, allocated - phaseAllocated);
+		this.phaseStart = now;
+		this.phaseAllocated = allocated;
+	}
+
+	public void recordPhase(String phase, long nanos, long allocatedBytes) {
+		add(phases, phase, 1, nanos, allocatedBytes, 0);
+	}
+
+	public void recordRule(String rule, long nanos, long allocatedBytes, int nodeCount) {
+		add(rules, rule, 1, nanos, allocatedBytes, nodeCount);
+	}
+
+	private static void add(Map<String, Entry> entries, String name, long count, long nanos, long allocatedBytes, long nodeCount) {
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			entry = new Entry(name);
+			entries.put(name, entry);
+		}
+		entry.add(count, nanos, allocatedBytes, nodeCount);
+	}
+
+	/**
+	 * Add the other statistics into this instance.
+	 */
+	public synchronized void merge(PlanningStatistics other) {
+		this.planCount += other.planCount;
+		for (Entry entry : other.phases.values()) {
+			add(phases, entry.name, entry.count, entry.nanos, entry.allocatedBytes, entry.nodeCount);
+		}
+		for (Entry entry : other.rules.values()) {
+			add(rules, entry.name, entry.count, entry.nanos, entry.allocatedBytes, entry.nodeCount);
+		}
+	}
+
+	public synchronized long getPlanCount() {
+		return planCount;
+	}
+
+	/**
+	 * @return the total time across all phases
+	 */
+	public synchronized long getTotalNanos() {
+		long result = 0;
+		for (Entry entry : phases.values()) {
+			result += entry.nanos;
+		}
+		return result;
+	}
+
+	public synchronized Entry getPhase(String phase) {
+		return phases.get(phase);
+	}
+
+	public synchronized Entry getRule(String rule) {
+		return rules.get(rule);
+	}
+
+	/**
+	 * @return the rule entries ordered by descending time
+	 */
+	public synchronized List<Entry> getRules() {
+		List<Entry> result = new ArrayList<Entry>(rules.values());
+		Collections.sort(result, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry o1, Entry o2) {
+				return Long.signum(o2.nanos - o1.nanos);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Get a description of the phases and of the most expensive rules.
+	 * @param maxRules the maximum number of rules to include
+	 */
+	public synchronized List<String> getSummary(int maxRules) {
+		List<String> result = new ArrayList<String>();
+		for (Entry entry : phases.values()) {
+			result.add(entry.toString());
+		}
+		List<Entry> ruleEntries = getRules();
+		for (int i = 0; i < ruleEntries.size() && i < maxRules; i++) {
+			result.add(ruleEntries.get(i).toString());
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return getSummary(DEFAULT_SUMMARY_RULES).toString();
+	}
+
+}
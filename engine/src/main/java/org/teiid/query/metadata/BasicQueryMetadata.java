@@ -159,6 +159,18 @@ public class BasicQueryMetadata implements QueryMetadataInterface {
         return -1;
     }
     
+    @Override
+    public List<String> getHistogram(Object elementID)
+    		throws TeiidComponentException, QueryMetadataException {
+    	return null;
+    }
+    
+    @Override
+    public Map<String, Float> getMostCommonValues(Object elementID)
+    		throws TeiidComponentException, QueryMetadataException {
+    	return null;
+    }
+    
     public int getPosition(Object elementID) throws TeiidComponentException, QueryMetadataException {
         return 0;
     }
@@ -213,6 +213,18 @@ public class BasicQueryMetadataWrapper implements QueryMetadataInterface {
 			throws TeiidComponentException, QueryMetadataException {
 		return actualMetadata.getNullValues(elementID);
 	}
+	
+	@Override
+	public List<String> getHistogram(Object elementID)
+			throws TeiidComponentException, QueryMetadataException {
+		return actualMetadata.getHistogram(elementID);
+	}
+	
+	@Override
+	public Map<String, Float> getMostCommonValues(Object elementID)
+			throws TeiidComponentException, QueryMetadataException {
+		return actualMetadata.getMostCommonValues(elementID);
+	}
 
 	public int getPosition(Object elementID)
 			throws TeiidComponentException, QueryMetadataException {
@@ -24,13 +24,14 @@ package org.teiid.query.metadata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 
 import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.core.TeiidComponentException;
-import org.teiid.core.util.StringUtil;
 import org.teiid.metadata.AbstractMetadataRecord;
 import org.teiid.metadata.FunctionMethod;
 import org.teiid.metadata.KeyRecord;
@@ -66,6 +67,12 @@ public class CompositeMetadataStore extends MetadataStore {
 		}
 	}
 	private volatile TreeMap<String, RecordHolder> oids;
+	
+	private static class PartialNameIndex {
+		TreeMap<String, List<Table>> tables = new TreeMap<String, List<Table>>(String.CASE_INSENSITIVE_ORDER);
+		TreeMap<String, List<Procedure>> procedures = new TreeMap<String, List<Procedure>>(String.CASE_INSENSITIVE_ORDER);
+	}
+	private transient volatile PartialNameIndex partialNameIndex;
 
 	public CompositeMetadataStore(MetadataStore metadataStore) {
 		merge(metadataStore);
@@ -77,6 +84,19 @@ public class CompositeMetadataStore extends MetadataStore {
 		}
 	}
 	
+	@Override
+	public void addSchema(Schema schema) {
+		super.addSchema(schema);
+		this.partialNameIndex = null;
+	}
+	
+	@Override
+	public Schema removeSchema(String schemaName) {
+		Schema result = super.removeSchema(schemaName);
+		this.partialNameIndex = null;
+		return result;
+	}
+	
 	public Table findGroup(String fullName)	throws QueryMetadataException {
 		int index = fullName.indexOf(TransformationMetadata.DELIMITER_STRING);
 		if (index == -1) {
@@ -100,33 +120,68 @@ public class CompositeMetadataStore extends MetadataStore {
 	 * @return
 	 */
 	public Collection<Table> getGroupsForPartialName(String partialGroupName) {
-		List<Table> result = new LinkedList<Table>();
-		for (Schema schema : getSchemas().values()) {
-			for (Table t : schema.getTables().values()) {
-				String name = t.getName();
-				if (matchesPartialName(partialGroupName, name, schema)) {
-					result.add(t);	
-				}
-			}
+		List<Table> result = getPartialNameIndex().tables.get(partialGroupName);
+		if (result == null) {
+			return Collections.emptyList();
 		}
 		return result;
 	}
 	
-	protected boolean matchesPartialName(String partialGroupName, String name, Schema schema) {
-		if (!StringUtil.endsWithIgnoreCase(name, partialGroupName)) {
-			return false;
+	/**
+	 * Get the immutable partial name index, which is built on first use. 
+	 * It is rebuilt if schemas are added or removed, but the store is not expected
+	 * to have tables or procedures added to an existing schema after that.
+	 */
+	private PartialNameIndex getPartialNameIndex() {
+		PartialNameIndex index = this.partialNameIndex;
+		if (index == null) {
+			synchronized (this) {
+				index = this.partialNameIndex;
+				if (index == null) {
+					index = new PartialNameIndex();
+					for (Schema schema : getSchemas().values()) {
+						for (Table t : schema.getTables().values()) {
+							addPartialNames(index.tables, schema, t.getName(), t);
+						}
+						for (Procedure p : schema.getProcedures().values()) {
+							addPartialNames(index.procedures, schema, p.getName(), p);
+						}
+					}
+					makeUnmodifiable(index.tables);
+					makeUnmodifiable(index.procedures);
+					this.partialNameIndex = index;
+				}
+			}
 		}
-		int schemaMatch = partialGroupName.length() - name.length();
-		if (schemaMatch > 0) {
-			if (schemaMatch != schema.getName().length() + 1 
-					|| !StringUtil.startsWithIgnoreCase(partialGroupName, schema.getName())
-					|| partialGroupName.charAt(schemaMatch + 1) != '.') {
-				return false;
+		return index;
+	}
+	
+	/**
+	 * Add the schema qualified name, the name, and each suffix of the name following a . as matching partial names
+	 */
+	private static <T> void addPartialNames(TreeMap<String, List<T>> index, Schema schema, String name, T record) {
+		addPartialName(index, schema.getName() + TransformationMetadata.DELIMITER_STRING + name, record);
+		addPartialName(index, name, record);
+		for (int i = 0; i < name.length(); i++) {
+			if (name.charAt(i) == '.') {
+				addPartialName(index, name.substring(i + 1), record);
 			}
-		} else if (schemaMatch < 0 && name.charAt(-schemaMatch - 1) != '.') {
-			return false;
 		}
-		return true;
+	}
+
+	private static <T> void addPartialName(TreeMap<String, List<T>> index, String partialName, T record) {
+		List<T> records = index.get(partialName);
+		if (records == null) {
+			records = new ArrayList<T>(1);
+			index.put(partialName, records);
+		}
+		records.add(record);
+	}
+	
+	private static <T> void makeUnmodifiable(TreeMap<String, List<T>> index) {
+		for (Map.Entry<String, List<T>> entry : index.entrySet()) {
+			entry.setValue(Collections.unmodifiableList(entry.getValue()));
+		}
 	}
 	
 	public Collection<Procedure> getStoredProcedure(String name) throws TeiidComponentException, QueryMetadataException {
@@ -145,12 +200,9 @@ public class CompositeMetadataStore extends MetadataStore {
 			}	
 		}
 		//assume it's a partial name
-		for (Schema schema : getSchemas().values()) {
-			for (Procedure p : schema.getProcedures().values()) {
-				if (matchesPartialName(name, p.getName(), schema)) {
-					result.add(p);	
-				}
-			}
+		List<Procedure> procs = getPartialNameIndex().procedures.get(name);
+		if (procs != null) {
+			result.addAll(procs);
 		}
 		return result;
 	}
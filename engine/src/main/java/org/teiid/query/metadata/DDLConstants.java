@@ -28,6 +28,8 @@ public interface DDLConstants {
 	public static final String CATEGORY = "CATEGORY";//$NON-NLS-1$
 	public static final String UPDATECOUNT = "UPDATECOUNT";//$NON-NLS-1$
 	public static final String DISTINCT_VALUES = "DISTINCT_VALUES";//$NON-NLS-1$
+	public static final String HISTOGRAM = "HISTOGRAM";//$NON-NLS-1$
+	public static final String MOST_COMMON_VALUES = "MOST_COMMON_VALUES";//$NON-NLS-1$
 	public static final String NULL_VALUE_COUNT = "NULL_VALUE_COUNT";//$NON-NLS-1$
 	public static final String RADIX = "RADIX";//$NON-NLS-1$
 	public static final String NATIVE_TYPE = "NATIVE_TYPE";//$NON-NLS-1$
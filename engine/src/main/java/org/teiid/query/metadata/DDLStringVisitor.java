@@ -48,6 +48,7 @@ import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.metadata.Grant.Permission;
 import org.teiid.metadata.Grant.Permission.Privilege;
 import org.teiid.metadata.ProcedureParameter.Type;
+import org.teiid.query.parser.OptionsUtil;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.visitor.SQLStringVisitor;
@@ -703,6 +704,14 @@ public class DDLStringVisitor {
 			if (column.getDistinctValues() != -1) {
 				addOption(options, DISTINCT_VALUES, column.getDistinctValues());
 			}		
+			
+			if (column.getHistogram() != null) {
+				addOption(options, HISTOGRAM, OptionsUtil.encodeList(column.getHistogram()));
+			}
+			
+			if (column.getMostCommonValues() != null) {
+				addOption(options, MOST_COMMON_VALUES, OptionsUtil.encodeMostCommonValues(column.getMostCommonValues()));
+			}
 		}
 		
 		if (baseColumn.getNativeType() != null) {
@@ -56,6 +56,9 @@ public class MaterializationMetadataRepository extends MetadataRepository {
 	public static final String MATVIEW_OWNER_VDB_VERSION = "{http://www.teiid.org/ext/relational/2012}MATVIEW_OWNER_VDB_VERSION"; //$NON-NLS-1$
 	
 	public static final String MATVIEW_WRITE_THROUGH = "{http://www.teiid.org/ext/relational/2012}MATVIEW_WRITE_THROUGH"; //$NON-NLS-1$
+	public static final String MATVIEW_PERSISTENT = "{http://www.teiid.org/ext/relational/2012}MATVIEW_PERSISTENT"; //$NON-NLS-1$
+	public static final String MATVIEW_PARTITION_COLUMN = "{http://www.teiid.org/ext/relational/2012}MATVIEW_PARTITION_COLUMN"; //$NON-NLS-1$
+	public static final String MATVIEW_PARTITION_COUNT = "{http://www.teiid.org/ext/relational/2012}MATVIEW_PARTITION_COUNT"; //$NON-NLS-1$
 	
 	public enum LoadStates {NEEDS_LOADING, LOADING, LOADED, FAILED_LOAD};
 	public enum Scope {IMPORTED, FULL};
@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
+
+/**
+ * A concurrent cache for metadata lookups that does not lock on reads.
+ * <br>
+ * Recency is tracked with a logical clock rather than an access ordered list, so
+ * eviction is approximately lru.  When the maximum size is exceeded a single thread
+ * removes the least recently used quarter of the entries.
+ * <br>
+ * A put of a null value removes the entry.
+ */
+public class MetadataLookupCache<K, V> {
+
+	private static class CacheEntry<V> {
+		final V value;
+		volatile long lastAccess;
+
+		CacheEntry(V value, long lastAccess) {
+			this.value = value;
+			this.lastAccess = lastAccess;
+		}
+	}
+
+	private String name;
+	private volatile int maxEntries;
+	private ConcurrentHashMap<K, CacheEntry<V>> map = new ConcurrentHashMap<K, CacheEntry<V>>();
+	private AtomicLong clock = new AtomicLong();
+	private AtomicBoolean evicting = new AtomicBoolean();
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong evictions = new AtomicLong();
+
+	public MetadataLookupCache(String name, int maxEntries) {
+		this.name = name;
+		this.maxEntries = maxEntries;
+	}
+
+	public V get(K key) {
+		CacheEntry<V> entry = map.get(key);
+		if (entry == null) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		//only puts advance the clock so that reads do not contend on it
+		entry.lastAccess = clock.get();
+		return entry.value;
+	}
+
+	public V put(K key, V value) {
+		CacheEntry<V> old = null;
+		if (value == null) {
+			old = map.remove(key);
+		} else {
+			old = map.put(key, new CacheEntry<V>(value, clock.incrementAndGet()));
+			if (old == null && map.size() > maxEntries) {
+				evict();
+			}
+		}
+		if (old == null) {
+			return null;
+		}
+		return old.value;
+	}
+
+	private void evict() {
+		if (!evicting.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			List<Map.Entry<K, CacheEntry<V>>> entries = new ArrayList<Map.Entry<K, CacheEntry<V>>>(map.entrySet());
+			int toRemove = entries.size() - (maxEntries * 3 / 4);
+			if (toRemove <= 0) {
+				return;
+			}
+			final long[] stamps = new long[entries.size()];
+			for (int i = 0; i < stamps.length; i++) {
+				stamps[i] = entries.get(i).getValue().lastAccess;
+			}
+			List<Integer> order = new ArrayList<Integer>(stamps.length);
+			for (int i = 0; i < stamps.length; i++) {
+				order.add(i);
+			}
+			//use the stamps captured above as the entries may be accessed during the sort
+			Collections.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					return Long.signum(stamps[o1] - stamps[o2]);
+				}
+			});
+			for (int i = 0; i < toRemove; i++) {
+				Map.Entry<K, CacheEntry<V>> entry = entries.get(order.get(i));
+				map.remove(entry.getKey(), entry.getValue());
+			}
+			evictions.addAndGet(toRemove);
+			if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+				LogManager.logDetail(LogConstants.CTX_DQP, "Evicted", toRemove, "entries from", this); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		} finally {
+			evicting.set(false);
+		}
+	}
+
+	public void clear() {
+		map.clear();
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public void setMaxEntries(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return the ratio of hits to requests or 0 if there have been no requests
+	 */
+	public double getHitRatio() {
+		long h = hits.get();
+		long total = h + misses.get();
+		if (total == 0) {
+			return 0;
+		}
+		return (double)h/total;
+	}
+
+	@Override
+	public String toString() {
+		return name + " size " + map.size() + "/" + maxEntries + " hit ratio " + getHitRatio() + " evictions " + evictions.get(); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+
+}
@@ -24,6 +24,11 @@ package org.teiid.query.metadata;
 import static org.teiid.query.metadata.MaterializationMetadataRepository.*;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import org.teiid.adminapi.impl.ModelMetaData;
 import org.teiid.adminapi.impl.ModelMetaData.Message.Severity;
@@ -32,7 +37,10 @@ import org.teiid.api.exception.query.QueryParserException;
 import org.teiid.api.exception.query.QueryResolverException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
+import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.NamedThreadFactory;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.language.SQLConstants;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
@@ -73,8 +81,12 @@ import org.teiid.translator.TranslatorException;
 
 public class MetadataValidator {
 	
+	private static final int DEFAULT_PARALLELISM = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.metadataValidationParallelism", Runtime.getRuntime().availableProcessors()); //$NON-NLS-1$
+	
 	private Map<String, Datatype> typeMap;
 	private QueryParser parser;
+	private int parallelism = DEFAULT_PARALLELISM;
+	private ExecutorService executor;
 	
 	interface MetadataRule {
 		void execute(VDBMetaData vdb, MetadataStore vdbStore, ValidatorReport report, MetadataValidator metadataValidator);
@@ -90,17 +102,106 @@ public class MetadataValidator {
 		this.parser = QueryParser.getQueryParser();
 	}
 
+	/**
+	 * The maximum number of threads to use when validating view and procedure definitions
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
 	public ValidatorReport validate(VDBMetaData vdb, MetadataStore store) {
 		ValidatorReport report = new ValidatorReport();
 		if (store != null && !store.getSchemaList().isEmpty()) {
-			new SourceModelArtifacts().execute(vdb, store, report, this);
-			new CrossSchemaResolver().execute(vdb, store, report, this);
-			new ResolveQueryPlans().execute(vdb, store, report, this);
-			new MinimalMetadata().execute(vdb, store, report, this);
-			new MatViewPropertiesValidator().execute(vdb, store, report, this);
+			try {
+				execute(new SourceModelArtifacts(), vdb, store, report);
+				execute(new CrossSchemaResolver(), vdb, store, report);
+				execute(new ResolveQueryPlans(), vdb, store, report);
+				execute(new MinimalMetadata(), vdb, store, report);
+				execute(new MatViewPropertiesValidator(), vdb, store, report);
+			} finally {
+				if (this.executor != null) {
+					this.executor.shutdown();
+					this.executor = null;
+				}
+			}
 		}
 		return report;
 	}
+
+	private void execute(MetadataRule rule, VDBMetaData vdb, MetadataStore store, ValidatorReport report) {
+		long start = System.currentTimeMillis();
+		rule.execute(vdb, store, report, this);
+		if (LogManager.isMessageToBeRecorded(LogConstants.CTX_RUNTIME, MessageLevel.DETAIL)) {
+			LogManager.logDetail(LogConstants.CTX_RUNTIME, "VDB", vdb.getName(), vdb.getVersion(), rule.getClass().getSimpleName(), "completed in", System.currentTimeMillis() - start, "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+	
+	/**
+	 * The report of a record validated in parallel.  Changes to the shared metadata, including
+	 * the model runtime messages, are deferred until the report is merged on the calling thread.
+	 */
+	static class RecordReport extends ValidatorReport {
+		private List<Runnable> updates = new ArrayList<Runnable>();
+		
+		void defer(Runnable update) {
+			this.updates.add(update);
+		}
+	}
+	
+	/**
+	 * Run the validation tasks, with the current thread also participating, and add their 
+	 * reports and apply their updates in task order.
+	 */
+	void runBatch(List<FutureTask<RecordReport>> batch, ValidatorReport report) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (batch.size() > 1) {
+			if (this.executor == null) {
+				final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+				this.executor = Executors.newFixedThreadPool(this.parallelism - 1, new NamedThreadFactory("Metadata Validator") { //$NON-NLS-1$
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = super.newThread(r);
+						t.setContextClassLoader(cl);
+						return t;
+					}
+				});
+			}
+			for (int i = 1; i < batch.size(); i++) {
+				this.executor.execute(batch.get(i));
+			}
+		}
+		try {
+			for (FutureTask<RecordReport> task : batch) {
+				//run if not yet started, otherwise no-op
+				task.run();
+			}
+			for (FutureTask<RecordReport> task : batch) {
+				RecordReport recordReport = task.get();
+				report.addItems(recordReport.getItems());
+				for (Runnable update : recordReport.updates) {
+					update.run();
+				}
+			}
+		} catch (InterruptedException e) {
+			throw new TeiidRuntimeException(QueryPlugin.Event.TEIID31261, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error)e.getCause();
+			}
+			throw new TeiidRuntimeException(QueryPlugin.Event.TEIID31261, e.getCause());
+		} finally {
+			batch.clear();
+		}
+	}
 	
 	// At minimum the model must have table/view, procedure or function 
 	static class MinimalMetadata implements MetadataRule {
@@ -228,15 +329,16 @@ public class MetadataValidator {
 	// Resolves metadata query plans to make sure they are accurate
 	static class ResolveQueryPlans implements MetadataRule {
 		@Override
-		public void execute(VDBMetaData vdb, MetadataStore store, ValidatorReport report, MetadataValidator metadataValidator) {
-			QueryMetadataInterface metadata = vdb.getAttachment(QueryMetadataInterface.class);
-	    	metadata = new TempMetadataAdapter(metadata, new TempMetadataStore());
+		public void execute(final VDBMetaData vdb, MetadataStore store, ValidatorReport report, final MetadataValidator metadataValidator) {
+			final QueryMetadataInterface vdbMetadata = vdb.getAttachment(QueryMetadataInterface.class);
+			QueryMetadataInterface metadata = new TempMetadataAdapter(vdbMetadata, new TempMetadataStore());
+			List<FutureTask<RecordReport>> batch = new ArrayList<FutureTask<RecordReport>>();
 			for (Schema schema:store.getSchemaList()) {
 				if (vdb.getImportedModels().contains(schema.getName())) {
 					continue;
 				}
-				ModelMetaData model = vdb.getModel(schema.getName());
-				MetadataFactory mf = new MetadataFactory(vdb.getName(), vdb.getVersion(), metadataValidator.typeMap, model) {
+				final ModelMetaData model = vdb.getModel(schema.getName());
+				final MetadataFactory mf = new MetadataFactory(vdb.getName(), vdb.getVersion(), metadataValidator.typeMap, model) {
 					@Override
 					protected void setUUID(AbstractMetadataRecord record) {
 						if (count >= 0) {
@@ -246,53 +348,83 @@ public class MetadataValidator {
 					}
 				};
 				mf.setBuiltinDataTypes(store.getDatatypes());
-				for (AbstractMetadataRecord record : schema.getResolvingOrder()) {
-					if (record instanceof Table) {
-						Table t = (Table)record;
-						// no need to verify the transformation of the xml mapping document, 
-						// as this is very specific and designer already validates it.
-						if (t.getTableType() == Table.Type.Document
-								|| t.getTableType() == Table.Type.XmlMappingClass
-								|| t.getTableType() == Table.Type.XmlStagingTable) {
-							continue;
-						}
-						if (t.getTableType() == Table.Type.TemporaryTable) {
-						    continue;
-						}
-						if (t.isVirtual()) {
-							if (t.getSelectTransformation() == null) {
-								metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31079, t.getFullName(), model.getName()));
-							}
-							else {
-								metadataValidator.validate(vdb, model, t, report, metadata, mf);
-							}
-						} else {
-						    for (Trigger tr : t.getTriggers().values()) {
-		                        int commandType = Command.TYPE_INSERT;
-		                        if (tr.getEvent() == TriggerEvent.DELETE) {
-		                            commandType = Command.TYPE_DELETE;
-		                        } else if (tr.getEvent() == TriggerEvent.UPDATE) {
-		                            commandType = Command.TYPE_UPDATE;
-		                        }
-		                        try {
-		                            metadataValidator.validateUpdatePlan(model, report, metadata, t, tr.getPlan(), commandType);
-    						    } catch (TeiidException e) {
-    						        metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31080, record.getFullName(), e.getMessage()));
-    					        }
-		                    }
+				for (final AbstractMetadataRecord record : schema.getResolvingOrder()) {
+					if (metadataValidator.getParallelism() <= 1 || definesColumns(record)) {
+						//the columns may be needed by later views, so all prior work must complete first
+						metadataValidator.runBatch(batch, report);
+						validateRecord(vdb, model, record, report, metadata, mf, metadataValidator);
+						continue;
+					}
+					batch.add(new FutureTask<RecordReport>(new Callable<RecordReport>() {
+						@Override
+						public RecordReport call() throws Exception {
+							RecordReport recordReport = new RecordReport();
+							validateRecord(vdb, model, record, recordReport, new TempMetadataAdapter(vdbMetadata, new TempMetadataStore()), mf, metadataValidator);
+							return recordReport;
 						}
-					} else if (record instanceof Procedure) {
-						Procedure p = (Procedure)record;
-						if (p.isVirtual()) {
-							if (p.getQueryPlan() == null) {
-								metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31081, p.getFullName(), model.getName()));
-							}
-							else {
-								metadataValidator.validate(vdb, model, p, report, metadata, mf);
-							}
-						}						
+					}));
+				}
+			}
+			metadataValidator.runBatch(batch, report);
+		}
+		
+		/**
+		 * @return true if validating the record will add the view columns 
+		 */
+		private boolean definesColumns(AbstractMetadataRecord record) {
+			if (!(record instanceof Table)) {
+				return false;
+			}
+			Table t = (Table)record;
+			return t.isVirtual() && (t.getColumns() == null || t.getColumns().isEmpty());
+		}
+
+		private void validateRecord(VDBMetaData vdb, ModelMetaData model, AbstractMetadataRecord record, ValidatorReport report, 
+				QueryMetadataInterface metadata, MetadataFactory mf, MetadataValidator metadataValidator) {
+			if (record instanceof Table) {
+				Table t = (Table)record;
+				// no need to verify the transformation of the xml mapping document, 
+				// as this is very specific and designer already validates it.
+				if (t.getTableType() == Table.Type.Document
+						|| t.getTableType() == Table.Type.XmlMappingClass
+						|| t.getTableType() == Table.Type.XmlStagingTable) {
+					return;
+				}
+				if (t.getTableType() == Table.Type.TemporaryTable) {
+				    return;
+				}
+				if (t.isVirtual()) {
+					if (t.getSelectTransformation() == null) {
+						metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31079, t.getFullName(), model.getName()));
 					}
+					else {
+						metadataValidator.validate(vdb, model, t, report, metadata, mf);
+					}
+				} else {
+				    for (Trigger tr : t.getTriggers().values()) {
+                        int commandType = Command.TYPE_INSERT;
+                        if (tr.getEvent() == TriggerEvent.DELETE) {
+                            commandType = Command.TYPE_DELETE;
+                        } else if (tr.getEvent() == TriggerEvent.UPDATE) {
+                            commandType = Command.TYPE_UPDATE;
+                        }
+                        try {
+                            metadataValidator.validateUpdatePlan(model, report, metadata, t, tr.getPlan(), commandType);
+					    } catch (TeiidException e) {
+					        metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31080, record.getFullName(), e.getMessage()));
+				        }
+                    }
 				}
+			} else if (record instanceof Procedure) {
+				Procedure p = (Procedure)record;
+				if (p.isVirtual()) {
+					if (p.getQueryPlan() == null) {
+						metadataValidator.log(report, model, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31081, p.getFullName(), model.getName()));
+					}
+					else {
+						metadataValidator.validate(vdb, model, p, report, metadata, mf);
+					}
+				}						
 			}
 		}
 	}
@@ -460,8 +592,17 @@ public class MetadataValidator {
 		log(report, model, Severity.ERROR, msg);
 	}
 	
-	public void log(ValidatorReport report, ModelMetaData model, Severity severity, String msg) {
-		model.addRuntimeMessage(severity, msg);
+	public void log(ValidatorReport report, final ModelMetaData model, final Severity severity, final String msg) {
+		if (report instanceof RecordReport) {
+			((RecordReport)report).defer(new Runnable() {
+				@Override
+				public void run() {
+					model.addRuntimeMessage(severity, msg);
+				}
+			});
+		} else {
+			model.addRuntimeMessage(severity, msg);
+		}
 		int messageLevel = MessageLevel.WARNING;
 		if (severity == Severity.ERROR) {
 			report.handleValidationError(msg);
@@ -476,7 +617,9 @@ public class MetadataValidator {
     	try {
     		if (record instanceof Procedure) {
     			Procedure p = (Procedure)record;
-    			Command command = parser.parseProcedure(p.getQueryPlan(), false);
+    			//the parser is not thread safe
+    			QueryParser procParser = this.executor == null ? parser : QueryParser.getQueryParser();
+    			Command command = procParser.parseProcedure(p.getQueryPlan(), false);
     			QueryResolver.resolveCommand(command, new GroupSymbol(p.getFullName()), Command.TYPE_STORED_PROCEDURE, metadata, false);
     			resolverReport =  Validator.validate(command, metadata);
     			determineDependencies(p, command);
@@ -487,7 +630,7 @@ public class MetadataValidator {
     			ResolverUtil.resolveGroup(symbol, metadata);    			
     			String selectTransformation = t.getSelectTransformation();
 				if (t.isVirtual()) {
-    				QueryCommand command = (QueryCommand)QueryParser.getQueryParser().parseCommand(selectTransformation);
+    				QueryCommand command = (QueryCommand)QueryParser.getQueryParser().parseDefinition(selectTransformation);
     				QueryResolver.resolveCommand(command, metadata);
     				resolverReport =  Validator.validate(command, metadata);
     				if (!resolverReport.hasItems() && (t.getColumns() == null || t.getColumns().isEmpty())) {
@@ -555,20 +698,20 @@ public class MetadataValidator {
 				if (cacheHint != null && cacheHint.getTtl() != null && addCacheHint
 						&& t.getProperty(MaterializationMetadataRepository.MATVIEW_TTL, false) == null) {
 					ttl = cacheHint.getTtl();
-					t.setProperty(MaterializationMetadataRepository.MATVIEW_TTL, String.valueOf(ttl));
+					setProperty(report, t, MaterializationMetadataRepository.MATVIEW_TTL, String.valueOf(ttl));
 				}
 				if (cacheHint != null && cacheHint.getUpdatable() != null && addCacheHint
 						&& t.getProperty(MaterializationMetadataRepository.MATVIEW_UPDATABLE, false) == null) {
-					t.setProperty(MaterializationMetadataRepository.MATVIEW_UPDATABLE, String.valueOf(cacheHint.getUpdatable()));
+					setProperty(report, t, MaterializationMetadataRepository.MATVIEW_UPDATABLE, String.valueOf(cacheHint.getUpdatable()));
 				}
 				if (cacheHint != null && cacheHint.getPrefersMemory() != null && addCacheHint
 						&& t.getProperty(MaterializationMetadataRepository.MATVIEW_PREFER_MEMORY, false) == null) {
-					t.setProperty(MaterializationMetadataRepository.MATVIEW_PREFER_MEMORY, String.valueOf(cacheHint.getPrefersMemory()));
+					setProperty(report, t, MaterializationMetadataRepository.MATVIEW_PREFER_MEMORY, String.valueOf(cacheHint.getPrefersMemory()));
 				}
 				if (cacheHint != null && cacheHint.getScope() != null && addCacheHint
 						&& t.getProperty(MaterializationMetadataRepository.MATVIEW_SHARE_SCOPE, false) == null) {
 				    log(report, model, Severity.WARNING, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31252, t.getName(), cacheHint.getScope().name()));				    
-					t.setProperty(MaterializationMetadataRepository.MATVIEW_SHARE_SCOPE, MaterializationMetadataRepository.Scope.IMPORTED.name());
+					setProperty(report, t, MaterializationMetadataRepository.MATVIEW_SHARE_SCOPE, MaterializationMetadataRepository.Scope.IMPORTED.name());
 				}				
     		}
 			processReport(model, record, report, resolverReport);
@@ -577,6 +720,19 @@ public class MetadataValidator {
 		}
     }
 
+	private void setProperty(ValidatorReport report, final Table t, final String key, final String value) {
+		if (report instanceof RecordReport) {
+			((RecordReport)report).defer(new Runnable() {
+				@Override
+				public void run() {
+					t.setProperty(key, value);
+				}
+			});
+		} else {
+			t.setProperty(key, value);
+		}
+	}
+
 	public static void determineDependencies(AbstractMetadataRecord p, Command command) {
 		Collection<GroupSymbol> groups = GroupCollectorVisitor.getGroupsIgnoreInlineViews(command, true);
 		LinkedHashSet<AbstractMetadataRecord> values = new LinkedHashSet<AbstractMetadataRecord>();
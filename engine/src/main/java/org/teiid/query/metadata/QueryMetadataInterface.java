@@ -259,6 +259,28 @@ public interface QueryMetadataInterface {
      */
     float getNullValues(Object elementID)
         throws TeiidComponentException, QueryMetadataException;        
+    
+    /**
+     * Get the bounds of an equi-depth histogram of the non-null values of this column.
+     * Only applicable for physical columns.
+     * @param elementID The element ID
+     * @return The ascending bucket bounds as strings, or null if unknown 
+     * @throws QueryMetadataException Metadata implementation detected a problem during the request
+     * @throws TeiidComponentException Unexpected internal system problem during request
+     */
+    List<String> getHistogram(Object elementID)
+        throws TeiidComponentException, QueryMetadataException;
+    
+    /**
+     * Get the most common values of this column mapped to the fraction of rows with that value.
+     * Only applicable for physical columns.
+     * @param elementID The element ID
+     * @return The most common values as strings, or null if unknown 
+     * @throws QueryMetadataException Metadata implementation detected a problem during the request
+     * @throws TeiidComponentException Unexpected internal system problem during request
+     */
+    Map<String, Float> getMostCommonValues(Object elementID)
+        throws TeiidComponentException, QueryMetadataException;
 
 	/**
 	 * Determine whether a group is virtual or not.
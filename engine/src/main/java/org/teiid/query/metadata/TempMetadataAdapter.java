@@ -296,7 +296,7 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
      */
     public float getDistinctValues(Object elementID) throws TeiidComponentException, QueryMetadataException {
         if(elementID instanceof TempMetadataID) {
-            return -1;
+            return ((TempMetadataID)elementID).getDistinctValues();
         }         
         return this.actualMetadata.getDistinctValues(elementID);
     }
@@ -315,6 +315,32 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
         return this.actualMetadata.getNullValues(elementID);
     }
 
+    @Override
+    public List<String> getHistogram(Object elementID)
+    		throws TeiidComponentException, QueryMetadataException {
+    	if (elementID instanceof TempMetadataID) {
+            TempMetadataID id = (TempMetadataID)elementID;
+            elementID = id.getOriginalMetadataID();
+            if (elementID == null) {
+                return null;
+            }
+        }
+    	return this.actualMetadata.getHistogram(elementID);
+    }
+    
+    @Override
+    public Map<String, Float> getMostCommonValues(Object elementID)
+    		throws TeiidComponentException, QueryMetadataException {
+    	if (elementID instanceof TempMetadataID) {
+    		TempMetadataID id = (TempMetadataID)elementID;
+    		elementID = id.getOriginalMetadataID();
+    		if (elementID == null) {
+    			return null;
+    		}
+    	}
+    	return this.actualMetadata.getMostCommonValues(elementID);
+    }
+
     public QueryNode getVirtualPlan(Object groupID)
         throws TeiidComponentException, QueryMetadataException {
 		
@@ -827,7 +853,11 @@ public class TempMetadataAdapter extends BasicQueryMetadataWrapper {
     	metadataID = getActualMetadataId(metadataID);
     	
     	if (metadataID instanceof TempMetadataID) {
-    		return null;
+    		TempMetadataID tid = (TempMetadataID)metadataID;
+    		if (tid.getMetadataType() != Type.INDEX || tid.getOriginalMetadataID() == null) {
+    			return null;
+    		}
+    		metadataID = tid.getOriginalMetadataID();
     	}
     	return super.getExtensionProperty(metadataID, key, checkUnqualified);
     }
@@ -147,6 +147,7 @@ public class TempMetadataID implements Serializable, Modifiable, DataModifiable
     private boolean notNull;
     private boolean updatable;
     private boolean accessed;
+    private volatile float distinctValues = -1;
     
     /**
      * Constructor for group form of metadata ID.
@@ -461,4 +462,15 @@ public class TempMetadataID implements Serializable, Modifiable, DataModifiable
 		return accessed;
 	}
 	
+	/**
+	 * @return the distinct value estimate for an element, or -1 if unknown
+	 */
+	public float getDistinctValues() {
+		return distinctValues;
+	}
+	
+	public void setDistinctValues(float distinctValues) {
+		this.distinctValues = distinctValues;
+	}
+	
 }
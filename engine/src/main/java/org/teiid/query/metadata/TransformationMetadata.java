@@ -45,7 +45,6 @@ import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.InputStreamFactory;
 import org.teiid.core.types.SQLXMLImpl;
 import org.teiid.core.util.ArgCheck;
-import org.teiid.core.util.LRUCache;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.StringUtil;
 import org.teiid.metadata.*;
@@ -144,12 +143,20 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
     private boolean useOutputNames = true;
     
     /*
-     * TODO: move caching to jboss cache structure
+     * The cache sizes are the minimums, they are increased to fit the number of tables and procedures in the vdb
      */
-    private Map<String, Object> metadataCache = Collections.synchronizedMap(new LRUCache<String, Object>(250));
-    private Map<String, Object> groupInfoCache = Collections.synchronizedMap(new LRUCache<String, Object>(250));
-    private Map<String, Collection<Table>> partialNameToFullNameCache = Collections.synchronizedMap(new LRUCache<String, Collection<Table>>(1000));
-    private Map<String, Collection<StoredProcedureInfo>> procedureCache = Collections.synchronizedMap(new LRUCache<String, Collection<StoredProcedureInfo>>(200));
+    private static final int MIN_METADATA_CACHE_SIZE = 250;
+    private static final int MIN_PROCEDURE_CACHE_SIZE = 200;
+    private static final int MAX_CACHE_SIZE = 8192;
+    private MetadataLookupCache<String, Object> metadataCache = new MetadataLookupCache<String, Object>("metadata", MIN_METADATA_CACHE_SIZE); //$NON-NLS-1$
+    private MetadataLookupCache<String, Object> groupInfoCache = new MetadataLookupCache<String, Object>("groupInfo", MIN_METADATA_CACHE_SIZE); //$NON-NLS-1$
+    private MetadataLookupCache<String, Collection<StoredProcedureInfo>> procedureCache = new MetadataLookupCache<String, Collection<StoredProcedureInfo>>("procedure", MIN_PROCEDURE_CACHE_SIZE); //$NON-NLS-1$
+    /*
+     * Resolved view and procedure definitions are held separately so that they do not compete with the other metadata lookups.
+     * The cache is sized to fit the tables and procedures in the vdb, so that eviction is only expected for large vdbs.
+     */
+    private static final String TRANSFORMATION_PREFIX = "transformation/"; //$NON-NLS-1$
+    private MetadataLookupCache<String, Object> transformationCache = new MetadataLookupCache<String, Object>("transformation", MIN_METADATA_CACHE_SIZE); //$NON-NLS-1$
 
 	private boolean widenComparisonToString = true;
     /**
@@ -185,6 +192,20 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
         } else {
             this.functionLibrary = new FunctionLibrary(systemFunctions, functionTrees.toArray(new FunctionTree[functionTrees.size()]));
         }
+        sizeCaches();
+    }
+    
+    private void sizeCaches() {
+    	int tables = 0;
+    	int procedures = 0;
+    	for (Schema schema : this.store.getSchemaList()) {
+    		tables += schema.getTables().size();
+    		procedures += schema.getProcedures().size();
+    	}
+    	this.groupInfoCache.setMaxEntries(Math.min(MAX_CACHE_SIZE, Math.max(MIN_METADATA_CACHE_SIZE, tables)));
+    	this.metadataCache.setMaxEntries(Math.min(MAX_CACHE_SIZE, Math.max(MIN_METADATA_CACHE_SIZE, tables + procedures)));
+    	this.procedureCache.setMaxEntries(Math.min(MAX_CACHE_SIZE, Math.max(MIN_PROCEDURE_CACHE_SIZE, procedures)));
+    	this.transformationCache.setMaxEntries(Math.min(MAX_CACHE_SIZE, Math.max(MIN_METADATA_CACHE_SIZE, tables + procedures)));
     }
     
     public TransformationMetadata(Database database, SystemFunctionManager systemFunctionMgr) {
@@ -250,13 +271,7 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
         throws TeiidComponentException, QueryMetadataException {
 		ArgCheck.isNotEmpty(partialGroupName);
 
-		Collection<Table> matches = this.partialNameToFullNameCache.get(partialGroupName);
-		
-		if (matches == null) {
-	        matches = getMetadataStore().getGroupsForPartialName(partialGroupName);
-	        
-        	this.partialNameToFullNameCache.put(partialGroupName, matches);
-		}
+		Collection<Table> matches = getMetadataStore().getGroupsForPartialName(partialGroupName);
 		
 		if (matches.isEmpty()) {
 			return Collections.emptyList();
@@ -946,6 +961,28 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
             throw createInvalidRecordTypeException(elementID);            
         }
     }
+    
+    @Override
+    public List<String> getHistogram(final Object elementID) throws TeiidComponentException, QueryMetadataException {
+    	if(elementID instanceof Column) {
+    		return ((Column) elementID).getHistogram();
+    	} else if(elementID instanceof ProcedureParameter) {
+    		return null;            
+    	} else {
+    		throw createInvalidRecordTypeException(elementID);            
+    	}
+    }
+    
+    @Override
+    public Map<String, Float> getMostCommonValues(final Object elementID) throws TeiidComponentException, QueryMetadataException {
+    	if(elementID instanceof Column) {
+    		return ((Column) elementID).getMostCommonValues();
+    	} else if(elementID instanceof ProcedureParameter) {
+    		return null;            
+    	} else {
+    		throw createInvalidRecordTypeException(elementID);            
+    	}
+    }
 
     public String getNativeType(final Object elementID) throws TeiidComponentException, QueryMetadataException {
         if(elementID instanceof Column) {
@@ -1055,10 +1092,14 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
 	@Override
 	public Object addToMetadataCache(Object metadataID, String key, Object value) {
         boolean groupInfo = key.startsWith(GroupInfo.CACHE_PREFIX);
+        boolean transformation = key.startsWith(TRANSFORMATION_PREFIX);
         key = getCacheKey(key, (AbstractMetadataRecord)metadataID);
         if (groupInfo) {
         	return this.groupInfoCache.put(key, value); 
         }
+        if (transformation) {
+        	return this.transformationCache.put(key, value);
+        }
     	return this.metadataCache.put(key, value); 
 	}
 
@@ -1066,13 +1107,29 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
 	public Object getFromMetadataCache(Object metadataID, String key)
 			throws TeiidComponentException, QueryMetadataException {
         boolean groupInfo = key.startsWith(GroupInfo.CACHE_PREFIX);
+        boolean transformation = key.startsWith(TRANSFORMATION_PREFIX);
         key = getCacheKey(key, (AbstractMetadataRecord)metadataID);
         if (groupInfo) {
         	return this.groupInfoCache.get(key); 
         }
+        if (transformation) {
+        	return this.transformationCache.get(key);
+        }
     	return this.metadataCache.get(key);
 	}
 
+	/**
+	 * @return the lookup caches, which include their hit ratios 
+	 */
+	public List<MetadataLookupCache<String, ?>> getLookupCaches() {
+		List<MetadataLookupCache<String, ?>> result = new ArrayList<MetadataLookupCache<String, ?>>(4);
+		result.add(this.metadataCache);
+		result.add(this.groupInfoCache);
+		result.add(this.procedureCache);
+		result.add(this.transformationCache);
+		return result;
+	}
+
 	private String getCacheKey(String key, AbstractMetadataRecord record) {
 		return record.getUUID() + "/" + key; //$NON-NLS-1$
 	}
@@ -1093,8 +1150,8 @@ public class TransformationMetadata extends BasicQueryMetadata implements Serial
 		TransformationMetadata tm = new TransformationMetadata(store, functionLibrary);
 		tm.groupInfoCache = this.groupInfoCache;
 		tm.metadataCache = this.metadataCache;
-		tm.partialNameToFullNameCache = this.partialNameToFullNameCache;
 		tm.procedureCache = this.procedureCache; 
+		tm.transformationCache = this.transformationCache;
 		tm.scriptEngineManager = this.scriptEngineManager;
 		tm.importedModels = this.importedModels;
 		tm.allowedLanguages = this.allowedLanguages;
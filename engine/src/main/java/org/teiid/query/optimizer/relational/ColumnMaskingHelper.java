@@ -37,7 +37,6 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
-import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.parser.QueryParser;
@@ -124,7 +123,7 @@ public class ColumnMaskingHelper {
 					if (!dpm.isAnyAuthenticated()) {
 						//we treat this as user deterministic since the data roles won't change.  this may change if the logic becomes dynamic
 						//TODO: this condition may not even be used
-						cc.setDeterminismLevel(Determinism.USER_DETERMINISTIC);
+						cc.setDataRoleDeterministic();
 					}
 				} catch (QueryMetadataException e) {
 					throw e;
@@ -368,6 +368,7 @@ public class PlanToProcessConverter {
                             
                             if(modelID != null){
                             	depAccessNode.setPushdown(CapabilitiesUtil.supports(Capability.DEPENDENT_JOIN, modelID, metadata, capFinder));
+                            	depAccessNode.setSupportsRange(CapabilitiesUtil.supports(Capability.CRITERIA_COMPARE_ORDERED, modelID, metadata, capFinder));
                                 depAccessNode.setMaxSetSize(CapabilitiesUtil.getMaxInCriteriaSize(modelID, metadata, capFinder));
                                 depAccessNode.setMaxPredicates(CapabilitiesUtil.getMaxDependentPredicates(modelID, metadata, capFinder));   
                                 depAccessNode.setUseBindings(CapabilitiesUtil.supports(Capability.DEPENDENT_JOIN_BINDINGS, modelID, metadata, capFinder));
@@ -850,6 +851,10 @@ public class PlanToProcessConverter {
         processNode.setEstimateDepJoinCost(estimateDepJoinCost);
         Number estimateJoinCost = (Number) node.getProperty(NodeConstants.Info.EST_JOIN_COST);
         processNode.setEstimateJoinCost(estimateJoinCost);
+        String feedbackKey = (String) node.getProperty(NodeConstants.Info.EST_FEEDBACK_KEY);
+        if (feedbackKey != null) {
+        	processNode.setFeedbackKey(feedbackKey, StatisticsFeedback.getGroups(context, node));
+        }
        
         return processNode;
     }
@@ -41,6 +41,7 @@ import org.teiid.language.SQLConstants;
 import org.teiid.metadata.Procedure;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.analysis.PlanningStatistics;
 import org.teiid.query.function.FunctionDescriptor;
 import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.mapping.relational.QueryNode;
@@ -984,6 +985,7 @@ public class RelationalPlanner {
         throws QueryPlannerException, QueryMetadataException, TeiidComponentException {
 
         boolean debug = analysisRecord.recordDebug();
+        PlanningStatistics stats = analysisRecord.getPlanningStatistics();
         while(! rules.isEmpty()) {
             if(debug) {
                 analysisRecord.println("\n============================================================================"); //$NON-NLS-1$
@@ -994,7 +996,17 @@ public class RelationalPlanner {
                 analysisRecord.println("EXECUTING " + rule); //$NON-NLS-1$
             }
 
-            plan = rule.execute(plan, metadata, capFinder, rules, analysisRecord, context);
+            if (stats != null) {
+            	long start = System.nanoTime();
+            	long allocated = PlanningStatistics.getAllocatedBytes();
+            	plan = rule.execute(plan, metadata, capFinder, rules, analysisRecord, context);
+            	if (allocated != -1) {
+            		allocated = PlanningStatistics.getAllocatedBytes() - allocated;
+            	}
+            	stats.recordRule(rule.toString(), System.nanoTime() - start, allocated, countNodes(plan));
+            } else {
+            	plan = rule.execute(plan, metadata, capFinder, rules, analysisRecord, context);
+            }
             if(debug) {
                 analysisRecord.println("\nAFTER: \n" + plan.nodeToString(true)); //$NON-NLS-1$
             }
@@ -1002,6 +1014,14 @@ public class RelationalPlanner {
         return plan;
     }
 	
+	private static int countNodes(PlanNode node) {
+		int count = 1;
+		for (PlanNode child : node.getChildren()) {
+			count += countNodes(child);
+		}
+		return count;
+	}
+	
 	public PlanNode generatePlan(Command cmd) throws TeiidComponentException, TeiidProcessingException {
 		//cascade the option clause nocache
 		Option savedOption = option;
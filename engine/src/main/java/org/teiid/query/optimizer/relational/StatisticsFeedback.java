@@ -0,0 +1,340 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.optimizer.relational;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.teiid.dqp.internal.process.AccessInfo;
+import org.teiid.metadata.AbstractMetadataRecord;
+import org.teiid.query.optimizer.relational.plantree.NodeConstants;
+import org.teiid.query.optimizer.relational.plantree.PlanNode;
+import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
+import org.teiid.query.sql.LanguageObject;
+import org.teiid.query.sql.symbol.GroupSymbol;
+import org.teiid.query.sql.visitor.ReferenceCollectorVisitor;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Holds the actual cardinalities observed when executing access and join nodes
+ * so that they may be used in place of the estimates when planning later requests.
+ * <br>
+ * Entries are keyed by a normalized form of the plan fragment that does not
+ * depend upon join order or the order of the criteria.  Fragments with references
+ * are not keyed since their cardinality depends upon the parameter values.
+ * <br>
+ * When an estimate is off by more than the invalidation factor the groups of the fragment
+ * are marked so that cached plans accessing any of them are replanned.
+ */
+public class StatisticsFeedback {
+
+	public static final int DEFAULT_MAX_ENTRIES = 8192;
+	public static final float DEFAULT_INVALIDATION_FACTOR = 10;
+
+	/**
+	 * The rows produced by a single processing node, possibly over several executions.
+	 * Since the estimate is for a single execution, the average of the completed executions is used.
+	 */
+	public static class Observation {
+		private String key;
+		private Collection<String> groups;
+		private Number estimate;
+		private long rowCount;
+		private long executionRowCount;
+		private int executions;
+		private boolean recorded;
+		
+		public Observation(String key, Collection<String> groups, Number estimate) {
+			this.key = key;
+			this.groups = groups;
+			this.estimate = estimate;
+		}
+		
+		/**
+		 * Add the rows of a batch
+		 * @param last true if this is the last batch of an execution
+		 */
+		public void addRows(int rows, boolean last) {
+			this.executionRowCount += rows;
+			if (last) {
+				this.rowCount += this.executionRowCount;
+				this.executionRowCount = 0;
+				this.executions++;
+			}
+		}
+		
+		/**
+		 * Start a new execution, discarding the rows of an incomplete execution
+		 */
+		public void startExecution() {
+			this.executionRowCount = 0;
+		}
+		
+		/**
+		 * @return true if at least one execution has completed
+		 */
+		public boolean isComplete() {
+			return executions > 0;
+		}
+		
+		public boolean isRecorded() {
+			return recorded;
+		}
+		
+		public String getKey() {
+			return key;
+		}
+		
+		public Number getEstimate() {
+			return estimate;
+		}
+		
+		/**
+		 * @return the average number of rows of the completed executions
+		 */
+		public float getRowCount() {
+			if (executions == 0) {
+				return 0;
+			}
+			return (float)rowCount / executions;
+		}
+		
+		public int getExecutions() {
+			return executions;
+		}
+	}
+
+	private ConcurrentHashMap<String, Float> cardinalities = new ConcurrentHashMap<String, Float>();
+	private ConcurrentHashMap<String, Long> invalidations = new ConcurrentHashMap<String, Long>();
+	private int maxEntries;
+	private float invalidationFactor = DEFAULT_INVALIDATION_FACTOR;
+
+	public StatisticsFeedback() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	public StatisticsFeedback(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	public void setInvalidationFactor(float invalidationFactor) {
+		this.invalidationFactor = invalidationFactor;
+	}
+
+	public float getInvalidationFactor() {
+		return invalidationFactor;
+	}
+
+	/**
+	 * @return the last observed cardinality or null if none has been recorded
+	 */
+	public Float getCardinality(String key) {
+		return this.cardinalities.get(key);
+	}
+
+	/**
+	 * Record the actual cardinality of a fragment.  If the estimate differs by more than 
+	 * the invalidation factor, the groups of the fragment are marked as invalidated.
+	 * A fragment without an estimate only affects later planning.
+	 * @return true if the groups were invalidated
+	 */
+	public boolean recordCardinality(Observation observation) {
+		observation.recorded = true;
+		float rowCount = observation.getRowCount();
+		Float previous = this.cardinalities.put(observation.key, rowCount);
+		if (previous == null && this.cardinalities.size() > this.maxEntries) {
+			//evict an arbitrary entry
+			Iterator<String> iter = this.cardinalities.keySet().iterator();
+			if (iter.hasNext()) {
+				iter.next();
+				iter.remove();
+			}
+		}
+		Number estimate = observation.estimate;
+		if (estimate == null || estimate.floatValue() == NewCalculateCostUtil.UNKNOWN_VALUE) {
+			return false;
+		}
+		float low = Math.max(1, Math.min(estimate.floatValue(), rowCount));
+		float high = Math.max(1, Math.max(estimate.floatValue(), rowCount));
+		if (high / low <= this.invalidationFactor) {
+			return false;
+		}
+		Long time = System.currentTimeMillis();
+		for (String group : observation.groups) {
+			this.invalidations.put(group, time);
+		}
+		return true;
+	}
+	
+	/**
+	 * @return true if none of the accessed groups have been invalidated since the creation of the entry
+	 */
+	public boolean isValid(AccessInfo info, String vdbName, String vdbVersion) {
+		if (this.invalidations.isEmpty() || info.getObjectsAccessed() == null) {
+			return true;
+		}
+		for (Object o : info.getObjectsAccessed()) {
+			if (!(o instanceof AbstractMetadataRecord)) {
+				continue;
+			}
+			Long time = this.invalidations.get(getGroupKey(vdbName, vdbVersion, ((AbstractMetadataRecord)o).getFullName()));
+			if (time != null && time >= info.getCreationTime()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		return this.cardinalities.size();
+	}
+
+	public void clear() {
+		this.cardinalities.clear();
+		this.invalidations.clear();
+	}
+	
+	static String getGroupKey(String vdbName, String vdbVersion, String groupName) {
+		return vdbName + '.' + vdbVersion + ':' + groupName;
+	}
+	
+	/**
+	 * Create the vdb scoped key for the plan fragment
+	 * @return the key or null if the fragment should not be tracked
+	 */
+	public static String createKey(CommandContext context, PlanNode node) {
+		if (hasReferences(node)) {
+			return null;
+		}
+		return getGroupKey(context.getVdbName(), context.getVdbVersion(), createKey(node));
+	}
+	
+	/**
+	 * @return the vdb scoped names of the groups of the fragment
+	 */
+	public static Set<String> getGroups(CommandContext context, PlanNode node) {
+		TreeSet<String> result = new TreeSet<String>();
+		for (GroupSymbol group : node.getGroups()) {
+			result.add(getGroupKey(context.getVdbName(), context.getVdbVersion(), group.getNonCorrelationName()));
+		}
+		return result;
+	}
+	
+	private static boolean hasReferences(PlanNode node) {
+		Object crit = null;
+		switch (node.getType()) {
+		case NodeConstants.Types.SELECT:
+			crit = node.getProperty(NodeConstants.Info.SELECT_CRITERIA);
+			break;
+		case NodeConstants.Types.JOIN:
+			crit = node.getProperty(NodeConstants.Info.JOIN_CRITERIA);
+			break;
+		}
+		if (crit instanceof LanguageObject) {
+			if (!ReferenceCollectorVisitor.getReferences((LanguageObject)crit).isEmpty()) {
+				return true;
+			}
+		} else if (crit instanceof List<?>) {
+			for (Object o : (List<?>)crit) {
+				if (o instanceof LanguageObject && !ReferenceCollectorVisitor.getReferences((LanguageObject)o).isEmpty()) {
+					return true;
+				}
+			}
+		}
+		for (PlanNode child : node.getChildren()) {
+			if (hasReferences(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create the normalized key for the plan fragment rooted at the given node.
+	 * Only the operations that affect the cardinality are considered.
+	 * The key is computed from the final plan, since later rules may change the fragment.
+	 */
+	public static String createKey(PlanNode node) {
+		if (node.getChildCount() == 1 && (node.getType() == NodeConstants.Types.ACCESS 
+				|| node.getType() == NodeConstants.Types.PROJECT 
+				|| (node.getType() == NodeConstants.Types.SORT && !node.hasBooleanProperty(NodeConstants.Info.IS_DUP_REMOVAL)))) {
+			//nodes that don't affect the cardinality are transparent, so that the key is the same before and after raising access
+			return createKey(node.getFirstChild());
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append(NodeConstants.getNodeTypeString(node.getType()));
+		switch (node.getType()) {
+		case NodeConstants.Types.SOURCE:
+			TreeSet<String> groups = new TreeSet<String>();
+			for (GroupSymbol group : node.getGroups()) {
+				groups.add(group.getNonCorrelationName());
+			}
+			sb.append(groups);
+			break;
+		case NodeConstants.Types.SELECT:
+			sb.append('(').append(node.getProperty(NodeConstants.Info.SELECT_CRITERIA)).append(')');
+			break;
+		case NodeConstants.Types.JOIN:
+			sb.append('(').append(node.getProperty(NodeConstants.Info.JOIN_TYPE));
+			List<?> crits = (List<?>) node.getProperty(NodeConstants.Info.JOIN_CRITERIA);
+			if (crits != null) {
+				TreeSet<String> critStrings = new TreeSet<String>();
+				for (Object crit : crits) {
+					critStrings.add(String.valueOf(crit));
+				}
+				sb.append(critStrings);
+			}
+			sb.append(')');
+			break;
+		case NodeConstants.Types.GROUP:
+			sb.append('(').append(node.getProperty(NodeConstants.Info.GROUP_COLS)).append(')');
+			break;
+		case NodeConstants.Types.TUPLE_LIMIT:
+			sb.append('(').append(node.getProperty(NodeConstants.Info.OFFSET_TUPLE_COUNT)).append(',').append(node.getProperty(NodeConstants.Info.MAX_TUPLE_LIMIT)).append(')');
+			break;
+		case NodeConstants.Types.SET_OP:
+			sb.append('(').append(node.getProperty(NodeConstants.Info.SET_OPERATION)).append(node.getProperty(NodeConstants.Info.USE_ALL)).append(')');
+			break;
+		}
+		if (node.getChildCount() == 1) {
+			sb.append(' ').append(createKey(node.getFirstChild()));
+		} else if (node.getChildCount() > 1) {
+			List<String> childKeys = new ArrayList<String>(node.getChildCount());
+			for (PlanNode child : node.getChildren()) {
+				childKeys.add(createKey(child));
+			}
+			if (node.getType() != NodeConstants.Types.SET_OP) {
+				Collections.sort(childKeys);
+			}
+			sb.append(childKeys);
+		}
+		return sb.toString();
+	}
+
+}
@@ -155,6 +155,7 @@ public final class NodeConstants {
         EST_CARDINALITY,     // Float represents the estimated cardinality (amount of rows) produced by this node
         EST_COL_STATS,
         EST_SELECTIVITY,     // Float that represents the selectivity of a criteria node
+        EST_FEEDBACK_KEY,    // String normalized key of the final plan fragment used to record the actual cardinality
         
         // Tuple limit and offset
         MAX_TUPLE_LIMIT,     // Expression that evaluates to the max number of tuples generated
@@ -33,6 +33,7 @@ import org.teiid.api.exception.query.QueryPlannerException;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.TransformationException;
 import org.teiid.language.Like.MatchMode;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
@@ -41,6 +42,7 @@ import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
 import org.teiid.query.optimizer.relational.plantree.NodeEditor;
@@ -189,6 +191,9 @@ public class NewCalculateCostUtil {
                 //Simply record the cost of the only child
                 PlanNode child = node.getFirstChild();
                 Float childCost = (Float)child.getProperty(NodeConstants.Info.EST_CARDINALITY);
+                if (node.getType() == NodeConstants.Types.ACCESS) {
+                	childCost = getFeedbackEstimate(node, childCost);
+                }
                 setCardinalityEstimate(node, childCost, true, metadata);
                 break;
             }
@@ -242,6 +247,26 @@ public class NewCalculateCostUtil {
         }
     }
 
+    /**
+     * If runtime statistics feedback is enabled, use the last observed cardinality 
+     * of the fragment in place of the estimate.
+     */
+    private static Float getFeedbackEstimate(PlanNode node, Float estimate) {
+    	CommandContext context = CommandContext.getThreadLocalContext();
+    	if (context == null || context.getStatisticsFeedback() == null) {
+    		return estimate;
+    	}
+    	String key = StatisticsFeedback.createKey(context, node);
+    	if (key == null) {
+    		return estimate;
+    	}
+    	Float actual = context.getStatisticsFeedback().getCardinality(key);
+    	if (actual != null) {
+    		return actual;
+    	}
+    	return estimate;
+    }
+
 	private static void estimateSetOpCost(PlanNode node,
 			QueryMetadataInterface metadata) throws QueryMetadataException,
 			TeiidComponentException {
@@ -388,7 +413,7 @@ public class NewCalculateCostUtil {
         float childCost2 = child2.getCardinality();
         
         if (childCost1 == UNKNOWN_VALUE || childCost2 == UNKNOWN_VALUE) {
-        	setCardinalityEstimate(node, null, true, metadata);
+        	setCardinalityEstimate(node, getFeedbackEstimate(node, null), true, metadata);
         	return;
         }
 
@@ -424,6 +449,11 @@ public class NewCalculateCostUtil {
         	
         	if (leftNdv != UNKNOWN_VALUE && rightNdv != UNKNOWN_VALUE) {
         		baseCost = (childCost1 / leftNdv) * (childCost2 / rightNdv) * Math.min(leftNdv, rightNdv);
+        		if (leftExpressions.size() == 1) {
+        			//account for skew in the most common values, which the uniform estimate will understate
+        			float skewCost = getMostCommonValueJoinEstimate(leftExpressions.get(0), rightExpressions.get(0), childCost1, childCost2, metadata);
+        			baseCost = Math.max(baseCost, skewCost);
+        		}
         		leftPercent = leftNdv / (Math.max(leftNdv, rightNdv));
         		rightPercent = rightNdv / (Math.max(leftNdv, rightNdv));
         	} else {
@@ -449,7 +479,7 @@ public class NewCalculateCostUtil {
         	cost = Math.min(childCost1, baseCost);
         }
         
-        setCardinalityEstimate(node, cost, true, metadata, leftPercent, rightPercent);
+        setCardinalityEstimate(node, getFeedbackEstimate(node, cost), true, metadata, leftPercent, rightPercent);
     }
 
     /**
@@ -1009,7 +1039,12 @@ public class NewCalculateCostUtil {
                 	float ndv1 = getPredicateNDV(compCrit.getRightExpression(), currentNode, childCost, metadata);
                 	ndv = (float) Math.sqrt(ndv * ndv1);
                 } 
-            	cost = childCost / ndv;
+            	float selectivity = getMostCommonValueSelectivity(compCrit.getLeftExpression(), compCrit.getRightExpression(), ndv, metadata);
+            	if (selectivity != UNKNOWN_VALUE) {
+            		cost = childCost * selectivity;
+            	} else {
+            		cost = childCost / ndv;
+            	}
                 if (compCrit.getOperator() == CompareCriteria.NE) {
                     isNegatedPredicateCriteria = true;
                 }
@@ -1040,7 +1075,16 @@ public class NewCalculateCostUtil {
             
             float ndv = getPredicateNDV(setCriteria.getExpression(), currentNode, childCost, metadata);
             
-            cost = childCost * setCriteria.getNumberOfValues() / ndv;
+            float selectivity = 0;
+            for (Iterator<?> values = setCriteria.getValues().iterator(); values.hasNext() && selectivity != UNKNOWN_VALUE;) {
+            	float valueSelectivity = getMostCommonValueSelectivity(setCriteria.getExpression(), (Expression)values.next(), ndv, metadata);
+            	selectivity = valueSelectivity == UNKNOWN_VALUE?UNKNOWN_VALUE:selectivity + valueSelectivity;
+            }
+            if (selectivity != UNKNOWN_VALUE) {
+            	cost = childCost * Math.min(1, selectivity);
+            } else {
+            	cost = childCost * setCriteria.getNumberOfValues() / ndv;
+            }
             
             isNegatedPredicateCriteria = setCriteria.isNegated();
             
@@ -1168,6 +1212,34 @@ public class NewCalculateCostUtil {
         }
         ElementSymbol element = (ElementSymbol)compCrit.getLeftExpression();
         Class<?> dataType = compCrit.getRightExpression().getType();
+        
+        if (childCost != UNKNOWN_VALUE) {
+        	float fraction = getHistogramFraction(metadata.getHistogram(element.getMetadataID()), ((Constant)compCrit.getRightExpression()).getValue());
+        	if (fraction != UNKNOWN_VALUE) {
+        		//the fraction is of the non-null values less than the constant, so the values equal to it are added for LE and removed for GT
+        		float equal = 0;
+        		float ndv = metadata.getDistinctValues(element.getMetadataID());
+        		if (ndv > 0) {
+        			equal = getMostCommonValueSelectivity(element, compCrit.getRightExpression(), ndv, metadata);
+        			if (equal == UNKNOWN_VALUE) {
+        				equal = 1 / ndv;
+        			}
+        		}
+        		switch (compCrit.getOperator()) {
+        		case CompareCriteria.LE:
+        			fraction += equal;
+        			break;
+        		case CompareCriteria.GT:
+        			fraction = 1 - fraction - equal;
+        			break;
+        		case CompareCriteria.GE:
+        			fraction = 1 - fraction;
+        			break;
+        		}
+        		fraction = Math.min(1, Math.max(0, fraction));
+        		return childCost * fraction * (1 - getNullFraction(element, metadata));
+        	}
+        }
     
         String max = (String)metadata.getMaximumValue(element.getMetadataID());
         String min = (String)metadata.getMinimumValue(element.getMetadataID());
@@ -1233,6 +1305,133 @@ public class NewCalculateCostUtil {
         return cost;
     }
     
+    /**
+     * Estimate the fraction of non-null values that are less than the given value
+     * by locating it within the equi-depth histogram bounds of the column.
+     * @return the fraction or {@link #UNKNOWN_VALUE} if the histogram is not usable
+     */
+    static float getHistogramFraction(List<String> histogram, Object value) {
+    	if (histogram == null || histogram.size() < 2 || !(value instanceof Comparable<?>)) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Object[] bounds = new Object[histogram.size()];
+    	try {
+	    	for (int i = 0; i < bounds.length; i++) {
+	    		bounds[i] = DataTypeManager.transformValue(histogram.get(i), value.getClass());
+	    	}
+    	} catch (TransformationException e) {
+    		LogManager.logDetail(LogConstants.CTX_QUERY_PLANNER, e, "Could not use the histogram", histogram); //$NON-NLS-1$
+    		return UNKNOWN_VALUE;
+    	}
+    	int buckets = bounds.length - 1;
+    	if (Constant.COMPARATOR.compare(value, bounds[0]) <= 0) {
+    		return 0;
+    	}
+    	for (int i = 1; i <= buckets; i++) {
+    		if (Constant.COMPARATOR.compare(value, bounds[i]) < 0) {
+    			return (i - 1 + interpolate(bounds[i - 1], bounds[i], value)) / buckets;
+    		}
+    	}
+    	return 1;
+    }
+    
+    /**
+     * @return the fraction of the rows of the group where the element is null or 0 if not known
+     */
+    private static float getNullFraction(ElementSymbol element, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
+    	float nullValues = metadata.getNullValues(element.getMetadataID());
+    	if (nullValues <= 0 || element.getGroupSymbol() == null) {
+    		return 0;
+    	}
+    	float cardinality = metadata.getCardinality(element.getGroupSymbol().getMetadataID());
+    	if (cardinality <= 0) {
+    		return 0;
+    	}
+    	return Math.min(1, nullValues / cardinality);
+    }
+    
+    /**
+     * Linear interpolation of the value position within a bucket for numeric and temporal
+     * values, otherwise assume the middle of the bucket. 
+     */
+    private static float interpolate(Object low, Object high, Object value) {
+    	double l = 0;
+    	double h = 0;
+    	double v = 0;
+    	if (value instanceof Number) {
+    		l = ((Number)low).doubleValue();
+    		h = ((Number)high).doubleValue();
+    		v = ((Number)value).doubleValue();
+    	} else if (value instanceof java.util.Date) {
+    		l = ((java.util.Date)low).getTime();
+    		h = ((java.util.Date)high).getTime();
+    		v = ((java.util.Date)value).getTime();
+    	} 
+    	if (h <= l) {
+    		return .5f;
+    	}
+    	return (float)Math.min(1, Math.max(0, (v - l) / (h - l)));
+    }
+    
+    /**
+     * Estimate the selectivity of an equality predicate against a constant from the 
+     * most common values of the column.  Values that are not among the most common
+     * share the remaining frequency evenly.
+     * @return the selectivity or {@link #UNKNOWN_VALUE} if there is no usable information
+     */
+    private static float getMostCommonValueSelectivity(Expression expr, Expression valueExpr, float ndv, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
+    	if (!(expr instanceof ElementSymbol) || !(valueExpr instanceof Constant)) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Object value = ((Constant)valueExpr).getValue();
+    	if (value == null) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Map<String, Float> mostCommonValues = metadata.getMostCommonValues(((ElementSymbol)expr).getMetadataID());
+    	if (mostCommonValues == null) {
+    		return UNKNOWN_VALUE;
+    	}
+    	float total = 0;
+    	try {
+	    	for (Map.Entry<String, Float> entry : mostCommonValues.entrySet()) {
+	    		if (Constant.COMPARATOR.compare(value, DataTypeManager.transformValue(entry.getKey(), value.getClass())) == 0) {
+	    			return entry.getValue();
+	    		}
+	    		total += entry.getValue();
+	    	}
+    	} catch (TransformationException e) {
+    		LogManager.logDetail(LogConstants.CTX_QUERY_PLANNER, e, "Could not use the most common values", mostCommonValues); //$NON-NLS-1$
+    		return UNKNOWN_VALUE;
+    	}
+    	return Math.max(0, 1 - total) / Math.max(1, ndv - mostCommonValues.size());
+    }
+    
+    /**
+     * Estimate the rows produced by an equi-join of the most common values shared by both sides.
+     * @return the estimate or {@link #UNKNOWN_VALUE} if there is no usable information 
+     */
+    private static float getMostCommonValueJoinEstimate(Expression leftExpr, Expression rightExpr, float leftCost, float rightCost, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
+    	if (!(leftExpr instanceof ElementSymbol) || !(rightExpr instanceof ElementSymbol)) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Map<String, Float> leftValues = metadata.getMostCommonValues(((ElementSymbol)leftExpr).getMetadataID());
+    	if (leftValues == null) {
+    		return UNKNOWN_VALUE;
+    	}
+    	Map<String, Float> rightValues = metadata.getMostCommonValues(((ElementSymbol)rightExpr).getMetadataID());
+    	if (rightValues == null) {
+    		return UNKNOWN_VALUE;
+    	}
+    	float cost = 0;
+    	for (Map.Entry<String, Float> entry : leftValues.entrySet()) {
+    		Float rightFrequency = rightValues.get(entry.getKey());
+    		if (rightFrequency != null) {
+    			cost += (entry.getValue() * leftCost) * (rightFrequency * rightCost);
+    		}
+    	}
+    	return cost;
+    }
+    
     static boolean usesKey(PlanNode planNode, Collection<? extends Expression> allElements, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
     	//TODO: key preserved joins should be marked
     	return isSingleTable(planNode)
@@ -1491,6 +1690,22 @@ public class NewCalculateCostUtil {
         return dca;
 	}
 	
+	/**
+	 * Determine if a single unrestricted source query is expected to be cheaper than the
+	 * given number of dependent source queries.
+	 * @param dependentCardinality the estimated cardinality of the unrestricted source query
+	 * @param dependentQueries the number of source queries needed by the dependent join
+	 */
+	public static boolean isFullFetchCheaper(float dependentCardinality, long dependentQueries) {
+		if (dependentCardinality == UNKNOWN_VALUE || dependentQueries <= 1) {
+			return false;
+		}
+		//the full fetch must also be read and sorted/hashed for the join
+		float fullFetchCost = dependentCardinality*readTime + dependentCardinality*safeLog(dependentCardinality)*compareTime;
+		//require a clear benefit since the full fetch cardinality is itself only an estimate
+		return (dependentQueries - 1)*procNewRequestTime > 2*fullFetchCost;
+	}
+	
 	private static float[] estimateCost(PlanNode accessNode, float setCriteriaBatchSize, boolean usesIndex, float depTargetCardinality, 
 			float indSymbolNDV, float dependentCardinality, float depSymbolNDV) {
         float dependentAccessCardinality = Math.min(depTargetCardinality, depTargetCardinality * indSymbolNDV / depSymbolNDV);
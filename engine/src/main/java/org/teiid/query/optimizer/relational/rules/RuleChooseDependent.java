@@ -379,6 +379,12 @@ public final class RuleChooseDependent implements OptimizerRule {
 
         PlanNode crit = getDependentCriteriaNode(id, independentExpressions, dependentExpressions, indNode, metadata, dca, bound, makeDep);
         
+        //retain the full fetch estimate so that processing may abandon the dependent join if the independent side is much larger than expected
+        DependentSetCriteria dsc = (DependentSetCriteria)crit.getProperty(Info.SELECT_CRITERIA);
+        if (dsc != null) {
+        	dsc.setDependentCardinality(NewCalculateCostUtil.computeCostForTree(sourceNode, metadata));
+        }
+        
         sourceNode.addAsParent(crit);
               
         if (isLeft) {
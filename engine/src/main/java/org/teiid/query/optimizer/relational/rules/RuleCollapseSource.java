@@ -53,6 +53,7 @@ import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.optimizer.relational.OptimizerRule;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
 import org.teiid.query.optimizer.relational.RuleStack;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants;
 import org.teiid.query.optimizer.relational.plantree.NodeConstants.Info;
 import org.teiid.query.optimizer.relational.plantree.NodeEditor;
@@ -86,6 +87,18 @@ public final class RuleCollapseSource implements OptimizerRule {
 	public PlanNode execute(PlanNode plan, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, RuleStack rules, AnalysisRecord analysisRecord, CommandContext context)
 		throws QueryPlannerException, QueryMetadataException, TeiidComponentException {
 
+		if (context != null && context.getStatisticsFeedback() != null) {
+			//key the fragments now that they are final, but before the access nodes are collapsed
+			for (PlanNode node : NodeEditor.findAllNodes(plan, NodeConstants.Types.ACCESS | NodeConstants.Types.JOIN)) {
+				if (node.getChildCount() > 0 && node.getProperty(NodeConstants.Info.EST_FEEDBACK_KEY) == null) {
+					String key = StatisticsFeedback.createKey(context, node);
+					if (key != null) {
+						node.setProperty(NodeConstants.Info.EST_FEEDBACK_KEY, key);
+					}
+				}
+			}
+		}
+		
         for (PlanNode accessNode : NodeEditor.findAllNodes(plan, NodeConstants.Types.ACCESS)) {
             
             // Get nested non-relational plan if there is one
@@ -82,12 +82,20 @@ import org.teiid.translator.ExecutionFactory.SupportedJoinCriteria;
  *         with a single access node.
  *         
  *  Stage 5.  The remaining join regions will be ordered in a left linear tree based
- *  upon a an exhaustive, or random, algorithm that considers costing and criteria information.
+ *  upon a an exhaustive, or dynamic programming, algorithm that considers costing and criteria information.
  *   
  */
 public class RulePlanJoins implements OptimizerRule {
     
     public static final int EXHAUSTIVE_SEARCH_GROUPS = 7;
+    
+    /**
+     * The maximum number of join source sets, each with its best partial order, retained at each
+     * level of the dynamic programming search.  Only the lowest cost sets are kept, so larger
+     * regions are searched as a beam search that may miss the best order.  The result is
+     * therefore compared with the greedy order, see {@link #findBestJoinOrder}.
+     */
+    public static final int DYNAMIC_SEARCH_MAX_STATES = 16;
                 
     /** 
      * @see org.teiid.query.optimizer.relational.OptimizerRule#execute(org.teiid.query.optimizer.relational.plantree.PlanNode, org.teiid.query.metadata.QueryMetadataInterface, org.teiid.query.optimizer.capabilities.CapabilitiesFinder, org.teiid.query.optimizer.relational.RuleStack, org.teiid.query.analysis.AnalysisRecord, org.teiid.query.util.CommandContext)
@@ -548,12 +556,38 @@ public class RulePlanJoins implements OptimizerRule {
         }
     }
     
+    /**
+     * For regions up to the exhaustive search group size all possible left linear join
+     * trees will be searched in O(n!) time.  Larger regions use both the dynamic programming search 
+     * and the greedy search, and the lower cost order is used.  Since neither search is exhaustive
+     * for larger regions, this ensures that the pruning of the dynamic programming search
+     * does not produce a worse order than the greedy search alone.
+     * 
+     * @return the best order or null if no valid order was found
+     */
+    Object[] findBestJoinOrder(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+        int regionCount = region.getJoinSourceNodes().size();
+        
+        Object[] greedy = findBestJoinOrderGreedy(region, metadata, capFinder, context);
+        
+        if (regionCount > EXHAUSTIVE_SEARCH_GROUPS && regionCount < Long.SIZE) {
+        	Object[] result = findBestJoinOrderDynamic(region, metadata, capFinder, context);
+        	if (result != null && (greedy == null 
+        			|| region.scoreRegion(result, 0, metadata, capFinder, context, false) <= region.scoreRegion(greedy, 0, metadata, capFinder, context, false))) {
+        		return result;
+        	}
+        }
+        
+        return greedy;
+    }
+    
     /**
      * The scoring algorithm is partially exhaustive and partially greedy.  For
      * regions up to the exhaustive search group size all possible left linear join
      * trees will be searched in O(n!) time.
      * 
-     * Beyond this number, every join will be determined greedily in O(n^2) time.
+     * Beyond this number, a partial exhaustive search picks the first few joins and
+     * the remaining joins will be determined greedily in O(n^2) time.
      *  
      * TODO: this method together with scoreRegion have not been optimized 
      * 
@@ -562,7 +596,7 @@ public class RulePlanJoins implements OptimizerRule {
      * @return
      * @throws QueryPlannerException 
      */
-    Object[] findBestJoinOrder(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+    Object[] findBestJoinOrderGreedy(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
         int regionCount = region.getJoinSourceNodes().size();
         
         List<Integer> orderList = new ArrayList<Integer>(regionCount);
@@ -644,6 +678,99 @@ public class RulePlanJoins implements OptimizerRule {
         return result;
     }
     
+    /**
+     * A bottom-up dynamic programming search over left linear orders.  The best order
+     * for each set of join sources is memoized and only extended by sources that are connected
+     * by join criteria, unless no connected source remains.  
+     * <br>
+     * The number of sets retained at each level is bounded by {@link #DYNAMIC_SEARCH_MAX_STATES}.
+     * 
+     * @return the best order or null if no valid order was found
+     */
+    Object[] findBestJoinOrderDynamic(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+    	List<PlanNode> sources = new ArrayList<PlanNode>(region.getJoinSourceNodes().values());
+    	int regionCount = sources.size();
+    	
+    	//determine the sources connected by each criteria
+    	List<Long> criteriaMasks = new ArrayList<Long>();
+    	for (PlanNode critNode : region.getCriteriaNodes()) {
+    		long mask = 0;
+    		for (int i = 0; i < regionCount; i++) {
+    			if (!Collections.disjoint(sources.get(i).getGroups(), critNode.getGroups())) {
+    				mask |= 1l << i;
+    			}
+    		}
+    		if (Long.bitCount(mask) > 1) {
+    			criteriaMasks.add(mask);
+    		}
+    	}
+    	
+    	Map<Long, Object[]> bestOrders = new HashMap<Long, Object[]>();
+    	Map<Long, Double> bestScores = new HashMap<Long, Double>();
+    	for (int i = 0; i < regionCount; i++) {
+    		Object[] order = new Object[] {i};
+    		double score = region.scoreRegion(order, 0, metadata, capFinder, context, true);
+    		if (score == Double.MAX_VALUE) {
+    			continue;
+    		}
+    		bestOrders.put(1l << i, order);
+    		bestScores.put(1l << i, score);
+    	}
+    	
+    	for (int size = 2; size <= regionCount && !bestOrders.isEmpty(); size++) {
+    		Map<Long, Object[]> nextOrders = new HashMap<Long, Object[]>();
+    		final Map<Long, Double> nextScores = new HashMap<Long, Double>();
+    		for (Map.Entry<Long, Object[]> entry : bestOrders.entrySet()) {
+    			long mask = entry.getKey();
+    			long candidates = 0;
+    			for (long critMask : criteriaMasks) {
+    				if ((critMask & mask) != 0) {
+    					candidates |= critMask & ~mask;
+    				}
+    			}
+    			if (candidates == 0) {
+    				//cross join
+    				candidates = ~mask & ((1l << regionCount) - 1);
+    			}
+    			Object[] order = entry.getValue();
+    			for (int i = 0; i < regionCount; i++) {
+    				if ((candidates & (1l << i)) == 0) {
+    					continue;
+    				}
+    				Object[] newOrder = Arrays.copyOf(order, size);
+    				newOrder[size - 1] = i;
+    				double score = region.scoreRegion(newOrder, 0, metadata, capFinder, context, true);
+    				if (score == Double.MAX_VALUE) {
+    					continue;
+    				}
+    				Long newMask = mask | (1l << i);
+    				Double existing = nextScores.get(newMask);
+    				if (existing == null || score < existing) {
+    					nextOrders.put(newMask, newOrder);
+    					nextScores.put(newMask, score);
+    				}
+    			}
+    		}
+    		if (nextOrders.size() > DYNAMIC_SEARCH_MAX_STATES) {
+    			//retain only the best partial orders
+    			List<Long> masks = new ArrayList<Long>(nextOrders.keySet());
+    			Collections.sort(masks, new Comparator<Long>() {
+    				@Override
+    				public int compare(Long o1, Long o2) {
+    					return Double.compare(nextScores.get(o1), nextScores.get(o2));
+    				}
+				});
+    			for (Long mask : masks.subList(DYNAMIC_SEARCH_MAX_STATES, masks.size())) {
+    				nextOrders.remove(mask);
+    			}
+    		}
+    		bestOrders = nextOrders;
+    		bestScores = nextScores;
+    	}
+    	
+    	return bestOrders.get((1l << regionCount) - 1);
+    }
+
     /** 
      * @see java.lang.Object#toString()
      */
@@ -321,14 +321,19 @@ public final class RulePushSelectCriteria implements OptimizerRule {
     					}
     				}
     				criteria = RuleChooseDependent.createDependentSetCriteria(dsc.getContextSymbol(), joinExprs);
+    				if (criteria != null) {
+    					((DependentSetCriteria)criteria).setDependentCardinality(dsc.getDependentCardinality());
+    				}
     				PlanNode left = RuleChooseDependent.createDependentSetNode(dsc.getContextSymbol(), leftExprs);
     				if (left != null) {
     					moved = true;
+    					((DependentSetCriteria)left.getProperty(NodeConstants.Info.SELECT_CRITERIA)).setDependentCardinality(dsc.getDependentCardinality());
     					joinNode.getFirstChild().addAsParent(left);
     				}
     				PlanNode right = RuleChooseDependent.createDependentSetNode(dsc.getContextSymbol(), rightExprs);
     				if (right != null) {
     					moved = true;
+    					((DependentSetCriteria)right.getProperty(NodeConstants.Info.SELECT_CRITERIA)).setDependentCardinality(dsc.getDependentCardinality());
     					joinNode.getLastChild().addAsParent(right);
     				}
     			}
@@ -421,9 +426,13 @@ public final class RulePushSelectCriteria implements OptimizerRule {
 			if (nonPushable.isEmpty()) {
 				throw new AssertionError("should not be completely pushed"); //$NON-NLS-1$
 			}
-			setCriteria(RuleChooseDependent.createDependentSetCriteria(dscOrig.getContextSymbol(), nonPushable), critNode);
+			DependentSetCriteria dsc = RuleChooseDependent.createDependentSetCriteria(dscOrig.getContextSymbol(), nonPushable);
+			dsc.setDependentCardinality(dscOrig.getDependentCardinality());
+			setCriteria(dsc, critNode);
 			PlanNode copyNode = copyNode(critNode);
-			setCriteria(RuleChooseDependent.createDependentSetCriteria(dscOrig.getContextSymbol(), pushable), copyNode);
+			dsc = RuleChooseDependent.createDependentSetCriteria(dscOrig.getContextSymbol(), pushable);
+			dsc.setDependentCardinality(dscOrig.getDependentCardinality());
+			setCriteria(dsc, copyNode);
 			destination.addAsParent(copyNode); //it should be pushed in the next run
 		}
 		return result;
@@ -595,6 +604,7 @@ public final class RulePushSelectCriteria implements OptimizerRule {
 		for (List<AttributeComparison> comps : splits.values()) {
 			DependentSetCriteria crit = RuleChooseDependent.createDependentSetCriteria(dsc.getContextSymbol(), comps);
 			crit.setMakeDepOptions(dsc.getMakeDepOptions());
+			crit.setDependentCardinality(dsc.getDependentCardinality());
 			crits.add(crit);
 		}
 		return crits;
@@ -21,6 +21,11 @@
  */
 package org.teiid.query.parser;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -144,6 +149,10 @@ public class OptionsUtil {
             c.setNullValues(-1);
         } else if (key.equals(DDLConstants.DISTINCT_VALUES)) {
             c.setDistinctValues(-1);
+        } else if (key.equals(DDLConstants.HISTOGRAM)) {
+            c.setHistogram(null);
+        } else if (key.equals(DDLConstants.MOST_COMMON_VALUES)) {
+            c.setMostCommonValues(null);
         } else if (key.equals(DDLConstants.UDT)) {
             c.setDatatype(null);
             c.setLength(0);
@@ -322,6 +331,16 @@ public class OptionsUtil {
         if (v != null) {
             c.setDistinctValues(Integer.parseInt(v));
         }
+        
+        v = props.remove(DDLConstants.HISTOGRAM); 
+        if (v != null) {
+            c.setHistogram(decodeList(v));
+        }
+        
+        v = props.remove(DDLConstants.MOST_COMMON_VALUES); 
+        if (v != null) {
+            c.setMostCommonValues(decodeMostCommonValues(v));
+        }
 
         v = props.remove(DDLConstants.UDT); 
         if (v != null) {
@@ -339,4 +358,71 @@ public class OptionsUtil {
             }
         }
     }    
+    
+    /**
+     * Encode the values as a single comma separated option value.  
+     * Commas and backslashes within a value are escaped with a backslash.
+     */
+    public static String encodeList(Collection<?> values) {
+        StringBuilder result = new StringBuilder();
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                result.append(',');
+            }
+            first = false;
+            String str = String.valueOf(value);
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c == ',' || c == '\\') {
+                    result.append('\\');
+                }
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+    
+    public static List<String> decodeList(String value) {
+        List<String> result = new ArrayList<String>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                current.append(value.charAt(++i));
+            } else if (c == ',') {
+                result.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        result.add(current.toString());
+        return result;
+    }
+    
+    /**
+     * Encode the most common values as alternating values and frequencies
+     */
+    public static String encodeMostCommonValues(Map<String, Float> values) {
+        List<Object> result = new ArrayList<Object>(values.size() * 2);
+        for (Map.Entry<String, Float> entry : values.entrySet()) {
+            result.add(entry.getKey());
+            result.add(entry.getValue());
+        }
+        return encodeList(result);
+    }
+    
+    public static Map<String, Float> decodeMostCommonValues(String value) throws MetadataException {
+        Map<String, Float> result = new LinkedHashMap<String, Float>();
+        try {
+            for (Iterator<String> iter = decodeList(value).iterator(); iter.hasNext();) {
+                String key = iter.next();
+                result.put(key, Float.valueOf(iter.next()));
+            }
+        } catch (RuntimeException e) {
+            throw new MetadataException(QueryPlugin.Event.TEIID31260, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31260, value));
+        }
+        return result;
+    }
 }
@@ -30,11 +30,13 @@ import java.io.StringReader;
 import java.util.*;
 
 import org.teiid.api.exception.query.QueryParserException;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.language.SQLConstants;
 import org.teiid.metadata.*;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.function.SystemFunctionManager;
 import org.teiid.query.metadata.DatabaseStore;
+import org.teiid.query.metadata.MetadataLookupCache;
 import org.teiid.query.sql.lang.CacheHint;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.Criteria;
@@ -59,6 +61,12 @@ public class QueryParser implements Parser {
         }
     };
 
+    /*
+     * Parsed definitions are keyed by text so that they are shared across vdbs and vdb versions
+     */
+    private static MetadataLookupCache<String, Command> DEFINITION_CACHE = new MetadataLookupCache<String, Command>("definition", //$NON-NLS-1$
+    		PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.parsedDefinitionCacheSize", 4096)); //$NON-NLS-1$
+
     private static final String XQUERY_DECLARE = "declare"; //$NON-NLS-1$
     private static final String XML_OPEN_BRACKET = "<"; //$NON-NLS-1$
     private static final String NONE = "none"; //$NON-NLS-1$
@@ -108,6 +116,19 @@ public class QueryParser implements Parser {
 	    return parseCommand(sql, new ParseInfo());
 	}
 	
+	/**
+	 * Parse a view definition.  The parsed form is cached by the definition text 
+	 * and a copy, which may be modified by the caller, is returned.
+	 */
+	public Command parseDefinition(String sql) throws QueryParserException {
+		Command result = DEFINITION_CACHE.get(sql);
+		if (result == null) {
+			result = parseCommand(sql);
+			DEFINITION_CACHE.put(sql, result);
+		}
+		return (Command)result.clone();
+	}
+	
 	public Command parseProcedure(String sql, boolean update) throws QueryParserException {
 		try{
 			if (update) {
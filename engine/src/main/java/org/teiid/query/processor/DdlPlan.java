@@ -48,6 +48,7 @@ import org.teiid.query.metadata.DDLProcessor;
 import org.teiid.query.metadata.DatabaseStore;
 import org.teiid.query.metadata.MetadataValidator;
 import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.parser.OptionsUtil;
 import org.teiid.query.parser.QueryParser;
 import org.teiid.query.resolver.QueryResolver;
 import org.teiid.query.sql.LanguageVisitor;
@@ -227,23 +228,29 @@ public class DdlPlan extends ProcessorPlan {
                 @Override
                 public void process(DatabaseStore store) {
                     store.databaseSwitched(vdb.getName(), vdb.getVersion());
-                    store.addOrSetOption(tableName, Database.ResourceType.TABLE, columnName,
-                            Database.ResourceType.COLUMN, DDLConstants.DISTINCT_VALUES,
-                            columnStats.getDistinctValues().toString(), false);
-                    store.addOrSetOption(tableName, Database.ResourceType.TABLE, columnName,
-                            Database.ResourceType.COLUMN, DDLConstants.NULL_VALUE_COUNT,
-                            columnStats.getNullValues().toString(), false);
-                    store.addOrSetOption(tableName, Database.ResourceType.TABLE, columnName,
-                            Database.ResourceType.COLUMN, DDLConstants.MAX_VALUE,
-                            columnStats.getMaximumValue().toString(), false);
-                    store.addOrSetOption(tableName, Database.ResourceType.TABLE, columnName,
-                            Database.ResourceType.COLUMN, DDLConstants.MIN_VALUE,
-                            columnStats.getMinimumValue().toString(), false);                          
+                    setColumnOption(store, tableName, columnName, DDLConstants.DISTINCT_VALUES, columnStats.getDistinctValues());
+                    setColumnOption(store, tableName, columnName, DDLConstants.NULL_VALUE_COUNT, columnStats.getNullValues());
+                    setColumnOption(store, tableName, columnName, DDLConstants.MAX_VALUE, columnStats.getMaximumValue());
+                    setColumnOption(store, tableName, columnName, DDLConstants.MIN_VALUE, columnStats.getMinimumValue());
+                    if (columnStats.getHistogram() != null) {
+                        setColumnOption(store, tableName, columnName, DDLConstants.HISTOGRAM, OptionsUtil.encodeList(columnStats.getHistogram()));
+                    }
+                    if (columnStats.getMostCommonValues() != null) {
+                        setColumnOption(store, tableName, columnName, DDLConstants.MOST_COMMON_VALUES, OptionsUtil.encodeMostCommonValues(columnStats.getMostCommonValues()));
+                    }
                 }
             });
         }               
 	}
 	
+	private static void setColumnOption(DatabaseStore store, String tableName, String columnName, String key, Object value) {
+	    if (value == null) {
+	        return;
+	    }
+	    store.addOrSetOption(tableName, Database.ResourceType.TABLE, columnName,
+	            Database.ResourceType.COLUMN, key, value.toString(), false);
+	}
+	
 	public static void setTableStats(final VDBMetaData vdb, final Table table, final TableStats tableStats) {
         table.setTableStats(tableStats);
         table.setLastModified(System.currentTimeMillis());
@@ -254,6 +254,7 @@ public class QueryProcessor implements BatchProducer {
 				LogManager.logDetail(LogConstants.CTX_DQP, e1, "Error closing processor"); //$NON-NLS-1$
 			}
         }
+        this.context.recordObservations();
     }
 
     @Override
@@ -0,0 +1,83 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.processor.relational;
+
+/**
+ * A simple bloom filter over value hash codes.  It should only be used
+ * with types where equality is consistent with the hash code, see
+ * {@link org.teiid.core.types.DataTypeManager#isHashable(Class)}.
+ * <br>
+ * Sized at roughly 10 bits per expected value with 7 hash functions for
+ * approximately a 1% false positive rate.
+ */
+public class BloomFilter {
+
+	private static final int BITS_PER_VALUE = 10;
+	private static final int HASH_FUNCTIONS = 7;
+	private static final int MAX_BITS = 1 << 26;
+
+	private long[] bits;
+	private int bitCount;
+
+	public BloomFilter(long expectedValues) {
+		long size = Math.max(64, Math.min(MAX_BITS, expectedValues * BITS_PER_VALUE));
+		this.bits = new long[(int)((size + 63) >>> 6)];
+		this.bitCount = this.bits.length << 6;
+	}
+
+	public void add(Object value) {
+		int hash1 = hash(value.hashCode());
+		int hash2 = hash(hash1);
+		for (int i = 0; i < HASH_FUNCTIONS; i++) {
+			int index = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+			bits[index >>> 6] |= 1l << index;
+		}
+	}
+
+	/**
+	 * @return false if the value was definitely not added
+	 */
+	public boolean mightContain(Object value) {
+		int hash1 = hash(value.hashCode());
+		int hash2 = hash(hash1);
+		for (int i = 0; i < HASH_FUNCTIONS; i++) {
+			int index = ((hash1 + i * hash2) & Integer.MAX_VALUE) % bitCount;
+			if ((bits[index >>> 6] & (1l << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Spread the bits as hash codes of small integral values are not well distributed
+	 */
+	private static int hash(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -23,6 +23,8 @@
 package org.teiid.query.processor.relational;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.core.TeiidComponentException;
@@ -32,6 +34,7 @@ import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.lang.QueryCommand;
+import org.teiid.query.sql.symbol.Expression;
 
 
 /**
@@ -46,6 +49,7 @@ public class DependentAccessNode extends AccessNode {
     private int maxSetSize;
     private int maxPredicates;
     private boolean pushdown;
+    private boolean supportsRange;
 
     //processing state
     private DependentCriteriaProcessor criteriaProcessor;
@@ -57,6 +61,8 @@ public class DependentAccessNode extends AccessNode {
     private Command rewrittenCommand;
 	private boolean useBindings;
 	private boolean complexQuery;
+	private int[] filterIndexes;
+	private BloomFilter[] filters;
     
     public DependentAccessNode(int nodeID) {
         super(nodeID);
@@ -79,6 +85,8 @@ public class DependentAccessNode extends AccessNode {
         dependentCrit = null;
         sort = true;
         rewrittenCommand = null;
+        filterIndexes = null;
+        filters = null;
     }
     
     @Override
@@ -109,6 +117,7 @@ public class DependentAccessNode extends AccessNode {
         clonedNode.maxSetSize = this.maxSetSize;
         clonedNode.maxPredicates = this.maxPredicates;
         clonedNode.pushdown = this.pushdown;
+        clonedNode.supportsRange = this.supportsRange;
         clonedNode.useBindings = this.useBindings;
         clonedNode.complexQuery = this.complexQuery;
         super.copyTo(clonedNode);
@@ -150,12 +159,16 @@ public class DependentAccessNode extends AccessNode {
         if (this.criteriaProcessor == null) {
             this.criteriaProcessor = new DependentCriteriaProcessor(this.maxSetSize, this.maxPredicates, this, query.getCriteria());
             this.criteriaProcessor.setPushdown(pushdown);
+            this.criteriaProcessor.setSupportsRange(supportsRange);
             this.criteriaProcessor.setUseBindings(useBindings);
             this.criteriaProcessor.setComplexQuery(complexQuery);
         }
         
         if (this.dependentCrit == null) {
             dependentCrit = criteriaProcessor.prepareCriteria();
+            if (this.filters == null) {
+            	initFilters();
+            }
         }
         
         query.setCriteria(dependentCrit);
@@ -177,6 +190,45 @@ public class DependentAccessNode extends AccessNode {
         return result;
     }
 
+    /**
+     * Use local filters for inexact dependent criteria on projected columns
+     */
+    private void initFilters() {
+    	Map<Expression, BloomFilter> filterMap = criteriaProcessor.getFilters();
+    	int[] indexes = new int[filterMap.size()];
+    	BloomFilter[] bloomFilters = new BloomFilter[filterMap.size()];
+    	int count = 0;
+    	for (Map.Entry<Expression, BloomFilter> entry : filterMap.entrySet()) {
+    		int index = getOutputElements().indexOf(entry.getKey());
+    		if (index == -1) {
+    			continue;
+    		}
+    		indexes[count] = index;
+    		bloomFilters[count++] = entry.getValue();
+    	}
+    	if (count == 0) {
+    		this.filters = new BloomFilter[0];
+    		return;
+    	}
+    	this.filterIndexes = new int[count];
+    	System.arraycopy(indexes, 0, this.filterIndexes, 0, count);
+    	this.filters = new BloomFilter[count];
+    	System.arraycopy(bloomFilters, 0, this.filters, 0, count);
+    }
+    
+    @Override
+    protected void addBatchRow(List<?> row) {
+    	if (this.filterIndexes != null) {
+    		for (int i = 0; i < this.filterIndexes.length; i++) {
+    			Object value = row.get(this.filterIndexes[i]);
+    			if (value == null || !this.filters[i].mightContain(value)) {
+    				return;
+    			}
+			}
+    	}
+    	super.addBatchRow(row);
+    }
+    
     private void declineSort() {
         RelationalNode parent = this.getParent();
         RelationalNode child = this;
@@ -209,6 +261,10 @@ public class DependentAccessNode extends AccessNode {
 		this.pushdown = pushdown;
 	}
 	
+	public void setSupportsRange(boolean supportsRange) {
+		this.supportsRange = supportsRange;
+	}
+	
 	@Override
 	public Boolean requiresTransaction(boolean transactionalReads) {
 		Boolean required = super.requiresTransaction(transactionalReads);
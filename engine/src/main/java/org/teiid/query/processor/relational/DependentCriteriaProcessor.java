@@ -28,8 +28,10 @@ import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
 import org.teiid.query.processor.relational.SortUtility.Mode;
@@ -66,6 +68,12 @@ public class DependentCriteriaProcessor {
         
         boolean overMax;
         
+        float dependentCardinality = NewCalculateCostUtil.UNKNOWN_VALUE;
+        
+        Criteria rangeCriteria;
+        
+        BloomFilter filter;
+        
         long replacementSize() {
     		return replacement.size() * valueCount;
     	}
@@ -155,12 +163,18 @@ public class DependentCriteriaProcessor {
     
     private static final int SORT = 2;
     private static final int SET_PROCESSING = 3;
+    /**
+     * The max ratio of the range width to the number of distinct values 
+     * for a range predicate to be used
+     */
+    private static final int RANGE_DENSITY = 2;
 
     //constructor state
     private int maxSetSize;
     private int maxPredicates;
     private RelationalNode dependentNode;
     private boolean pushdown;
+    private boolean supportsRange;
     private boolean useBindings;
     private boolean complexQuery;
 
@@ -224,6 +238,9 @@ public class DependentCriteriaProcessor {
                 }
                 ts.getDepedentSetStates().add(state);
                 state.maxNdv = dsc.getMaxNdv();
+                if (dsc.getMakeDepOptions() == null) {
+                	state.dependentCardinality = dsc.getDependentCardinality();
+                }
             } 
         }        
     }
@@ -309,6 +326,10 @@ public class DependentCriteriaProcessor {
 				}
 			}
 
+			checkRange();
+			checkFullFetch();
+			createFilters();
+
 			//proceed with set based processing
             phase = SET_PROCESSING;
         }
@@ -338,6 +359,146 @@ public class DependentCriteriaProcessor {
         return new CompoundCriteria(CompoundCriteria.AND, crits);
     }
     
+    /**
+     * Now that the actual number of distinct values is known, revert to 
+     * fetching the full dependent side if that is expected to be cheaper
+     * than issuing all of the dependent queries.  The join node will then
+     * perform the join with the full results.
+     */
+    private void checkFullFetch() {
+    	if (this.maxSetSize <= 0 || setStates.isEmpty()) {
+    		return;
+    	}
+    	for (TupleState state : dependentState.values()) {
+    		long distinctCount = state.dvs.getTupleBuffer().getRowCount();
+    		for (SetState setState : state.getDepedentSetStates()) {
+    			if (setState.overMax || setState.rangeCriteria != null || setState.maxNdv > 0) {
+    				//already bounded by the planner
+    				continue;
+    			}
+    			long queries = getQueryCount(setState, distinctCount);
+    			if (NewCalculateCostUtil.isFullFetchCheaper(setState.dependentCardinality, queries)) {
+    				if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+    					LogManager.logDetail(LogConstants.CTX_DQP, "Dependent join", state.valueSource, setState.valueExpression, "would require", queries, "source queries for", distinctCount, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    							"values, using a full fetch of", setState.dependentCardinality, "rows instead"); //$NON-NLS-1$ //$NON-NLS-2$
+    				}
+    				setState.overMax = true;
+    			}
+    		}
+    	}
+    }
+    
+    private long getQueryCount(SetState setState, long distinctCount) {
+    	long perQuery = maxSize * Math.max(1, totalPredicates/setStates.size());
+		return (distinctCount * setState.valueCount)/perQuery + ((distinctCount * setState.valueCount)%perQuery!=0?1:0);
+	}
+    
+    /**
+     * If the values for a single integral attribute are dense, then a single range
+     * predicate may be used instead of multiple source queries.
+     */
+    private void checkRange() throws TeiidComponentException {
+    	if (!this.supportsRange || this.maxSetSize <= 0 || setStates.isEmpty()) {
+    		return;
+    	}
+    	for (Map.Entry<Integer, SetState> entry : setStates.entrySet()) {
+    		SetState setState = entry.getValue();
+    		Expression expr = ((AbstractSetCriteria)queryCriteria.get(entry.getKey())).getExpression();
+    		if (setState.overMax || setState.valueCount != 1 || !isIntegral(expr.getType())) {
+    			continue;
+    		}
+    		TupleState state = dependentState.get(((DependentSetCriteria)queryCriteria.get(entry.getKey())).getContextSymbol());
+    		if (state.getDepedentSetStates().size() != 1) {
+    			//the values must be applied in lock step
+    			continue;
+    		}
+    		long distinctCount = state.dvs.getTupleBuffer().getRowCount();
+    		if (getQueryCount(setState, distinctCount) <= 1) {
+    			continue;
+    		}
+    		Number min = null;
+    		Number max = null;
+    		TupleSourceValueIterator iter = state.dvs.getValueIterator(setState.valueExpression);
+    		while (iter.hasNext()) {
+    			Number value = (Number)iter.next();
+    			if (value == null) {
+    				continue;
+    			}
+    			if (min == null || value.longValue() < min.longValue()) {
+    				min = value;
+    			}
+    			if (max == null || value.longValue() > max.longValue()) {
+    				max = value;
+    			}
+    		}
+    		iter.close();
+    		if (min == null || max.longValue() - min.longValue() >= RANGE_DENSITY * distinctCount) {
+    			continue;
+    		}
+    		setState.rangeCriteria = new CompoundCriteria(CompoundCriteria.AND, 
+    				new CompareCriteria(expr, CompareCriteria.GE, newConstant(min)), 
+    				new CompareCriteria(expr, CompareCriteria.LE, newConstant(max)));
+    		if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+    			LogManager.logDetail(LogConstants.CTX_DQP, "Dependent join", state.valueSource, setState.valueExpression, "using range criteria", setState.rangeCriteria, "for", distinctCount, "values"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    		}
+    	}
+    }
+    
+    private static boolean isIntegral(Class<?> type) {
+    	return type == DataTypeManager.DefaultDataClasses.INTEGER 
+    			|| type == DataTypeManager.DefaultDataClasses.LONG 
+    			|| type == DataTypeManager.DefaultDataClasses.SHORT 
+    			|| type == DataTypeManager.DefaultDataClasses.BYTE;
+    }
+    
+    /**
+     * Create local filters for the inexact dependent criteria so that rows that
+     * cannot match are removed before reaching the join.
+     */
+    private void createFilters() throws TeiidComponentException {
+    	for (SetState setState : setStates.values()) {
+    		if ((!setState.overMax && setState.rangeCriteria == null) || setState.valueCount != 1 
+    				|| !DataTypeManager.isHashable(setState.valueExpression.getType())) {
+    			continue;
+    		}
+    		for (TupleState state : dependentState.values()) {
+    			if (!state.getDepedentSetStates().contains(setState)) {
+    				continue;
+    			}
+    			BloomFilter filter = new BloomFilter(state.dvs.getTupleBuffer().getRowCount());
+    			TupleSourceValueIterator iter = state.dvs.getValueIterator(setState.valueExpression);
+    			while (iter.hasNext()) {
+    				Object value = iter.next();
+    				if (value != null) {
+    					filter.add(value);
+    				}
+    			}
+    			iter.close();
+    			setState.filter = filter;
+    		}
+    	}
+    }
+    
+    /**
+     * @return the local filters keyed by the dependent expression
+     */
+    public Map<Expression, BloomFilter> getFilters() {
+    	Map<Expression, BloomFilter> result = null;
+    	for (Map.Entry<Integer, SetState> entry : setStates.entrySet()) {
+    		if (entry.getValue().filter == null) {
+    			continue;
+    		}
+    		if (result == null) {
+    			result = new LinkedHashMap<Expression, BloomFilter>();
+    		}
+    		result.put(((AbstractSetCriteria)queryCriteria.get(entry.getKey())).getExpression(), entry.getValue().filter);
+    	}
+    	if (result == null) {
+    		return Collections.emptyMap();
+    	}
+    	return result;
+    }
+    
     public void consumedCriteria() {
         // flush only the value iterators starting at the restart index
         // it is only safe to do this after the super call to prepare command
@@ -389,7 +550,7 @@ public class DependentCriteriaProcessor {
 		                boolean lessThanMax = true;
 		
 		                for (SetState state : source) {
-		                	if (state.overMax) {
+		                	if (state.overMax || state.rangeCriteria != null) {
 		                		doneCount++;
 		                		continue;
 		                	}
@@ -463,6 +624,11 @@ public class DependentCriteriaProcessor {
             originalVs.setUnused(true);
     		return QueryRewriter.TRUE_CRITERIA;
     	}
+    	if (state.rangeCriteria != null) {
+            DependentValueSource originalVs = (DependentValueSource)dependentNode.getContext().getVariableContext().getGlobalValue(((DependentSetCriteria)crit).getContextSymbol());
+            originalVs.setUnused(true);
+    		return (Criteria)state.rangeCriteria.clone();
+    	}
     	if (state.replacement.isEmpty()) {
             // No values - return criteria that is always false
             return QueryRewriter.FALSE_CRITERIA;
@@ -514,6 +680,10 @@ public class DependentCriteriaProcessor {
 		this.pushdown = pushdown;
 	}
 	
+	public void setSupportsRange(boolean supportsRange) {
+		this.supportsRange = supportsRange;
+	}
+	
 	public void setUseBindings(boolean useBindings) {
 		this.useBindings = useBindings;
 	}
@@ -31,6 +31,7 @@ import java.util.List;
 import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.common.buffer.IndexedTupleSource;
 import org.teiid.common.buffer.STree;
+import org.teiid.common.buffer.STree.BulkLoader;
 import org.teiid.common.buffer.STree.InsertMode;
 import org.teiid.common.buffer.TupleBrowser;
 import org.teiid.common.buffer.TupleSource;
@@ -178,7 +179,10 @@ public class EnhancedSortMergeJoinStrategy extends MergeJoinStrategy {
     	List<?> lastTuple = null;
     	boolean sortedDistinct = sorted && !state.isExpresssionDistinct();
     	int sizeHint = index.getExpectedHeight(state.getRowCount());
-    	index.setBatchInsert(sorted);
+    	BulkLoader loader = null;
+    	if (sorted) {
+    		loader = index.createBulkLoader();
+    	}
     	outer: while (its.hasNext()) {
     		//detect if sorted and distinct
     		List<?> originalTuple = its.nextTuple();
@@ -196,12 +200,21 @@ public class EnhancedSortMergeJoinStrategy extends MergeJoinStrategy {
     		if (!state.isExpresssionDistinct() && sortOption != SortOption.SORT_DISTINCT) {
     			tuple.add(keyLength - 1, rowId++);
     		}
-    		index.insert(tuple, sorted?InsertMode.ORDERED:InsertMode.NEW, sizeHint);
+    		if (loader != null) {
+    			if (loader.append(tuple)) {
+    				continue;
+    			}
+    			//not actually sorted, such as from a source with a different collation
+    			loader.finish();
+    			loader = null;
+    			sorted = false;
+    		}
+    		index.insert(tuple, InsertMode.NEW, sizeHint);
     	}
-    	if (!sorted) {
-    		index.compact();
+    	if (loader != null) {
+    		loader.finish();
     	} else {
-    		index.setBatchInsert(false);
+    		index.compact();
     	}
     	its.closeSource();
     	this.reverseIndexes = new int[elements.size()];
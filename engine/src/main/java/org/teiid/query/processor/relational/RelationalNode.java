@@ -25,6 +25,7 @@ package org.teiid.query.processor.relational;
 import static org.teiid.query.analysis.AnalysisRecord.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +44,7 @@ import org.teiid.logging.LogManager;
 import org.teiid.logging.MessageLevel;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.processor.BatchCollector.BatchProducer;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.sql.symbol.Expression;
@@ -60,6 +62,8 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
 		Number depAccessEstimate;
 		Number estimateDepJoinCost;
 		Number estimateJoinCost;
+		String feedbackKey;
+		Collection<String> feedbackGroups;
 	}
 
 	static class ProcessingState {
@@ -72,12 +76,17 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
 		List batchRows;
 		boolean lastBatch;
 		boolean closed;
+		//shared by all executions of the node, see StatisticsFeedback.Observation
+		StatisticsFeedback.Observation observation;
 		
 		void reset() {
 			this.beginBatch = 1;
 			this.batchRows = null;
 			this.lastBatch = false;
 			this.closed = false;
+			if (this.observation != null) {
+				this.observation.startExecution();
+			}
 		}
 	}
 
@@ -280,6 +289,9 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
                     this.getProcessingState().nodeStatistics.startBatchTimer();
                 }
                 TupleBatch batch = nextBatchDirect();
+                if (this.data.feedbackKey != null) {
+                	recordFeedback(batch);
+                }
                 if (recordStats) {
                     // stop timer for this batch (normal)
                     this.getProcessingState().nodeStatistics.stopBatchTimer();
@@ -316,6 +328,22 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         }
     }
 
+    /**
+     * Count the rows produced.  The average over all executions of the node is recorded 
+     * once processing is closed, see {@link CommandContext#recordObservations()}
+     */
+    private void recordFeedback(TupleBatch batch) {
+    	ProcessingState state = this.getProcessingState();
+    	if (state.context == null) {
+    		return;
+    	}
+    	if (state.observation == null || state.observation.isRecorded()) {
+    		state.observation = new StatisticsFeedback.Observation(this.data.feedbackKey, this.data.feedbackGroups, this.data.estimateNodeCardinality);
+    		state.context.addObservation(state.observation);
+    	}
+    	state.observation.addRows(batch.getRowCount(), batch.getTerminationFlag());
+    }
+
     /**
      * Template method for subclasses to implement. 
      * @return
@@ -566,6 +594,15 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         this.data.estimateJoinCost = estimateJoinCost;
     }
     
+    /**
+     * Set the key used to record the actual cardinality of this node
+     * @param groups the groups of the fragment 
+     */
+    public void setFeedbackKey(String feedbackKey, Collection<String> groups) {
+		this.data.feedbackKey = feedbackKey;
+		this.data.feedbackGroups = groups;
+	}
+    
     private List<String> getCostEstimates() {
         List<String> costEstimates = new ArrayList<String>();
         if(this.data.estimateNodeCardinality != null) {
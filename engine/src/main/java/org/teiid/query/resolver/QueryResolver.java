@@ -440,7 +440,7 @@ public class QueryResolver {
         	List<String> bindings = null;
             if (result == null) {
                 try {
-                	result = QueryParser.getQueryParser().parseCommand(qnode.getQuery());
+                	result = QueryParser.getQueryParser().parseDefinition(qnode.getQuery());
                 } catch(QueryParserException e) {
                      throw new QueryResolverException(QueryPlugin.Event.TEIID30065, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30065, virtualGroup));
                 }
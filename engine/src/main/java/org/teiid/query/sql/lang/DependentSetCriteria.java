@@ -66,6 +66,10 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
     
     private float[] ndvs;
     private float[] maxNdvs;
+    /**
+     * The estimated cardinality of the dependent side without this criteria
+     */
+    private float dependentCardinality = NewCalculateCostUtil.UNKNOWN_VALUE;
     
     /**
      * set only for dependent pushdown
@@ -132,6 +136,14 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
 		this.maxNdv = maxNdv;
 	}
     
+    public float getDependentCardinality() {
+		return dependentCardinality;
+	}
+    
+    public void setDependentCardinality(float dependentCardinality) {
+		this.dependentCardinality = dependentCardinality;
+	}
+    
     public float getNdv() {
 		return ndv;
 	}
@@ -219,6 +231,7 @@ public class DependentSetCriteria extends AbstractSetCriteria implements Context
         criteriaCopy.maxNdvs = this.maxNdvs;
         criteriaCopy.ndvs = this.ndvs;
         criteriaCopy.makeDepOptions = this.makeDepOptions;
+        criteriaCopy.dependentCardinality = this.dependentCardinality;
         return criteriaCopy;
     }
     
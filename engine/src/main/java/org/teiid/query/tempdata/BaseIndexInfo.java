@@ -61,6 +61,10 @@ public class BaseIndexInfo<T extends SearchableTable> {
 	boolean covering;
 	CompoundCriteria nonCoveredCriteria = null;
 	CompoundCriteria coveredCriteria = null;
+	//range bounds following an equality prefix
+	private int rangeIndex = -1;
+	private List<Object> prefixLower = null;
+	private List<Object> prefixUpper = null;
 	
 	public BaseIndexInfo(T table, final List<? extends Expression> projectedCols, final Criteria condition, OrderBy orderBy, boolean primary) {
 		this.table = table;
@@ -194,6 +198,13 @@ public class BaseIndexInfo<T extends SearchableTable> {
 				}
 			}
 		}
+		if (rangeIndex > 0 && valueSet.size() == 1 && valueSet.get(0).size() == rangeIndex) {
+			//convert the equality prefix into a multi-column range
+			List<Object> prefix = valueSet.get(0);
+			lower = prefixLower != null?prefixLower:new ArrayList<Object>(prefix);
+			upper = prefixUpper != null?prefixUpper:new ArrayList<Object>(prefix);
+			valueSet.clear();
+		}
 	}
 
 	private void getRegexPrefix(String pattern, char escapeChar,
@@ -246,7 +257,12 @@ public class BaseIndexInfo<T extends SearchableTable> {
 				if (lower != null) {
 					buildSearchRow(i, match, value2, lower);
 				}
-			} 
+			} else if (isPrefixRange(i)) {
+				if (prefixLower == null) {
+					prefixLower = new ArrayList<Object>(valueSet.get(0));
+					buildSearchRow(i, match, value2, prefixLower);
+				}
+			}
 			break;
 		case CompareCriteria.LE:
 		case CompareCriteria.LT:
@@ -257,11 +273,27 @@ public class BaseIndexInfo<T extends SearchableTable> {
 				if (upper != null) {
 					buildSearchRow(i, match, value2, upper);
 				}
+			} else if (isPrefixRange(i)) {
+				if (prefixUpper == null) {
+					prefixUpper = new ArrayList<Object>(valueSet.get(0));
+					buildSearchRow(i, match, value2, prefixUpper);
+				}
 			}
 			break;
 		}
 	}
 
+	/**
+	 * Return true if a range on column i can extend the single equality prefix
+	 */
+	private boolean isPrefixRange(int i) {
+		if (i == 0 || valueSet.size() != 1 || valueSet.get(0).size() != i || (rangeIndex != -1 && rangeIndex != i)) {
+			return false;
+		}
+		rangeIndex = i;
+		return true;
+	}
+
 	private void buildSearchRow(int i, Object match, Object value2,
 			List<Object> toSearch) {
 		if (toSearch.size() != i) {
@@ -358,6 +390,13 @@ public class BaseIndexInfo<T extends SearchableTable> {
 		Collections.sort(getValueSet(), new ListNestedSortComparator(sortOn, direction).defaultNullOrder(nullOrder));
 	}
 	
+	/**
+	 * @return true if the index restricts the search by key values or a key range 
+	 */
+	public boolean isKeyed() {
+		return !valueSet.isEmpty() || lower != null || upper != null;
+	}
+	
 	public Criteria getCoveredCriteria() {
 		return coveredCriteria;
 	}
@@ -22,6 +22,11 @@
 
 package org.teiid.query.tempdata;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -32,12 +37,14 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.api.exception.query.QueryMetadataException;
@@ -48,6 +55,9 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.ExecutorUtils;
+import org.teiid.core.util.PropertiesUtils;
+import org.teiid.core.util.StringUtil;
 import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.dqp.message.RequestID;
 import org.teiid.language.SQLConstants;
@@ -86,6 +96,8 @@ import org.teiid.query.tempdata.TempTableStore.TransactionMode;
 public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<String> {
 	
 	private static final String TEIID_FBI = "teiid:fbi"; //$NON-NLS-1$
+	private static final int CHECKPOINT_VERSION = 1;
+	private static final boolean SHARE_PAGE_VALUES = PropertiesUtils.getBooleanProperty(System.getProperties(), "org.teiid.shareMatViewPageValues", false); //$NON-NLS-1$
 
 	public enum MatState {
 		NEEDS_LOADING,
@@ -101,6 +113,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		private long ttl = -1;
 		private boolean valid;
 		private boolean asynch; //sub state of loading
+		private boolean restoring; //sub state of loading
 		private Map<RequestID, WeakReference<RequestWorkItem>> waiters = new HashMap<RequestID, WeakReference<RequestWorkItem>>(2);
 		
 		protected MatTableInfo() {}
@@ -127,7 +140,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 			case LOADED:
 				if (!firstPass
 						|| refresh 
-						|| (ttl >= 0 && System.currentTimeMillis() - updateTime - ttl > 0)) {
+						|| (ttl >= 0 && currentTimeMillis() - updateTime - ttl > 0)) {
 					if (firstPass) {
 						setState(MatState.NEEDS_LOADING, null);
 					} else {
@@ -144,13 +157,14 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		
 		private synchronized void setState(MatState state, Boolean valid) {
 			MatState oldState = this.state;
-			long timestamp = System.currentTimeMillis();
+			long timestamp = currentTimeMillis();
 			LogManager.logDetail(LogConstants.CTX_MATVIEWS, this, "setting matState to", state, valid, timestamp, "old values", oldState, this.valid); //$NON-NLS-1$ //$NON-NLS-2$
 			if (valid != null) {
 				this.valid = valid;
 			}
 			this.state = state;
-			this.updateTime = System.currentTimeMillis();
+			this.updateTime = timestamp;
+			this.restoring = false;
 			for (WeakReference<RequestWorkItem> request : waiters.values()) {
 				RequestWorkItem workItem = request.get();
 				if (workItem != null) {
@@ -178,7 +192,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		}
 		
 		public synchronized boolean isUpToDate() {
-			return isValid() && (ttl < 0 || System.currentTimeMillis() - updateTime - ttl <= 0);
+			return isValid() && (ttl < 0 || currentTimeMillis() - updateTime - ttl <= 0);
 		}
 		
 		public synchronized boolean isValid() {
@@ -211,6 +225,8 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 	private QueryMetadataInterface metadata;
 	private volatile Serializable localAddress;
 	private VDBMetaData vdbMetaData;
+	private File persistentDirectory;
+	private Executor persistentExecutor;
 	
 	public GlobalTableStoreImpl(BufferManager bufferManager, VDBMetaData vdbMetaData, QueryMetadataInterface metadata) {
 		this.bufferManager = bufferManager;
@@ -218,6 +234,44 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		this.metadata = new TempMetadataAdapter(metadata, new TempMetadataStore());
 	}
 
+	/**
+	 * Set the directory used to checkpoint materialized views marked with
+	 * {@link MaterializationMetadataRepository#MATVIEW_PERSISTENT}.  If null, which is the default,
+	 * no checkpoints are written or restored.
+	 */
+	public void setPersistentDirectory(File persistentDirectory) {
+		this.persistentDirectory = persistentDirectory;
+	}
+	
+	public File getPersistentDirectory() {
+		return persistentDirectory;
+	}
+	
+	/**
+	 * Set the executor used to write and restore checkpoints off of the request threads.
+	 * Checkpoint tasks are expected to run in submission order.
+	 * <br>
+	 * If not set, a single thread executor is created when the first checkpoint task is submitted.
+	 * Its thread is not kept when idle, so it does not need to be shutdown.
+	 */
+	public synchronized void setPersistentExecutor(Executor persistentExecutor) {
+		this.persistentExecutor = persistentExecutor;
+	}
+	
+	private synchronized Executor getPersistentExecutor() {
+		if (persistentExecutor == null) {
+			persistentExecutor = ExecutorUtils.newFixedThreadPool(1, "Materialization Checkpoint"); //$NON-NLS-1$
+		}
+		return persistentExecutor;
+	}
+	
+	/**
+	 * @return the time used to determine the update time and ttl expiration of the mat tables
+	 */
+	protected long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
 	public synchronized MatTableInfo getMatTableInfo(final String tableName) {
 		MatTableInfo info = matTables.get(tableName);
 		if (info == null) {
@@ -251,6 +305,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		GroupSymbol group = new GroupSymbol(matViewName);
 		group.setMetadataID(viewId);
 		TempMetadataID id = tableStore.getMetadataStore().getTempGroupID(matTableName);
+		boolean defined = false;
 		//define the table preserving the key/index information and ensure that only a single instance exists
 		if (id == null) {
 			synchronized (viewId) {
@@ -307,6 +362,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 						}
 					}
 					id = tableStore.getMetadataStore().addTempGroup(matTableName, allCols, false, true);
+					defined = true;
 					id.setQueryNode(qnode);
 					id.setCardinality((int)metadata.getCardinality(viewId));
 					id.setOriginalMetadataID(viewId);
@@ -345,6 +401,9 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 			}
 		}
 		updateCacheHint(viewId, group, id);
+		if (defined && isPersistent(matTableName)) {
+			startRestore(matTableName);
+		}
 		return id;
 	}
 	
@@ -424,6 +483,143 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 	public void loaded(String matTableName, TempTable table) {
 		swapTempTable(matTableName, table);
 		this.getMatTableInfo(matTableName).setState(MatState.LOADED, true);
+		if (isPersistent(matTableName)) {
+			final String name = matTableName;
+			getPersistentExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					checkpoint(name);
+				}
+			});
+		}
+	}
+	
+	private boolean isPersistent(String matTableName) {
+		if (persistentDirectory == null || !matTableName.startsWith(RelationalPlanner.MAT_PREFIX)) {
+			return false;
+		}
+		TempMetadataID id = this.tableStore.getMetadataStore().getTempGroupID(matTableName);
+		if (id == null || id.getOriginalMetadataID() == null) {
+			return false;
+		}
+		return Boolean.valueOf(metadata.getExtensionProperty(id.getOriginalMetadataID(), MaterializationMetadataRepository.MATVIEW_PERSISTENT, false));
+	}
+	
+	File getCheckpointFile(String matTableName) {
+		return new File(persistentDirectory, matTableName + ".mat"); //$NON-NLS-1$
+	}
+	
+	/**
+	 * A checkpoint is only usable against the same table definition.
+	 * The signature is composed of the column names, types and the load query.
+	 */
+	private String getCheckpointSignature(String matTableName) {
+		TempMetadataID id = this.tableStore.getMetadataStore().getTempGroupID(matTableName);
+		StringBuilder sb = new StringBuilder();
+		for (TempMetadataID element : id.getElements()) {
+			sb.append(element.getName()).append(' ').append(DataTypeManager.getDataTypeName(element.getType())).append(',');
+		}
+		if (id.getQueryNode() != null) {
+			sb.append(id.getQueryNode().getQuery());
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Write the table using the replication format to the checkpoint file.
+	 * The file is first written to a temporary location so that a partial write
+	 * will not be seen on restart.
+	 */
+	private void checkpoint(String matTableName) {
+		File file = getCheckpointFile(matTableName);
+		File temp = new File(persistentDirectory, matTableName + ".tmp"); //$NON-NLS-1$
+		ObjectOutputStream oos = null;
+		try {
+			persistentDirectory.mkdirs();
+			oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+			oos.writeInt(CHECKPOINT_VERSION);
+			oos.writeObject(getCheckpointSignature(matTableName));
+			sendTable(matTableName, oos, false);
+			oos.close();
+			oos = null;
+			file.delete();
+			if (!temp.renameTo(file)) {
+				throw new IOException(file.getAbsolutePath());
+			}
+			LogManager.logDetail(LogConstants.CTX_MATVIEWS, "wrote checkpoint", matTableName, file); //$NON-NLS-1$
+		} catch (Exception e) {
+			LogManager.logWarning(LogConstants.CTX_MATVIEWS, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31255, matTableName, file));
+			temp.delete();
+		} finally {
+			if (oos != null) {
+				try {
+					oos.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+	
+	/**
+	 * If a checkpoint exists, place the table in the loading state and restore it with the
+	 * persistent executor.  Requests for the table will wait for the restore as they would for a load.
+	 */
+	private void startRestore(final String matTableName) {
+		if (!getCheckpointFile(matTableName).exists()) {
+			return;
+		}
+		MatTableInfo info = getMatTableInfo(matTableName);
+		synchronized (info) {
+			if (info.state != MatState.NEEDS_LOADING) {
+				return;
+			}
+			info.loadingAddress = localAddress;
+			info.setState(MatState.LOADING, null);
+			info.restoring = true;
+		}
+		getPersistentExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				restore(matTableName);
+			}
+		});
+	}
+	
+	/**
+	 * Restore the table from its checkpoint.  The checkpoint update time is retained, 
+	 * so a table that is past its ttl will be served while it is asynchly refreshed.
+	 * If the table is not restored, it is returned to the needs loading state.
+	 */
+	private void restore(String matTableName) {
+		File file = getCheckpointFile(matTableName);
+		ObjectInputStream ois = null;
+		try {
+			ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (ois.readInt() != CHECKPOINT_VERSION || !getCheckpointSignature(matTableName).equals(ois.readObject())) {
+				LogManager.logDetail(LogConstants.CTX_MATVIEWS, "discarding incompatible checkpoint", matTableName, file); //$NON-NLS-1$
+				ois.close();
+				ois = null;
+				file.delete();
+			} else {
+				loadTable(matTableName, ois, true);
+				LogManager.logDetail(LogConstants.CTX_MATVIEWS, "restored from checkpoint", matTableName, file); //$NON-NLS-1$
+			}
+		} catch (Exception e) {
+			LogManager.logWarning(LogConstants.CTX_MATVIEWS, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31256, matTableName, file));
+		} finally {
+			if (ois != null) {
+				try {
+					ois.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		MatTableInfo info = getMatTableInfo(matTableName);
+		synchronized (info) {
+			if (info.restoring) {
+				info.setState(MatState.NEEDS_LOADING, null);
+			}
+		}
 	}
 	
 	private void swapTempTable(String tempTableName, TempTable tempTable) {
@@ -445,6 +641,17 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 				if (clone) {
 					swapTempTable(matTableName, tempTable);
 				}
+				if (isPersistent(matTableName)) {
+					//the checkpoint no longer reflects the table contents
+					//ordered after any pending checkpoint write
+					final File file = getCheckpointFile(matTableName);
+					getPersistentExecutor().execute(new Runnable() {
+						@Override
+						public void run() {
+							file.delete();
+						}
+					});
+				}
 				return result;
 			}
 		}
@@ -461,6 +668,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		Create create = getCreateCommand(group, true, metadata);
 		TempTable table = tableStore.addTempTable(tableName, create, bufferManager, false, null);
 		table.setUpdatable(false);
+		table.getTree().setShareValues(SHARE_PAGE_VALUES);
 		CacheHint hint = table.getCacheHint();
 		if (hint != null) {
 			table.setPreferMemory(hint.isPrefersMemory());
@@ -512,6 +720,37 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		}
 		return pkColumns;
 	}
+	
+	/**
+	 * Resolve the {@link KeyRecord#INCLUDE} columns of the given index
+	 */
+	public static List<ElementSymbol> resolveIncluded(QueryMetadataInterface metadata, List<ElementSymbol> allColumns, Object index)
+			throws TeiidComponentException, QueryMetadataException {
+		if (index instanceof List) {
+			//unique keys are only tracked by their columns
+			return Collections.emptyList();
+		}
+		String included = metadata.getExtensionProperty(index, KeyRecord.INCLUDE, false);
+		if (included == null) {
+			return Collections.emptyList();
+		}
+		List<ElementSymbol> result = new ArrayList<ElementSymbol>();
+		for (String name : StringUtil.split(included, ",")) { //$NON-NLS-1$
+			name = name.trim();
+			ElementSymbol match = null;
+			for (ElementSymbol es : allColumns) {
+				if (es.getShortName().equalsIgnoreCase(name)) {
+					match = es;
+					break;
+				}
+			}
+			if (match == null) {
+				throw new QueryMetadataException(QueryPlugin.Event.TEIID31254, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31254, name, metadata.getFullName(index), allColumns.get(0).getGroupSymbol()));
+			}
+			result.add(match);
+		}
+		return result;
+	}
 
 	//begin replication methods
 	
@@ -550,7 +789,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 				if (tableName == null) {
 					break;
 				}
-				loadTable(tableName, ois);
+				loadTable(tableName, ois, false);
 			}
 			ois.close();
 		} catch (Exception e) {
@@ -594,7 +833,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 	public void setState(String stateId, InputStream istream) {
 		try {
 			ObjectInputStream ois = new ObjectInputStream(istream);
-			loadTable(stateId, ois);
+			loadTable(stateId, ois, false);
 			ois.close();
 		} catch (Exception e) {
 			MatTableInfo info = this.getMatTableInfo(stateId);
@@ -605,7 +844,10 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		}
 	}
 
-	private void loadTable(String stateId, ObjectInputStream ois)
+	/**
+	 * @param onlyIfNeeded true if the table should only be loaded if it is still being restored
+	 */
+	private void loadTable(String stateId, ObjectInputStream ois, boolean onlyIfNeeded)
 			throws TeiidComponentException, QueryMetadataException,
 			IOException,
 			ClassNotFoundException, TeiidProcessingException {
@@ -630,8 +872,14 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
 		}
 		TempTable tempTable = this.createMatTable(stateId, group);
 		tempTable.readFrom(ois);
+		tempTable.updateStatistics();
 		MatTableInfo info = this.getMatTableInfo(stateId);
 		synchronized (info) {
+			if (onlyIfNeeded && !info.restoring) {
+				//a load has already started
+				tempTable.remove();
+				return;
+			}
 			swapTempTable(stateId, tempTable);
 			info.setState(state, true);
 			info.updateTime = updateTime;
@@ -43,6 +43,7 @@ import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.common.buffer.*;
 import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.STree.BulkLoader;
 import org.teiid.common.buffer.STree.InsertMode;
 import org.teiid.common.buffer.TupleBuffer.TupleBufferTupleSource;
 import org.teiid.core.TeiidComponentException;
@@ -56,6 +57,7 @@ import org.teiid.query.QueryPlugin;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.processor.CollectionTupleSource;
+import org.teiid.query.processor.relational.ListNestedSortComparator;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.SortUtility;
 import org.teiid.query.processor.relational.SortUtility.Mode;
@@ -85,6 +87,9 @@ public class TempTable implements Cloneable, SearchableTable {
 		private GeneratedKeysImpl keys;
 		private boolean upsert;
         private TupleBuffer upsertUndoLog;
+        private boolean ordered;
+        private List<?> lastTuple;
+        private BulkLoader loader;
 		
 		private InsertUpdateProcessor(TupleSource ts, boolean addRowId, int[] indexes, boolean canUndo, boolean upsert)
 				throws TeiidComponentException {
@@ -103,12 +108,16 @@ public class TempTable implements Cloneable, SearchableTable {
 		@Override
 		long process() throws ExpressionEvaluationException,
 				TeiidComponentException, TeiidProcessingException {
-			tree.setBatchInsert(addRowId);
+			tree.setBatchInsert(addRowId || ordered);
+			if (ordered && tree.getRowCount() == 0) {
+				loader = tree.createBulkLoader();
+			}
 			return super.process();
 		}
 		
 		@Override
 		protected void afterCompletion(boolean success) throws TeiidComponentException {
+			finishBulkLoad();
 		    if (!success && upsertUndoLog != null) {
 		        upsertUndoLog.setFinal(true);
                 TupleBufferTupleSource undoTs = upsertUndoLog.createIndexedTupleSource();
@@ -185,12 +194,40 @@ public class TempTable implements Cloneable, SearchableTable {
 			    currentTuple = null;
 			    return;
 			}
-			insertTuple(tuple, addRowId, true);
+			boolean inOrder = addRowId;
+			if (ordered && !addRowId) {
+				if (lastTuple != null) {
+					int compare = tree.getComparator().compare(lastTuple, tuple);
+					if (compare == 0) {
+						throw new TeiidProcessingException(QueryPlugin.Event.TEIID30238, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30238, tid.getID()));
+					}
+					inOrder = compare < 0;
+				} else {
+					inOrder = tree.getRowCount() == 0;
+				}
+				if (inOrder) {
+					lastTuple = tuple;
+				}
+			}
+			if (loader != null) {
+				if (inOrder && loader.append(tuple)) {
+					return;
+				}
+				finishBulkLoad();
+			}
+			insertTuple(tuple, inOrder, true);
 			if (generatedKey != null) {
 				this.keys.addKey(generatedKey);
 			}
 		}
 
+		private void finishBulkLoad() throws TeiidComponentException {
+			if (loader != null) {
+				loader.finish();
+				loader = null;
+			}
+		}
+
 		@Override
 		protected void undo(List<?> tuple) throws TeiidComponentException,
 				TeiidProcessingException {
@@ -275,6 +312,46 @@ public class TempTable implements Cloneable, SearchableTable {
 
 	}
 
+	/**
+	 * Merges two key ordered sources returning only the keys present in both
+	 */
+	private static final class IntersectTupleSource implements TupleSource {
+		private TupleSource left;
+		private TupleSource right;
+		private ListNestedSortComparator comparator;
+
+		private IntersectTupleSource(TupleSource left, TupleSource right, ListNestedSortComparator comparator) {
+			this.left = left;
+			this.right = right;
+			this.comparator = comparator;
+		}
+
+		@Override
+		public List<?> nextTuple() throws TeiidComponentException,
+				TeiidProcessingException {
+			List<?> leftTuple = left.nextTuple();
+			List<?> rightTuple = right.nextTuple();
+			while (leftTuple != null && rightTuple != null) {
+				int compare = comparator.compare(leftTuple, rightTuple);
+				if (compare == 0) {
+					return leftTuple;
+				}
+				if (compare < 0) {
+					leftTuple = left.nextTuple();
+				} else {
+					rightTuple = right.nextTuple();
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void closeSource() {
+			left.closeSource();
+			right.closeSource();
+		}
+	}
+
 	private abstract class UpdateProcessor {
 		private TupleSource ts;
 		protected Evaluator eval;
@@ -469,18 +546,37 @@ public class TempTable implements Cloneable, SearchableTable {
 	}
 	
 	void addIndex(List<ElementSymbol> indexColumns, boolean unique) throws TeiidComponentException, TeiidProcessingException {
+		addIndex(indexColumns, Collections.<ElementSymbol>emptyList(), unique);
+	}
+	
+	/**
+	 * Add a secondary index.  The included columns are stored in the index, but are not part of the key,
+	 * so that queries referencing only those columns can be answered from the index alone.
+	 */
+	void addIndex(List<ElementSymbol> indexColumns, List<ElementSymbol> includedColumns, boolean unique) throws TeiidComponentException, TeiidProcessingException {
 		List<ElementSymbol> keyColumns = columns.subList(0, tree.getKeyLength());
 		if (keyColumns.equals(indexColumns) || (indexTables != null && indexTables.containsKey(indexColumns))) {
 			return;
 		}
-		TempTable indexTable = createIndexTable(indexColumns, unique);
-		//TODO: ordered insert optimization
+		TempTable indexTable = createIndexTable(indexColumns, includedColumns, unique);
 		TupleSource ts = createTupleSource(indexTable.getColumns(), null, null);
-		indexTable.insert(ts, indexTable.getColumns(), false, false, null);
+		//sort by the index key so that the index can be bulk loaded
+		SortUtility sort = new SortUtility(ts, new OrderBy(indexTable.columns.subList(0, indexTable.tree.getKeyLength())).getOrderByItems(), Mode.SORT, bm, sessionID, indexTable.getColumns());
+		TupleBuffer tb = null;
+		try {
+			tb = sort.sort();
+		} finally {
+			ts.closeSource();
+		}
+		try {
+			indexTable.insertOrdered(tb.createIndexedTupleSource(true), indexTable.getColumns());
+		} finally {
+			tb.remove();
+		}
 		indexTable.getTree().compact();
 	}
 
-	private TempTable createIndexTable(List<ElementSymbol> indexColumns,
+	private TempTable createIndexTable(List<ElementSymbol> indexColumns, List<ElementSymbol> includedColumns,
 			boolean unique) {
 		List<ElementSymbol> allColumns = new ArrayList<ElementSymbol>(indexColumns);
 		for (ElementSymbol elementSymbol : columns.subList(0, tree.getKeyLength())) {
@@ -488,20 +584,67 @@ public class TempTable implements Cloneable, SearchableTable {
 				allColumns.add(elementSymbol);
 			}
 		}
-		TempTable indexTable = new TempTable(new TempMetadataID("idx", Collections.EMPTY_LIST), this.bm, allColumns, allColumns.size(), this.sessionID); //$NON-NLS-1$
+		int keyLength = allColumns.size();
+		for (ElementSymbol elementSymbol : includedColumns) {
+			if (allColumns.indexOf(elementSymbol) < 0) {
+				allColumns.add(elementSymbol);
+			}
+		}
+		TempTable indexTable = new TempTable(new TempMetadataID("idx", Collections.EMPTY_LIST), this.bm, allColumns, keyLength, this.sessionID); //$NON-NLS-1$
 		indexTable.setPreferMemory(this.tree.isPreferMemory());
+		indexTable.tree.setShareValues(this.tree.isShareValues());
 		indexTable.lock = this.lock;
 		if (unique) {
 			indexTable.uniqueColIndex = indexColumns.size();
 		}
 		if (indexTables == null) {
 			indexTables = new LinkedHashMap<List<ElementSymbol>, TempTable>();
-			indexTables.put(indexColumns, indexTable);
 		}
+		indexTables.put(indexColumns, indexTable);
 		indexTable.setUpdatable(this.updatable);
 		return indexTable;
 	}
 	
+	/**
+	 * Update the distinct value estimates of the leading key column of this table and each index
+	 * so that the planner can use them for selectivity estimates.
+	 */
+	void updateStatistics() throws TeiidComponentException, TeiidProcessingException {
+		lock.readLock().lock();
+		try {
+			updateDistinctValues(this);
+			if (indexTables != null) {
+				for (TempTable index : indexTables.values()) {
+					updateDistinctValues(index);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private static void updateDistinctValues(TempTable table) throws TeiidComponentException, TeiidProcessingException {
+		if (table.getPkLength() == 0 || !(table.columns.get(0).getMetadataID() instanceof TempMetadataID)) {
+			return;
+		}
+		long distinct = 0;
+		TupleBrowser browser = new TupleBrowser(table.tree, null, null, OrderBy.ASC, true);
+		try {
+			Object last = null;
+			List<?> next = null;
+			while ((next = browser.nextTuple()) != null) {
+				Object value = next.get(0);
+				if (value != null && (last == null || !value.equals(last))) {
+					distinct++;
+				}
+				last = value;
+			}
+		} finally {
+			browser.closeSource();
+		}
+		((TempMetadataID)table.columns.get(0).getMetadataID()).setDistinctValues(distinct);
+	}
+	
 	private int reserveBuffers() {
 		return bm.reserveBuffers(leafBatchSize + (tree.getHeight() - 1)*keyBatchSize, BufferReserveMode.FORCE);
 	}
@@ -528,12 +671,21 @@ public class TempTable implements Cloneable, SearchableTable {
 			LogManager.logDetail(LogConstants.CTX_DQP, "Considering indexes on table", this, "for query", projectedCols, condition, orderBy); //$NON-NLS-1$ //$NON-NLS-2$
 			long rowCost = this.tree.getRowCount();
 			long bestCost = estimateCost(orderBy, ii, rowCost);
+			IndexInfo intersect = null;
+			long intersectCost = rowCost;
 			for (TempTable table : this.indexTables.values()) {
 				IndexInfo secondary = new IndexInfo(table, projectedCols, condition, orderBy, false);
 				long cost = estimateCost(orderBy, secondary, rowCost);
 				if (cost < bestCost) {
+					if (ii != primary && ii.isKeyed() && bestCost < intersectCost) {
+						intersect = ii;
+						intersectCost = bestCost;
+					}
 					ii = secondary;
 					bestCost = cost;
+				} else if (secondary.isKeyed() && cost < intersectCost) {
+					intersect = secondary;
+					intersectCost = cost;
 				}
 			}
 			LogManager.logDetail(LogConstants.CTX_DQP, "Choose index", ii.table, "covering:", ii.coveredCriteria,"ordering:", ii.ordering); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -544,7 +696,7 @@ public class TempTable implements Cloneable, SearchableTable {
 			if (ii.ordering != null) {
 				//use order and join
 				primary.valueTs = ii.table.createTupleSource(pkColumns, 
-						ii.coveredCriteria, orderBy, ii, agg);
+						ii.coveredCriteria, orderBy, ii, false);
 				primary.ordering = null;
 				return createTupleSource(projectedCols, ii.nonCoveredCriteria, null, primary, agg);
 			} 
@@ -554,7 +706,13 @@ public class TempTable implements Cloneable, SearchableTable {
 				pkOrderBy.addVariable(elementSymbol);
 			}
 			primary.valueTs = ii.table.createTupleSource(pkColumns, 
-					ii.coveredCriteria, pkOrderBy, ii, agg);
+					ii.coveredCriteria, pkOrderBy, ii, false);
+			if (intersect != null && ii.isKeyed()) {
+				//intersect the key values from both indexes prior to the primary lookup
+				LogManager.logDetail(LogConstants.CTX_DQP, "Intersecting with index", intersect.table, "covering:", intersect.coveredCriteria); //$NON-NLS-1$ //$NON-NLS-2$
+				TupleSource other = intersect.table.createTupleSource(pkColumns, intersect.coveredCriteria, pkOrderBy, intersect, false);
+				primary.valueTs = new IntersectTupleSource(primary.valueTs, other, this.tree.getComparator());
+			}
 			return createTupleSource(projectedCols, ii.nonCoveredCriteria, orderBy, primary, agg);
 		}
 		return createTupleSource(projectedCols, condition, orderBy, ii, agg);
@@ -715,20 +873,13 @@ public class TempTable implements Cloneable, SearchableTable {
 	}
 	
 	public TupleSource insert(TupleSource tuples, final List<ElementSymbol> variables, boolean canUndo, boolean upsert, CommandContext context) throws TeiidComponentException, ExpressionEvaluationException, TeiidProcessingException {
-		List<ElementSymbol> cols = getColumns();
-		final int[] indexes = new int[cols.size()];
-		boolean shouldProject = false;
-		for (int i = 0; i < cols.size(); i++) {
-			indexes[i] = variables.indexOf(cols.get(i));
-			shouldProject |= (indexes[i] != i);
-		}
-		InsertUpdateProcessor up = new InsertUpdateProcessor(tuples, rowId != null, shouldProject?indexes:null, canUndo, upsert);
+		InsertUpdateProcessor up = createInsertProcessor(tuples, variables, canUndo, upsert);
 		if (context != null && context.isReturnAutoGeneratedKeys() && rowId == null) {
 			List<String> colNames = null;
 			List<Class<?>> colTypes = null;
 			for (int i = 0; i < tree.getKeyLength(); i++) {
 				TempMetadataID col = tid.getElements().get(i);
-				if (col.isAutoIncrement() && indexes[i] == -1) {
+				if (col.isAutoIncrement() && up.indexes != null && up.indexes[i] == -1) {
 					if (colNames == null) {
 						colNames = new ArrayList<String>();
 						colTypes = new ArrayList<Class<?>>();
@@ -749,6 +900,33 @@ public class TempTable implements Cloneable, SearchableTable {
         return CollectionTupleSource.createUpdateCountArrayTupleSource(updateCount);
     }
 	
+	/**
+	 * Insert tuples that are already sorted by the primary key.  Rather than searching the
+	 * tree for each tuple, in order tuples are appended to the last leaf using {@link InsertMode#ORDERED}.
+	 * Any out of order tuple is inserted normally.
+	 */
+	public long insertOrdered(TupleSource tuples, final List<ElementSymbol> variables) throws TeiidComponentException, ExpressionEvaluationException, TeiidProcessingException {
+		InsertUpdateProcessor up = createInsertProcessor(tuples, variables, false, false);
+		up.ordered = true;
+		long updateCount = up.process();
+		tid.setCardinality(tree.getRowCount());
+		tid.getTableData().dataModified(updateCount);
+		return updateCount;
+	}
+
+	private InsertUpdateProcessor createInsertProcessor(TupleSource tuples,
+			final List<ElementSymbol> variables, boolean canUndo, boolean upsert)
+			throws TeiidComponentException {
+		List<ElementSymbol> cols = getColumns();
+		final int[] indexes = new int[cols.size()];
+		boolean shouldProject = false;
+		for (int i = 0; i < cols.size(); i++) {
+			indexes[i] = variables.indexOf(cols.get(i));
+			shouldProject |= (indexes[i] != i);
+		}
+		return new InsertUpdateProcessor(tuples, rowId != null, shouldProject?indexes:null, canUndo, upsert);
+	}
+	
 	public TupleSource update(Criteria crit, final SetClauseList update) throws TeiidComponentException, ExpressionEvaluationException, TeiidProcessingException {
 		final boolean primaryKeyChangePossible = canChangePrimaryKey(update);
 		final TupleBrowser browser = createTupleBrower(crit, OrderBy.ASC);
@@ -877,7 +1055,13 @@ public class TempTable implements Cloneable, SearchableTable {
 					for (ElementSymbol es : entry.getKey()) {
 						oos.writeInt(this.columnMap.get(es));
 					}
-					entry.getValue().writeTo(oos);
+					TempTable index = entry.getValue();
+					List<ElementSymbol> included = index.columns.subList(index.tree.getKeyLength(), index.columns.size());
+					oos.writeInt(included.size());
+					for (ElementSymbol es : included) {
+						oos.writeInt(this.columnMap.get(es));
+					}
+					index.writeTo(oos);
 				}
 			}
 		} finally {
@@ -896,7 +1080,13 @@ public class TempTable implements Cloneable, SearchableTable {
 				int colIndex = ois.readInt();
 				indexColumns.add(this.columns.get(colIndex));
 			}
-			TempTable tt = this.createIndexTable(indexColumns, unique);
+			int numIncluded = ois.readInt();
+			ArrayList<ElementSymbol> includedColumns = new ArrayList<ElementSymbol>(numIncluded);
+			for (int j = 0; j < numIncluded; j++) {
+				int colIndex = ois.readInt();
+				includedColumns.add(this.columns.get(colIndex));
+			}
+			TempTable tt = this.createIndexTable(indexColumns, includedColumns, unique);
 			tt.readFrom(ois);
 		}
 	}
@@ -36,6 +36,7 @@ import org.teiid.adminapi.impl.SessionMetadata;
 import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.api.exception.query.QueryMetadataException;
+import org.teiid.api.exception.query.QueryParserException;
 import org.teiid.api.exception.query.QueryProcessingException;
 import org.teiid.api.exception.query.QueryResolverException;
 import org.teiid.api.exception.query.QueryValidatorException;
@@ -67,26 +68,37 @@ import org.teiid.logging.LogManager;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.eval.Evaluator;
+import org.teiid.query.metadata.MaterializationMetadataRepository;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
 import org.teiid.query.parser.ParseInfo;
+import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.BatchCollector;
 import org.teiid.query.processor.CollectionTupleSource;
 import org.teiid.query.processor.ProcessorDataManager;
+import org.teiid.query.processor.ProcessorPlan;
 import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.processor.RegisterRequestParameter;
+import org.teiid.query.processor.relational.RelationalNode;
+import org.teiid.query.processor.relational.RelationalPlan;
+import org.teiid.query.processor.relational.SelectNode;
+import org.teiid.query.processor.relational.SortUtility;
+import org.teiid.query.processor.relational.SortUtility.Mode;
 import org.teiid.query.resolver.util.ResolverUtil;
 import org.teiid.query.sql.lang.*;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.Function;
 import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.symbol.Reference;
+import org.teiid.query.sql.visitor.FunctionCollectorVisitor;
 import org.teiid.query.tempdata.GlobalTableStoreImpl.MatTableInfo;
 import org.teiid.query.util.CommandContext;
 import org.teiid.translator.CacheDirective.Scope;
+import org.teiid.translator.SourceSystemFunctions;
 
 /**
  * This proxy ProcessorDataManager is used to handle temporary tables.
@@ -128,6 +140,7 @@ public class TempTableDataManager implements ProcessorDataManager {
 	private static final String REFRESHMATVIEWROWS = ".refreshmatviewrows"; //$NON-NLS-1$
 	private static final String REFRESHMATVIEW = ".refreshmatview"; //$NON-NLS-1$
 	public static final String CODE_PREFIX = "#CODE_"; //$NON-NLS-1$
+	private static final int DEFAULT_PARTITION_COUNT = 8;
 	private static String REFRESH_SQL = SQLConstants.Reserved.CALL + ' ' + CoreConstants.SYSTEM_ADMIN_MODEL + REFRESHMATVIEW + "(?, ?)"; //$NON-NLS-1$
 
 	private ProcessorDataManager processorDataManager;
@@ -711,7 +724,8 @@ public class TempTableDataManager implements ProcessorDataManager {
 		return new ProxyTupleSource() {
 			TupleSource insertTupleSource;
 			boolean success;
-			QueryProcessor qp;
+			List<QueryProcessor> qps = new ArrayList<QueryProcessor>(1);
+			SortUtility sort;
 			boolean closed;
 			boolean errored;
 		
@@ -723,23 +737,70 @@ public class TempTableDataManager implements ProcessorDataManager {
 					if (insertTupleSource == null) {
 						String fullName = metadata.getFullName(group.getMetadataID());
 						String transformation = metadata.getVirtualPlan(group.getMetadataID()).getQuery();
-						qp = context.getQueryProcessorFactory().createQueryProcessor(transformation, fullName, context);
-						insertTupleSource = new BatchCollector.BatchProducerTupleSource(qp);
+						List<String> partitions = null;
+						//with serial source access the partitions would just be loaded one after another
+						if (context.getUserRequestSourceConcurrency() != 1) {
+							partitions = getPartitionQueries(metadata, group, transformation);
+						}
+						if (partitions != null) {
+							List<TupleSource> sources = new ArrayList<TupleSource>(partitions.size());
+							for (String partition : partitions) {
+								QueryProcessor qp = context.getQueryProcessorFactory().createQueryProcessor(partition, fullName, context);
+								qps.add(qp);
+								sources.add(new BatchCollector.BatchProducerTupleSource(qp));
+							}
+							if (isPartitionCriteriaPushed(qps)) {
+								LogManager.logDetail(LogConstants.CTX_MATVIEWS, "loading", tableName, "with partition queries", partitions); //$NON-NLS-1$ //$NON-NLS-2$
+								insertTupleSource = new PartitionedTupleSource(sources);
+							} else {
+								//each partition would read all of the source rows
+								LogManager.logDetail(LogConstants.CTX_MATVIEWS, "not partitioning the load of", tableName, "since the partition criteria cannot be pushed to the sources"); //$NON-NLS-1$ //$NON-NLS-2$
+								for (QueryProcessor qp : qps) {
+									qp.closeProcessing();
+								}
+								qps.clear();
+								partitions = null;
+							}
+						}
+						if (partitions == null) {
+							QueryProcessor qp = context.getQueryProcessorFactory().createQueryProcessor(transformation, fullName, context);
+							qps.add(qp);
+							insertTupleSource = new BatchCollector.BatchProducerTupleSource(qp);
+						}
+						if (table.getPkLength() > 0) {
+							//sort by the key so that the tree can be bulk loaded
+							sort = new SortUtility(insertTupleSource, new OrderBy(table.getColumns().subList(0, table.getPkLength())).getOrderByItems(), Mode.SORT, bufferManager, context.getConnectionId(), allColumns);
+						}
+					}
+					if (sort != null) {
+						TupleBuffer sorted = sort.sort();
+						try {
+							table.insertOrdered(sorted.createIndexedTupleSource(true), allColumns);
+						} finally {
+							sorted.remove();
+						}
+					} else {
+						table.insert(insertTupleSource, allColumns, false, false, null);
 					}
-					table.insert(insertTupleSource, allColumns, false, false, null);
 					table.getTree().compact();
 					rowCount = table.getRowCount();
-					Determinism determinism = qp.getContext().getDeterminismLevel();
+					Determinism determinism = Determinism.DETERMINISTIC;
+					for (QueryProcessor qp : qps) {
+						if (qp.getContext().getDeterminismLevel().compareTo(determinism) < 0) {
+							determinism = qp.getContext().getDeterminismLevel();
+						}
+					}
 					context.setDeterminismLevel(determinism);
 					//TODO: could pre-process indexes to remove overlap
 					for (Object index : metadata.getIndexesInGroup(group.getMetadataID())) {
 						List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, index);
-						table.addIndex(columns, false);
+						table.addIndex(columns, GlobalTableStoreImpl.resolveIncluded(metadata, allColumns, index), false);
 					}
 					for (Object key : metadata.getUniqueKeysInGroup(group.getMetadataID())) {
 						List<ElementSymbol> columns = GlobalTableStoreImpl.resolveIndex(metadata, allColumns, key);
-						table.addIndex(columns, true);
+						table.addIndex(columns, GlobalTableStoreImpl.resolveIncluded(metadata, allColumns, key), true);
 					}
+					table.updateStatistics();
 					CacheHint hint = table.getCacheHint();
 					if (hint != null && table.getPkLength() > 0) {
 						table.setUpdatable(hint.isUpdatable(false));
@@ -775,7 +836,10 @@ public class TempTableDataManager implements ProcessorDataManager {
 					globalStore.failedLoad(tableName);
 					table.remove();
 				}
-				if (qp != null) {
+				if (sort != null) {
+					sort.remove();
+				}
+				for (QueryProcessor qp : qps) {
 					qp.closeProcessing();
 				}
 				super.closeSource();
@@ -783,6 +847,152 @@ public class TempTableDataManager implements ProcessorDataManager {
 		};
 	}
 
+	/**
+	 * Get the queries to load each partition of the given materialized view, or null if
+	 * the view does not specify a {@link MaterializationMetadataRepository#MATVIEW_PARTITION_COLUMN}.
+	 * <br>
+	 * Rows are assigned to a partition by the modulus of the integral partition column, with
+	 * null values assigned to the first partition.  The partitioning is only beneficial if the
+	 * sources evaluate the criteria, see {@link #isPartitionCriteriaPushed(List)}.
+	 */
+	private List<String> getPartitionQueries(QueryMetadataInterface metadata,
+			GroupSymbol group, String transformation) throws TeiidComponentException,
+			QueryMetadataException, QueryParserException {
+		TempMetadataID id = (TempMetadataID)group.getMetadataID();
+		Object viewId = id.getOriginalMetadataID();
+		if (viewId == null) {
+			return null;
+		}
+		String columnName = metadata.getExtensionProperty(viewId, MaterializationMetadataRepository.MATVIEW_PARTITION_COLUMN, false);
+		if (columnName == null) {
+			return null;
+		}
+		String viewName = metadata.getFullName(viewId);
+		int count = DEFAULT_PARTITION_COUNT;
+		String countString = metadata.getExtensionProperty(viewId, MaterializationMetadataRepository.MATVIEW_PARTITION_COUNT, false);
+		if (countString != null) {
+			try {
+				count = Integer.parseInt(countString.trim());
+			} catch (NumberFormatException e) {
+				count = 0;
+			}
+			if (count < 1) {
+				throw new QueryMetadataException(QueryPlugin.Event.TEIID31263, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31263, countString, viewName));
+			}
+		}
+		if (count < 2) {
+			return null;
+		}
+		Object columnId = metadata.getElementID(viewName + ElementSymbol.SEPARATOR + columnName);
+		Class<?> type = DataTypeManager.getDataTypeClass(metadata.getElementType(columnId));
+		if (type != DataTypeManager.DefaultDataClasses.INTEGER 
+				&& type != DataTypeManager.DefaultDataClasses.LONG
+				&& type != DataTypeManager.DefaultDataClasses.SHORT
+				&& type != DataTypeManager.DefaultDataClasses.BYTE
+				&& type != DataTypeManager.DefaultDataClasses.BIG_INTEGER) {
+			throw new QueryMetadataException(QueryPlugin.Event.TEIID31257, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31257, columnName, viewName));
+		}
+		GroupSymbol viewGroup = new GroupSymbol(viewName);
+		ElementSymbol column = new ElementSymbol(metadata.getName(columnId), viewGroup);
+		Query transformationQuery = null;
+		if (id.getTableData().getFunctionBasedExpressions() != null) {
+			//the transformation is a simple query against the view
+			transformationQuery = (Query)QueryParser.getQueryParser().parseCommand(transformation);
+		}
+		List<String> result = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			String crit = "abs(mod(" + column + ", " + count + ")) = " + i; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (i == 0) {
+				crit += " OR " + column + " IS NULL"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (transformationQuery != null) {
+				Query query = (Query)transformationQuery.clone();
+				query.setCriteria(Criteria.combineCriteria(query.getCriteria(), QueryParser.getQueryParser().parseCriteria(crit)));
+				result.add(query.toString());
+			} else {
+				result.add("SELECT * FROM " + viewGroup + " WHERE " + crit + " OPTION NOCACHE " + viewGroup); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Determine if the partition criteria is evaluated by the sources rather than by a
+	 * {@link SelectNode} after all of the source rows have been read.
+	 */
+	private static boolean isPartitionCriteriaPushed(List<QueryProcessor> partitions) {
+		for (QueryProcessor qp : partitions) {
+			ProcessorPlan plan = qp.getProcessorPlan();
+			if (!(plan instanceof RelationalPlan) || !isPartitionCriteriaPushed(((RelationalPlan)plan).getRootNode())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isPartitionCriteriaPushed(RelationalNode node) {
+		if (node instanceof SelectNode) {
+			for (Function function : FunctionCollectorVisitor.getFunctions(((SelectNode)node).getCriteria(), false)) {
+				if (function.getName().equalsIgnoreCase(SourceSystemFunctions.MOD)) {
+					return false;
+				}
+			}
+		}
+		for (RelationalNode child : node.getChildren()) {
+			if (child != null && !isPartitionCriteriaPushed(child)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads from each source until it blocks, then moves to the next.  The partitions are 
+	 * processed by a single thread, but the source queries of all partitions are executed 
+	 * asynchronously and so can proceed concurrently. 
+	 */
+	private static class PartitionedTupleSource implements TupleSource {
+		private List<TupleSource> sources;
+		private int current;
+		
+		public PartitionedTupleSource(List<TupleSource> sources) {
+			this.sources = new ArrayList<TupleSource>(sources);
+		}
+		
+		@Override
+		public List<?> nextTuple() throws TeiidComponentException,
+				TeiidProcessingException {
+			int blocked = 0;
+			while (!sources.isEmpty()) {
+				if (current >= sources.size()) {
+					current = 0;
+				}
+				TupleSource source = sources.get(current);
+				try {
+					List<?> tuple = source.nextTuple();
+					if (tuple != null) {
+						return tuple;
+					}
+					sources.remove(current).closeSource();
+				} catch (BlockedException e) {
+					if (++blocked >= sources.size()) {
+						throw e;
+					}
+					current++;
+				}
+			}
+			return null;
+		}
+		
+		@Override
+		public void closeSource() {
+			for (TupleSource source : sources) {
+				source.closeSource();
+			}
+			sources.clear();
+		}
+	}
+
 	public Object lookupCodeValue(CommandContext context, String codeTableName,
 			String returnElementName, String keyElementName, Object keyValue)
 			throws BlockedException, TeiidComponentException,
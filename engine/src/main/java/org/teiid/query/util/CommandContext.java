@@ -77,6 +77,7 @@ import org.teiid.net.ServerConnection;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.parser.ParseInfo;
 import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.sql.symbol.ElementSymbol;
@@ -164,6 +165,8 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 	    private BufferManager bufferManager;
 
 	    private SessionAwareCache<PreparedPlan> planCache;
+	    private StatisticsFeedback statisticsFeedback;
+	    private List<StatisticsFeedback.Observation> observations;
 	    
 	    private boolean resultSetCacheEnabled = true;
 	    
@@ -212,7 +215,14 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     private HashSet<Object> dataObjects = this.globalState.dataObjects;
     private TupleSourceCache tupleSourceCache;
     private VDBState vdbState = new VDBState();
-    private Determinism[] determinismLevel = new Determinism[] {Determinism.DETERMINISTIC};
+    /**
+     * The first entry is the overall level, the second excludes the effect of data role conditions and masks
+     */
+    private Determinism[] determinismLevel = new Determinism[] {Determinism.DETERMINISTIC, Determinism.DETERMINISTIC};
+    /**
+     * Set once data role conditions or masks have been applied, it is not cleared by a non-detaching reset
+     */
+    private boolean[] dataRoleDependent = new boolean[1];
     private AtomicBoolean cancelled = new AtomicBoolean();
     private AtomicBoolean parentCancelled;
     
@@ -255,9 +265,11 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     public Determinism resetDeterminismLevel(boolean detach) {
     	Determinism result = determinismLevel[0];
     	if (detach) {
-    		determinismLevel = new Determinism[1];
+    		determinismLevel = new Determinism[2];
+    		dataRoleDependent = new boolean[1];
     	}
     	determinismLevel[0] = Determinism.DETERMINISTIC;
+    	determinismLevel[1] = Determinism.DETERMINISTIC;
     	return result;
     	
     }
@@ -270,6 +282,38 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     	if (determinismLevel[0] == null || level.compareTo(determinismLevel[0]) < 0) {
     		determinismLevel[0] = level;
     	}
+    	if (determinismLevel[1] == null || level.compareTo(determinismLevel[1]) < 0) {
+    		determinismLevel[1] = level;
+    	}
+    }
+    
+    /**
+     * Mark the command as dependent upon the data roles of the user.  This has the same effect on the 
+     * determinism level as {@link Determinism#USER_DETERMINISTIC}, but allows for the result 
+     * to be shared among users with the same data roles.
+     */
+    public void setDataRoleDeterministic() {
+    	dataRoleDependent[0] = true;
+    	if (determinismLevel[0] == null || Determinism.USER_DETERMINISTIC.compareTo(determinismLevel[0]) < 0) {
+    		determinismLevel[0] = Determinism.USER_DETERMINISTIC;
+    	}
+    }
+    
+    /**
+     * @return true if the determinism level is {@link Determinism#USER_DETERMINISTIC} 
+     * only because of data role conditions or masks
+     */
+    public boolean isDataRoleDeterministic() {
+    	return determinismLevel[0] == Determinism.USER_DETERMINISTIC 
+    			&& (determinismLevel[1] == null || determinismLevel[1].compareTo(Determinism.USER_DETERMINISTIC) > 0);
+    }
+    
+    /**
+     * @return true if data role conditions or masks have been applied.  Anything reusing the 
+     * planning of this command, such as a cached plan, must again call {@link #setDataRoleDeterministic()}
+     */
+    public boolean isDataRoleDependent() {
+    	return dataRoleDependent[0];
     }
     
     /**
@@ -594,9 +638,13 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     	if (this.globalState.planCache == null) {
     		return null;
     	}
-    	CacheID id = new CacheID(new ParseInfo(), key, getVdbName(), getVdbVersion(), getConnectionId(), getUserName());
+    	CacheID id = createPlanCacheID(key);
     	PreparedPlan pp = this.globalState.planCache.get(id);
-    	if (pp != null) {
+    	if (pp != null && isPlanCurrent(pp)) {
+    		if (pp.isDataRoleDependent()) {
+    			//the plan may be shared by users with the same data roles, so results must still be scoped to the user
+    			setDataRoleDeterministic();
+    		}
     		if (id.getSessionId() != null) {
     			setDeterminismLevel(Determinism.USER_DETERMINISTIC);
     		} else if (id.getUserName() != null) {
@@ -611,9 +659,86 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     	if (this.globalState.planCache == null) {
     		return;
     	}
-    	CacheID id = new CacheID(new ParseInfo(), key, getVdbName(), getVdbVersion(), getConnectionId(), getUserName());
+    	CacheID id = createPlanCacheID(key);
+    	if (determinismLevel == Determinism.USER_DETERMINISTIC && isDataRoleDeterministic()) {
+    		//the data roles are already part of the key
+    		determinismLevel = Determinism.VDB_DETERMINISTIC;
+    	}
     	this.globalState.planCache.put(id, determinismLevel, plan, null);
     }
+
+	private CacheID createPlanCacheID(String key) {
+		CacheID id = new CacheID(new ParseInfo(), key, getVdbName(), getVdbVersion(), getConnectionId(), getUserName());
+    	Map<String, DataPolicy> policies = getAllowedDataPolicies();
+    	if (policies != null) {
+    		id.setDataRoles(policies.keySet());
+    	}
+		return id;
+	}
+    
+    public void setStatisticsFeedback(StatisticsFeedback statisticsFeedback) {
+		this.globalState.statisticsFeedback = statisticsFeedback;
+	}
+    
+    public StatisticsFeedback getStatisticsFeedback() {
+		return this.globalState.statisticsFeedback;
+	}
+    
+    /**
+     * @return false if statistics feedback has invalidated the estimates for a group accessed by the plan
+     */
+    public boolean isPlanCurrent(PreparedPlan plan) {
+    	if (this.globalState.statisticsFeedback == null) {
+    		return true;
+    	}
+    	return this.globalState.statisticsFeedback.isValid(plan.getAccessInfo(), getVdbName(), getVdbVersion());
+    }
+    
+    /**
+     * Add the observed cardinality of a processing node
+     */
+    public void addObservation(StatisticsFeedback.Observation observation) {
+    	if (this.globalState.statisticsFeedback == null) {
+    		return;
+    	}
+    	synchronized (this.globalState) {
+    		if (this.globalState.observations == null) {
+    			this.globalState.observations = new ArrayList<StatisticsFeedback.Observation>();
+    		}
+    		this.globalState.observations.add(observation);
+		}
+    }
+    
+    /**
+     * Record the actual cardinalities of the nodes that have completed.  If an estimate was 
+     * sufficiently off, cached plans accessing the same groups will be replanned.
+     */
+    public void recordObservations() {
+    	List<StatisticsFeedback.Observation> complete = null;
+    	synchronized (this.globalState) {
+    		if (this.globalState.observations == null) {
+    			return;
+    		}
+    		for (Iterator<StatisticsFeedback.Observation> iter = this.globalState.observations.iterator(); iter.hasNext();) {
+    			StatisticsFeedback.Observation observation = iter.next();
+    			if (observation.isComplete()) {
+    				if (complete == null) {
+    					complete = new ArrayList<StatisticsFeedback.Observation>();
+    				}
+    				complete.add(observation);
+    				iter.remove();
+    			}
+    		}
+		}
+    	if (complete == null) {
+    		return;
+    	}
+    	for (StatisticsFeedback.Observation observation : complete) {
+    		if (this.globalState.statisticsFeedback.recordCardinality(observation)) {
+	    		LogManager.logDetail(LogConstants.CTX_DQP, "Invalidating the cached plans for", observation.getKey(), "since the estimate", observation.getEstimate(), "was", observation.getRowCount()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+    		}
+		}
+    }
     
     public boolean isResultSetCacheEnabled() {
 		return globalState.resultSetCacheEnabled;
@@ -24,6 +24,7 @@ package org.teiid.query.util;
 
 import java.util.Properties;
 
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.translator.ExecutionFactory.NullOrder;
 
 /**
@@ -40,6 +41,8 @@ public class Options {
 	public static final String DEFAULT_NULL_ORDER = "org.teiid.defaultNullOrder"; //$NON-NLS-1$
 	public static final String ASSUME_MATCHING_COLLATION = "org.teiid.assumeMatchingCollation"; //$NON-NLS-1$
 	public static final String AGGRESSIVE_JOIN_GROUPING = "org.teiid.aggressiveJoinGrouping"; //$NON-NLS-1$
+	public static final String STATISTICS_FEEDBACK_FACTOR = "org.teiid.statisticsFeedbackFactor"; //$NON-NLS-1$
+	public static final String PLANNING_STATISTICS = "org.teiid.planningStatistics"; //$NON-NLS-1$
 
 	private Properties properties;
 	private boolean subqueryUnnestDefault = false;
@@ -51,6 +54,8 @@ public class Options {
 	private NullOrder defaultNullOrder = NullOrder.LOW;
 	private boolean assumeMatchingCollation = true;
 	private boolean aggressiveJoinGrouping = true;
+	private float statisticsFeedbackFactor;
+	private boolean planningStatistics;
 	
 	public Properties getProperties() {
 		return properties;
@@ -176,4 +181,39 @@ public class Options {
 		this.aggressiveJoinGrouping = b;
 		return this;
 	}
+
+	/**
+	 * @return the factor by which an estimate may differ from the observed cardinality 
+	 * before cached plans accessing the same groups are invalidated.  The default of 0 disables 
+	 * statistics feedback, {@link StatisticsFeedback#DEFAULT_INVALIDATION_FACTOR} is a typical value.
+	 */
+	public float getStatisticsFeedbackFactor() {
+		return this.statisticsFeedbackFactor;
+	}
+	
+	public void setStatisticsFeedbackFactor(float statisticsFeedbackFactor) {
+		this.statisticsFeedbackFactor = statisticsFeedbackFactor;
+	}
+	
+	public Options statisticsFeedbackFactor(float f) {
+		this.statisticsFeedbackFactor = f;
+		return this;
+	}
+
+	/**
+	 * @return true if planning statistics should be collected for every request
+	 * and aggregated for the engine.  Otherwise they are only collected with show plan.
+	 */
+	public boolean isPlanningStatistics() {
+		return this.planningStatistics;
+	}
+	
+	public void setPlanningStatistics(boolean planningStatistics) {
+		this.planningStatistics = planningStatistics;
+	}
+	
+	public Options planningStatistics(boolean b) {
+		this.planningStatistics = b;
+		return this;
+	}
 }
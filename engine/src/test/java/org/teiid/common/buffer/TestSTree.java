@@ -24,6 +24,7 @@ package org.teiid.common.buffer;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -105,6 +106,76 @@ public class TestSTree {
 				
 	}
 	
+	@Test public void testBulkLoad() throws TeiidComponentException {
+		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
+		bm.setProcessorBatchSize(4);
+		
+		ElementSymbol e1 = new ElementSymbol("x");
+		e1.setType(Integer.class);
+		ElementSymbol e2 = new ElementSymbol("y");
+		e2.setType(String.class);
+		List<ElementSymbol> elements = Arrays.asList(e1, e2);
+		STree map = bm.createSTree(elements, "1", 1);
+		STree ordered = bm.createSTree(elements, "1", 1);
+		
+		int size = (1<<16)+(1<<4)+1;
+		
+		STree.BulkLoader loader = map.createBulkLoader();
+		for (int i = 0; i < size; i++) {
+			loader.append(Arrays.asList(i*2, String.valueOf(i%10)));
+			ordered.insert(Arrays.asList(i*2, String.valueOf(i%10)), InsertMode.ORDERED, size);
+		}
+		loader.finish();
+		assertEquals(size, map.getRowCount());
+		assertEquals(ordered.getHeight(), map.getHeight());
+		
+		for (int i = 0; i < size; i++) {
+			assertEquals(Arrays.asList(i*2, String.valueOf(i%10)), map.find(Arrays.asList(i*2)));
+			assertNull(map.find(Arrays.asList(i*2+1)));
+		}
+		
+		//should still be usable for normal inserts
+		assertNull(map.insert(Arrays.asList(-1, "a"), InsertMode.NEW, -1));
+		assertNull(map.insert(Arrays.asList(101, "a"), InsertMode.NEW, -1));
+		
+		for (int i = 0; i < size; i++) {
+			assertNotNull(map.remove(Arrays.asList(i*2)));
+		}
+		assertEquals(2, map.getRowCount());
+	}
+	
+	@Test public void testBulkLoadOutOfOrder() throws TeiidComponentException {
+		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
+		ElementSymbol e1 = new ElementSymbol("x");
+		e1.setType(Integer.class);
+		STree map = bm.createSTree(Arrays.asList(e1), "1", 1);
+		STree.BulkLoader loader = map.createBulkLoader();
+		assertTrue(loader.append(Arrays.asList(1)));
+		assertFalse(loader.append(Arrays.asList(1)));
+		assertFalse(loader.append(Arrays.asList(0)));
+		loader.finish();
+		assertEquals(1, map.getRowCount());
+		//the remaining tuples may be inserted normally
+		assertNull(map.insert(Arrays.asList(0), InsertMode.NEW, -1));
+		assertEquals(2, map.getRowCount());
+	}
+	
+	@Test public void testShareEqualValues() {
+		String a = new String("a");
+		String a1 = new String("a");
+		String b = new String("b");
+		List<List<?>> values = new ArrayList<List<?>>();
+		values.add(Arrays.asList(1, a));
+		values.add(Arrays.asList(1, b));
+		values.add(Arrays.asList(2, a1));
+		values.add(Arrays.asList(3, null));
+		STree.shareEqualValues(values);
+		assertSame(values.get(0).get(0), values.get(1).get(0));
+		assertSame(a, values.get(2).get(1));
+		assertSame(b, values.get(1).get(1));
+		assertEquals(Arrays.asList(3, null), values.get(3));
+	}
+	
 	@Test public void testStorageWrites() throws TeiidComponentException {
 		BufferManagerImpl bm = BufferManagerFactory.createBufferManager();
 		bm.setProcessorBatchSize(32);
@@ -25,7 +25,9 @@ package org.teiid.dqp.internal.process;
 import static org.junit.Assert.*;
 
 import java.sql.ResultSet;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Properties;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +40,8 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.teiid.adminapi.DataPolicy;
 import org.teiid.adminapi.impl.DataPolicyMetadata;
+import org.teiid.adminapi.impl.DataPolicyMetadata.PermissionMetaData;
+import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.api.exception.query.QueryResolverException;
 import org.teiid.cache.CacheConfiguration;
 import org.teiid.cache.DefaultCacheFactory;
@@ -56,10 +60,13 @@ import org.teiid.dqp.internal.datamgr.FakeTransactionService;
 import org.teiid.dqp.internal.process.AbstractWorkItem.ThreadState;
 import org.teiid.dqp.service.AutoGenDataService;
 import org.teiid.dqp.service.FakeBufferService;
+import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.optimizer.TestOptimizer;
 import org.teiid.query.optimizer.capabilities.BasicSourceCapabilities;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.Options;
 import org.teiid.translator.SourceSystemFunctions;
 
 @SuppressWarnings("nls")
@@ -565,6 +572,127 @@ public class TestDQPCore {
         assertEquals(2, rm.getResultsList().size());
     }
 
+    @Test public void testWarmPlanCache() throws Exception {
+    	String sql = "SELECT IntKey FROM BQT1.SmallA where intkey = ?"; //$NON-NLS-1$
+    	VDBMetaData vdb = DQPWorkContext.getWorkContext().getVDB();
+    	DataPolicyMetadata dpm = new DataPolicyMetadata();
+    	dpm.setName("foo"); //$NON-NLS-1$
+    	vdb.getAttachment(TransformationMetadata.class).getPolicies().put("foo", dpm); //$NON-NLS-1$
+    	vdb.addProperty(DQPCore.WARMUP_QUERY_PREFIX + ".1", sql); //$NON-NLS-1$
+    	vdb.addProperty(DQPCore.WARMUP_DATA_ROLES, "foo"); //$NON-NLS-1$
+    	core.warmPlanCache(vdb).get(5000, TimeUnit.MILLISECONDS);
+    	assertEquals(1, this.core.getPrepPlanCache().getCachePutCount());
+    	
+    	//should be shared by a different user with the same roles
+    	RequestMessage reqMsg = exampleRequestMessage(sql);
+    	reqMsg.setStatementType(StatementType.PREPARED);
+    	reqMsg.setParameterValues(Arrays.asList(1));
+    	ResultsMessage rm = execute("A", 2, reqMsg); //$NON-NLS-1$
+    	assertNull(rm.getException());
+    	assertEquals(1, this.core.getPrepPlanCache().getCacheHitCount());
+    	assertEquals(1, this.core.getPrepPlanCache().getCachePutCount());
+    }
+
+    @Test public void testStatisticsFeedback() throws Exception {
+    	assertNull(this.core.getStatisticsFeedback());
+    	core.stop();
+    	Properties props = new Properties();
+    	props.setProperty(Options.STATISTICS_FEEDBACK_FACTOR, String.valueOf(StatisticsFeedback.DEFAULT_INVALIDATION_FACTOR));
+    	config.setProperties(props);
+    	core.start(config);
+    	
+    	String sql = "SELECT IntKey FROM BQT1.SmallA where intkey > 1"; //$NON-NLS-1$
+    	String other = "SELECT IntKey FROM BQT1.SmallB where intkey > 1"; //$NON-NLS-1$
+    	helpExecutePrepared(sql);
+    	helpExecutePrepared(other);
+    	assertEquals(2, this.core.getPrepPlanCache().getCachePutCount());
+    	assertEquals(2, this.core.getStatisticsFeedback().size());
+    	
+    	//there was no estimate, so the plan is still used
+    	helpExecutePrepared(sql);
+    	assertEquals(1, this.core.getPrepPlanCache().getCacheHitCount());
+    	
+    	//the same fragment is planned with the observed cardinality
+    	String same = "SELECT IntKey, StringKey FROM BQT1.SmallA where intkey > 1"; //$NON-NLS-1$
+    	helpExecutePrepared(same);
+    	assertEquals(3, this.core.getPrepPlanCache().getCachePutCount());
+    	
+    	//the estimate is now off by more than the factor, so plans accessing SmallA are replanned
+    	agds.setRows(1000);
+    	helpExecutePrepared(same);
+    	assertEquals(2, this.core.getPrepPlanCache().getCacheHitCount());
+    	assertEquals(3, this.core.getPrepPlanCache().getCachePutCount());
+    	helpExecutePrepared(sql);
+    	assertEquals(4, this.core.getPrepPlanCache().getCachePutCount());
+    	helpExecutePrepared(other);
+    	assertEquals(4, this.core.getPrepPlanCache().getCachePutCount());
+    	
+    	//the cardinality with references depends upon the values
+    	this.core.getStatisticsFeedback().clear();
+    	helpExecutePrepared("SELECT IntKey FROM BQT1.SmallA where intkey > ?", 1); //$NON-NLS-1$
+    	assertEquals(0, this.core.getStatisticsFeedback().size());
+    }
+
+	private void helpExecutePrepared(String sql, Object... values) throws InterruptedException,
+			ExecutionException, TimeoutException, TeiidProcessingException {
+		RequestMessage reqMsg = exampleRequestMessage(sql);
+    	reqMsg.setStatementType(StatementType.PREPARED);
+    	reqMsg.setParameterValues(Arrays.asList(values));
+    	ResultsMessage rm = execute("A", 1, reqMsg); //$NON-NLS-1$
+    	assertNull(rm.getException());
+	}
+
+    @Test public void testDataRolePlanSharing() throws Exception {
+    	agds.setCaps(new BasicSourceCapabilities());
+    	agds.setUseIntCounter(true);
+    	DataPolicyMetadata filtered = new DataPolicyMetadata();
+    	filtered.setName("filtered"); //$NON-NLS-1$
+    	PermissionMetaData pmd = new PermissionMetaData();
+    	pmd.setResourceName("bqt1.smalla"); //$NON-NLS-1$
+    	pmd.setCondition("intkey < 5"); //$NON-NLS-1$
+    	filtered.addPermission(pmd);
+    	DataPolicyMetadata unfiltered = new DataPolicyMetadata();
+    	unfiltered.setName("unfiltered"); //$NON-NLS-1$
+    	
+    	String sql = "/*+ cache */ SELECT IntKey FROM BQT1.SmallA where intkey >= ?"; //$NON-NLS-1$
+    	HashMap<String, DataPolicy> policies = new HashMap<String, DataPolicy>();
+    	policies.put(filtered.getName(), filtered);
+    	DQPWorkContext.getWorkContext().setPolicies(policies);
+    	
+    	ResultsMessage rm = execute("A", 1, preparedRequest(sql)); //$NON-NLS-1$
+    	assertEquals(5, rm.getResultsList().size());
+    	
+    	//shares the plan, but not the results
+    	rm = execute("B", 2, preparedRequest(sql)); //$NON-NLS-1$
+    	assertEquals(5, rm.getResultsList().size());
+    	assertEquals(1, this.core.getPrepPlanCache().getCacheHitCount());
+    	assertEquals(0, this.core.getRsCache().getCacheHitCount());
+    	
+    	//the results of either must not be seen with other roles
+    	policies = new HashMap<String, DataPolicy>();
+    	policies.put(unfiltered.getName(), unfiltered);
+    	DQPWorkContext.getWorkContext().setPolicies(policies);
+    	rm = execute("C", 3, preparedRequest(sql)); //$NON-NLS-1$
+    	assertEquals(10, rm.getResultsList().size());
+    	assertEquals(1, this.core.getPrepPlanCache().getCacheHitCount());
+    	assertEquals(0, this.core.getRsCache().getCacheHitCount());
+    	
+    	//but may be seen by the same user
+    	policies = new HashMap<String, DataPolicy>();
+    	policies.put(filtered.getName(), filtered);
+    	DQPWorkContext.getWorkContext().setPolicies(policies);
+    	rm = execute("B", 2, preparedRequest(sql)); //$NON-NLS-1$
+    	assertEquals(5, rm.getResultsList().size());
+    	assertEquals(1, this.core.getRsCache().getCacheHitCount());
+    }
+
+	private RequestMessage preparedRequest(String sql) {
+		RequestMessage reqMsg = exampleRequestMessage(sql);
+    	reqMsg.setStatementType(StatementType.PREPARED);
+    	reqMsg.setParameterValues(Arrays.asList(0));
+		return reqMsg;
+	}
+
     @Test public void testPreparedPlanInvalidation() throws Exception {
         helpTestPlanInvalidation("select * from #temp a, #temp b limit 10");
         
@@ -30,6 +30,7 @@ import org.junit.Test;
 import org.mockito.Mockito;
 import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.client.RequestMessage;
+import org.teiid.client.RequestMessage.ShowPlan;
 import org.teiid.client.RequestMessage.StatementType;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
@@ -39,6 +40,7 @@ import org.teiid.dqp.internal.datamgr.ConnectorManagerRepository;
 import org.teiid.dqp.internal.datamgr.FakeTransactionService;
 import org.teiid.dqp.internal.process.AuthorizationValidator.CommandType;
 import org.teiid.dqp.service.AutoGenDataService;
+import org.teiid.query.analysis.PlanningStatistics;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.FakeDataManager;
@@ -119,8 +121,44 @@ public class TestRequest {
         assertNotNull(request.context.getTransactionContext());
     }
 
+    @Test public void testPlanningStatistics() throws Exception {
+        QueryMetadataInterface metadata = RealMetadataFactory.example1Cached();
+        
+        RequestMessage message = new RequestMessage("SELECT e1 FROM pm1.g1 WHERE e2 = 1 ORDER BY e1");
+        message.setShowPlan(ShowPlan.ON);
+        DQPWorkContext workContext = RealMetadataFactory.buildWorkContext(metadata, RealMetadataFactory.example1VDB());
+        PlanningStatistics aggregate = PlanningStatistics.createAggregate();
+        
+        Request request = helpProcessMessage(message, null, workContext, aggregate);
+        PlanningStatistics stats = request.analysisRecord.getPlanningStatistics();
+        assertNotNull(stats);
+        assertEquals(1, stats.getPhase(PlanningStatistics.RESOLVE).getCount());
+        assertEquals(1, stats.getPhase(PlanningStatistics.REWRITE).getCount());
+        assertEquals(1, stats.getPhase(PlanningStatistics.PLAN).getCount());
+        PlanningStatistics.Entry placeAccess = stats.getRule("PlaceAccess");
+        assertEquals(1, placeAccess.getCount());
+        assertTrue(placeAccess.getNodeCount() > 0);
+        assertTrue(stats.getTotalNanos() > 0);
+        assertTrue(request.analysisRecord.getAnnotations().toString().contains("Planning statistics"));
+        
+        //without show plan the statistics are still collected for the aggregate
+        message = new RequestMessage(QUERY);
+        request = helpProcessMessage(message, null, workContext, aggregate);
+        assertNotNull(request.analysisRecord.getPlanningStatistics());
+        assertEquals(2, aggregate.getPlanCount());
+        assertEquals(2, aggregate.getRule("PlaceAccess").getCount());
+        
+        request = helpProcessMessage(message, null, workContext, null);
+        assertNull(request.analysisRecord.getPlanningStatistics());
+    }
+
     private Request helpProcessMessage(RequestMessage message, SessionAwareCache<PreparedPlan> cache, DQPWorkContext workContext) throws TeiidComponentException,
                                                            TeiidProcessingException {
+    	return helpProcessMessage(message, cache, workContext, null);
+    }
+    
+    private Request helpProcessMessage(RequestMessage message, SessionAwareCache<PreparedPlan> cache, DQPWorkContext workContext, PlanningStatistics planningStatistics) throws TeiidComponentException,
+                                                           TeiidProcessingException {
         Request request = null;
         if (cache != null) {
         	request = new PreparedStatementRequest(cache);
@@ -135,6 +173,7 @@ public class TestRequest {
 				new FakeDataManager(), new FakeTransactionService(), TEMP_TABLE_STORE, workContext, null);
         DefaultAuthorizationValidator drav = new DefaultAuthorizationValidator();
         request.setAuthorizationValidator(drav);
+        request.setPlanningStatistics(planningStatistics);
         request.processRequest();
         return request;
     }
@@ -25,6 +25,8 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.teiid.adminapi.impl.SessionMetadata;
@@ -198,6 +200,32 @@ public class TestSessionAwareCache {
 		assertEquals(Long.valueOf(0), cache.computeTtl(id, result, null));
 	}
 
+	@Test public void testDataRoleScope() {
+		
+		SessionAwareCache<Cachable> cache = new SessionAwareCache<Cachable>("preparedplan", DefaultCacheFactory.INSTANCE, SessionAwareCache.Type.PREPAREDPLAN, 0);
+		
+		CacheID id = new CacheID(buildWorkContext(), new ParseInfo(), "SELECT * FROM FOO");
+		id.setDataRoles(Arrays.asList("b", "a"));
+		
+		Cachable result = Mockito.mock(Cachable.class);
+		Mockito.stub(result.prepare((BufferManager)anyObject())).toReturn(true);
+		Mockito.stub(result.restore((BufferManager)anyObject())).toReturn(true);		
+		
+		cache.put(id, Determinism.VDB_DETERMINISTIC, result, null);
+		
+		//another user with the same roles
+		id = new CacheID(new ParseInfo(), "SELECT * FROM FOO", "vdb-name", "1", "2", "bar");
+		id.setDataRoles(Arrays.asList("a", "b"));
+		assertTrue(result == cache.get(id));
+		
+		//different roles
+		id.setDataRoles(Arrays.asList("a"));
+		assertNull(cache.get(id));
+		
+		id.setDataRoles(null);
+		assertNull(cache.get(id));
+	}
+	
 	public static DQPWorkContext buildWorkContext() {
 		DQPWorkContext workContext = new DQPWorkContext();
 		SessionMetadata session = new SessionMetadata();
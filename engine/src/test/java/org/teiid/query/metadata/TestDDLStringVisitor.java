@@ -122,6 +122,16 @@ public class TestDDLStringVisitor {
 		helpTest(ddl, expected);
 	}	
 	
+	@Test
+	public void testColumnHistogram() throws Exception {
+		String ddl = "CREATE FOREIGN TABLE G1( e1 integer OPTIONS (HISTOGRAM '0,10,20'), e2 varchar OPTIONS (DISTINCT_VALUES 5, MOST_COMMON_VALUES 'a\\,b,.5,c,.25'))";
+		String expected = "CREATE FOREIGN TABLE G1 (\n" + 
+				"	e1 integer OPTIONS (HISTOGRAM '0,10,20'),\n" + 
+				"	e2 string OPTIONS (DISTINCT_VALUES 5, MOST_COMMON_VALUES 'a\\,b,0.5,c,0.25')\n" + 
+				");";
+		helpTest(ddl, expected);
+	}
+	
 	@Test
 	public void testConstraints2() throws Exception {
 		String ddl = "CREATE FOREIGN TABLE G1( e1 integer, e2 varchar, e3 date, " +
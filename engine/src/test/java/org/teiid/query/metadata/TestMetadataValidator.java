@@ -23,12 +23,14 @@ package org.teiid.query.metadata;
 
 import static org.junit.Assert.*;
 
+import java.util.List;
 import java.util.Properties;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.teiid.adminapi.Model;
 import org.teiid.adminapi.impl.ModelMetaData;
+import org.teiid.adminapi.impl.ModelMetaData.Message;
 import org.teiid.adminapi.impl.VDBMetaData;
 import org.teiid.metadata.MetadataFactory;
 import org.teiid.metadata.MetadataStore;
@@ -553,6 +555,36 @@ public class TestMetadataValidator {
         assertTrue(printError(report), report.hasItems());
     }
     
+    @Test public void testParallelValidation() throws Exception {
+    	StringBuilder ddl = new StringBuilder("CREATE FOREIGN TABLE t1 ( col1 string, col2 integer ); CREATE VIEW v0 AS SELECT col1, col2 FROM t1;");
+    	for (int i = 1; i < 50; i++) {
+    		ddl.append("CREATE VIEW v").append(i).append("(col1 string, col2 integer) AS SELECT col1, col2 FROM v").append(i - 1).append(" WHERE col2 > ").append(i).append(";");
+    		ddl.append("CREATE VIEW w").append(i).append(" AS SELECT col1 FROM v").append(i).append(";");
+    	}
+    	for (int i = 0; i < 10; i++) {
+    		ddl.append("CREATE VIEW bad").append(i).append("(x integer) AS SELECT x FROM t1;");
+    	}
+    	ddl.append("CREATE VIEW cached(col1 string) AS /*+ cache(ttl:100) */ SELECT col1 FROM t1;");
+    	ModelMetaData model = buildModel("phy1", true, this.vdb, this.store, ddl.toString());
+    	
+		buildTransformationMetadata();
+		
+		MetadataValidator validator = new MetadataValidator();
+		validator.setParallelism(4);
+		ValidatorReport report = validator.validate(this.vdb, this.store);
+		assertEquals(printError(report), 10, report.getItems().size());
+		//the columns of the views without a definition must be determined
+		assertEquals(2, this.store.getSchema("phy1").getTable("v0").getColumns().size());
+		assertEquals(1, this.store.getSchema("phy1").getTable("w49").getColumns().size());
+		assertEquals("100", this.store.getSchema("phy1").getTable("cached").getProperty(MaterializationMetadataRepository.MATVIEW_TTL, false));
+		//the runtime messages are in resolving order
+		List<Message> messages = model.getMessages();
+		assertEquals(10, messages.size());
+		for (int i = 0; i < 10; i++) {
+			assertTrue(messages.get(i).getValue(), messages.get(i).getValue().contains("bad" + i));
+		}
+    }
+    
 	private ValidatorReport helpTest(String ddl, boolean expectErrors) throws Exception {
 		buildModel("pm1", true, this.vdb, this.store, ddl);
 		
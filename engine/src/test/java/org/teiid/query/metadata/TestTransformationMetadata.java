@@ -151,6 +151,63 @@ public class TestTransformationMetadata {
 		assertEquals(1, result.size());
 	}
 	
+	@Test public void testPartialNames() throws Exception {
+		Map<String, Datatype> datatypes = new HashMap<String, Datatype>();
+		MetadataFactory mf = new MetadataFactory(null, 1, "x", datatypes, new Properties(), null); //$NON-NLS-1$
+		mf.addTable("a.b.c"); //$NON-NLS-1$
+		mf.addTable("b.C"); //$NON-NLS-1$
+		mf.addTable("xb.c"); //$NON-NLS-1$
+		mf.addProcedure("p.q"); //$NON-NLS-1$
+		CompositeMetadataStore cms = new CompositeMetadataStore(mf.asMetadataStore());
+		
+		assertEquals(3, cms.getGroupsForPartialName("C").size());
+		assertEquals(2, cms.getGroupsForPartialName("b.c").size());
+		assertEquals(1, cms.getGroupsForPartialName("A.b.c").size());
+		//the schema qualified name
+		assertEquals(1, cms.getGroupsForPartialName("x.a.b.c").size());
+		assertEquals(0, cms.getGroupsForPartialName("b.b.c").size());
+		assertEquals(1, cms.getStoredProcedure("Q").size());
+		assertEquals(1, cms.getStoredProcedure("x.p.q").size());
+		assertEquals(0, cms.getStoredProcedure("x.q").size());
+	}
+	
+	@Test public void testLookupCache() throws Exception {
+		MetadataLookupCache<String, Object> cache = new MetadataLookupCache<String, Object>("test", 8);
+		for (int i = 0; i < 8; i++) {
+			cache.put(String.valueOf(i), i);
+		}
+		assertEquals(0, cache.get("0"));
+		assertNull(cache.get("x"));
+		assertEquals(0.5, cache.getHitRatio(), 0);
+		cache.put("8", 8);
+		//the least recently used entries are removed
+		assertEquals(6, cache.size());
+		assertEquals(3, cache.getEvictionCount());
+		assertEquals(0, cache.get("0"));
+		assertNull(cache.get("1"));
+		assertEquals(8, cache.get("8"));
+		assertEquals(8, cache.put("8", null));
+		assertNull(cache.get("8"));
+	}
+	
+	@Test public void testTransformationCache() throws Exception {
+		TransformationMetadata tm = exampleTransformationMetadata();
+		Object groupId = tm.getGroupID("x.FoO");
+		//resolved definitions do not compete with other lookups
+		for (int i = 0; i < 1000; i++) {
+			tm.addToMetadataCache(groupId, "transformation/" + i, i);
+			tm.addToMetadataCache(groupId, "other/" + i, i);
+			assertEquals(0, tm.getFromMetadataCache(groupId, "transformation/0"));
+		}
+		assertEquals(0, tm.getDesignTimeMetadata().getFromMetadataCache(groupId, "transformation/0"));
+		//but they are still bounded
+		MetadataLookupCache<String, ?> cache = tm.getLookupCaches().get(3);
+		assertTrue(cache.size() <= cache.getMaxEntries());
+		assertEquals(999, tm.getFromMetadataCache(groupId, "transformation/999"));
+		tm.addToMetadataCache(groupId, "transformation/0", null);
+		assertNull(tm.getFromMetadataCache(groupId, "transformation/0"));
+	}
+	
 	@Test public void testElementId() throws Exception {
 		TransformationMetadata tm = exampleTransformationMetadata();
 		tm.getElementID("x.FoO.coL");
@@ -44,9 +44,11 @@ import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.TestVirtualDepJoin;
 import org.teiid.query.processor.relational.RelationalPlan;
 import org.teiid.query.resolver.QueryResolver;
+import org.teiid.query.resolver.util.ResolverUtil;
 import org.teiid.query.rewriter.QueryRewriter;
 import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.JoinType;
+import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
 
@@ -115,6 +117,33 @@ public class TestCalculateCostUtil {
         helpTestEstimateCost(critString, NewCalculateCostUtil.UNKNOWN_VALUE, NewCalculateCostUtil.UNKNOWN_VALUE, metadata);    
     } 
 
+    @Test public void testEstimateCostOfCompareCriteriaHistogram() throws Exception {
+        QueryMetadataInterface metadata = RealMetadataFactory.fromDDL("CREATE FOREIGN TABLE t (x integer OPTIONS (HISTOGRAM '0,10,20,30,40'), y string OPTIONS (DISTINCT_VALUES 7, MOST_COMMON_VALUES 'a,.5,b,.25'))", "x", "y"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        
+        helpTestEstimateCost("y.t.x < 15", 1000, 375, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.x >= 35", 1000, 125, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.x > 50", 1000, 1, metadata); //$NON-NLS-1$
+    }
+    
+    @Test public void testEstimateCostOfCompareCriteriaHistogramNulls() throws Exception {
+        QueryMetadataInterface metadata = RealMetadataFactory.fromDDL("CREATE FOREIGN TABLE t (x integer OPTIONS (HISTOGRAM '0,10,20,30,40', DISTINCT_VALUES 40, NULL_VALUE_COUNT 200)) OPTIONS (CARDINALITY 1000)", "x", "y"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        
+        //the histogram is of the 800 non-null values
+        helpTestEstimateCost("y.t.x < 15", 1000, 300, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.x <= 15", 1000, 320, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.x > 15", 1000, 480, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.x >= 15", 1000, 500, metadata); //$NON-NLS-1$
+    }
+    
+    @Test public void testEstimateCostOfCompareCriteriaMostCommonValues() throws Exception {
+        QueryMetadataInterface metadata = RealMetadataFactory.fromDDL("CREATE FOREIGN TABLE t (x integer OPTIONS (HISTOGRAM '0,10,20,30,40'), y string OPTIONS (DISTINCT_VALUES 7, MOST_COMMON_VALUES 'a,.5,b,.25'))", "x", "y"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        
+        helpTestEstimateCost("y.t.y = 'a'", 1000, 500, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.y = 'c'", 1000, 50, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.y <> 'a'", 1000, 500, metadata); //$NON-NLS-1$
+        helpTestEstimateCost("y.t.y in ('a', 'b')", 1000, 750, metadata); //$NON-NLS-1$
+    }
+    
     /**
      * usesKey = false
      * NOT = false
@@ -316,6 +345,30 @@ public class TestCalculateCostUtil {
         assertEquals(10000, cost, 0);
     }
     
+    private float helpTestJoinEstimate(String ddl) throws Exception {
+        QueryMetadataInterface metadata = RealMetadataFactory.fromDDL(ddl, "x", "y"); //$NON-NLS-1$ //$NON-NLS-2$
+        PlanNode joinNode = helpGetJoinNode(1000, 1000, JoinType.JOIN_INNER);
+        GroupSymbol a = new GroupSymbol("y.a"); //$NON-NLS-1$
+        GroupSymbol b = new GroupSymbol("y.b"); //$NON-NLS-1$
+        ResolverUtil.resolveGroup(a, metadata);
+        ResolverUtil.resolveGroup(b, metadata);
+        joinNode.getFirstChild().addGroup(a);
+        joinNode.getLastChild().addGroup(b);
+        joinNode.addGroup(a);
+        joinNode.addGroup(b);
+        joinNode.setProperty(NodeConstants.Info.JOIN_CRITERIA, Arrays.asList(helpGetCriteria("y.a.x = y.b.x", metadata))); //$NON-NLS-1$
+        return NewCalculateCostUtil.computeCostForTree(joinNode, metadata);
+    }
+    
+    @Test public void testEstimateJoinNodeCostMostCommonValues() throws Exception {
+        String ddl = "CREATE FOREIGN TABLE a (x string OPTIONS (DISTINCT_VALUES 100, MOST_COMMON_VALUES 'k,.5')) OPTIONS (CARDINALITY 1000); " //$NON-NLS-1$
+        		+ "CREATE FOREIGN TABLE b (x string OPTIONS (DISTINCT_VALUES 100, MOST_COMMON_VALUES %s)) OPTIONS (CARDINALITY 1000);"; //$NON-NLS-1$
+        //uniform estimate
+        assertEquals(10000, helpTestJoinEstimate(String.format(ddl, "'j,.5'")), 0); //$NON-NLS-1$
+        //the shared common value dominates
+        assertEquals(250000, helpTestJoinEstimate(String.format(ddl, "'k,.5'")), 0); //$NON-NLS-1$
+    }
+    
     @Test public void testEstimateNdvPostJoin() throws Exception {
     	String query = "SELECT account FROM US.Accounts, Europe.CustAccts, CustomerMaster.Customers where account + accid + CustomerMaster.Customers.id = 1000000"; //$NON-NLS-1$
     	
@@ -0,0 +1,186 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.query.optimizer.relational.rules;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.teiid.api.exception.query.QueryMetadataException;
+import org.teiid.api.exception.query.QueryPlannerException;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.id.IDGenerator;
+import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.metadata.QueryMetadataInterface;
+import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.optimizer.TestOptimizer;
+import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
+import org.teiid.query.optimizer.relational.OptimizerRule;
+import org.teiid.query.optimizer.relational.RelationalPlanner;
+import org.teiid.query.optimizer.relational.RuleStack;
+import org.teiid.query.optimizer.relational.plantree.NodeConstants;
+import org.teiid.query.optimizer.relational.plantree.NodeEditor;
+import org.teiid.query.optimizer.relational.plantree.PlanNode;
+import org.teiid.query.parser.QueryParser;
+import org.teiid.query.resolver.QueryResolver;
+import org.teiid.query.rewriter.QueryRewriter;
+import org.teiid.query.sql.lang.Command;
+import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.CommandContext;
+
+@SuppressWarnings("nls")
+public class TestRulePlanJoins {
+	
+	/**
+	 * Checks that the chosen order of each region costs no more than the greedy order
+	 */
+	private static final class CostCheckingPlanJoins extends RulePlanJoins {
+		int dynamicRegions;
+		
+		@Override
+		Object[] findBestJoinOrder(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context) 
+				throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+			Object[] order = super.findBestJoinOrder(region, metadata, capFinder, context);
+			if (region.getJoinSourceNodes().size() > EXHAUSTIVE_SEARCH_GROUPS) {
+				dynamicRegions++;
+				Object[] greedy = findBestJoinOrderGreedy(region, metadata, capFinder, context);
+				double score = region.scoreRegion(order, 0, metadata, capFinder, context, false);
+				double greedyScore = region.scoreRegion(greedy, 0, metadata, capFinder, context, false);
+				assertTrue(score + " > " + greedyScore, score <= greedyScore);
+			}
+			return order;
+		}
+	}
+	
+	private PlanNode helpPlan(String sql, QueryMetadataInterface metadata, CapabilitiesFinder finder, OptimizerRule planJoins) throws Exception {
+		Command command = QueryParser.getQueryParser().parseCommand(sql);
+		QueryResolver.resolveCommand(command, metadata);
+		CommandContext context = new CommandContext();
+		command = QueryRewriter.rewrite(command, metadata, context);
+		AnalysisRecord analysisRecord = new AnalysisRecord(false, false);
+		RelationalPlanner planner = new RelationalPlanner();
+		planner.initialize(command, new IDGenerator(), metadata, finder, analysisRecord, context);
+		PlanNode plan = planner.generatePlan(command);
+		RuleStack rules = planner.buildRules();
+		while (!rules.isEmpty()) {
+			OptimizerRule rule = rules.pop();
+			if (rule == RuleConstants.COLLAPSE_SOURCE) {
+				//only the access nodes are needed
+				continue;
+			}
+			if (rule == RuleConstants.PLAN_JOINS) {
+				rule = planJoins;
+			}
+			plan = rule.execute(plan, metadata, finder, rules, analysisRecord, context);
+		}
+		return plan;
+	}
+	
+    /**
+     * Planning benchmark for 5-20 way federated joins across 4 sources.  The tables from
+     * each source are joined to each other, so each source should be accessed only once
+     * when joins can be pushed.
+     */
+    @Test(timeout=60000) public void testManyWayFederatedJoinPlanning() throws Exception {
+    	CostCheckingPlanJoins planJoins = new CostCheckingPlanJoins();
+    	for (int tables = 5; tables <= 20; tables++) {
+    		StringBuilder[] ddl = new StringBuilder[Math.min(4, tables)];
+    		StringBuilder from = new StringBuilder();
+    		StringBuilder where = new StringBuilder();
+    		for (int i = 0; i < tables; i++) {
+    			int model = i % 4;
+    			if (ddl[model] == null) {
+    				ddl[model] = new StringBuilder();
+    			}
+    			ddl[model].append("create foreign table t").append(i).append(" (id integer, fk integer) options (cardinality ").append(10 << i%10).append(");");
+    			if (i > 0) {
+    				from.append(", ");
+    				where.append(" and t").append(i - 1).append(".fk = t").append(i).append(".id");
+    			}
+    			from.append("m").append(model).append(".t").append(i);
+    			if (i >= 4) {
+    				where.append(" and t").append(i - 4).append(".id = t").append(i).append(".id");
+    			}
+    		}
+    		RealMetadataFactory.DDLHolder[] holders = new RealMetadataFactory.DDLHolder[ddl.length];
+    		for (int i = 0; i < ddl.length; i++) {
+    			holders[i] = new RealMetadataFactory.DDLHolder("m" + i, ddl[i].toString());
+    		}
+    		TransformationMetadata metadata = RealMetadataFactory.fromDDL("x", holders);
+    		String sql = "select t0.id from " + from + " where" + where.substring(4);
+    		
+    		PlanNode plan = helpPlan(sql, metadata, TestOptimizer.getGenericFinder(), planJoins);
+    		
+    		assertEquals(sql, Math.min(4, tables), NodeEditor.findAllNodes(plan, NodeConstants.Types.ACCESS).size());
+    		
+    		//without join pushdown the full region must be ordered
+    		plan = helpPlan(sql, metadata, TestOptimizer.getGenericFinder(false), planJoins);
+    		
+    		assertEquals(sql, tables, NodeEditor.findAllNodes(plan, NodeConstants.Types.ACCESS).size());
+    	}
+    	assertEquals(13, planJoins.dynamicRegions);
+    }
+    
+    /**
+     * The dynamic search retains a limited number of states, so its order must not be used
+     * if it is more costly than the greedy order.
+     */
+    @Test public void testPrunedDynamicOrderNotUsed() throws Exception {
+    	StringBuilder ddl = new StringBuilder();
+    	StringBuilder from = new StringBuilder();
+    	StringBuilder where = new StringBuilder();
+    	for (int i = 0; i < 8; i++) {
+    		ddl.append("create foreign table t").append(i).append(" (id integer, fk integer) options (cardinality ").append(10 << i).append(");");
+    		if (i > 0) {
+    			from.append(", ");
+    			where.append(" and t").append(i - 1).append(".fk = t").append(i).append(".id");
+    		}
+    		from.append("t").append(i);
+    	}
+    	TransformationMetadata metadata = RealMetadataFactory.fromDDL(ddl.toString(), "x", "y");
+    	final double[] scores = new double[2];
+    	final Object[][] chosen = new Object[2][];
+    	RulePlanJoins planJoins = new RulePlanJoins() {
+    		@Override
+    		Object[] findBestJoinOrderDynamic(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context)
+    				throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+    			//an order of cross joins, as if the better states had been pruned
+    			Object[] order = new Object[] {0, 2, 4, 6, 1, 3, 5, 7};
+    			scores[0] = region.scoreRegion(order, 0, metadata, capFinder, context, false);
+    			scores[1] = region.scoreRegion(findBestJoinOrderGreedy(region, metadata, capFinder, context), 0, metadata, capFinder, context, false);
+    			return order;
+    		}
+    		
+    		@Override
+    		Object[] findBestJoinOrder(JoinRegion region, QueryMetadataInterface metadata, CapabilitiesFinder capFinder, CommandContext context)
+    				throws QueryMetadataException, TeiidComponentException, QueryPlannerException {
+    			chosen[0] = super.findBestJoinOrder(region, metadata, capFinder, context);
+    			chosen[1] = findBestJoinOrderGreedy(region, metadata, capFinder, context);
+    			return chosen[0];
+    		}
+    	};
+    	helpPlan("select t0.id from " + from + " where" + where.substring(4), metadata, TestOptimizer.getGenericFinder(false), planJoins);
+    	assertTrue(scores[0] > scores[1]);
+    	assertArrayEquals(chosen[1], chosen[0]);
+    }
+
+}
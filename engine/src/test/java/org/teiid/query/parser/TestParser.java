@@ -23,6 +23,7 @@
 package org.teiid.query.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -5284,4 +5285,14 @@ public class TestParser {
     	query.setSelect(new Select(Arrays.asList(new Function(SQLConstants.Tokens.DOUBLE_AMP, new Expression[] {new Constant(1), new Constant(2)}))));
         helpTest(sql, "SELECT (1 && 2)", query);
     }
+    
+    @Test public void testParseDefinition() throws QueryParserException {
+    	String sql = "select e1 from pm1.g1 /*+ cache(pref_mem) */";
+    	Command command = QueryParser.getQueryParser().parseDefinition(sql);
+    	Command command1 = QueryParser.getQueryParser().parseDefinition(sql);
+    	//each caller gets a copy that may be modified
+    	assertNotSame(command, command1);
+    	assertEquals(command, command1);
+    	assertEquals(QueryParser.getQueryParser().parseCommand(sql).toString(), command1.toString());
+    }
 }
@@ -35,6 +35,7 @@ import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.dqp.internal.process.AccessInfo;
 import org.teiid.language.Array;
 import org.teiid.language.Comparison;
 import org.teiid.language.Literal;
@@ -49,7 +50,9 @@ import org.teiid.query.optimizer.capabilities.BasicSourceCapabilities;
 import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.FakeCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
+import org.teiid.query.optimizer.relational.StatisticsFeedback;
 import org.teiid.query.parser.QueryParser;
+import org.teiid.query.processor.relational.DependentAccessNode;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.RelationalPlan;
@@ -955,6 +958,51 @@ public class TestDependentJoins {
         assertEquals(4, new HashSet<String>(dataManager.getQueries()).size());
     }
     
+    @Test public void testDependentJoinAdaptiveFullFetch() throws Exception {
+        FakeDataManager dataManager = helpTestBackoff(false, 10);
+        
+        //the actual independent values required more source queries than a full fetch
+        assertEquals(new HashSet<String>(Arrays.asList("SELECT pm6.g1.e1, pm6.g1.e2 FROM pm6.g1 ORDER BY pm6.g1.e1, pm6.g1.e2", "SELECT pm1.g1.e1, pm1.g1.e2 FROM pm1.g1")), 
+        		new HashSet<String>(dataManager.getQueries()));
+    }
+    
+    @Test public void testDependentJoinRange() throws Exception {
+    	String sql = "SELECT pm1.g1.e1, pm2.g1.e1 FROM pm1.g1, pm2.g1 MAKEDEP WHERE pm1.g1.e2 = pm2.g1.e2"; //$NON-NLS-1$
+
+        HardcodedDataManager dataManager = new HardcodedDataManager();
+        dataManager.addData("SELECT pm1.g1.e2, pm1.g1.e1 FROM pm1.g1", new List<?>[] {Arrays.asList(1, "a"), Arrays.asList(2, "b"), Arrays.asList(4, "c")});
+        //the dense values are sent as a single range, which also returns the non-matching 3
+        dataManager.addData("SELECT pm2.g1.e2, pm2.g1.e1 FROM pm2.g1 WHERE (pm2.g1.e2 >= 1) AND (pm2.g1.e2 <= 4)", new List<?>[] {Arrays.asList(1, "x"), Arrays.asList(3, "y"), Arrays.asList(4, "z")});
+
+        BasicSourceCapabilities caps = new BasicSourceCapabilities();
+        caps.setCapabilitySupport(Capability.CRITERIA_IN, true);
+        caps.setCapabilitySupport(Capability.CRITERIA_COMPARE_ORDERED, true);
+        caps.setSourceProperty(Capability.MAX_IN_CRITERIA_SIZE, 1);
+        
+        ProcessorPlan plan = TestProcessor.helpGetPlan(sql, RealMetadataFactory.example1Cached(), new DefaultCapabilitiesFinder(caps));
+
+        TestProcessor.helpProcess(plan, dataManager, new List<?>[] {Arrays.asList("a", "x"), Arrays.asList("c", "z")});
+        assertEquals(2, new HashSet<Command>(dataManager.getCommandHistory()).size());
+    }
+    
+    @Test public void testDependentJoinSparseValues() throws Exception {
+    	String sql = "SELECT pm1.g1.e1, pm2.g1.e1 FROM pm1.g1, pm2.g1 MAKEDEP WHERE pm1.g1.e2 = pm2.g1.e2"; //$NON-NLS-1$
+
+        HardcodedDataManager dataManager = new HardcodedDataManager();
+        dataManager.addData("SELECT pm1.g1.e2, pm1.g1.e1 FROM pm1.g1", new List<?>[] {Arrays.asList(1, "a"), Arrays.asList(100, "b")});
+        dataManager.addData("SELECT pm2.g1.e2, pm2.g1.e1 FROM pm2.g1 WHERE pm2.g1.e2 = 1", new List<?>[] {Arrays.asList(1, "x")});
+        dataManager.addData("SELECT pm2.g1.e2, pm2.g1.e1 FROM pm2.g1 WHERE pm2.g1.e2 = 100", new List<?>[] {});
+
+        BasicSourceCapabilities caps = new BasicSourceCapabilities();
+        caps.setCapabilitySupport(Capability.CRITERIA_IN, true);
+        caps.setCapabilitySupport(Capability.CRITERIA_COMPARE_ORDERED, true);
+        caps.setSourceProperty(Capability.MAX_IN_CRITERIA_SIZE, 1);
+        
+        ProcessorPlan plan = TestProcessor.helpGetPlan(sql, RealMetadataFactory.example1Cached(), new DefaultCapabilitiesFinder(caps));
+
+        TestProcessor.helpProcess(plan, dataManager, new List<?>[] {Arrays.asList("a", "x")});
+    }
+    
     @Test public void testIssue1899() throws Exception {
     	String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm3.g1 WHERE pm1.g1.e1=pm3.g1.e1"; //$NON-NLS-1$
 
@@ -998,6 +1046,12 @@ public class TestDependentJoins {
 	private FakeDataManager helpTestBackoff(boolean setNdv) throws Exception,
 			QueryMetadataException, TeiidComponentException,
 			TeiidProcessingException {
+		return helpTestBackoff(setNdv, 1000);
+	}
+
+	private FakeDataManager helpTestBackoff(boolean setNdv, int depCardinality) throws Exception,
+			QueryMetadataException, TeiidComponentException,
+			TeiidProcessingException {
 		// Create query 
         String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e1=pm6.g1.e1 and pm1.g1.e2=pm6.g1.e2"; //$NON-NLS-1$
 
@@ -1012,7 +1066,7 @@ public class TestDependentJoins {
         	fakeMetadata.getElementID("pm1.g1.e1").setDistinctValues(1);
         	fakeMetadata.getElementID("pm1.g1.e2").setDistinctValues(1);
         }
-        RealMetadataFactory.setCardinality("pm6.g1", 1000, fakeMetadata);
+        RealMetadataFactory.setCardinality("pm6.g1", depCardinality, fakeMetadata);
         if (setNdv) {
         	fakeMetadata.getElementID("pm6.g1.e1").setDistinctValues(1000);
         	fakeMetadata.getElementID("pm6.g1.e2").setDistinctValues(1000);
@@ -1442,8 +1496,7 @@ public class TestDependentJoins {
 	    hdm.addData("SELECT g_0.e1 AS c_0 FROM pm1.g1 AS g_0 ORDER BY c_0", Arrays.asList("a"), Arrays.asList("b"), Arrays.asList("c"));
 	    hdm.addData("SELECT g_0.e2 AS c_0, g_0.e1 AS c_1 FROM pm1.g2 AS g_0 WHERE g_0.e1 IN ('a', 'b')", Arrays.asList(1, "a"), Arrays.asList(2, "b"));
 	    hdm.addData("SELECT g_0.e2 AS c_0, g_0.e1 AS c_1 FROM pm1.g2 AS g_0 WHERE g_0.e1 = 'c'", Arrays.asList(0, "c"));
-	    hdm.addData("SELECT g_0.e2 AS c_0 FROM pm1.g3 AS g_0 WHERE g_0.e2 IN (0, 1)", Arrays.asList(1), Arrays.asList(0));
-	    hdm.addData("SELECT g_0.e2 AS c_0 FROM pm1.g3 AS g_0 WHERE g_0.e2 = 2", Arrays.asList(2));
+	    hdm.addData("SELECT g_0.e2 AS c_0 FROM pm1.g3 AS g_0 WHERE (g_0.e2 >= 0) AND (g_0.e2 <= 2) ORDER BY c_0", Arrays.asList(0), Arrays.asList(1), Arrays.asList(2));
 	    
 	    BasicSourceCapabilities bsc = TestOptimizer.getTypicalCapabilities();
 	    bsc.setSourceProperty(Capability.MAX_IN_CRITERIA_SIZE, 2);
@@ -1455,6 +1508,53 @@ public class TestDependentJoins {
 	    helpProcess(plan, hdm, expected);
 	}
     
+    /**
+     * The dependent side is executed for each row of pm1.g1, which should not be
+     * compared to its per execution estimate as a total
+     */
+    @Test public void testStatisticsFeedbackReexecutedDependentSide() throws Exception { 
+        TransformationMetadata metadata = RealMetadataFactory.example1();
+        RealMetadataFactory.setCardinality("pm1.g1", 100, metadata);
+        RealMetadataFactory.setCardinality("pm1.g2", 100, metadata);
+        RealMetadataFactory.setCardinality("pm1.g3", 100, metadata);
+        metadata.getElementID("pm1.g2.e2").setDistinctValues(100);
+        metadata.getElementID("pm1.g3.e1").setDistinctValues(100);
+        metadata.getElementID("pm1.g3.e2").setDistinctValues(100);
+        String sql = "SELECT g1.e1, x.e1 FROM pm1.g1, TABLE(SELECT g2.e1 FROM pm1.g2 MAKEDEP, pm1.g3 WHERE g2.e2 = g3.e2 AND g3.e1 = g1.e1) AS x"; //$NON-NLS-1$
+        
+        List[] g1 = new List[100];
+        List[] g2 = new List[100];
+        List[] expected = new List[100];
+        for (int i = 0; i < 100; i++) {
+        	g1[i] = Arrays.asList("a" + i, i, false, 0.0);
+        	g2[i] = Arrays.asList("b" + i, i, false, 0.0);
+        	expected[i] = Arrays.asList("a" + i, "b" + i);
+        }
+        FakeDataManager dataManager = new FakeDataManager();
+        dataManager.registerTuples(metadata, "pm1.g1", g1);
+        dataManager.registerTuples(metadata, "pm1.g2", g2);
+        dataManager.registerTuples(metadata, "pm1.g3", g1);
+        
+        BasicSourceCapabilities bsc = TestOptimizer.getTypicalCapabilities();
+        bsc.setCapabilitySupport(Capability.QUERY_FROM_JOIN_INNER, false);
+        bsc.setCapabilitySupport(Capability.QUERY_FROM_JOIN_OUTER, false);
+        bsc.setCapabilitySupport(Capability.QUERY_ORDERBY, false);
+        
+        CommandContext cc = createCommandContext();
+        StatisticsFeedback feedback = new StatisticsFeedback();
+        cc.setStatisticsFeedback(feedback);
+        AccessInfo info = new AccessInfo();
+        info.addAccessedObject(metadata.getGroupID("pm1.g2"));
+        ProcessorPlan plan = TestProcessor.helpGetPlan(helpParse(sql), metadata, new DefaultCapabilitiesFinder(bsc), cc);
+        RelationalNode dependentNode = ((RelationalPlan)plan).getRootNode().getChildren()[0].getChildren()[1].getChildren()[0].getChildren()[1];
+        assertTrue(dependentNode instanceof DependentAccessNode);
+        assertEquals(1, dependentNode.getEstimateNodeCardinality().intValue());
+        
+        doProcess(plan, dataManager, expected, cc);
+        assertEquals(2, feedback.size());
+        assertTrue(feedback.isValid(info, "myvdb", "1"));
+    }
+    
     @Test public void testSortingDependentJoinWithBlockingSubquery() { 
         String sql = "SELECT pm1.g1.e1, pm2.g1.e2 FROM pm1.g1, pm2.g1 WHERE pm1.g1.e1=pm2.g1.e1 and pm1.g1.e2 = (select max(e2) from pm2.g2) option makedep pm1.g1"; //$NON-NLS-1$
         
@@ -27,31 +27,44 @@ import static org.junit.Assert.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.teiid.api.exception.query.QueryMetadataException;
 import org.teiid.cache.DefaultCacheFactory;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.util.ExecutorUtils;
+import org.teiid.core.util.FileUtils;
+import org.teiid.core.util.UnitTestUtil;
 import org.teiid.dqp.internal.process.CachedResults;
 import org.teiid.dqp.internal.process.QueryProcessorFactoryImpl;
 import org.teiid.dqp.internal.process.SessionAwareCache;
+import org.teiid.metadata.Table;
+import org.teiid.query.metadata.MaterializationMetadataRepository;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
 import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.optimizer.TestOptimizer;
+import org.teiid.query.optimizer.capabilities.BasicSourceCapabilities;
 import org.teiid.query.optimizer.capabilities.CapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.relational.RelationalPlanner;
 import org.teiid.query.tempdata.GlobalTableStoreImpl;
+import org.teiid.query.tempdata.GlobalTableStoreImpl.MatState;
 import org.teiid.query.tempdata.GlobalTableStoreImpl.MatTableInfo;
 import org.teiid.query.tempdata.TempTableDataManager;
 import org.teiid.query.tempdata.TempTableStore;
 import org.teiid.query.tempdata.TempTableStore.TransactionMode;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
+import org.teiid.translator.SourceSystemFunctions;
 
 @SuppressWarnings({"nls", "unchecked"})
 public class TestMaterialization {
@@ -62,11 +75,13 @@ public class TestMaterialization {
 	private GlobalTableStoreImpl globalStore;
 	private ProcessorPlan previousPlan;
 	private HardcodedDataManager hdm;
+	private TransformationMetadata actualMetadata;
+	private CapabilitiesFinder finder;
 	
 	@Before public void setUp() {
 		tempStore = new TempTableStore("1", TransactionMode.ISOLATE_WRITES); //$NON-NLS-1$
 	    BufferManager bm = BufferManagerFactory.getStandaloneBufferManager();
-	    TransformationMetadata actualMetadata = RealMetadataFactory.exampleMaterializedView();
+	    actualMetadata = RealMetadataFactory.exampleMaterializedView();
 	    globalStore = new GlobalTableStoreImpl(bm, actualMetadata.getVdbMetaData(), actualMetadata);
 		metadata = new TempMetadataAdapter(actualMetadata, tempStore.getMetadataStore());
 		hdm = new HardcodedDataManager();
@@ -77,6 +92,7 @@ public class TestMaterialization {
 	    SessionAwareCache<CachedResults> cache = new SessionAwareCache<CachedResults>("resultset", DefaultCacheFactory.INSTANCE, SessionAwareCache.Type.RESULTSET, 0);
 	    cache.setTupleBufferCache(bm);
 		dataManager = new TempTableDataManager(hdm, bm, cache);
+		finder = new DefaultCapabilitiesFinder();
 	}
 	
 	private void execute(String sql, List<?>... expectedResults) throws Exception {
@@ -84,7 +100,6 @@ public class TestMaterialization {
 		cc.setTempTableStore(tempStore);
 		cc.setGlobalTableStore(globalStore);
 		cc.setMetadata(metadata);
-		CapabilitiesFinder finder = new DefaultCapabilitiesFinder();
 		previousPlan = TestProcessor.helpGetPlan(TestProcessor.helpParse(sql), metadata, finder, cc);
 		cc.setQueryProcessorFactory(new QueryProcessorFactoryImpl(BufferManagerFactory.getStandaloneBufferManager(), dataManager, finder, null, metadata));
 		TestProcessor.doProcess(previousPlan, dataManager, expectedResults, cc);
@@ -116,6 +131,129 @@ public class TestMaterialization {
 		this.globalStore.setState(codeTableName, new ByteArrayInputStream(baos.toByteArray()));
 	}
 	
+	@Test public void testPersistentRestore() throws Exception {
+		File dir = new File(UnitTestUtil.getTestScratchPath(), "matpersist");
+		FileUtils.removeDirectoryAndChildren(dir);
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup3");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PERSISTENT, "true");
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(ExecutorUtils.getDirectExecutor());
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		assertEquals(1, hdm.getCommandHistory().size());
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		long time = globalStore.getMatTableInfo(matTableName).getUpdateTime();
+		assertTrue(new File(dir, matTableName + ".mat").exists());
+		
+		//simulate a restart
+		globalStore = new GlobalTableStoreImpl(BufferManagerFactory.getStandaloneBufferManager(), actualMetadata.getVdbMetaData(), actualMetadata);
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(ExecutorUtils.getDirectExecutor());
+		execute("SELECT * from vgroup3 where x = 'two'", Arrays.asList("two", "zwo"));
+		assertEquals(1, hdm.getCommandHistory().size());
+		assertEquals(time, globalStore.getMatTableInfo(matTableName).getUpdateTime());
+		FileUtils.removeDirectoryAndChildren(dir);
+	}
+	
+	@Test public void testPersistentRestoreExpired() throws Exception {
+		File dir = new File(UnitTestUtil.getTestScratchPath(), "matpersistttl");
+		FileUtils.removeDirectoryAndChildren(dir);
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup4");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PERSISTENT, "true");
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(ExecutorUtils.getDirectExecutor());
+		execute("SELECT * from vgroup4 where x = 'one'", Arrays.asList("one"));
+		assertEquals(1, hdm.getCommandHistory().size());
+		
+		//restart after the ttl has passed
+		globalStore = new GlobalTableStoreImpl(BufferManagerFactory.getStandaloneBufferManager(), actualMetadata.getVdbMetaData(), actualMetadata) {
+			@Override
+			protected long currentTimeMillis() {
+				return super.currentTimeMillis() + 1000;
+			}
+		};
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(ExecutorUtils.getDirectExecutor());
+		execute("SELECT * from vgroup4 where x = 'one'", Arrays.asList("one"));
+		assertEquals(2, hdm.getCommandHistory().size());
+		FileUtils.removeDirectoryAndChildren(dir);
+	}
+	
+	@Test public void testPersistentRestoreAsynch() throws Exception {
+		File dir = new File(UnitTestUtil.getTestScratchPath(), "matpersistasynch");
+		FileUtils.removeDirectoryAndChildren(dir);
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup3");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PERSISTENT, "true");
+		final List<Runnable> tasks = new ArrayList<Runnable>();
+		Executor queue = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				tasks.add(command);
+			}
+		};
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(queue);
+		execute("SELECT * from vgroup3 where x = 'one'", Arrays.asList("one", "zne"));
+		String matTableName = RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP3";
+		//the checkpoint is not written by the request
+		assertFalse(new File(dir, matTableName + ".mat").exists());
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertTrue(new File(dir, matTableName + ".mat").exists());
+		
+		globalStore = new GlobalTableStoreImpl(BufferManagerFactory.getStandaloneBufferManager(), actualMetadata.getVdbMetaData(), actualMetadata);
+		globalStore.setPersistentDirectory(dir);
+		globalStore.setPersistentExecutor(queue);
+		globalStore.getGlobalTempTableMetadataId(table);
+		//requests wait for the restore as they would for a load
+		MatTableInfo info = globalStore.getMatTableInfo(matTableName);
+		assertEquals(MatState.LOADING, info.getState());
+		assertEquals(1, tasks.size());
+		tasks.remove(0).run();
+		assertEquals(MatState.LOADED, info.getState());
+		execute("SELECT * from vgroup3 where x = 'two'", Arrays.asList("two", "zwo"));
+		assertEquals(1, hdm.getCommandHistory().size());
+		FileUtils.removeDirectoryAndChildren(dir);
+	}
+	
+	@Test public void testPartitionedLoad() throws Exception {
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup9");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COLUMN, "e2");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COUNT, "3");
+		BasicSourceCapabilities caps = TestOptimizer.getTypicalCapabilities();
+		caps.setFunctionSupport(SourceSystemFunctions.MOD, true);
+		caps.setFunctionSupport(SourceSystemFunctions.ABS, true);
+		finder = new DefaultCapabilitiesFinder(caps);
+		hdm.addData("SELECT g_0.e2, g_0.e1 FROM MatTable.info AS g_0 WHERE (abs(mod(g_0.e2, 3)) = 0) OR (g_0.e2 IS NULL)", new List[0]);
+		hdm.addData("SELECT g_0.e2, g_0.e1 FROM MatTable.info AS g_0 WHERE abs(mod(g_0.e2, 3)) = 1", new List[] {Arrays.asList(1, "a")});
+		hdm.addData("SELECT g_0.e2, g_0.e1 FROM MatTable.info AS g_0 WHERE abs(mod(g_0.e2, 3)) = 2", new List[] {Arrays.asList(2, "a")});
+		execute("SELECT * from vgroup9 order by e2", Arrays.asList(1, "a"), Arrays.asList(2, "a"));
+		assertEquals(3, hdm.getCommandHistory().size());
+		execute("SELECT * from vgroup9 where e2 = 2", Arrays.asList(2, "a"));
+		assertEquals(3, hdm.getCommandHistory().size());
+		assertEquals(2, globalStore.getTempTable(RelationalPlanner.MAT_PREFIX + "MATVIEW.VGROUP9").getRowCount());
+	}
+	
+	@Test public void testPartitionedLoadCriteriaNotPushed() throws Exception {
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup9");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COLUMN, "e2");
+		execute("SELECT * from vgroup9 order by e2", Arrays.asList(1, "a"), Arrays.asList(2, "a"));
+		//a single unpartitioned query, rather than one full read per partition
+		assertEquals(1, hdm.getCommandHistory().size());
+	}
+	
+	@Test(expected=QueryMetadataException.class) public void testPartitionedLoadInvalidColumn() throws Exception {
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup9");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COLUMN, "e1");
+		execute("SELECT * from vgroup9");
+	}
+	
+	@Test(expected=QueryMetadataException.class) public void testPartitionedLoadInvalidCount() throws Exception {
+		Table table = (Table)actualMetadata.getGroupID("MatView.VGroup9");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COLUMN, "e2");
+		table.setProperty(MaterializationMetadataRepository.MATVIEW_PARTITION_COUNT, "x");
+		execute("SELECT * from vgroup9");
+	}
+	
     @Test(expected=TeiidProcessingException.class) public void testCodeTableResponseException() throws Exception {
     	//duplicate key
     	execute("select lookup('mattable.info', 'e2', 'e1', 'a')");
@@ -171,6 +309,37 @@ public class TestMaterialization {
 		execute("SELECT * from vgroup7 where y is null", Arrays.asList("1", null, 1));
 	}
 	
+	@Test public void testIncludedColumnsSecondaryIndex() throws Exception {
+		execute("SELECT y, z from vgroup8 where y in ('zne', 'zwo') order by y desc", Arrays.asList("zwo", 3), Arrays.asList("zne", 3));
+		execute("SELECT y, z from vgroup8 where y = 'zhree'", Arrays.asList("zhree", 5));
+	}
+	
+	@Test public void testIndexIntersection() throws Exception {
+		List<?>[] data = new List<?>[1000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = Arrays.asList(String.valueOf(i));
+		}
+		hdm.addData("SELECT MatSrc.MatSrc.x FROM MatSrc.MatSrc", data);
+		execute("SELECT * from vgroup8 where y = 'z00' and z = 3 and x < '3'", Arrays.asList("100", "z00", 3, "100"), Arrays.asList("200", "z00", 3, "200"));
+		execute("SELECT x from vgroup8 where y = 'z5' and z = 3");
+		execute("SELECT x from vgroup8 where y = 'z5' and z = 2 and x < '2'", Arrays.asList("15"));
+		execute("SELECT count(*) from vgroup8 where y = 'z5' and z = 2", Arrays.asList(9));
+	}
+	
+	@Test public void testIndexIntersectionSmall() throws Exception {
+		execute("SELECT * from vgroup8 where y >= 'zne' and z = 3 order by x", Arrays.asList("one", "zne", 3, "ONE"), Arrays.asList("two", "zwo", 3, "TWO"));
+		execute("SELECT * from vgroup8 where y < 'zne' and z = 5", Arrays.asList("three", "zhree", 5, "THREE"));
+		execute("SELECT * from vgroup8 where y = 'zne' and z = 5");
+	}
+	
+	@Test public void testIndexDistinctValues() throws Exception {
+		execute("SELECT x from vgroup8 where z = 5", Arrays.asList("three"));
+		TempMetadataID id = this.globalStore.getGlobalTempTableMetadataId(metadata.getGroupID("MatView.vgroup8"));
+		assertEquals(3, id.getElements().get(0).getDistinctValues(), 0);
+		assertEquals(3, id.getElements().get(1).getDistinctValues(), 0);
+		assertEquals(2, id.getElements().get(2).getDistinctValues(), 0);
+	}
+	
 	@Test public void testFunctionBasedIndexQuery() throws Exception {
 		TempMetadataID id = this.globalStore.getGlobalTempTableMetadataId(metadata.getGroupID("MatView.vgroup2a"));
 		assertEquals("SELECT MatView.VGroup2a.*, ucase(x) FROM MatView.VGroup2a option nocache MatView.VGroup2a", id.getQueryNode().getQuery());
@@ -4521,16 +4521,14 @@ public class TestProcessor {
                        };
                    hardCoded.addData("SELECT g_0.e2 AS c_0 FROM pm1.g1 AS g_0 ORDER BY c_0", results); //$NON-NLS-1$
                } else {
+                   //the dependent values are dense, so a single range is used
                    results = new List[] { 
                        Arrays.asList(new Object[] {new Integer(1),}),
-                       Arrays.asList(new Object[] {new Integer(2),}),
                        Arrays.asList(new Object[] {new Integer(1),}), 
-                       };
-                   hardCoded.addData("SELECT g_0.e2 AS c_0 FROM pm1.g1 AS g_0 WHERE g_0.e2 IN (1, 2)", results); //$NON-NLS-1$
-                   results = new List[] { 
+                       Arrays.asList(new Object[] {new Integer(2),}),
                        Arrays.asList(new Object[] {new Integer(3),}), 
                        };
-                   hardCoded.addData("SELECT g_0.e2 AS c_0 FROM pm1.g1 AS g_0 WHERE g_0.e2 IN (3, 4)", results); //$NON-NLS-1$
+                   hardCoded.addData("SELECT g_0.e2 AS c_0 FROM pm1.g1 AS g_0 WHERE (g_0.e2 >= 1) AND (g_0.e2 <= 4) ORDER BY c_0", results); //$NON-NLS-1$
                }
                dataManager = hardCoded;
            }
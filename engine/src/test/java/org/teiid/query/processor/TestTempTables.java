@@ -619,6 +619,18 @@ public class TestTempTables extends TempTableTestHarness {
 		execute("select x.e1 from x inner join /*+ makeind */ x1 on x.e3 = x1.e3 and x.e2 = x1.e2", new List[] {Arrays.asList("2"), Arrays.asList("1")}); //$NON-NLS-1$
 	}
 	
+	@Test public void testCompoundKeyRange() throws Exception {
+		execute("create local temporary table x (e1 string, e2 integer, e3 string, primary key (e1, e2))", new List[] {Arrays.asList(0)}); //$NON-NLS-1$
+		for (int i = 0; i < 4; i++) {
+			execute("insert into x (e1, e2, e3) values ('a', "+i+", 'x')", new List[] {Arrays.asList(1)}); //$NON-NLS-1$
+			execute("insert into x (e1, e2, e3) values ('b', "+i+", 'y')", new List[] {Arrays.asList(1)}); //$NON-NLS-1$
+		}
+		execute("select e1, e2 from x where e1 = 'a' and e2 > 1", new List[] {Arrays.asList("a", 2), Arrays.asList("a", 3)}); //$NON-NLS-1$
+		execute("select e1, e2 from x where e1 = 'b' and e2 <= 1", new List[] {Arrays.asList("b", 0), Arrays.asList("b", 1)}); //$NON-NLS-1$
+		execute("select e1, e2 from x where e1 = 'b' and e2 >= 1 and e2 < 3", new List[] {Arrays.asList("b", 1), Arrays.asList("b", 2)}); //$NON-NLS-1$
+		execute("select e1, e2 from x where e1 = 'a' and e2 < 3 and e2 = 1", new List[] {Arrays.asList("a", 1)}); //$NON-NLS-1$
+	}
+	
 	@Test public void testSubquery() throws Exception {
 		execute("create local temporary table x (e1 string, e2 integer, e3 integer, primary key (e2, e3))", new List[] {Arrays.asList(0)}); //$NON-NLS-1$
 
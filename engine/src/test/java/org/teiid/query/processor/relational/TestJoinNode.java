@@ -879,6 +879,39 @@ public class TestJoinNode {
         helpTestJoinDirect(expected, 40, 1);
     }
     
+    /**
+     * The source claims to be sorted, but is not and has duplicates
+     */
+    @Test public void testMergeJoinOptimizationNotAlreadySorted() throws Exception {
+        this.joinType = JoinType.JOIN_INNER;
+        int rows = 50;
+        List[] data = new List[rows];
+        for(int i=0; i<rows; i++) { 
+            data[i] = new ArrayList();
+            Integer value = new Integer((i*17) % 47);
+            data[i].add(value);
+        }
+        this.leftTuples = data;
+        this.rightTuples = new List[] {
+            Arrays.asList(4),  
+            Arrays.asList(2),
+            Arrays.asList(8),
+            Arrays.asList(2),
+            Arrays.asList(1),
+        };
+        expected = new List[] {
+           Arrays.asList(new Object[] { 4, 4 }),
+           Arrays.asList(new Object[] { 8, 8 }),
+           Arrays.asList(new Object[] { 2, 2 }),
+           Arrays.asList(new Object[] { 2, 2 }),
+           Arrays.asList(new Object[] { 1, 1 })
+        };
+        helpCreateJoin();               
+        this.joinStrategy = new EnhancedSortMergeJoinStrategy(SortOption.SORT, SortOption.ALREADY_SORTED);
+        this.join.setJoinStrategy(joinStrategy);
+        helpTestJoinDirect(expected, 40, 1);
+    }
+    
     @Test public void testMergeJoinPrefetchAlreadySorted() throws Exception {
         this.joinType = JoinType.JOIN_INNER;
         int rows = 50;
@@ -547,6 +547,28 @@ public class RealMetadataFactory {
         
         createKey(KeyRecord.Type.Primary, "pk", vGroup7, vElements7.subList(1, 2));
         
+        //index with included columns and an additional index
+        QueryNode vTrans8 = new QueryNode("SELECT x, 'z' || substring(x, 2) as y, length(x) as z, upper(x) as w FROM matsrc");         //$NON-NLS-1$ //$NON-NLS-2$
+        Table vGroup8 = createVirtualGroup("VGroup8", virtModel, vTrans8); //$NON-NLS-1$
+        vGroup8.setMaterialized(true);
+        List<Column> vElements8 = createElements(vGroup8,
+                                      new String[] { "x", "y", "z", "w" }, //$NON-NLS-1$
+                                      new String[] { DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.INTEGER, DataTypeManager.DefaultDataTypes.STRING});
+        
+        createKey(KeyRecord.Type.Primary, "pk", vGroup8, vElements8.subList(0, 1));
+        KeyRecord idx8 = createKey(KeyRecord.Type.Index, "idx", vGroup8, vElements8.subList(1, 2));
+        idx8.setProperty(KeyRecord.INCLUDE, "z");
+        createKey(KeyRecord.Type.Index, "idx1", vGroup8, vElements8.subList(2, 3));
+        
+        QueryNode vTrans9 = new QueryNode("SELECT e2, e1 FROM MatTable.info");         //$NON-NLS-1$
+        Table vGroup9 = createVirtualGroup("VGroup9", virtModel, vTrans9); //$NON-NLS-1$
+        vGroup9.setMaterialized(true);
+        List<Column> vElements9 = createElements(vGroup9,
+                                      new String[] { "e2", "e1" }, //$NON-NLS-1$
+                                      new String[] { DataTypeManager.DefaultDataTypes.INTEGER, DataTypeManager.DefaultDataTypes.STRING});
+        
+        createKey(KeyRecord.Type.Primary, "pk", vGroup9, vElements9.subList(0, 1));
+        
         Schema sp = createVirtualModel("sp", metadataStore); //$NON-NLS-1$
         ColumnSet<Procedure> rs = createResultSet("sp1.vsprs1", new String[] { "StringKey" }, new String[] { DataTypeManager.DefaultDataTypes.STRING }); //$NON-NLS-1$ //$NON-NLS-2$
         ProcedureParameter param = createParameter("param1", ParameterInfo.IN, DataTypeManager.DefaultDataTypes.STRING); //$NON-NLS-1$
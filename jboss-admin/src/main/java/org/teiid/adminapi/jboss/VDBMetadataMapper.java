@@ -1163,6 +1163,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 		private static final String ACTIVE_PLAN_COUNT = "active-plans-count"; //$NON-NLS-1$
 		private static final String WAITING_PLAN_COUNT = "waiting-plans-count"; //$NON-NLS-1$
 		private static final String MAX_WAIT_PLAN_COUNT = "max-waitplan-watermark"; //$NON-NLS-1$
+		private static final String PLANNING_COUNT = "planning-count"; //$NON-NLS-1$
+		private static final String TOTAL_PLANNING_TIME = "total-planning-time-ms"; //$NON-NLS-1$
+		private static final String PLANNING_RULE_STATISTICS = "planning-rule-statistics"; //$NON-NLS-1$
 		
 		public static EngineStatisticsMetadataMapper INSTANCE = new EngineStatisticsMetadataMapper();
 		
@@ -1181,6 +1184,11 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			node.get(ACTIVE_PLAN_COUNT).set(object.getActivePlanCount());
 			node.get(WAITING_PLAN_COUNT).set(object.getWaitPlanCount());
 			node.get(MAX_WAIT_PLAN_COUNT).set(object.getMaxWaitPlanWaterMark());
+			node.get(PLANNING_COUNT).set(object.getPlanningCount());
+			node.get(TOTAL_PLANNING_TIME).set(object.getTotalPlanningTimeInMilli());
+			if (object.getPlanningRuleStatistics() != null) {
+				node.get(PLANNING_RULE_STATISTICS).set(object.getPlanningRuleStatistics());
+			}
 			
 			wrapDomain(object, node);
 			return node;
@@ -1202,6 +1210,13 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			stats.setActivePlanCount(node.get(ACTIVE_PLAN_COUNT).asInt());
 			stats.setWaitPlanCount(node.get(WAITING_PLAN_COUNT).asInt());
 			stats.setMaxWaitPlanWaterMark(node.get(MAX_WAIT_PLAN_COUNT).asInt());
+			if (node.has(PLANNING_COUNT)) {
+				stats.setPlanningCount(node.get(PLANNING_COUNT).asLong());
+				stats.setTotalPlanningTimeInMilli(node.get(TOTAL_PLANNING_TIME).asLong());
+			}
+			if (node.has(PLANNING_RULE_STATISTICS)) {
+				stats.setPlanningRuleStatistics(node.get(PLANNING_RULE_STATISTICS).asString());
+			}
 			
 			unwrapDomain(stats, node);
 			return stats;
@@ -1219,6 +1234,9 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 			addAttribute(node, ACTIVE_PLAN_COUNT, ModelType.INT, true);
 			addAttribute(node, WAITING_PLAN_COUNT, ModelType.INT, true);
 			addAttribute(node, MAX_WAIT_PLAN_COUNT, ModelType.INT, true);
+			addAttribute(node, PLANNING_COUNT, ModelType.LONG, true);
+			addAttribute(node, TOTAL_PLANNING_TIME, ModelType.LONG, true);
+			addAttribute(node, PLANNING_RULE_STATISTICS, ModelType.STRING, false);
 			return node;
 		}
 		
@@ -1234,7 +1252,10 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
 					new SimpleAttributeDefinition(DISK_SPACE_USED, ModelType.LONG, false),
 					new SimpleAttributeDefinition(ACTIVE_PLAN_COUNT, ModelType.INT, false),
 					new SimpleAttributeDefinition(WAITING_PLAN_COUNT, ModelType.INT, false),
-					new SimpleAttributeDefinition(MAX_WAIT_PLAN_COUNT, ModelType.INT, false)
+					new SimpleAttributeDefinition(MAX_WAIT_PLAN_COUNT, ModelType.INT, false),
+					new SimpleAttributeDefinition(PLANNING_COUNT, ModelType.LONG, false),
+					new SimpleAttributeDefinition(TOTAL_PLANNING_TIME, ModelType.LONG, false),
+					new SimpleAttributeDefinition(PLANNING_RULE_STATISTICS, ModelType.STRING, true)
 			};
 		}		
 	}	
@@ -34,6 +34,7 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
 import org.teiid.PreParser;
+import org.teiid.adminapi.VDB.Status;
 import org.teiid.adminapi.impl.SessionMetadata;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.core.TeiidRuntimeException;
@@ -122,6 +123,9 @@ public class DQPCoreService extends DQPConfiguration implements Serializable, Se
 
 			@Override
 			public void finishedDeployment(String name, CompositeVDB cvdb) {
+				if (cvdb.getVDB().getStatus().equals(Status.ACTIVE)) {
+					dqpCore.warmPlanCache(cvdb.getVDB());
+				}
 			}			
 			
 			@Override
@@ -75,6 +75,7 @@ import org.teiid.metadata.MetadataStore;
 import org.teiid.metadata.index.IndexMetadataRepository;
 import org.teiid.query.metadata.VDBResources;
 import org.teiid.runtime.AbstractVDBDeployer;
+import org.teiid.runtime.MetadataSnapshot;
 import org.teiid.translator.ExecutionFactory;
 import org.teiid.translator.TranslatorException;
 import org.teiid.vdb.runtime.VDBKey;
@@ -310,7 +311,8 @@ class VDBService extends AbstractVDBDeployer implements Service<RuntimeVDB> {
 				Map<String, Datatype> datatypes = getVDBRepository().getRuntimeTypeMap();
 				Map<String, Datatype> builtin = getVDBRepository().getSystemStore().getDatatypes();
 				final File cachedFile = getSerializer().buildModelFile(vdb, model.getName());
-				MetadataFactory factory = getSerializer().loadSafe(cachedFile, MetadataFactory.class);
+				final byte[] checksum = MetadataSnapshot.computeChecksum(vdb, model, vdbResources);
+				MetadataFactory factory = MetadataSnapshot.read(cachedFile, checksum);
 				if (factory != null) {
 					factory.correctDatatypes(datatypes, builtin);
 					cached = true;
@@ -357,7 +359,7 @@ class VDBService extends AbstractVDBDeployer implements Service<RuntimeVDB> {
 			    	if (ex == null) {
 			    		if (!cached) {
 				    		// cache the schema to disk
-							cacheMetadataStore(model, factory);
+							cacheMetadataStore(model, factory, checksum);
 			    		}
 						
 						metadataLoaded(vdb, model, vdbMetadataStore, loadCount, factory, true);
@@ -401,26 +403,11 @@ class VDBService extends AbstractVDBDeployer implements Service<RuntimeVDB> {
 		});
 	}	
     
-	private void cacheMetadataStore(final ModelMetaData model, MetadataFactory schema) {
-		boolean cache = true;
-		if (vdb.isXmlDeployment()) {
-			cache = "cached".equalsIgnoreCase(vdb.getPropertyValue("UseConnectorMetadata")); //$NON-NLS-1$ //$NON-NLS-2$
-		}
-		
-		String prop = vdb.getPropertyValue("cache-metadata"); //$NON-NLS-1$
-		if (prop != null) {
-			cache = Boolean.valueOf(prop);	
-		}
-		prop = model.getPropertyValue("cache-metadata"); //$NON-NLS-1$
-		if (prop != null) {
-			LogManager.logDetail(LogConstants.CTX_RUNTIME, model, "using metadata caching value", prop); //$NON-NLS-1$
-			cache = Boolean.valueOf(prop);	
-		}
-				
-		if (cache) {
+	private void cacheMetadataStore(final ModelMetaData model, MetadataFactory schema, byte[] checksum) {
+		if (isCacheMetadata(vdb, model)) {
 			final File cachedFile = getSerializer().buildModelFile(vdb, model.getName());
 			try {
-				getSerializer().saveAttachment(cachedFile, schema, false);
+				MetadataSnapshot.write(cachedFile, checksum, schema);
 			} catch (Exception e) {
 				LogManager.logWarning(LogConstants.CTX_RUNTIME, e, IntegrationPlugin.Util.gs(IntegrationPlugin.Event.TEIID50044, vdb.getName(), vdb.getVersion(), model.getName()));
 			}
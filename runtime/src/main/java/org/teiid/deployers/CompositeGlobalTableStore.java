@@ -22,6 +22,7 @@
 
 package org.teiid.deployers;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
@@ -47,11 +48,18 @@ import org.teiid.query.tempdata.TempTable;
 import org.teiid.runtime.RuntimePlugin;
 
 public class CompositeGlobalTableStore implements GlobalTableStore {
+	
+	public static final String PERSISTENT_DIRECTORY = "org.teiid.matViewPersistentDirectory"; //$NON-NLS-1$
 
 	public static GlobalTableStore createInstance(CompositeVDB vdb, BufferManager bufferManager, ObjectReplicator replicator) {
 		VDBMetaData vdbMetadata = vdb.getVDB();
 		QueryMetadataInterface metadata = vdbMetadata.getAttachment(TransformationMetadata.class);
-		GlobalTableStore gts = new GlobalTableStoreImpl(bufferManager, vdbMetadata, metadata);
+		GlobalTableStoreImpl impl = new GlobalTableStoreImpl(bufferManager, vdbMetadata, metadata);
+		String persistentDirectory = System.getProperties().getProperty(PERSISTENT_DIRECTORY);
+		if (persistentDirectory != null) {
+			impl.setPersistentDirectory(new File(persistentDirectory, vdbMetadata.getName() + "_" + vdbMetadata.getVersion())); //$NON-NLS-1$
+		}
+		GlobalTableStore gts = impl;
 		if (replicator != null) {
 			try {
 				gts = replicator.replicate(vdbMetadata.getFullName(), GlobalTableStore.class, gts, 300000);
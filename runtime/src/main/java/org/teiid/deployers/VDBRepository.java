@@ -328,6 +328,7 @@ public class VDBRepository implements Serializable{
 		}
 		synchronized (metadataAwareVDB) {
 			try {
+				long start = System.currentTimeMillis();
 				try {
 					v.metadataLoadFinished();
 				} catch (MetadataException e) {
@@ -342,7 +343,10 @@ public class VDBRepository implements Serializable{
 						}
 					}
 				}
+				long validationStart = System.currentTimeMillis();
 				ValidatorReport report = new MetadataValidator().validate(metadataAwareVDB, metadataAwareVDB.removeAttachment(MetadataStore.class));
+				long end = System.currentTimeMillis();
+				LogManager.logInfo(LogConstants.CTX_RUNTIME, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40165, name, version, validationStart - start, end - validationStart));
 	
 				if (report.hasItems()) {
 					LogManager.logInfo(LogConstants.CTX_RUNTIME, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40073, name, version));
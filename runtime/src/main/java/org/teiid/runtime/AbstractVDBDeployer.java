@@ -204,16 +204,32 @@ public abstract class AbstractVDBDeployer {
 			}
 		}
 		
+		List<ModelMetaData> models = new ArrayList<ModelMetaData>();
 		for (ModelMetaData model: vdb.getModelMetaDatas().values()) {
-			MetadataRepository metadataRepository = model.getAttachment(MetadataRepository.class);
 			if (model.getModelType() == Model.Type.PHYSICAL || model.getModelType() == Model.Type.VIRTUAL) {
-				loadMetadata(vdb, model, cmr, metadataRepository, store, loadCount, vdbResources);
-				LogManager.logTrace(LogConstants.CTX_RUNTIME, "Model ", model.getName(), "in VDB ", vdb.getName(), " was being loaded from its repository"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				models.add(model);
 			}
 			else {
 				LogManager.logTrace(LogConstants.CTX_RUNTIME, "Model ", model.getName(), "in VDB ", vdb.getName(), " skipped being loaded because of its type ", model.getModelType()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 			}
 		}
+		vdb.addAttchment(MetadataLoadStart.class, new MetadataLoadStart());
+		loadModels(vdb, models, cmr, store, loadCount, vdbResources);
+	}
+	
+	/**
+	 * Load the metadata for each of the models.  By default each model load is initiated in order 
+	 * from the calling thread.  Subclasses may load the models concurrently, but each load must
+	 * still call {@link #metadataLoaded(VDBMetaData, ModelMetaData, MetadataStore, AtomicInteger, MetadataFactory, boolean)}
+	 * or {@link #metadataLoadComplete(VDBMetaData)} once the loadCount is exhausted.
+	 */
+	protected void loadModels(VDBMetaData vdb, List<ModelMetaData> models, ConnectorManagerRepository cmr,
+			MetadataStore store, AtomicInteger loadCount, VDBResources vdbResources) throws TranslatorException {
+		for (ModelMetaData model : models) {
+			MetadataRepository metadataRepository = model.getAttachment(MetadataRepository.class);
+			loadMetadata(vdb, model, cmr, metadataRepository, store, loadCount, vdbResources);
+			LogManager.logTrace(LogConstants.CTX_RUNTIME, "Model ", model.getName(), "in VDB ", vdb.getName(), " was being loaded from its repository"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
 	}
 	
 	protected abstract VDBRepository getVDBRepository();
@@ -228,8 +244,10 @@ public abstract class AbstractVDBDeployer {
 			final MetadataStore vdbMetadataStore,
 			final AtomicInteger loadCount, MetadataFactory factory, boolean success) {
 		if (success) {
-			// merge into VDB metadata
-			factory.mergeInto(vdbMetadataStore);
+			// merge into VDB metadata, the models may be loaded concurrently
+			synchronized (vdbMetadataStore) {
+				factory.mergeInto(vdbMetadataStore);
+			}
 		
 			//TODO: this is not quite correct, the source may be missing
 			model.clearRuntimeMessages();
@@ -241,10 +259,50 @@ public abstract class AbstractVDBDeployer {
 		}
 		
 		if (loadCount.decrementAndGet() == 0 || vdb.getStatus() == Status.FAILED) {
-			getVDBRepository().finishDeployment(vdb.getName(), vdb.getVersion());
+			metadataLoadComplete(vdb);
 		}
 	}
 	
+	/**
+	 * Called once all of the model loads have completed or one has failed
+	 */
+	protected void metadataLoadComplete(VDBMetaData vdb) {
+		MetadataLoadStart loadStart = vdb.removeAttachment(MetadataLoadStart.class);
+		if (loadStart != null && vdb.getStatus() != Status.FAILED) {
+			LogManager.logInfo(LogConstants.CTX_RUNTIME, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40164, vdb.getName(), vdb.getVersion(), System.currentTimeMillis() - loadStart.start));
+		}
+		getVDBRepository().finishDeployment(vdb.getName(), vdb.getVersion());
+	}
+	
+	/**
+	 * Determine if the loaded metadata for the model should be cached using the 
+	 * cache-metadata vdb and model properties.
+	 */
+	protected boolean isCacheMetadata(VDBMetaData vdb, ModelMetaData model) {
+		boolean cache = true;
+		if (vdb.isXmlDeployment()) {
+			cache = "cached".equalsIgnoreCase(vdb.getPropertyValue("UseConnectorMetadata")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		
+		String prop = vdb.getPropertyValue("cache-metadata"); //$NON-NLS-1$
+		if (prop != null) {
+			cache = Boolean.valueOf(prop);	
+		}
+		prop = model.getPropertyValue("cache-metadata"); //$NON-NLS-1$
+		if (prop != null) {
+			LogManager.logDetail(LogConstants.CTX_RUNTIME, model, "using metadata caching value", prop); //$NON-NLS-1$
+			cache = Boolean.valueOf(prop);	
+		}
+		return cache;
+	}
+	
+	/**
+	 * Marks the start of the metadata load for the deployment log
+	 */
+	static class MetadataLoadStart {
+		final long start = System.currentTimeMillis();
+	}
+	
 	protected MetadataFactory createMetadataFactory(VDBMetaData vdb,
 			ModelMetaData model, Map<String, ? extends VDBResource> vdbResources) {
 		Map<String, Datatype> datatypes = this.getVDBRepository().getRuntimeTypeMap();
@@ -24,6 +24,7 @@ package org.teiid.runtime;
 import org.teiid.adminapi.Admin;
 import org.teiid.adminapi.impl.EngineStatisticsMetadata;
 import org.teiid.dqp.internal.process.DQPCore;
+import org.teiid.query.analysis.PlanningStatistics;
 import org.teiid.services.BufferServiceImpl;
 
 public class EmbeddedAdminFactory {
@@ -49,6 +50,12 @@ public class EmbeddedAdminFactory {
 		stats.setActivePlanCount(dqp.getActivePlanCount());
 		stats.setWaitPlanCount(dqp.getWaitingPlanCount());
 		stats.setMaxWaitPlanWaterMark(dqp.getMaxWaitingPlanWatermark());
+		PlanningStatistics planningStatistics = dqp.getPlanningStatistics();
+		if (planningStatistics != null) {
+			stats.setPlanningCount(planningStatistics.getPlanCount());
+			stats.setTotalPlanningTimeInMilli(planningStatistics.getTotalNanos()/1000000);
+			stats.setPlanningRuleStatistics(planningStatistics.toString());
+		}
 		return stats;
 	}
 
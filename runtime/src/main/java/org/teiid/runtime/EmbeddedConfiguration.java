@@ -54,6 +54,7 @@ public class EmbeddedConfiguration extends DQPConfiguration {
 	private WorkManager workManager;
 	private boolean useDisk = true;
 	private String bufferDirectory;
+	private String metadataCacheDirectory;
 	private CacheFactory cacheFactory;
 	private int maxResultSetCacheStaleness = DEFAULT_MAX_STALENESS_SECONDS;
 	private String infinispanConfigFile = "infinispan-config.xml"; //$NON-NLS-1$
@@ -167,6 +168,19 @@ public class EmbeddedConfiguration extends DQPConfiguration {
 		return this.bufferDirectory;
 	}
 	
+	/**
+	 * The directory to hold snapshots of the loaded model metadata.  
+	 * If null, the default, the metadata is not cached.  
+	 * Caching is controlled per vdb or model with the cache-metadata property.  
+	 */
+	public String getMetadataCacheDirectory() {
+		return metadataCacheDirectory;
+	}
+	
+	public void setMetadataCacheDirectory(String metadataCacheDirectory) {
+		this.metadataCacheDirectory = metadataCacheDirectory;
+	}
+	
 	public String getInfinispanConfigFile() {
 		return infinispanConfigFile;
 	}
@@ -24,6 +24,7 @@ package org.teiid.runtime;
 
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationHandler;
@@ -50,6 +51,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -74,6 +76,7 @@ import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.util.NamedThreadFactory;
 import org.teiid.core.util.ObjectConverterUtil;
+import org.teiid.core.util.PropertiesUtils;
 import org.teiid.deployers.CompositeGlobalTableStore;
 import org.teiid.deployers.CompositeVDB;
 import org.teiid.deployers.ContainerLifeCycleListener;
@@ -254,6 +257,8 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
 		
 	}
 	
+	private static final int METADATA_LOAD_PARALLELISM = PropertiesUtils.getIntProperty(System.getProperties(), "org.teiid.metadataLoadParallelism", Runtime.getRuntime().availableProcessors()); //$NON-NLS-1$
+	
 	private static class VDBValidationError extends TeiidRuntimeException {
 		
 		private VDBValidationError(Event event, String message) {
@@ -546,6 +551,7 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
 				GlobalTableStore gts = CompositeGlobalTableStore.createInstance(vdb, dqp.getBufferManager(), replicator);
 				
 				vdb.getVDB().addAttchment(GlobalTableStore.class, gts);
+				dqp.warmPlanCache(vdb.getVDB());
 			}
 
 			@Override
@@ -823,6 +829,69 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
 		return super.getMetadataRepository(repoType);
 	}
 	
+	/**
+	 * Loads the models concurrently, but still waits for all of the loads before returning 
+	 * so that failures are reported to the deployer.
+	 */
+	@Override
+	protected void loadModels(final VDBMetaData vdb, List<ModelMetaData> models,
+			final ConnectorManagerRepository cmr, final MetadataStore store,
+			final AtomicInteger loadCount, final VDBResources vdbResources)
+			throws TranslatorException {
+		int threads = Math.min(models.size(), METADATA_LOAD_PARALLELISM);
+		if (threads <= 1) {
+			super.loadModels(vdb, models, cmr, store, loadCount, vdbResources);
+			return;
+		}
+		//hold the count so that validation happens on this thread after all of the loads
+		loadCount.incrementAndGet();
+		final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("Metadata Loader")); //$NON-NLS-1$
+		try {
+			List<Future<?>> futures = new ArrayList<Future<?>>(models.size());
+			for (final ModelMetaData model : models) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						ClassLoader current = Thread.currentThread().getContextClassLoader();
+						Thread.currentThread().setContextClassLoader(cl);
+						try {
+							loadMetadata(vdb, model, cmr, model.getAttachment(MetadataRepository.class), store, loadCount, vdbResources);
+						} finally {
+							Thread.currentThread().setContextClassLoader(current);
+						}
+						return null;
+					}
+				}));
+			}
+			//report the first failure in model order
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof TranslatorException) {
+						throw (TranslatorException)e.getCause();
+					}
+					if (e.getCause() instanceof RuntimeException) {
+						throw (RuntimeException)e.getCause();
+					}
+					if (e.getCause() instanceof Error) {
+						throw (Error)e.getCause();
+					}
+					throw new TranslatorException(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new TeiidRuntimeException(e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		if (loadCount.decrementAndGet() == 0) {
+			metadataLoadComplete(vdb);
+		}
+	}
+	
 	/**
 	 * TODO: consolidate this logic more into the abstract deployer
 	 */
@@ -831,6 +900,19 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
 			ConnectorManagerRepository cmr,
 			MetadataRepository metadataRepository, MetadataStore store,
 			AtomicInteger loadCount, VDBResources vdbResources) throws TranslatorException {
+		File cachedFile = null;
+		byte[] checksum = null;
+		if (this.config.getMetadataCacheDirectory() != null && isCacheMetadata(vdb, model)) {
+			cachedFile = new File(this.config.getMetadataCacheDirectory(), vdb.getName() + "_" + vdb.getVersion() + "_" + model.getName() + ".ser"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			checksum = MetadataSnapshot.computeChecksum(vdb, model, vdbResources);
+			MetadataFactory factory = MetadataSnapshot.read(cachedFile, checksum);
+			if (factory != null) {
+				factory.correctDatatypes(this.repo.getRuntimeTypeMap(), this.repo.getSystemStore().getDatatypes());
+				LogManager.logDetail(LogConstants.CTX_RUNTIME, "Model ", model.getName(), "in VDB ", vdb.getName(), " was loaded from cached metadata"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				metadataLoaded(vdb, model, store, loadCount, factory, true);
+				return;
+			}
+		}
 		MetadataFactory factory = createMetadataFactory(vdb, model, vdbResources==null?Collections.EMPTY_MAP:vdbResources.getEntriesPlusVisibilities());
 		
 		ExecutionFactory ef = null;
@@ -872,6 +954,13 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
 			}
 			throw new TranslatorException(te);
 		}
+		if (cachedFile != null) {
+			try {
+				MetadataSnapshot.write(cachedFile, checksum, factory);
+			} catch (IOException e) {
+				LogManager.logWarning(LogConstants.CTX_RUNTIME, e, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40167, vdb.getName(), vdb.getVersion(), model.getName()));
+			}
+		}
 		metadataLoaded(vdb, model, store, loadCount, factory, true);
 	}
 	
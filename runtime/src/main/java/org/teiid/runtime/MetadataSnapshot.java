@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * See the COPYRIGHT.txt file distributed with this work for information
+ * regarding copyright ownership.  Some portions may be licensed
+ * to Red Hat, Inc. under one or more contributor license agreements.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301 USA.
+ */
+
+package org.teiid.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.teiid.adminapi.impl.ModelMetaData;
+import org.teiid.adminapi.impl.SourceMappingMetadata;
+import org.teiid.adminapi.impl.VDBMetaData;
+import org.teiid.adminapi.impl.VDBTranslatorMetaData;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.util.ApplicationInfo;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.metadata.MetadataFactory;
+import org.teiid.query.metadata.VDBResources;
+
+/**
+ * A serialized snapshot of the metadata loaded for a model.
+ * <br>
+ * The snapshot is tagged with a checksum of everything that may affect the load - the server version,
+ * the model definition, the translator overrides and the vdb resources - so that a snapshot is only used
+ * when the deployment has not changed.
+ */
+public class MetadataSnapshot implements Serializable {
+
+	private static final long serialVersionUID = -3284125410316046593L;
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private byte[] checksum;
+	private MetadataFactory factory;
+
+	public MetadataSnapshot(byte[] checksum, MetadataFactory factory) {
+		this.checksum = checksum;
+		this.factory = factory;
+	}
+
+	public byte[] getChecksum() {
+		return checksum;
+	}
+
+	public MetadataFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Compute the checksum of the model definition.
+	 * @param resources may be null
+	 */
+	public static byte[] computeChecksum(VDBMetaData vdb, ModelMetaData model, VDBResources resources) {
+		MessageDigest digest = null;
+		try {
+			digest = MessageDigest.getInstance("MD5"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			throw new TeiidRuntimeException(e);
+		}
+		update(digest, ApplicationInfo.getInstance().getReleaseNumber());
+		update(digest, vdb.getName());
+		update(digest, vdb.getVersion());
+		update(digest, vdb.getPropertiesMap());
+		update(digest, model.getName());
+		update(digest, String.valueOf(model.getModelType()));
+		update(digest, model.getPropertiesMap());
+		for (SourceMappingMetadata source : model.getSourceMappings()) {
+			update(digest, source.getName());
+			update(digest, source.getTranslatorName());
+			update(digest, source.getConnectionJndiName());
+			VDBTranslatorMetaData translator = vdb.getTranslator(source.getTranslatorName());
+			if (translator != null) {
+				update(digest, translator.getType());
+				update(digest, translator.getPropertiesMap());
+			}
+		}
+		for (int i = 0; i < model.getSourceMetadataType().size(); i++) {
+			update(digest, model.getSourceMetadataType().get(i));
+			update(digest, model.getSourceMetadataText().get(i));
+		}
+		if (resources != null) {
+			for (Map.Entry<String, VDBResources.Resource> entry : resources.getEntriesPlusVisibilities().entrySet()) {
+				update(digest, entry.getKey());
+				update(digest, String.valueOf(entry.getValue().getSize()));
+				update(digest, String.valueOf(entry.getValue().getFile().getLastModified()));
+			}
+		}
+		return digest.digest();
+	}
+
+	private static void update(MessageDigest digest, Map<String, String> props) {
+		for (Map.Entry<String, String> entry : new TreeMap<String, String>(props).entrySet()) {
+			update(digest, entry.getKey());
+			update(digest, entry.getValue());
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(UTF_8));
+		}
+		//separate the values so that adjacent values cannot be confused
+		digest.update((byte)0);
+	}
+
+	/**
+	 * Write the snapshot.  The file is replaced only after the write succeeds.
+	 */
+	public static void write(File file, byte[] checksum, MetadataFactory factory) throws IOException {
+		file.getParentFile().mkdirs();
+		File temp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+		ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE));
+		try {
+			oos.writeObject(new MetadataSnapshot(checksum, factory));
+		} finally {
+			oos.close();
+		}
+		file.delete();
+		if (!temp.renameTo(file)) {
+			temp.delete();
+			throw new IOException(file.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * Read the snapshot.  A snapshot that cannot be read or that does not match the
+	 * checksum is removed.
+	 * @return the {@link MetadataFactory} or null if there is no valid snapshot
+	 */
+	public static MetadataFactory read(File file, byte[] checksum) {
+		if (!file.exists()) {
+			return null;
+		}
+		try {
+			ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+			try {
+				MetadataSnapshot snapshot = (MetadataSnapshot)ois.readObject();
+				if (Arrays.equals(snapshot.getChecksum(), checksum)) {
+					return snapshot.getFactory();
+				}
+				LogManager.logDetail(LogConstants.CTX_RUNTIME, "Ignoring the metadata snapshot", file.getAbsolutePath(), "as the deployment has changed"); //$NON-NLS-1$ //$NON-NLS-2$
+			} finally {
+				ois.close();
+			}
+		} catch (Exception e) {
+			LogManager.logWarning(LogConstants.CTX_RUNTIME, e, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40166, file.getAbsolutePath()));
+		}
+		file.delete();
+		return null;
+	}
+
+}
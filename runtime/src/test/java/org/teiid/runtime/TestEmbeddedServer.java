@@ -66,6 +66,7 @@ import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.InputStreamFactory;
 import org.teiid.core.types.SQLXMLImpl;
+import org.teiid.core.util.FileUtils;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.SimpleMock;
 import org.teiid.core.util.UnitTestUtil;
@@ -1083,6 +1084,44 @@ public class TestEmbeddedServer {
 		assertTrue(!c.isValid(10));
 	}
 	
+	@Test public void testMetadataCache() throws Exception {
+		File dir = new File(UnitTestUtil.getTestScratchPath(), "metadata-cache");
+		FileUtils.removeDirectoryAndChildren(dir);
+		EmbeddedConfiguration ec = new EmbeddedConfiguration();
+		ec.setUseDisk(false);
+		ec.setMetadataCacheDirectory(dir.getAbsolutePath());
+		es.start(ec);
+		
+		final AtomicInteger loads = new AtomicInteger();
+		es.addTranslator("y", new FakeTranslator(false) {
+			@Override
+			public void getMetadata(MetadataFactory metadataFactory, Object conn)
+					throws TranslatorException {
+				loads.incrementAndGet();
+				super.getMetadata(metadataFactory, 1);
+			}
+		});
+		es.addConnectionFactoryProvider("z", new EmbeddedServer.SimpleConnectionFactoryProvider<AtomicInteger>(new AtomicInteger()));
+		
+		for (int i = 0; i < 3; i++) {
+			ModelMetaData mmd = new ModelMetaData();
+			mmd.setName("my-schema");
+			mmd.addSourceMapping("x", "y", "z");
+			mmd.addProperty("cache-metadata", "true");
+			if (i == 2) {
+				//a change to the model should invalidate the cached metadata
+				mmd.addProperty("importer.x", "y");
+			}
+			es.deployVDB("test", mmd);
+			assertEquals(i == 0?1:i, loads.get());
+			
+			Connection c = es.getDriver().connect("jdbc:teiid:test", null);
+			c.createStatement().executeQuery("select * from \"my-table\"");
+			c.close();
+			es.undeployVDB("test");
+		}
+	}
+	
 	@Test public void testQueryTimeout() throws Exception {
 		es.start(new EmbeddedConfiguration());
 		es.addTranslator("foo", new ExecutionFactory() {